@@ -26,6 +26,14 @@ public class Constants {
     
     public static final String OriginHeaderName = "Origin";
 
+    /**
+     * Evidence key for the time, in milliseconds since the epoch, by which
+     * the caller needs a response. The cloud request engine fails fast with
+     * an error rather than waiting beyond this. This evidence is not sent to
+     * the cloud service.
+     */
+    public static final String EVIDENCE_DEADLINE_KEY = "server.deadline";
+
     public class Messages {
         public static final String EvidenceConflict =
             "'%s:%s' evidence conflicts with %s";
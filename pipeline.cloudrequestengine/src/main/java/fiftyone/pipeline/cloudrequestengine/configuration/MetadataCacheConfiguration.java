@@ -0,0 +1,82 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.configuration;
+
+/**
+ * Used to store configuration values relating to how the cloud request engine
+ * persists the responses from the properties and evidence keys endpoints to
+ * disk. The persisted copies allow a pipeline to start without waiting for
+ * the cloud service, and to start at all if it is briefly unreachable.
+ */
+public class MetadataCacheConfiguration {
+
+    /**
+     * Default time in seconds that a persisted response is used without
+     * revalidating it with the cloud service.
+     */
+    public static final int DEFAULT_TTL_SECONDS = 3600;
+
+    private final String directory;
+    private final int ttlSeconds;
+
+    /**
+     * Construct a new instance with persistence disabled.
+     */
+    public MetadataCacheConfiguration() {
+        this(null, DEFAULT_TTL_SECONDS);
+    }
+
+    /**
+     * Construct a new instance.
+     * @param directory the directory to persist responses in, or null to
+     *                  disable persistence
+     * @param ttlSeconds time in seconds that a persisted response is used
+     *                   before it is revalidated in the background
+     */
+    public MetadataCacheConfiguration(String directory, int ttlSeconds) {
+        this.directory = directory;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * @return true if responses are persisted
+     */
+    public boolean isEnabled() {
+        return directory != null && directory.isEmpty() == false;
+    }
+
+    /**
+     * @return the directory to persist responses in, or null if disabled
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return time in seconds that a persisted response is used before it
+     * is revalidated
+     */
+    public int getTtlSeconds() {
+        return ttlSeconds;
+    }
+}
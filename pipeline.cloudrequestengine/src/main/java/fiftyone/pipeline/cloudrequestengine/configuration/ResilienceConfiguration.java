@@ -0,0 +1,144 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.configuration;
+
+/**
+ * Used to store configuration values relating to how the cloud request engine
+ * protects the calling threads when the cloud service is slow or failing.
+ */
+public class ResilienceConfiguration {
+
+    /**
+     * Default proportion of failed or slow requests which opens the circuit.
+     */
+    public static final double DEFAULT_FAILURE_RATE = 0.5;
+
+    /**
+     * Default time in milliseconds after which a request is treated as slow
+     * by the circuit breaker.
+     */
+    public static final int DEFAULT_SLOW_CALL_MILLIS = 10000;
+
+    /**
+     * Default time in milliseconds that the circuit stays open before a
+     * trial request is allowed.
+     */
+    public static final int DEFAULT_OPEN_MILLIS = 5000;
+
+    private final boolean circuitBreakerEnabled;
+    private final double failureRate;
+    private final int slowCallMillis;
+    private final int openMillis;
+    private final boolean hedgingEnabled;
+    private final boolean adaptiveTimeoutsEnabled;
+
+    /**
+     * Construct a new instance with the circuit breaker enabled using the
+     * default thresholds, and hedging and adaptive timeouts disabled.
+     */
+    public ResilienceConfiguration() {
+        this(
+            true,
+            DEFAULT_FAILURE_RATE,
+            DEFAULT_SLOW_CALL_MILLIS,
+            DEFAULT_OPEN_MILLIS,
+            false,
+            false);
+    }
+
+    /**
+     * Construct a new instance.
+     * @param circuitBreakerEnabled true if requests should fail fast when the
+     *                              recent failure rate is too high
+     * @param failureRate proportion of failed or slow requests, between 0
+     *                    and 1, which opens the circuit
+     * @param slowCallMillis requests taking longer than this are counted as
+     *                       failures by the circuit breaker, or 0 to only
+     *                       count errors
+     * @param openMillis time the circuit stays open before a trial request
+     *                   is allowed through
+     * @param hedgingEnabled true if a duplicate request should be sent when
+     *                       a response has not arrived within the 95th
+     *                       percentile of recent response times
+     * @param adaptiveTimeoutsEnabled true if the request timeout should be
+     *                                reduced to a multiple of the 99th
+     *                                percentile of recent response times
+     */
+    public ResilienceConfiguration(
+        boolean circuitBreakerEnabled,
+        double failureRate,
+        int slowCallMillis,
+        int openMillis,
+        boolean hedgingEnabled,
+        boolean adaptiveTimeoutsEnabled) {
+        this.circuitBreakerEnabled = circuitBreakerEnabled;
+        this.failureRate = failureRate;
+        this.slowCallMillis = slowCallMillis;
+        this.openMillis = openMillis;
+        this.hedgingEnabled = hedgingEnabled;
+        this.adaptiveTimeoutsEnabled = adaptiveTimeoutsEnabled;
+    }
+
+    /**
+     * @return true if the circuit breaker is enabled
+     */
+    public boolean isCircuitBreakerEnabled() {
+        return circuitBreakerEnabled;
+    }
+
+    /**
+     * @return proportion of failed or slow requests which opens the circuit
+     */
+    public double getFailureRate() {
+        return failureRate;
+    }
+
+    /**
+     * @return time in milliseconds after which a request counts as a failure,
+     * or 0 if only errors are counted
+     */
+    public int getSlowCallMillis() {
+        return slowCallMillis;
+    }
+
+    /**
+     * @return time in milliseconds the circuit stays open
+     */
+    public int getOpenMillis() {
+        return openMillis;
+    }
+
+    /**
+     * @return true if hedged requests are enabled
+     */
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    /**
+     * @return true if adaptive timeouts are enabled
+     */
+    public boolean isAdaptiveTimeoutsEnabled() {
+        return adaptiveTimeoutsEnabled;
+    }
+}
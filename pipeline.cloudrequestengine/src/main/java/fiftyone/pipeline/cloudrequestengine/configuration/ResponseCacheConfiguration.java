@@ -0,0 +1,83 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.configuration;
+
+/**
+ * Used to store configuration values relating to how the cloud request engine
+ * caches responses from the cloud service. Responses are keyed on the form
+ * data sent in the request, so a hit avoids both the request and parsing
+ * the response.
+ */
+public class ResponseCacheConfiguration {
+
+    /**
+     * Default time in seconds that a response is cached for when the cloud
+     * service does not return any caching headers.
+     */
+    public static final int DEFAULT_TTL_SECONDS = 60;
+
+    private final int size;
+    private final int defaultTtlSeconds;
+
+    /**
+     * Construct a new instance with the cache disabled.
+     */
+    public ResponseCacheConfiguration() {
+        this(0, DEFAULT_TTL_SECONDS);
+    }
+
+    /**
+     * Construct a new instance.
+     * @param size the maximum number of responses to cache, or 0 to disable
+     *             the cache
+     * @param defaultTtlSeconds time in seconds that a response is cached for
+     *                          when the cloud service does not return a
+     *                          Cache-Control or Expires header
+     */
+    public ResponseCacheConfiguration(int size, int defaultTtlSeconds) {
+        this.size = size;
+        this.defaultTtlSeconds = defaultTtlSeconds;
+    }
+
+    /**
+     * @return true if responses are cached
+     */
+    public boolean isEnabled() {
+        return size > 0;
+    }
+
+    /**
+     * @return the maximum number of responses to cache
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return time in seconds that a response is cached for when the cloud
+     * service does not say otherwise
+     */
+    public int getDefaultTtlSeconds() {
+        return defaultTtlSeconds;
+    }
+}
@@ -0,0 +1,68 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.data;
+
+import fiftyone.pipeline.core.data.ElementDataBase;
+import fiftyone.pipeline.core.data.FlowData;
+import org.slf4j.Logger;
+
+/**
+ * Records which engine populated the results of a
+ * {@link fiftyone.pipeline.cloudrequestengine.flowelements.CloudFailoverElement}
+ * for a single {@link FlowData}.
+ */
+public class CloudFailoverData extends ElementDataBase {
+
+    /**
+     * The engines that can populate the results.
+     */
+    public enum Source {
+        /**
+         * The results came from the cloud service.
+         */
+        CLOUD,
+        /**
+         * The results came from the fallback engine.
+         */
+        FALLBACK
+    }
+
+    private static final String SOURCE_KEY = "source";
+
+    public CloudFailoverData(Logger logger, FlowData flowData) {
+        super(logger, flowData);
+    }
+
+    /**
+     * Get the engine which populated the results.
+     * @return source of the results, or null if no engine populated them
+     */
+    public Source getSource() {
+        Object value = super.get(SOURCE_KEY);
+        return value == null ? null : (Source)value;
+    }
+
+    public void setSource(Source source) {
+        super.put(SOURCE_KEY, source);
+    }
+}
@@ -0,0 +1,163 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.flowelements;
+
+/**
+ * Circuit breaker driven by the proportion of failed or slow requests over a
+ * sliding window of the most recent requests.
+ * <p>
+ * While closed, every request is allowed. Once at least
+ * {@link #MINIMUM_REQUESTS} outcomes are in the window and the failure rate
+ * reaches the threshold, the circuit opens and requests are refused. After
+ * the open period a single trial request is allowed. If it succeeds the
+ * circuit closes, otherwise it opens again.
+ */
+class CircuitBreaker {
+
+    /**
+     * States the circuit can be in.
+     */
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Number of recent outcomes the failure rate is calculated over.
+     */
+    static final int WINDOW_SIZE = 100;
+
+    /**
+     * Minimum number of outcomes needed before the circuit can open.
+     */
+    static final int MINIMUM_REQUESTS = 20;
+
+    private final double failureRate;
+    private final long slowCallMillis;
+    private final long openMillis;
+
+    private final boolean[] outcomes = new boolean[WINDOW_SIZE];
+    private int count = 0;
+    private int next = 0;
+    private int failures = 0;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean trialInFlight = false;
+
+    /**
+     * Construct a new instance.
+     * @param failureRate proportion of failures which opens the circuit
+     * @param slowCallMillis requests taking at least this long count as
+     *                       failures, or 0 to only count errors
+     * @param openMillis time the circuit stays open
+     */
+    CircuitBreaker(double failureRate, long slowCallMillis, long openMillis) {
+        this.failureRate = failureRate;
+        this.slowCallMillis = slowCallMillis;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Check whether a request may be sent. If the open period has elapsed,
+     * the first caller is allowed through as the trial request.
+     * @return true if the request may be sent
+     */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            default:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * Record the outcome of a request which was allowed by
+     * {@link #tryAcquire()}.
+     * @param failed true if the request failed
+     * @param latencyMillis time taken by the request
+     */
+    synchronized void record(boolean failed, long latencyMillis) {
+        boolean bad = failed ||
+            (slowCallMillis > 0 && latencyMillis >= slowCallMillis);
+        switch (state) {
+            case HALF_OPEN:
+                trialInFlight = false;
+                if (bad) {
+                    open();
+                } else {
+                    close();
+                }
+                break;
+            case CLOSED:
+                if (count == WINDOW_SIZE && outcomes[next]) {
+                    failures--;
+                }
+                outcomes[next] = bad;
+                next = (next + 1) % WINDOW_SIZE;
+                count = Math.min(count + 1, WINDOW_SIZE);
+                if (bad) {
+                    failures++;
+                }
+                if (count >= MINIMUM_REQUESTS &&
+                    failures >= failureRate * count) {
+                    open();
+                }
+                break;
+            default:
+                // Requests started before the circuit opened are ignored.
+                break;
+        }
+    }
+
+    /**
+     * @return the current state of the circuit
+     */
+    synchronized State getState() {
+        return state;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        count = 0;
+        next = 0;
+        failures = 0;
+    }
+}
@@ -35,6 +35,7 @@ import fiftyone.pipeline.core.data.factories.ElementDataFactory;
 import fiftyone.pipeline.core.data.types.JavaScript;
 import fiftyone.pipeline.core.flowelements.FlowElement;
 import fiftyone.pipeline.core.flowelements.Pipeline;
+import fiftyone.pipeline.core.flowelements.WarmUpAware;
 import fiftyone.pipeline.core.typed.TypedKey;
 import fiftyone.pipeline.core.typed.TypedKeyDefault;
 import fiftyone.pipeline.core.exceptions.PipelineConfigurationException;
@@ -56,57 +57,179 @@ import java.util.Map;
  */
 public abstract class CloudAspectEngineBase<TData extends AspectData>
     extends AspectEngineBase<TData, AspectPropertyMetaData>
-    implements CloudAspectEngine<TData, AspectPropertyMetaData>
+    implements CloudAspectEngine<TData, AspectPropertyMetaData>, WarmUpAware
 {
     /**
      * Internal class that is used to retrieve the CloudRequestEngine
      * that will be making requests of behalf of this engine. 
+     * The engine may be added to several pipelines as long as they all share
+     * the same CloudRequestEngine. The engine is found and checked when each
+     * pipeline is added, so getting it does not need to look at the
+     * pipelines again.
      */
     protected class RequestEngineAccessor {
-        private final List<Pipeline> pipelines;
         private volatile CloudRequestEngine cloudRequestEngine;
+        private volatile PipelineConfigurationException error;
+        // Pipelines where the engine was not found when this element was
+        // added, as the pipeline was still being built.
+        private final List<Pipeline> unresolved = new ArrayList<>();
+        private volatile boolean hasUnresolved = false;
         private FlowElement<?, ?> currentElement;
 
         public RequestEngineAccessor(List<Pipeline> pipelines, FlowElement<?, ?> currentElement) {
-            this.pipelines = pipelines;
             this.currentElement = currentElement;
+            for (Pipeline pipeline : pipelines) {
+                pipelineAdded(pipeline);
+            }
+        }
+
+        /**
+         * Find the CloudRequestEngine in a pipeline which this engine has
+         * been added to, and check it is the same as in any other pipelines.
+         * If the pipeline does not contain the engine yet, it is checked
+         * again when the engine is next requested. Any problem is reported
+         * when the engine is next requested.
+         * @param pipeline the pipeline which has been added
+         */
+        synchronized void pipelineAdded(Pipeline pipeline) {
+            if (resolve(pipeline, false) == false) {
+                unresolved.add(pipeline);
+                hasUnresolved = true;
+            }
         }
 
         /**
          * Get the CloudRequestEngine that will be making requests on
-         * behalf of this engine.
+         * behalf of this engine. If this engine has been added to more than
+         * one pipeline then each must contain the same CloudRequestEngine.
          * @return the CloudRequestEngine
          * @throws PipelineConfigurationException Thrown if the 
          * CloudRequestEngine could not be determined for some reason.
          */
         public CloudRequestEngine getInstance() throws PipelineConfigurationException {
-            if(cloudRequestEngine == null) {
-                synchronized(this) {
-                    if(cloudRequestEngine == null){
-                        if(pipelines.size() > 1) {
-                            throw new PipelineConfigurationException("'" + currentElement.getClass().getName() +
-                                    "' does not support being added to multiple pipelines");
-                        } else if (pipelines.size() == 0) {
-                            throw new PipelineConfigurationException("'" + currentElement.getClass().getName() +
-                                    "' has not yet been added to a Pipeline.");
-                        }
-
-                        cloudRequestEngine = pipelines.get(0).getElement(CloudRequestEngine.class);
-
-                        if (cloudRequestEngine == null) {
-                            throw new PipelineConfigurationException("'" + currentElement.getClass().getName() +
-                                    "' requires a 'CloudRequestEngine' before it in the Pipeline." +
-                                    "This engine will be unable to produce results until this" +
-                                    "is corrected.");
-                        }
+            if (hasUnresolved) {
+                synchronized (this) {
+                    for (Pipeline pipeline : unresolved) {
+                        resolve(pipeline, true);
                     }
+                    unresolved.clear();
+                    hasUnresolved = false;
                 }
             }
-            return cloudRequestEngine;
+            PipelineConfigurationException localError = error;
+            if (localError != null) {
+                throw localError;
+            }
+            CloudRequestEngine result = cloudRequestEngine;
+            if (result == null) {
+                throw new PipelineConfigurationException("'" + currentElement.getClass().getName() +
+                        "' has not yet been added to a Pipeline.");
+            }
+            return result;
+        }
+
+        /**
+         * Check the CloudRequestEngine in the pipeline, recording an error if
+         * there is a problem.
+         * @param pipeline the pipeline to check
+         * @param required true if it is an error for there to be no engine
+         * @return false if the pipeline does not yet contain an engine
+         */
+        private boolean resolve(Pipeline pipeline, boolean required) {
+            if (error != null) {
+                return true;
+            }
+            CloudRequestEngine engine = pipeline.getElement(CloudRequestEngine.class);
+            if (engine == null) {
+                if (required) {
+                    error = new PipelineConfigurationException("'" + currentElement.getClass().getName() +
+                            "' requires a 'CloudRequestEngine' before it in the Pipeline." +
+                            "This engine will be unable to produce results until this" +
+                            "is corrected.");
+                }
+                return required;
+            }
+            if (cloudRequestEngine != null && cloudRequestEngine != engine) {
+                error = new PipelineConfigurationException("'" + currentElement.getClass().getName() +
+                        "' can only be added to multiple pipelines if they share the same " +
+                        "'CloudRequestEngine'.");
+            } else {
+                cloudRequestEngine = engine;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The steps needed to convert a single value from the cloud response into
+     * an {@link AspectPropertyValue}. Built once from the property meta-data.
+     */
+    private static final class PropertyConverter {
+        private final boolean isJavaScript;
+        private final String name;
+        private final String nullReasonKey;
+
+        PropertyConverter(ElementPropertyMetaData metaData) {
+            this.isJavaScript = JavaScript.class.equals(metaData.getType());
+            this.name = metaData.getName().toLowerCase();
+            this.nullReasonKey = name + "nullreason";
+        }
+
+        Object convert(
+            String key,
+            Object value,
+            Map<String, Object> cloudData) {
+            AspectPropertyValue<Object> apv = new AspectPropertyValueDefault<>();
+            if (value != null) {
+                apv.setValue(isJavaScript ?
+                    new JavaScript(value.toString()) :
+                    value);
+            }
+            else {
+                // Value is null so check if we have a corresponding reason.
+                // The cloud service returns lower case keys, so the key
+                // only needs to be built if the data uses some other case.
+                Object reason = cloudData.get(key.equals(name) ?
+                    nullReasonKey :
+                    key + "nullreason");
+                apv.setNoValueMessage(reason != null ?
+                    reason.toString() :
+                    "Unknown");
+            }
+            return apv;
+        }
+    }
+
+    /**
+     * The converters for every property in a list of meta-data, keyed on
+     * lower case property name.
+     */
+    private static final class ConversionPlan {
+        private final List<ElementPropertyMetaData> source;
+        private final Map<String, PropertyConverter> converters;
+
+        ConversionPlan(List<ElementPropertyMetaData> source) {
+            this.source = source;
+            this.converters = new HashMap<>();
+            for (ElementPropertyMetaData property : source) {
+                converters.put(
+                    property.getName().toLowerCase(),
+                    new PropertyConverter(property));
+            }
+        }
+
+        PropertyConverter get(String key) {
+            PropertyConverter converter = converters.get(key);
+            if (converter == null) {
+                converter = converters.get(key.toLowerCase());
+            }
+            return converter;
         }
     }
 
     private volatile List<AspectPropertyMetaData> aspectProperties;
+    private volatile List<ConversionPlan> conversionPlans =
+        new ArrayList<>();
     private String dataSourceTier;
     private RequestEngineAccessor requestEngine;
 
@@ -140,6 +263,32 @@ public abstract class CloudAspectEngineBase<TData extends AspectData>
         this.requestEngine = requestEngine;
     }
 
+    /**
+     * Use the CloudRequestEngine specified rather than the one in the
+     * pipeline. Used when the engines are wrapped by another element, so the
+     * CloudRequestEngine is not a member of the pipeline itself.
+     * @param engine the CloudRequestEngine to use
+     */
+    void useRequestEngine(final CloudRequestEngine engine) {
+        setRequestEngine(new RequestEngineAccessor(getPipelines(), this) {
+            @Override
+            void pipelineAdded(Pipeline pipeline) {
+                // The engine is not a member of the pipeline.
+            }
+
+            @Override
+            public CloudRequestEngine getInstance() {
+                return engine;
+            }
+        });
+    }
+
+    @Override
+    public void addPipeline(Pipeline pipeline) {
+        super.addPipeline(pipeline);
+        getRequestEngine().pipelineAdded(pipeline);
+    }
+
     @Override
     public List<AspectPropertyMetaData> getProperties() {
         List<AspectPropertyMetaData> localRef = aspectProperties;
@@ -161,6 +310,21 @@ public abstract class CloudAspectEngineBase<TData extends AspectData>
         return aspectProperties;
     }
 
+    /**
+     * Warm-up evidence would be sent to the cloud service, where each request
+     * is billable, so it is not processed by this engine.
+     * @return false
+     */
+    @Override
+    public boolean acceptsWarmUpEvidence() {
+        return false;
+    }
+
+    @Override
+    public void touchData() {
+        // No data to touch.
+    }
+
     @Override
     public TypedKey<TData> getTypedDataKey() {
         if (typedKey == null) {
@@ -214,6 +378,7 @@ public abstract class CloudAspectEngineBase<TData extends AspectData>
                         item.evidenceProperties != null ? item.evidenceProperties : new ArrayList<String>());
                     properties.add(property);
                 }
+                conversionPlans = buildConversionPlans(properties);
                 aspectProperties = properties;
                 return true;
         } else {
@@ -241,13 +406,61 @@ public abstract class CloudAspectEngineBase<TData extends AspectData>
         return result;
     }
 
-    private Map<String, ElementPropertyMetaData> buildMetaDataMap(
+    /**
+     * Compile a conversion plan for the properties of this engine, and for
+     * the item properties of any list properties, so that
+     * {@link #createAPVMap(Map, List)} does not need to inspect the meta-data
+     * for each request.
+     * @param properties the properties of this engine
+     * @return conversion plans for every list of meta-data
+     */
+    private List<ConversionPlan> buildConversionPlans(
+        List<AspectPropertyMetaData> properties) {
+        // Keep the same list instance so that callers passing the result of
+        // getProperties() match the plan without comparing contents.
+        @SuppressWarnings("unchecked")
+        List<ElementPropertyMetaData> source =
+            (List<ElementPropertyMetaData>)(List<?>)properties;
+        List<ConversionPlan> plans = new ArrayList<>();
+        plans.add(new ConversionPlan(source));
+        addItemPlans(plans, source);
+        return plans;
+    }
+
+    private void addItemPlans(
+        List<ConversionPlan> plans,
         List<ElementPropertyMetaData> properties) {
-        Map<String, ElementPropertyMetaData> result = new HashMap<>();
         for (ElementPropertyMetaData property : properties) {
-            result.put(property.getName().toLowerCase(), property);
+            List<ElementPropertyMetaData> items = property.getItemProperties();
+            if (items != null) {
+                plans.add(new ConversionPlan(items));
+                addItemPlans(plans, items);
+            }
         }
-        return result;
+    }
+
+    /**
+     * Get the compiled conversion plan for the meta-data supplied. Plans are
+     * matched on the list instance first, then on the list contents so that
+     * copies of {@link #getProperties()} also use the compiled plan. If the
+     * meta-data is not known then a plan is built for this call only.
+     * @param propertyMetaData the meta-data to get the plan for
+     * @return conversion plan
+     */
+    private ConversionPlan getConversionPlan(
+        List<ElementPropertyMetaData> propertyMetaData) {
+        List<ConversionPlan> plans = conversionPlans;
+        for (ConversionPlan plan : plans) {
+            if (plan.source == propertyMetaData) {
+                return plan;
+            }
+        }
+        for (ConversionPlan plan : plans) {
+            if (plan.source.equals(propertyMetaData)) {
+                return plan;
+            }
+        }
+        return new ConversionPlan(propertyMetaData);
     }
 
     /**
@@ -272,51 +485,28 @@ public abstract class CloudAspectEngineBase<TData extends AspectData>
     protected Map<String, Object> createAPVMap(
         Map<String, Object> cloudData,
         List<ElementPropertyMetaData> propertyMetaData) {
-        // Convert the meta-data to a map for faster access.
-        Map<String, ElementPropertyMetaData> metaDataMap =
-            buildMetaDataMap(propertyMetaData);
+        ConversionPlan plan = getConversionPlan(propertyMetaData);
 
-        Map<String, Object> result = new HashMap<>();
-        // Iterate through all entries in the source data where the
-        // key is not suffixed with 'nullreason'.
+        Map<String, Object> result = new HashMap<>(
+            (int)(cloudData.size() / 0.75f) + 1);
+        // Convert each entry using the compiled plan. Entries where the key
+        // is suffixed with 'nullreason' are consumed by their property.
         for (Map.Entry<String, Object> property : cloudData.entrySet()) {
-            if (property.getKey().endsWith("nullreason") == false) {
-                Object outputValue = property.getValue();
-                if (metaDataMap.containsKey(property.getKey().toLowerCase())) {
-                    ElementPropertyMetaData metaData =
-                        metaDataMap.get(property.getKey().toLowerCase());
-
-                    // If this property has a type of AspectPropertyValue
-                    // then create a new instance and populate it.
-                    AspectPropertyValue<Object> apv = new AspectPropertyValueDefault<>();
-                    if (property.getValue() != null) {
-                        Object newValue = property.getValue();
-                        if (metaData.getType().equals(JavaScript.class)) {
-                            newValue = new JavaScript(newValue.toString());
-                        }
-                        //noinspection unchecked
-                        apv.setValue(newValue);
-                    }
-                    else {
-                        // Value is null so check if we have a
-                        // corresponding reason.
-                        if (cloudData.containsKey(
-                            property.getKey() + "nullreason")) {
-                            apv.setNoValueMessage(cloudData.get(
-                                property.getKey() + "nullreason").toString());
-                        }
-                        else {
-                            apv.setNoValueMessage("Unknown");
-                        }
-                    }
-                    outputValue = apv;
-                }
-                else {
-                    logger.warn("No meta-data entry for property '" +
-                        property.getKey() + "' in '" +
-                        getClass().getSimpleName() + "'");
-                }
-                result.put(property.getKey(), outputValue);
+            String key = property.getKey();
+            if (key.endsWith("nullreason")) {
+                continue;
+            }
+            PropertyConverter converter = plan.get(key);
+            if (converter != null) {
+                result.put(
+                    key,
+                    converter.convert(key, property.getValue(), cloudData));
+            }
+            else {
+                logger.warn("No meta-data entry for property '" +
+                    key + "' in '" +
+                    getClass().getSimpleName() + "'");
+                result.put(key, property.getValue());
             }
         }
         return result;
@@ -366,7 +556,7 @@ public abstract class CloudAspectEngineBase<TData extends AspectData>
         // CloudRequestEngine so just log a warning that this 
         // CloudAspectEngine did not process.
         if (json != null && !json.isEmpty()) {
-        	 processCloudEngine(data, aspectData, json);
+        	 processCloudEngine(data, aspectData, requestData);
         } else {
             logger.warn("The  " + this.getClass().getSimpleName() + "  did not process " +
                     "as the JSON response from the CloudRequestEngine was null " +
@@ -387,5 +577,24 @@ public abstract class CloudAspectEngineBase<TData extends AspectData>
 	protected void processCloudEngine(FlowData data, TData aspectData, String json) {
 		throw new NotImplementedException(ProcessCloudEngineNotImplemented);
 		
-	}	
+	}
+
+    /**
+     * Populate the TData instance from the response held by the
+     * {@link CloudRequestEngine}. Derived classes should override this method
+     * and read their own section of {@link CloudRequestData#getJsonObject()}
+     * so that the response is only parsed once for all engines. The parsed
+     * response is shared, so it must not be modified. By default
+     * the raw JSON string is passed to
+     * {@link #processCloudEngine(FlowData, AspectData, String)}.
+     * @param data to get the raw JSON data from.
+     * @param aspectData instance to populate with values.
+     * @param requestData the data from the {@link CloudRequestEngine}
+     */
+    protected void processCloudEngine(
+        FlowData data,
+        TData aspectData,
+        CloudRequestData requestData) {
+        processCloudEngine(data, aspectData, requestData.getJsonResponse());
+    }
 }
@@ -0,0 +1,314 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.flowelements;
+
+import fiftyone.pipeline.cloudrequestengine.data.CloudFailoverData;
+import fiftyone.pipeline.cloudrequestengine.data.CloudRequestData;
+import fiftyone.pipeline.core.data.ElementData;
+import fiftyone.pipeline.core.data.ElementPropertyMetaData;
+import fiftyone.pipeline.core.data.EvidenceKeyFilter;
+import fiftyone.pipeline.core.data.EvidenceKeyFilterAggregator;
+import fiftyone.pipeline.core.data.FlowData;
+import fiftyone.pipeline.core.data.factories.ElementDataFactory;
+import fiftyone.pipeline.core.flowelements.FlowElement;
+import fiftyone.pipeline.core.flowelements.FlowElementBase;
+import fiftyone.pipeline.core.flowelements.Pipeline;
+import fiftyone.pipeline.core.flowelements.WarmUpAware;
+import fiftyone.pipeline.core.typed.TypedKey;
+import fiftyone.pipeline.core.typed.TypedKeyDefault;
+import fiftyone.pipeline.engines.data.AspectPropertyMetaData;
+import fiftyone.pipeline.engines.flowelements.AspectEngine;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Element which populates results using a cloud aspect engine, and falls back
+ * to another engine, usually an on-premise engine, when the cloud service
+ * cannot be used. The {@link CloudRequestEngine} and both engines are
+ * wrapped by this element, so should not be added to the pipeline
+ * themselves. Both engines must use the same element data key, and populate
+ * data which implements the same interface.
+ * <p>
+ * The fallback engine is used when:
+ * <ul>
+ *     <li>the property meta-data for the cloud engine cannot be loaded,</li>
+ *     <li>the request to the cloud service fails, or does not complete
+ *     within the latency budget,</li>
+ *     <li>or so many recent cloud requests have failed or been slow that the
+ *     cloud service is not being tried.</li>
+ * </ul>
+ * The engine which populated the results is recorded in the
+ * {@link CloudFailoverData} found using {@link #getSourceKey()}.
+ * @param <TData> the type of data populated by both engines
+ */
+public class CloudFailoverElement<TData extends ElementData>
+    extends FlowElementBase<TData, ElementPropertyMetaData>
+    implements WarmUpAware {
+
+    private final Class<TData> dataType;
+    private final CloudRequestEngine requestEngine;
+    private final CloudAspectEngineBase<? extends TData> primary;
+    private final AspectEngine<? extends TData, ? extends AspectPropertyMetaData> fallback;
+    private final int latencyBudgetMillis;
+    private final CircuitBreaker circuitBreaker;
+    private final TypedKey<CloudFailoverData> sourceKey;
+    private final DataFactory<CloudFailoverData> sourceFactory;
+    private volatile EvidenceKeyFilter evidenceKeyFilter;
+    private volatile boolean primaryReady = false;
+
+    /**
+     * Construct a new instance.
+     * @param logger logger instance to use for logging
+     * @param dataType the type of data populated by both engines
+     * @param requestEngine the engine which makes requests to the cloud
+     *                      service for the primary engine
+     * @param primary the cloud engine to use when the cloud service is
+     *                available
+     * @param fallback the engine to use when the cloud service is not
+     *                 available
+     * @param latencyBudgetMillis time in milliseconds that cloud requests
+     *                            are allowed to take before the fallback is
+     *                            used, or 0 for no limit
+     * @param failureRate proportion of recent cloud requests, between 0 and
+     *                    1, which must fail for the cloud service to stop
+     *                    being tried
+     * @param openMillis time in milliseconds before the cloud service is
+     *                   tried again after it stops being tried
+     */
+    public CloudFailoverElement(
+        Logger logger,
+        Class<TData> dataType,
+        CloudRequestEngine requestEngine,
+        CloudAspectEngineBase<? extends TData> primary,
+        AspectEngine<? extends TData, ? extends AspectPropertyMetaData> fallback,
+        int latencyBudgetMillis,
+        double failureRate,
+        int openMillis) {
+        super(logger, null);
+        if (primary.getElementDataKey().equalsIgnoreCase(
+            fallback.getElementDataKey()) == false) {
+            throw new IllegalArgumentException(
+                "The primary and fallback engines must use the same element " +
+                "data key, but were '" + primary.getElementDataKey() +
+                "' and '" + fallback.getElementDataKey() + "'.");
+        }
+        this.dataType = dataType;
+        this.requestEngine = requestEngine;
+        this.primary = primary;
+        this.fallback = fallback;
+        this.latencyBudgetMillis = latencyBudgetMillis;
+        this.circuitBreaker = new CircuitBreaker(
+            failureRate,
+            latencyBudgetMillis,
+            openMillis);
+        this.sourceKey = new TypedKeyDefault<>(
+            primary.getElementDataKey() + "-source",
+            CloudFailoverData.class);
+        this.sourceFactory = new DataFactory<CloudFailoverData>() {
+            @Override
+            public CloudFailoverData create(FlowData flowData) {
+                return new CloudFailoverData(logger, flowData);
+            }
+        };
+        primary.useRequestEngine(requestEngine);
+    }
+
+    /**
+     * Get the key for the {@link CloudFailoverData} which records the engine
+     * that populated the results.
+     * @return key for the source data
+     */
+    public TypedKey<CloudFailoverData> getSourceKey() {
+        return sourceKey;
+    }
+
+    @Override
+    protected void processInternal(FlowData data) throws Exception {
+        CloudFailoverData source = data.getOrAdd(sourceKey, sourceFactory);
+        if (circuitBreaker.tryAcquire()) {
+            long start = System.currentTimeMillis();
+            boolean failed = true;
+            Exception error = null;
+            try {
+                // The primary engine can only be used if its property
+                // meta-data is available. Once loaded, it stays loaded.
+                if (primaryReady == false) {
+                    primary.getProperties();
+                    primaryReady = true;
+                }
+                if (latencyBudgetMillis > 0) {
+                    // The deadline is passed in the request data rather than
+                    // the evidence, so other elements never see it.
+                    CloudRequestData deadlineData = data.getOrAdd(
+                        requestEngine.getTypedDataKey(),
+                        requestEngine.getDataFactory());
+                    ((CloudRequestDataInternal)deadlineData).setDeadline(
+                        start + latencyBudgetMillis);
+                }
+                requestEngine.process(data);
+                CloudRequestData requestData =
+                    data.getFromElement(requestEngine);
+                String json = requestData.getJsonResponse();
+                if (json != null && json.isEmpty() == false) {
+                    primary.process(data);
+                    failed = false;
+                }
+            } catch (Exception e) {
+                error = e;
+            } finally {
+                circuitBreaker.record(
+                    failed,
+                    System.currentTimeMillis() - start);
+            }
+            if (failed == false) {
+                source.setSource(CloudFailoverData.Source.CLOUD);
+                return;
+            }
+            if (data.tryGetValue(primary.getTypedDataKey()).hasValue()) {
+                // The primary engine failed after it started to populate the
+                // results, so the fallback cannot be used.
+                throw error != null ? error : new IllegalStateException(
+                    "The cloud engine did not complete processing.");
+            }
+            logger.warn("Using the fallback engine '" +
+                fallback.getClass().getSimpleName() + "' as the cloud " +
+                "service could not be used.", error);
+        }
+        fallback.process(data);
+        source.setSource(CloudFailoverData.Source.FALLBACK);
+    }
+
+    @Override
+    public void addPipeline(Pipeline pipeline) {
+        super.addPipeline(pipeline);
+        requestEngine.addPipeline(pipeline);
+        primary.addPipeline(pipeline);
+        fallback.addPipeline(pipeline);
+    }
+
+    @Override
+    public String getElementDataKey() {
+        return primary.getElementDataKey();
+    }
+
+    @Override
+    public TypedKey<TData> getTypedDataKey() {
+        if (typedKey == null) {
+            typedKey = new TypedKeyDefault<>(getElementDataKey(), dataType);
+        }
+        return typedKey;
+    }
+
+    @Override
+    public EvidenceKeyFilter getEvidenceKeyFilter() {
+        EvidenceKeyFilter result = evidenceKeyFilter;
+        if (result == null) {
+            EvidenceKeyFilterAggregator aggregator =
+                new EvidenceKeyFilterAggregator();
+            aggregator.addFilter(fallback.getEvidenceKeyFilter());
+            boolean complete = true;
+            for (FlowElement<?, ?> element :
+                new FlowElement<?, ?>[] { requestEngine, primary }) {
+                try {
+                    aggregator.addFilter(element.getEvidenceKeyFilter());
+                } catch (RuntimeException e) {
+                    // The cloud service could not be reached, so try again
+                    // next time.
+                    complete = false;
+                }
+            }
+            result = aggregator;
+            if (complete) {
+                evidenceKeyFilter = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the properties of the primary engine, if they can be loaded, along
+     * with any properties only populated by the fallback engine.
+     * @return properties of both engines
+     */
+    @Override
+    public List<ElementPropertyMetaData> getProperties() {
+        List<ElementPropertyMetaData> result = new ArrayList<>();
+        TreeSet<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        try {
+            for (ElementPropertyMetaData property : primary.getProperties()) {
+                result.add(property);
+                names.add(property.getName());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Properties of the cloud engine '" +
+                primary.getClass().getSimpleName() + "' could not be " +
+                "loaded, so only the fallback properties are available.", e);
+        }
+        for (ElementPropertyMetaData property : fallback.getProperties()) {
+            if (names.add(property.getName())) {
+                result.add(property);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Warm-up evidence would be sent to the cloud service, where each request
+     * is billable, so it is not processed by this element.
+     * @return false
+     */
+    @Override
+    public boolean acceptsWarmUpEvidence() {
+        return false;
+    }
+
+    @Override
+    public void touchData() throws IOException {
+        // The fallback engine may still have data to read.
+        if (fallback instanceof WarmUpAware) {
+            ((WarmUpAware)fallback).touchData();
+        }
+    }
+
+    @Override
+    protected void managedResourcesCleanup() {
+        for (FlowElement<?, ?> element :
+            new FlowElement<?, ?>[] { requestEngine, primary, fallback }) {
+            try {
+                element.close();
+            } catch (Exception e) {
+                // Log and carry on, as the others still need closing.
+                logger.warn("Failed to close '" +
+                    element.getClass().getSimpleName() + "'.", e);
+            }
+        }
+    }
+
+    @Override
+    protected void unmanagedResourcesCleanup() {
+    }
+}
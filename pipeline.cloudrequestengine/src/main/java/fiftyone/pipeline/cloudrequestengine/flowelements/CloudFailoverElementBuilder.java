@@ -0,0 +1,118 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.flowelements;
+
+import fiftyone.pipeline.annotations.DefaultValue;
+import fiftyone.pipeline.cloudrequestengine.configuration.ResilienceConfiguration;
+import fiftyone.pipeline.core.data.ElementData;
+import fiftyone.pipeline.engines.data.AspectPropertyMetaData;
+import fiftyone.pipeline.engines.flowelements.AspectEngine;
+import org.slf4j.ILoggerFactory;
+
+/**
+ * Builder for the {@link CloudFailoverElement}.
+ */
+public class CloudFailoverElementBuilder {
+
+    private final ILoggerFactory loggerFactory;
+    private int latencyBudgetMillis = 0;
+    private double failureRate = ResilienceConfiguration.DEFAULT_FAILURE_RATE;
+    private int openMillis = ResilienceConfiguration.DEFAULT_OPEN_MILLIS;
+
+    public CloudFailoverElementBuilder(ILoggerFactory loggerFactory) {
+        this.loggerFactory = loggerFactory;
+    }
+
+    /**
+     * The time in milliseconds that a request to the cloud service may take
+     * before the fallback engine is used instead. Requests which exceed the
+     * budget also count as failures when deciding whether to try the cloud
+     * service at all.
+     * <p>
+     * Default value is 0, meaning no limit
+     * @param millis latency budget in milliseconds
+     * @return this builder
+     */
+    @DefaultValue(intValue = 0)
+    public CloudFailoverElementBuilder setLatencyBudgetMillis(int millis) {
+        latencyBudgetMillis = millis;
+        return this;
+    }
+
+    /**
+     * The proportion, between 0 and 1, of recent cloud requests which must
+     * fail or exceed the latency budget for all requests to go straight to
+     * the fallback engine.
+     * <p>
+     * Default value is 0.5
+     * @param rate failure rate
+     * @return this builder
+     */
+    @DefaultValue(doubleValue = ResilienceConfiguration.DEFAULT_FAILURE_RATE)
+    public CloudFailoverElementBuilder setFailureRate(double rate) {
+        failureRate = rate;
+        return this;
+    }
+
+    /**
+     * The time in milliseconds that requests go straight to the fallback
+     * engine before the cloud service is tried again.
+     * <p>
+     * Default value is 5000 milliseconds
+     * @param millis time in milliseconds
+     * @return this builder
+     */
+    @DefaultValue(intValue = ResilienceConfiguration.DEFAULT_OPEN_MILLIS)
+    public CloudFailoverElementBuilder setOpenMillis(int millis) {
+        openMillis = millis;
+        return this;
+    }
+
+    /**
+     * Build a new {@link CloudFailoverElement}. The engines supplied must not
+     * be added to the pipeline directly.
+     * @param dataType the type of data populated by both engines
+     * @param requestEngine the engine which makes requests to the cloud
+     *                      service for the primary engine
+     * @param primary the cloud engine
+     * @param fallback the engine to use when the cloud service is not
+     *                 available
+     * @param <TData> the type of data populated by both engines
+     * @return new {@link CloudFailoverElement}
+     */
+    public <TData extends ElementData> CloudFailoverElement<TData> build(
+        Class<TData> dataType,
+        CloudRequestEngine requestEngine,
+        CloudAspectEngineBase<? extends TData> primary,
+        AspectEngine<? extends TData, ? extends AspectPropertyMetaData> fallback) {
+        return new CloudFailoverElement<>(
+            loggerFactory.getLogger(CloudFailoverElement.class.getName()),
+            dataType,
+            requestEngine,
+            primary,
+            fallback,
+            latencyBudgetMillis,
+            failureRate,
+            openMillis);
+    }
+}
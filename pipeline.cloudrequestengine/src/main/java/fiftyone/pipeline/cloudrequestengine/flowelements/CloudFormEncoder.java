@@ -0,0 +1,358 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.flowelements;
+
+import fiftyone.pipeline.core.Constants;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Encodes evidence as the form content of a cloud request. Each evidence key
+ * is compiled once into its form parameter name and precedence, so encoding
+ * a request is a single pass over the evidence which writes the content
+ * directly into a reusable per-thread buffer.
+ * <p>
+ * The content is identical to that produced from
+ * {@link CloudRequestEngineDefault#getFormData} with one exception: if more
+ * than one non-query evidence value would map to the same parameter, the
+ * conflict has to be logged, so null is returned and the caller should fall
+ * back to the form data map.
+ */
+final class CloudFormEncoder {
+
+    /**
+     * Precedence of each evidence prefix. Evidence with a higher precedence
+     * overwrites evidence with the same parameter name.
+     */
+    private static final int PRECEDENCE_OTHER = 0;
+    private static final int PRECEDENCE_COOKIE = 1;
+    private static final int PRECEDENCE_HEADER = 2;
+    private static final int PRECEDENCE_QUERY = 3;
+
+    /**
+     * Maximum number of evidence keys which are not in the cloud evidence key
+     * list to compile and keep. Keys beyond this are compiled per request.
+     */
+    private static final int MAX_EXTRA_FIELDS = 256;
+
+    /**
+     * Buffers larger than this are not kept between requests.
+     */
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final byte[] HEX = "0123456789ABCDEF"
+        .getBytes(StandardCharsets.US_ASCII);
+
+    private static final Pattern SEPARATOR =
+        Pattern.compile(Pattern.quote(Constants.EVIDENCE_SEPERATOR));
+
+    private static final ThreadLocal<Buffer> buffers =
+        new ThreadLocal<Buffer>() {
+            @Override
+            protected Buffer initialValue() {
+                return new Buffer();
+            }
+        };
+
+    /**
+     * An evidence key compiled into the form parameter it populates.
+     */
+    private static final class Field {
+        final String key;
+        final String name;
+        final byte[] prefix;
+        final int precedence;
+
+        Field(String key, String name, int precedence) {
+            this.key = key;
+            this.name = name;
+            this.prefix = ("&" + name + "=").getBytes(StandardCharsets.UTF_8);
+            this.precedence = precedence;
+        }
+    }
+
+    /**
+     * Per-thread scratch space used while encoding a request.
+     */
+    private static final class Buffer {
+        byte[] bytes = new byte[1024];
+        int length;
+        Field[] fields = new Field[16];
+        Object[] values = new Object[16];
+        int[] nonQuery = new int[16];
+
+        void ensureFields(int count) {
+            if (fields.length < count) {
+                fields = new Field[count];
+                values = new Object[count];
+                nonQuery = new int[count];
+            }
+        }
+
+        void ensure(int additional) {
+            if (length + additional > bytes.length) {
+                bytes = Arrays.copyOf(
+                    bytes,
+                    Math.max(bytes.length * 2, length + additional));
+            }
+        }
+
+        void write(byte b) {
+            ensure(1);
+            bytes[length++] = b;
+        }
+
+        void write(byte[] b) {
+            ensure(b.length);
+            System.arraycopy(b, 0, bytes, length, b.length);
+            length += b.length;
+        }
+
+        void clear(int count) {
+            Arrays.fill(fields, 0, count, null);
+            Arrays.fill(values, 0, count, null);
+            length = 0;
+            if (bytes.length > MAX_RETAINED_BUFFER) {
+                bytes = new byte[1024];
+            }
+        }
+    }
+
+    private final byte[] preamble;
+    private final Map<String, Field> fields;
+    private final String excludedKey;
+    private final ConcurrentHashMap<String, Field> extraFields =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Construct a new instance.
+     * @param resourceKey the resource key added to every request
+     * @param licenseKey the license key added to every request, or null
+     * @param evidenceKeys the evidence keys accepted by the cloud service
+     * @param excludedKey evidence key which is never sent to the cloud
+     *                    service
+     */
+    CloudFormEncoder(
+        String resourceKey,
+        String licenseKey,
+        List<String> evidenceKeys,
+        String excludedKey) {
+        String preamble = "resource=" + resourceKey;
+        if (licenseKey != null && licenseKey.isEmpty() == false) {
+            preamble += "&license=" + licenseKey;
+        }
+        this.preamble = preamble.getBytes(StandardCharsets.UTF_8);
+        this.fields = new HashMap<>();
+        for (String evidenceKey : evidenceKeys) {
+            Field field = compile(evidenceKey);
+            if (field != null) {
+                fields.put(evidenceKey, field);
+            }
+        }
+        this.excludedKey = excludedKey;
+    }
+
+    /**
+     * Compile an evidence key into the form parameter it populates.
+     * @param evidenceKey the key to compile
+     * @return the compiled field, or null if the key has no parameter name
+     */
+    private static Field compile(String evidenceKey) {
+        String[] parts = SEPARATOR.split(evidenceKey);
+        if (parts.length < 2) {
+            return null;
+        }
+        int precedence;
+        if (evidenceKey.startsWith("query.")) {
+            precedence = PRECEDENCE_QUERY;
+        } else if (evidenceKey.startsWith("header.")) {
+            precedence = PRECEDENCE_HEADER;
+        } else if (evidenceKey.startsWith("cookie.")) {
+            precedence = PRECEDENCE_COOKIE;
+        } else {
+            precedence = PRECEDENCE_OTHER;
+        }
+        return new Field(evidenceKey, parts[1], precedence);
+    }
+
+    private Field getField(String evidenceKey) {
+        Field field = fields.get(evidenceKey);
+        if (field == null) {
+            field = extraFields.get(evidenceKey);
+            if (field == null) {
+                field = compile(evidenceKey);
+                if (field != null && extraFields.size() < MAX_EXTRA_FIELDS) {
+                    extraFields.putIfAbsent(evidenceKey, field);
+                }
+            }
+        }
+        return field;
+    }
+
+    /**
+     * Encode the evidence as form content.
+     * @param evidence all evidence in the FlowData
+     * @return form content for the POST request, or null if the evidence
+     * contains conflicts or keys which cannot be encoded, in which case the
+     * form data map should be used instead
+     */
+    byte[] encode(Map<String, Object> evidence) {
+        Buffer buffer = buffers.get();
+        buffer.ensureFields(evidence.size());
+        Field[] selected = buffer.fields;
+        Object[] values = buffer.values;
+        int[] nonQuery = buffer.nonQuery;
+        int count = 0;
+        try {
+            for (Map.Entry<String, Object> entry : evidence.entrySet()) {
+                if (entry.getKey().equals(excludedKey)) {
+                    continue;
+                }
+                Field field = getField(entry.getKey());
+                if (field == null) {
+                    return null;
+                }
+                int index = indexOf(selected, count, field.name);
+                if (index < 0) {
+                    selected[count] = field;
+                    values[count] = entry.getValue();
+                    nonQuery[count] =
+                        field.precedence == PRECEDENCE_QUERY ? 0 : 1;
+                    count++;
+                } else {
+                    if (field.precedence != PRECEDENCE_QUERY &&
+                        ++nonQuery[index] > 1) {
+                        // Conflicting evidence is logged by the form data
+                        // path.
+                        return null;
+                    }
+                    if (takesPrecedence(field, selected[index])) {
+                        selected[index] = field;
+                        values[index] = entry.getValue();
+                    }
+                }
+            }
+            sortByNameDescending(selected, values, count);
+
+            buffer.write(preamble);
+            for (int i = 0; i < count; i++) {
+                buffer.write(selected[i].prefix);
+                writeEncoded(buffer, values[i].toString());
+            }
+            return Arrays.copyOf(buffer.bytes, buffer.length);
+        } finally {
+            buffer.clear(count);
+        }
+    }
+
+    private static int indexOf(Field[] selected, int count, String name) {
+        for (int i = 0; i < count; i++) {
+            if (selected[i].name.equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Evidence is added in order of precedence, and within a precedence in
+     * reverse order of key, with later values overwriting earlier ones.
+     */
+    private static boolean takesPrecedence(Field candidate, Field existing) {
+        if (candidate.precedence != existing.precedence) {
+            return candidate.precedence > existing.precedence;
+        }
+        return candidate.key.compareTo(existing.key) < 0;
+    }
+
+    private static void sortByNameDescending(
+        Field[] fields,
+        Object[] values,
+        int count) {
+        for (int i = 1; i < count; i++) {
+            Field field = fields[i];
+            Object value = values[i];
+            int j = i - 1;
+            while (j >= 0 && fields[j].name.compareTo(field.name) < 0) {
+                fields[j + 1] = fields[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            fields[j + 1] = field;
+            values[j + 1] = value;
+        }
+    }
+
+    /**
+     * Write the value encoded in the same way as
+     * {@link java.net.URLEncoder#encode(String, String)} with UTF-8.
+     */
+    private static void writeEncoded(Buffer buffer, String value) {
+        int length = value.length();
+        buffer.ensure(length);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if ((c >= 'a' && c <= 'z') ||
+                (c >= 'A' && c <= 'Z') ||
+                (c >= '0' && c <= '9') ||
+                c == '.' || c == '-' || c == '*' || c == '_') {
+                buffer.write((byte) c);
+            } else if (c == ' ') {
+                buffer.write((byte) '+');
+            } else if (c < 0x80) {
+                writeEscaped(buffer, c);
+            } else if (c < 0x800) {
+                writeEscaped(buffer, 0xC0 | (c >> 6));
+                writeEscaped(buffer, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) &&
+                i + 1 < length &&
+                Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                writeEscaped(buffer, 0xF0 | (codePoint >> 18));
+                writeEscaped(buffer, 0x80 | ((codePoint >> 12) & 0x3F));
+                writeEscaped(buffer, 0x80 | ((codePoint >> 6) & 0x3F));
+                writeEscaped(buffer, 0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates are replaced, as by String.getBytes.
+                writeEscaped(buffer, '?');
+            } else {
+                writeEscaped(buffer, 0xE0 | (c >> 12));
+                writeEscaped(buffer, 0x80 | ((c >> 6) & 0x3F));
+                writeEscaped(buffer, 0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static void writeEscaped(Buffer buffer, int b) {
+        buffer.ensure(3);
+        buffer.bytes[buffer.length++] = '%';
+        buffer.bytes[buffer.length++] = HEX[(b >> 4) & 0xF];
+        buffer.bytes[buffer.length++] = HEX[b & 0xF];
+    }
+}
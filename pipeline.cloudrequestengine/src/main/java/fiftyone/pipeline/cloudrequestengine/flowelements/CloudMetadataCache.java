@@ -0,0 +1,156 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.flowelements;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Persists responses from the cloud service meta-data endpoints to disk. Each
+ * response is stored in its own file named from a hash of the resource key
+ * and endpoint, and the file's modification time records when the response
+ * was fetched.
+ */
+class CloudMetadataCache {
+
+    /**
+     * A response read from disk.
+     */
+    static class Entry {
+        private final String body;
+        private final boolean fresh;
+
+        Entry(String body, boolean fresh) {
+            this.body = body;
+            this.fresh = fresh;
+        }
+
+        /**
+         * @return the response body
+         */
+        String getBody() {
+            return body;
+        }
+
+        /**
+         * @return true if the response is within its time to live
+         */
+        boolean isFresh() {
+            return fresh;
+        }
+    }
+
+    private final File directory;
+    private final long ttlMillis;
+
+    /**
+     * Construct a new instance.
+     * @param directory the directory to store responses in
+     * @param ttlMillis time in milliseconds that a response is fresh for
+     */
+    CloudMetadataCache(String directory, long ttlMillis) {
+        this.directory = new File(directory);
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Read the response persisted for the key.
+     * @param resourceKey the resource key the response is for
+     * @param endpoint the endpoint the response came from
+     * @return the persisted response, or null if there is none or it could
+     * not be read
+     */
+    Entry read(String resourceKey, String endpoint) {
+        File file = getFile(resourceKey, endpoint);
+        if (file.isFile() == false) {
+            return null;
+        }
+        try {
+            String body = new String(
+                Files.readAllBytes(file.toPath()),
+                StandardCharsets.UTF_8);
+            long age = System.currentTimeMillis() - file.lastModified();
+            return new Entry(body, age < ttlMillis);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Persist a response. The file is written in full before it replaces any
+     * previous response so that readers never see a partial response.
+     * @param resourceKey the resource key the response is for
+     * @param endpoint the endpoint the response came from
+     * @param body the response body
+     * @throws IOException if the response could not be written
+     */
+    void write(String resourceKey, String endpoint, String body)
+        throws IOException {
+        Files.createDirectories(directory.toPath());
+        File file = getFile(resourceKey, endpoint);
+        Path temp = Files.createTempFile(
+            directory.toPath(),
+            file.getName(),
+            ".tmp");
+        try {
+            Files.write(temp, body.getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(
+                    temp,
+                    file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(
+                    temp,
+                    file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private File getFile(String resourceKey, String endpoint) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(
+                ((resourceKey == null ? "" : resourceKey) + "|" + endpoint)
+                    .getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder("cloud-");
+            for (int i = 0; i < 16; i++) {
+                name.append(String.format("%02x", hash[i]));
+            }
+            return new File(directory, name.append(".json").toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
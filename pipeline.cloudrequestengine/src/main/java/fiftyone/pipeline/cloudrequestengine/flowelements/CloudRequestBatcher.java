@@ -0,0 +1,235 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.flowelements;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects requests for the cloud service over a short window and sends them
+ * as a single request to a batch endpoint.
+ * <p>
+ * A batch is sent when either the window has elapsed since the first request
+ * was added, or the batch reaches its maximum size. The batch endpoint is
+ * sent a JSON array containing an object of form parameters for each request,
+ * and must respond with a JSON array containing the response for each
+ * request in the same order.
+ * <p>
+ * This is experimental. The 51Degrees cloud service does not provide a batch
+ * endpoint, so one is only available from a service implementing the
+ * protocol above in front of it.
+ */
+class CloudRequestBatcher implements AutoCloseable {
+
+    /**
+     * Sends a batch of requests and returns the combined response.
+     */
+    interface BatchSender {
+        /**
+         * Send the batch.
+         * @param content JSON array of requests
+         * @return combined response, the body of which is a JSON array of
+         * responses
+         * @throws IOException if the request failed
+         */
+        CloudResponse send(byte[] content) throws IOException;
+    }
+
+    private static class Pending {
+        final JSONObject request;
+        final CompletableFuture<CloudResponse> future =
+            new CompletableFuture<>();
+
+        Pending(JSONObject request) {
+            this.request = request;
+        }
+    }
+
+    private final int windowMillis;
+    private final int maxSize;
+    private final BatchSender sender;
+    private final Executor sendExecutor;
+    private final ScheduledExecutorService timer;
+    private final Object lock = new Object();
+    private List<Pending> pending = new ArrayList<>();
+
+    /**
+     * Construct a new instance.
+     * @param windowMillis time in milliseconds to wait for further requests
+     *                     after the first request in a batch is added
+     * @param maxSize maximum number of requests in a batch
+     * @param sender used to send each batch
+     * @param sendExecutor executor which batches are sent on
+     */
+    CloudRequestBatcher(
+        int windowMillis,
+        int maxSize,
+        BatchSender sender,
+        Executor sendExecutor) {
+        this.windowMillis = windowMillis;
+        this.maxSize = maxSize;
+        this.sender = sender;
+        this.sendExecutor = sendExecutor;
+        this.timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "CloudRequestBatch");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Add a request to the current batch.
+     * @param request form parameters for the request
+     * @return future which completes with the response for this request
+     */
+    CompletableFuture<CloudResponse> submit(JSONObject request) {
+        Pending item = new Pending(request);
+        List<Pending> full = null;
+        List<Pending> started = null;
+        synchronized (lock) {
+            pending.add(item);
+            if (pending.size() >= maxSize) {
+                full = pending;
+                pending = new ArrayList<>();
+            } else if (pending.size() == 1) {
+                started = pending;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        } else if (started != null) {
+            final List<Pending> batch = started;
+            try {
+                timer.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        flush(batch);
+                    }
+                }, windowMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                flush(batch);
+            }
+        }
+        return item.future;
+    }
+
+    /**
+     * Send the batch if it is still the current one. If it has already been
+     * sent because it became full then there is nothing to do.
+     * @param batch the batch the timer was started for
+     */
+    private void flush(List<Pending> batch) {
+        synchronized (lock) {
+            if (pending != batch || batch.isEmpty()) {
+                return;
+            }
+            pending = new ArrayList<>();
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(final List<Pending> batch) {
+        try {
+            sendExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    send(batch);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            fail(batch, new IOException(
+                "The batch was not sent as the cloud request engine is " +
+                "closed or too busy.", e));
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        try {
+            JSONArray requests = new JSONArray();
+            for (Pending item : batch) {
+                requests.put(item.request);
+            }
+            CloudResponse response = sender.send(
+                requests.toString().getBytes(StandardCharsets.UTF_8));
+            String body = response.getBody();
+            if (body == null || body.trim().startsWith("[") == false) {
+                // The service returned an error for the batch as a whole, so
+                // give each request the same response to validate.
+                for (Pending item : batch) {
+                    item.future.complete(response);
+                }
+                return;
+            }
+            JSONArray responses = new JSONArray(body);
+            if (responses.length() != batch.size()) {
+                throw new IOException(String.format(
+                    "The batch response contained %d results for %d requests.",
+                    responses.length(),
+                    batch.size()));
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                Object result = responses.get(i);
+                batch.get(i).future.complete(new CloudResponse(
+                    result.toString(),
+                    result instanceof JSONObject ? (JSONObject)result : null,
+                    response.getCode(),
+                    response.getHeaders()));
+            }
+        } catch (Throwable t) {
+            fail(batch, t);
+        }
+    }
+
+    private static void fail(List<Pending> batch, Throwable error) {
+        for (Pending item : batch) {
+            item.future.completeExceptionally(error);
+        }
+    }
+
+    @Override
+    public void close() {
+        timer.shutdown();
+        List<Pending> remaining;
+        synchronized (lock) {
+            remaining = pending;
+            pending = new ArrayList<>();
+        }
+        fail(remaining, new IOException(
+            "The cloud request engine has been closed."));
+    }
+}
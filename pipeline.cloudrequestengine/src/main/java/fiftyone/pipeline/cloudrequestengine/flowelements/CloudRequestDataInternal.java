@@ -27,12 +27,26 @@ import fiftyone.pipeline.engines.data.AspectData;
 import fiftyone.pipeline.engines.data.AspectDataBase;
 import fiftyone.pipeline.engines.data.AspectPropertyMetaData;
 import fiftyone.pipeline.engines.flowelements.AspectEngine;
+import org.json.JSONObject;
 import org.slf4j.Logger;
 
 public class CloudRequestDataInternal extends AspectDataBase {
     private static final String JSON_RESPONSE_KEY = "json-response";
     private static final String PROCESS_STARTED_KEY = "process-started";
 
+    /**
+     * The parsed JSON response. Held as a field rather than in the data map so
+     * that it is never exposed as a property of this element.
+     */
+    private volatile JSONObject jsonObject;
+
+    /**
+     * Time in milliseconds since the epoch by which a response is needed, set
+     * by an element which wraps the request engine. Held as a field so that
+     * it is never part of the evidence or exposed as a property.
+     */
+    private volatile Long deadline;
+
     public String getJsonResponse() {
     	if(super.get(JSON_RESPONSE_KEY) != null)
             return super.get(JSON_RESPONSE_KEY).toString();
@@ -49,8 +63,53 @@ public class CloudRequestDataInternal extends AspectDataBase {
 
     public void setJsonResponse(String value) {
         super.put(JSON_RESPONSE_KEY, value);
+        jsonObject = null;
     }
 
+    /**
+     * Get the JSON response from the cloud service as a parsed tree. The tree
+     * is parsed at most once and is shared by every engine reading from this
+     * instance, and by any other requests which received the same response,
+     * so it must be treated as read-only. Engines should read only the
+     * section keyed by their own element data key, and copy anything they
+     * need to change, for example with {@link JSONObject#toMap()}.
+     * @return the parsed response, or null if there is no response
+     */
+    public JSONObject getJsonObject() {
+        JSONObject result = jsonObject;
+        if (result == null) {
+            String json = getJsonResponse();
+            if (json != null && json.isEmpty() == false) {
+                result = new JSONObject(json);
+                jsonObject = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Set both the raw JSON response and the tree already parsed from it,
+     * so that it does not need to be parsed again by each engine.
+     * @param value the raw JSON response
+     * @param parsed the tree parsed from value
+     */
+    public void setJsonResponse(String value, JSONObject parsed) {
+        super.put(JSON_RESPONSE_KEY, value);
+        jsonObject = parsed;
+    }
+
+
+    /**
+     * Get the deadline set by an element which wraps the request engine.
+     * @return deadline in milliseconds since the epoch, or null if none
+     */
+    Long getDeadline() {
+        return deadline;
+    }
+
+    void setDeadline(Long deadline) {
+        this.deadline = deadline;
+    }
 
     /**
      * Flag to confirm that the CloudRequestEngine has started processing.
@@ -25,6 +25,9 @@ package fiftyone.pipeline.cloudrequestengine.flowelements;
 
 import fiftyone.pipeline.annotations.DefaultValue;
 import fiftyone.pipeline.annotations.ElementBuilder;
+import fiftyone.pipeline.cloudrequestengine.configuration.MetadataCacheConfiguration;
+import fiftyone.pipeline.cloudrequestengine.configuration.ResilienceConfiguration;
+import fiftyone.pipeline.cloudrequestengine.configuration.ResponseCacheConfiguration;
 import fiftyone.pipeline.cloudrequestengine.data.CloudRequestData;
 import fiftyone.pipeline.core.data.FlowData;
 import fiftyone.pipeline.core.data.factories.ElementDataFactory;
@@ -33,7 +36,7 @@ import fiftyone.pipeline.core.flowelements.FlowElement;
 import fiftyone.pipeline.engines.configuration.CacheConfiguration;
 import fiftyone.pipeline.engines.flowelements.AspectEngineBuilderBase;
 import fiftyone.pipeline.engines.services.HttpClient;
-import fiftyone.pipeline.engines.services.HttpClientDefault;
+import fiftyone.pipeline.engines.services.HttpClientPooled;
 import org.slf4j.ILoggerFactory;
 
 import java.util.List;
@@ -56,6 +59,19 @@ public class CloudRequestEngineBuilder extends
     private String licenseKey = null;
     private String cloudRequestOrigin = null;
     private int timeoutMillis = Constants.DEFAULT_TIMEOUT_MILLIS;
+    private String batchEndpoint = null;
+    private int batchWindowMillis = Constants.DEFAULT_BATCH_WINDOW_MILLIS;
+    private int batchMaxSize = Constants.DEFAULT_BATCH_MAX_SIZE;
+    private boolean circuitBreakerEnabled = true;
+    private double circuitBreakerFailureRate = ResilienceConfiguration.DEFAULT_FAILURE_RATE;
+    private int circuitBreakerSlowCallMillis = ResilienceConfiguration.DEFAULT_SLOW_CALL_MILLIS;
+    private int circuitBreakerOpenMillis = ResilienceConfiguration.DEFAULT_OPEN_MILLIS;
+    private boolean hedgingEnabled = false;
+    private boolean adaptiveTimeoutsEnabled = false;
+    private String metadataCacheDirectory = null;
+    private int metadataCacheTtlSeconds = MetadataCacheConfiguration.DEFAULT_TTL_SECONDS;
+    private int responseCacheSize = 0;
+    private int responseCacheTtlSeconds = ResponseCacheConfiguration.DEFAULT_TTL_SECONDS;
     
     // Function to get environment variable value. This enable testable code.
     private Function<String, String> getEnvVar = (name) -> {
@@ -63,7 +79,7 @@ public class CloudRequestEngineBuilder extends
     };
 
     public CloudRequestEngineBuilder(ILoggerFactory loggerFactory) {
-        this(loggerFactory, new HttpClientDefault());
+        this(loggerFactory, new HttpClientPooled());
     }
 
     public CloudRequestEngineBuilder(
@@ -108,7 +124,23 @@ public class CloudRequestEngineBuilder extends
             propertiesEndpoint,
             evidenceKeysEndpoint,
                 timeoutMillis,
-            cloudRequestOrigin);
+            cloudRequestOrigin,
+            batchEndpoint,
+            batchWindowMillis,
+            batchMaxSize,
+            new ResilienceConfiguration(
+                circuitBreakerEnabled,
+                circuitBreakerFailureRate,
+                circuitBreakerSlowCallMillis,
+                circuitBreakerOpenMillis,
+                hedgingEnabled,
+                adaptiveTimeoutsEnabled),
+            new MetadataCacheConfiguration(
+                metadataCacheDirectory,
+                metadataCacheTtlSeconds),
+            new ResponseCacheConfiguration(
+                responseCacheSize,
+                responseCacheTtlSeconds));
     }
     
     private String getEnvironmentVariable(String name) {
@@ -238,6 +270,213 @@ public class CloudRequestEngineBuilder extends
         return this;
     }
 
+    /**
+     * The endpoint the CloudRequestEngine will send batches of requests to.
+     * Setting this enables batching, where requests from concurrent
+     * FlowData instances are collected for a short window and sent as a
+     * single request. The endpoint is sent a JSON array of request
+     * parameters and must respond with a JSON array of results in the same
+     * order.
+     * <p>
+     * This is experimental. The 51Degrees cloud service does not provide a
+     * batch endpoint, so this must only be set when a service implementing
+     * the protocol above, such as a proxy, is in front of it. The protocol
+     * may change or be removed in a future version.
+     * <p>
+     * There is no default, requests are not batched unless this is set
+     * @param uri batch endpoint
+     * @return this builder
+     */
+    @DefaultValue("None - requests are not batched")
+    public CloudRequestEngineBuilder setBatchEndpoint(String uri) {
+        batchEndpoint = uri;
+        return this;
+    }
+
+    /**
+     * The time in milliseconds to collect requests for after the first
+     * request in a batch, before the batch is sent. Only used when a batch
+     * endpoint has been set.
+     * Experimental, see {@link #setBatchEndpoint(String)}.
+     * <p>
+     * Default value is 2 milliseconds
+     * @param millis batch window in milliseconds
+     * @return this builder
+     */
+    @DefaultValue(intValue = Constants.DEFAULT_BATCH_WINDOW_MILLIS)
+    public CloudRequestEngineBuilder setBatchWindowMillis(int millis) {
+        batchWindowMillis = millis;
+        return this;
+    }
+
+    /**
+     * The maximum number of requests in a batch. A batch is sent as soon as
+     * it reaches this size. Only used when a batch endpoint has been set.
+     * Experimental, see {@link #setBatchEndpoint(String)}.
+     * <p>
+     * Default value is 32
+     * @param size maximum batch size
+     * @return this builder
+     */
+    @DefaultValue(intValue = Constants.DEFAULT_BATCH_MAX_SIZE)
+    public CloudRequestEngineBuilder setBatchMaxSize(int size) {
+        batchMaxSize = size;
+        return this;
+    }
+
+    /**
+     * Enable or disable the circuit breaker. When enabled, requests fail
+     * immediately with an error, rather than waiting for the cloud service,
+     * while the proportion of recent requests which failed or were slow is
+     * above the failure rate.
+     * <p>
+     * Default value is true
+     * @param enabled true if the circuit breaker should be used
+     * @return this builder
+     */
+    @DefaultValue(booleanValue = true)
+    public CloudRequestEngineBuilder setCircuitBreakerEnabled(boolean enabled) {
+        circuitBreakerEnabled = enabled;
+        return this;
+    }
+
+    /**
+     * The proportion, between 0 and 1, of recent requests which must fail or
+     * be slow for the circuit breaker to open.
+     * <p>
+     * Default value is 0.5
+     * @param rate failure rate
+     * @return this builder
+     */
+    @DefaultValue(doubleValue = ResilienceConfiguration.DEFAULT_FAILURE_RATE)
+    public CloudRequestEngineBuilder setCircuitBreakerFailureRate(double rate) {
+        circuitBreakerFailureRate = rate;
+        return this;
+    }
+
+    /**
+     * Requests taking at least this many milliseconds are counted as failures
+     * by the circuit breaker. Set to 0 to only count errors.
+     * <p>
+     * Default value is 10000 milliseconds
+     * @param millis slow request threshold in milliseconds
+     * @return this builder
+     */
+    @DefaultValue(intValue = ResilienceConfiguration.DEFAULT_SLOW_CALL_MILLIS)
+    public CloudRequestEngineBuilder setCircuitBreakerSlowCallMillis(int millis) {
+        circuitBreakerSlowCallMillis = millis;
+        return this;
+    }
+
+    /**
+     * The time in milliseconds the circuit breaker stays open before a trial
+     * request is sent to the cloud service.
+     * <p>
+     * Default value is 5000 milliseconds
+     * @param millis open time in milliseconds
+     * @return this builder
+     */
+    @DefaultValue(intValue = ResilienceConfiguration.DEFAULT_OPEN_MILLIS)
+    public CloudRequestEngineBuilder setCircuitBreakerOpenMillis(int millis) {
+        circuitBreakerOpenMillis = millis;
+        return this;
+    }
+
+    /**
+     * Enable or disable hedged requests. When enabled, a duplicate request is
+     * sent if no response has arrived within the 95th percentile of recent
+     * response times, and the first successful response is used. This
+     * reduces tail latency at the cost of extra requests.
+     * <p>
+     * Default value is false
+     * @param enabled true if hedged requests should be sent
+     * @return this builder
+     */
+    @DefaultValue(booleanValue = false)
+    public CloudRequestEngineBuilder setHedgingEnabled(boolean enabled) {
+        hedgingEnabled = enabled;
+        return this;
+    }
+
+    /**
+     * Enable or disable adaptive timeouts. When enabled, the timeout for each
+     * request is reduced to a multiple of the 99th percentile of recent
+     * response times. The timeout set by {@link #setTimeOutSeconds(int)} is
+     * never exceeded.
+     * <p>
+     * Default value is false
+     * @param enabled true if adaptive timeouts should be used
+     * @return this builder
+     */
+    @DefaultValue(booleanValue = false)
+    public CloudRequestEngineBuilder setAdaptiveTimeoutsEnabled(boolean enabled) {
+        adaptiveTimeoutsEnabled = enabled;
+        return this;
+    }
+
+    /**
+     * Set the directory to persist the responses from the properties and
+     * evidence keys endpoints in. When set, a persisted response is used
+     * when the engine starts rather than waiting for the cloud service, and
+     * is used even if the cloud service cannot be reached. Responses older
+     * than the time to live are revalidated in the background.
+     * <p>
+     * Default value is null, which disables persistence
+     * @param directory directory to persist responses in
+     * @return this builder
+     */
+    @DefaultValue("No default - responses are not persisted")
+    public CloudRequestEngineBuilder setMetadataCacheDirectory(String directory) {
+        metadataCacheDirectory = directory;
+        return this;
+    }
+
+    /**
+     * The time in seconds that a persisted response from the properties or
+     * evidence keys endpoint is used before it is revalidated with the cloud
+     * service.
+     * <p>
+     * Default value is 3600 seconds
+     * @param seconds time to live in seconds
+     * @return this builder
+     */
+    @DefaultValue(intValue = MetadataCacheConfiguration.DEFAULT_TTL_SECONDS)
+    public CloudRequestEngineBuilder setMetadataCacheTtlSeconds(int seconds) {
+        metadataCacheTtlSeconds = seconds;
+        return this;
+    }
+
+    /**
+     * Set the number of responses from the cloud service to cache. Responses
+     * are keyed on the form data sent to the cloud service, so a hit avoids
+     * both the request and parsing the response for every engine that uses
+     * it. Responses are cached for as long as their Cache-Control or Expires
+     * headers allow.
+     * <p>
+     * Default value is 0, which disables the cache
+     * @param size maximum number of responses to cache
+     * @return this builder
+     */
+    @DefaultValue(intValue = 0)
+    public CloudRequestEngineBuilder setResponseCacheSize(int size) {
+        responseCacheSize = size;
+        return this;
+    }
+
+    /**
+     * The time in seconds to cache a response for when the cloud service
+     * does not return a Cache-Control or Expires header.
+     * <p>
+     * Default value is 60 seconds
+     * @param seconds time to live in seconds
+     * @return this builder
+     */
+    @DefaultValue(intValue = ResponseCacheConfiguration.DEFAULT_TTL_SECONDS)
+    public CloudRequestEngineBuilder setResponseCacheTtlSeconds(int seconds) {
+        responseCacheTtlSeconds = seconds;
+        return this;
+    }
+
     private static class CloudRequestDataFactory
         implements ElementDataFactory<CloudRequestData> {
 
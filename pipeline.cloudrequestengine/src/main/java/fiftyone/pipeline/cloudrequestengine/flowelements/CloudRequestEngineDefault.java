@@ -23,6 +23,9 @@
 package fiftyone.pipeline.cloudrequestengine.flowelements;
 
 import fiftyone.pipeline.cloudrequestengine.CloudRequestException;
+import fiftyone.pipeline.cloudrequestengine.configuration.MetadataCacheConfiguration;
+import fiftyone.pipeline.cloudrequestengine.configuration.ResilienceConfiguration;
+import fiftyone.pipeline.cloudrequestengine.configuration.ResponseCacheConfiguration;
 import fiftyone.pipeline.cloudrequestengine.data.CloudRequestData;
 import fiftyone.pipeline.core.Constants;
 import fiftyone.pipeline.core.data.AccessiblePropertyMetaData;
@@ -31,6 +34,7 @@ import fiftyone.pipeline.core.data.EvidenceKeyFilterWhitelist;
 import fiftyone.pipeline.core.data.FlowData;
 import fiftyone.pipeline.core.data.factories.ElementDataFactory;
 import fiftyone.pipeline.core.exceptions.PropertyNotLoadedException;
+import fiftyone.pipeline.core.flowelements.WarmUpAware;
 import fiftyone.pipeline.engines.data.AspectPropertyMetaData;
 import fiftyone.pipeline.engines.data.AspectPropertyMetaDataDefault;
 import fiftyone.pipeline.engines.flowelements.AspectEngineBase;
@@ -47,6 +51,21 @@ import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -59,7 +78,7 @@ import static fiftyone.pipeline.util.StringManipulation.stringJoin;
  */
 public class CloudRequestEngineDefault
     extends AspectEngineBase<CloudRequestData, AspectPropertyMetaData>
-    implements CloudRequestEngine {
+    implements CloudRequestEngine, WarmUpAware {
     private HttpClient httpClient;
 
     private String endPoint;
@@ -69,14 +88,83 @@ public class CloudRequestEngineDefault
     private String evidenceKeysEndpoint;
     private String cloudRequestOrigin;
     private Integer timeoutMillis;
+    private String batchEndpoint;
+    private final CloudRequestBatcher batcher;
+    private final CircuitBreaker circuitBreaker;
+    private final LatencyTracker latencies = new LatencyTracker();
+    private final boolean hedgingEnabled;
+    private final boolean adaptiveTimeoutsEnabled;
+    private volatile ScheduledExecutorService hedgeTimer;
+    private final CloudResponseCache<RequestKey> responseCache;
+    private final Object hedgeTimerLock = new Object();
+
+    /**
+     * Adaptive timeouts are this multiple of the 99th percentile latency.
+     */
+    static final int ADAPTIVE_TIMEOUT_MULTIPLIER = 4;
+
+    /**
+     * Adaptive timeouts are never shorter than this.
+     */
+    static final int MIN_ADAPTIVE_TIMEOUT_MILLIS = 1000;
 
     private List<AspectPropertyMetaData> propertyMetaData;
     private volatile Map<String, AccessiblePropertyMetaData.ProductMetaData> publicProperties;
     private final Object publicPropertiesLock = new Object();
 
     private volatile EvidenceKeyFilter evidenceKeyFilter;
+    private volatile CloudFormEncoder formEncoder;
     private final Object evidenceKeyFilterLock = new Object();
 
+    /**
+     * Persisted copies of the meta-data endpoint responses, or null if they
+     * are not persisted.
+     */
+    private final CloudMetadataCache metadataCache;
+
+    /**
+     * Meta-data endpoints currently being revalidated in the background.
+     */
+    private final Set<String> revalidating =
+        Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * Requests which have been sent but not yet completed, keyed on the form
+     * content. Concurrent requests with identical content share the same
+     * future rather than each making a round trip.
+     */
+    private final ConcurrentMap<RequestKey, CompletableFuture<CloudResponse>> inFlight =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Maximum number of threads used to send requests which can not be sent
+     * on the calling thread.
+     */
+    private static final int MAXIMUM_REQUEST_THREADS =
+        Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+
+    /**
+     * Executor used to send requests which are waited for with a deadline,
+     * hedged or batched, and to revalidate meta-data. Other requests are sent
+     * on the calling thread. The number of threads is bounded, and work is
+     * rejected rather than queued once they are all busy.
+     */
+    private final ExecutorService requestExecutor = new ThreadPoolExecutor(
+        0,
+        MAXIMUM_REQUEST_THREADS,
+        60,
+        TimeUnit.SECONDS,
+        new SynchronousQueue<Runnable>(),
+        new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "CloudRequest");
+                thread.setDaemon(true);
+                return thread;
+            }
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+
     public CloudRequestEngineDefault(
         Logger logger,
         ElementDataFactory<CloudRequestData> aspectDataFactory,
@@ -132,6 +220,169 @@ public class CloudRequestEngineDefault
         String evidenceKeysEndpoint,
         int timeoutMillis,
         String cloudRequestOrigin) {
+        this(
+            logger,
+            aspectDataFactory,
+            httpClient,
+            endPoint,
+            resourceKey,
+            licenseKey,
+            propertiesEndpoint,
+            evidenceKeysEndpoint,
+            timeoutMillis,
+            cloudRequestOrigin,
+            null,
+            fiftyone.pipeline.cloudrequestengine.flowelements.Constants.DEFAULT_BATCH_WINDOW_MILLIS,
+            fiftyone.pipeline.cloudrequestengine.flowelements.Constants.DEFAULT_BATCH_MAX_SIZE);
+    }
+
+    /**
+     * Construct a new instance which can combine concurrent requests into
+     * batches. Batching is experimental, see
+     * {@link CloudRequestEngineBuilder#setBatchEndpoint(String)}.
+     * @param batchEndpoint endpoint to send batches of requests to, or null
+     *                      to send each request individually
+     * @param batchWindowMillis time in milliseconds to collect requests for
+     *                          after the first request in a batch
+     * @param batchMaxSize maximum number of requests in a batch
+     */
+    public CloudRequestEngineDefault(
+        Logger logger,
+        ElementDataFactory<CloudRequestData> aspectDataFactory,
+        HttpClient httpClient,
+        String endPoint,
+        String resourceKey,
+        String licenseKey,
+        String propertiesEndpoint,
+        String evidenceKeysEndpoint,
+        int timeoutMillis,
+        String cloudRequestOrigin,
+        String batchEndpoint,
+        int batchWindowMillis,
+        int batchMaxSize) {
+        this(
+            logger,
+            aspectDataFactory,
+            httpClient,
+            endPoint,
+            resourceKey,
+            licenseKey,
+            propertiesEndpoint,
+            evidenceKeysEndpoint,
+            timeoutMillis,
+            cloudRequestOrigin,
+            batchEndpoint,
+            batchWindowMillis,
+            batchMaxSize,
+            new ResilienceConfiguration());
+    }
+
+    /**
+     * Construct a new instance with the specified protection against a slow
+     * or failing cloud service.
+     * @param resilience circuit breaker, hedging and timeout configuration
+     */
+    public CloudRequestEngineDefault(
+        Logger logger,
+        ElementDataFactory<CloudRequestData> aspectDataFactory,
+        HttpClient httpClient,
+        String endPoint,
+        String resourceKey,
+        String licenseKey,
+        String propertiesEndpoint,
+        String evidenceKeysEndpoint,
+        int timeoutMillis,
+        String cloudRequestOrigin,
+        String batchEndpoint,
+        int batchWindowMillis,
+        int batchMaxSize,
+        ResilienceConfiguration resilience) {
+        this(
+            logger,
+            aspectDataFactory,
+            httpClient,
+            endPoint,
+            resourceKey,
+            licenseKey,
+            propertiesEndpoint,
+            evidenceKeysEndpoint,
+            timeoutMillis,
+            cloudRequestOrigin,
+            batchEndpoint,
+            batchWindowMillis,
+            batchMaxSize,
+            resilience,
+            new MetadataCacheConfiguration());
+    }
+
+    /**
+     * Construct a new instance which persists the responses from the
+     * meta-data endpoints.
+     * @param resilience circuit breaker, hedging and timeout configuration
+     * @param metadataCache configuration for persisting the responses from
+     *                      the properties and evidence keys endpoints
+     */
+    public CloudRequestEngineDefault(
+        Logger logger,
+        ElementDataFactory<CloudRequestData> aspectDataFactory,
+        HttpClient httpClient,
+        String endPoint,
+        String resourceKey,
+        String licenseKey,
+        String propertiesEndpoint,
+        String evidenceKeysEndpoint,
+        int timeoutMillis,
+        String cloudRequestOrigin,
+        String batchEndpoint,
+        int batchWindowMillis,
+        int batchMaxSize,
+        ResilienceConfiguration resilience,
+        MetadataCacheConfiguration metadataCache) {
+        this(
+            logger,
+            aspectDataFactory,
+            httpClient,
+            endPoint,
+            resourceKey,
+            licenseKey,
+            propertiesEndpoint,
+            evidenceKeysEndpoint,
+            timeoutMillis,
+            cloudRequestOrigin,
+            batchEndpoint,
+            batchWindowMillis,
+            batchMaxSize,
+            resilience,
+            metadataCache,
+            new ResponseCacheConfiguration());
+    }
+
+    /**
+     * Construct a new instance which caches responses from the cloud
+     * service.
+     * @param resilience circuit breaker, hedging and timeout configuration
+     * @param metadataCache configuration for persisting the responses from
+     *                      the properties and evidence keys endpoints
+     * @param responseCache configuration for caching responses keyed on the
+     *                      form data sent to the cloud service
+     */
+    public CloudRequestEngineDefault(
+        Logger logger,
+        ElementDataFactory<CloudRequestData> aspectDataFactory,
+        HttpClient httpClient,
+        String endPoint,
+        String resourceKey,
+        String licenseKey,
+        String propertiesEndpoint,
+        String evidenceKeysEndpoint,
+        int timeoutMillis,
+        String cloudRequestOrigin,
+        String batchEndpoint,
+        int batchWindowMillis,
+        int batchMaxSize,
+        ResilienceConfiguration resilience,
+        MetadataCacheConfiguration metadataCache,
+        ResponseCacheConfiguration responseCache) {
         super(logger, aspectDataFactory);
 
         this.endPoint = endPoint;
@@ -141,6 +392,7 @@ public class CloudRequestEngineDefault
         this.evidenceKeysEndpoint = evidenceKeysEndpoint;
         this.httpClient = httpClient;
         this.cloudRequestOrigin = cloudRequestOrigin;
+        this.formEncoder = createFormEncoder(Collections.<String>emptyList());
 
         if (timeoutMillis > 0) {
             this.timeoutMillis = timeoutMillis;
@@ -148,6 +400,43 @@ public class CloudRequestEngineDefault
             this.timeoutMillis = null;
         }
 
+        if (resilience.isCircuitBreakerEnabled()) {
+            circuitBreaker = new CircuitBreaker(
+                resilience.getFailureRate(),
+                resilience.getSlowCallMillis(),
+                resilience.getOpenMillis());
+        } else {
+            circuitBreaker = null;
+        }
+        this.hedgingEnabled = resilience.isHedgingEnabled();
+        this.metadataCache = metadataCache.isEnabled() ?
+            new CloudMetadataCache(
+                metadataCache.getDirectory(),
+                TimeUnit.SECONDS.toMillis(metadataCache.getTtlSeconds())) :
+            null;
+        this.adaptiveTimeoutsEnabled = resilience.isAdaptiveTimeoutsEnabled();
+        this.responseCache = responseCache.isEnabled() ?
+            new CloudResponseCache<RequestKey>(
+                responseCache.getSize(),
+                TimeUnit.SECONDS.toMillis(responseCache.getDefaultTtlSeconds())) :
+            null;
+
+        this.batchEndpoint = batchEndpoint;
+        if (batchEndpoint != null && batchEndpoint.isEmpty() == false) {
+            batcher = new CloudRequestBatcher(
+                batchWindowMillis,
+                batchMaxSize,
+                new CloudRequestBatcher.BatchSender() {
+                    @Override
+                    public CloudResponse send(byte[] content) throws IOException {
+                        return sendBatch(content);
+                    }
+                },
+                requestExecutor);
+        } else {
+            batcher = null;
+        }
+
         propertyMetaData = new ArrayList<>();
         propertyMetaData.add(new AspectPropertyMetaDataDefault(
                 "json-response",
@@ -207,24 +496,412 @@ public class CloudRequestEngineDefault
 
     @Override
     protected void processEngine(FlowData data, CloudRequestData aspectData) throws IOException {
-        byte[] content = getContent(data);
-        HttpURLConnection connection = httpClient.connect(new URL(endPoint.trim()));
-        if (timeoutMillis != null) {
-            connection.setConnectTimeout(timeoutMillis);
-            connection.setReadTimeout(timeoutMillis);
+        Map<String, Object> formData = null;
+        byte[] content = null;
+        if (batcher == null) {
+            content = formEncoder.encode(data.getEvidence().asKeyMap());
+        }
+        if (content == null) {
+            // Batched requests need the parameters, and conflicting evidence
+            // is logged when building them.
+            formData = getFormData(data);
+            content = getContent(formData);
         }
         ((CloudRequestDataInternal)aspectData).setProcessStarted(true);
 
+        Long deadline = getDeadline(data, aspectData);
+        if (deadline != null && System.currentTimeMillis() >= deadline) {
+            throw new CloudRequestException(
+                "The deadline for the request passed before the cloud " +
+                "service was called.");
+        }
+
+        CloudResponse response = awaitResponse(
+            sendAsync(content, formData, deadline),
+            deadline);
+
+        // Parse the response once and share the tree with every engine
+        // which reads from this request data.
+        JSONObject json = response.getJson();
+        ((CloudRequestDataInternal)aspectData).setJsonResponse(
+            response.getBody(),
+            json);
+
+        validateResponse(
+            response.getBody(),
+            json,
+            response.getCode(),
+            response.getHeaders(),
+            true);
+    }
+
+    /**
+     * Send the content to the cloud service asynchronously. If a request with
+     * identical content is already in flight then its future is returned
+     * instead of sending another request. If batching is enabled, the
+     * request is added to the current batch. If there is no deadline, and
+     * the request is not hedged or batched, then it is sent on the calling
+     * thread, and the future is only used by concurrent identical requests.
+     * @param content form content for the POST request
+     * @param formData the form parameters the content was built from, which
+     *                 must not be null if batching is enabled
+     * @param deadline time in milliseconds since the epoch that the response
+     *                 will be waited for until, or null if there is no limit
+     * @return future which completes with the response
+     */
+    CompletableFuture<CloudResponse> sendAsync(
+        final byte[] content,
+        Map<String, Object> formData,
+        Long deadline) {
+        final RequestKey key = new RequestKey(content);
+        if (responseCache != null) {
+            CloudResponse cached = responseCache.get(key);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        final CompletableFuture<CloudResponse> future = new CompletableFuture<>();
+        CompletableFuture<CloudResponse> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+        if (circuitBreaker != null && circuitBreaker.tryAcquire() == false) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(new CloudRequestException(
+                "Requests to the cloud service are being refused as too " +
+                "many recent requests failed or were slow. Requests will be " +
+                "tried again shortly."));
+            return future;
+        }
+        final long start = System.currentTimeMillis();
+        final CompletableFuture<CloudResponse> source;
+        if (batcher != null) {
+            source = batcher.submit(getBatchRequest(formData));
+        } else if (hedgingEnabled) {
+            source = sendHedged(content);
+        } else if (deadline != null) {
+            source = sendOnExecutor(content);
+        } else {
+            source = sendOnCallingThread(content);
+        }
+        source.whenComplete((response, error) -> {
+            if (circuitBreaker != null) {
+                circuitBreaker.record(
+                    isFailure(response, error),
+                    System.currentTimeMillis() - start);
+            }
+            if (responseCache != null && isCacheable(response, error)) {
+                responseCache.put(key, response);
+            }
+            // Remove before completing so that requests arriving after the
+            // response is available make a new request.
+            inFlight.remove(key, future);
+            if (error == null) {
+                future.complete(response);
+            } else {
+                future.completeExceptionally(error);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Only successful responses which contain no errors are cached.
+     */
+    private static boolean isCacheable(CloudResponse response, Throwable error) {
+        if (error != null || response.getCode() != 200) {
+            return false;
+        }
+        JSONObject json = response.getJson();
+        return json != null && json.has("errors") == false;
+    }
+
+    /**
+     * A request has failed if it threw an exception or the service returned
+     * a server error. Client errors indicate a problem with the request
+     * rather than the service, so do not count.
+     */
+    private static boolean isFailure(CloudResponse response, Throwable error) {
+        return error != null || response.getCode() >= 500;
+    }
+
+    /**
+     * Send the content on the calling thread.
+     * @param content form content for the POST request
+     * @return completed future with the response
+     */
+    private CompletableFuture<CloudResponse> sendOnCallingThread(byte[] content) {
+        CompletableFuture<CloudResponse> result = new CompletableFuture<>();
+        try {
+            result.complete(send(content));
+        } catch (Throwable t) {
+            result.completeExceptionally(t);
+        }
+        return result;
+    }
+
+    /**
+     * Send the content on the request executor. If all the executor's threads
+     * are busy, the request fails rather than waiting for one.
+     * @param content form content for the POST request
+     * @return future which completes with the response
+     */
+    private CompletableFuture<CloudResponse> sendOnExecutor(final byte[] content) {
+        final CompletableFuture<CloudResponse> result = new CompletableFuture<>();
+        try {
+            requestExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        result.complete(send(content));
+                    } catch (Throwable t) {
+                        result.completeExceptionally(t);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(requestExecutor.isShutdown() ?
+                new IOException("The cloud request engine has been closed.", e) :
+                new CloudRequestException("The request was not sent as " +
+                    MAXIMUM_REQUEST_THREADS + " requests are already in " +
+                    "progress."));
+        }
+        return result;
+    }
+
+    /**
+     * Send the content, and send a duplicate request if no response has
+     * arrived within the 95th percentile of recent response times. The first
+     * successful response is used. Until enough responses have been seen to
+     * know the percentile, no duplicate is sent.
+     * @param content form content for the POST request
+     * @return future which completes with the first successful response, or
+     * the last failure if all requests failed
+     */
+    private CompletableFuture<CloudResponse> sendHedged(final byte[] content) {
+        final CompletableFuture<CloudResponse> result = new CompletableFuture<>();
+        final AtomicInteger outstanding = new AtomicInteger(1);
+        final BiConsumer<CloudResponse, Throwable> handler = (response, error) -> {
+            if (isFailure(response, error) == false) {
+                result.complete(response);
+            } else if (outstanding.decrementAndGet() == 0) {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(response);
+                }
+            }
+        };
+        sendOnExecutor(content).whenComplete(handler);
+        long delay = latencies.getP95();
+        if (delay >= 0) {
+            try {
+                getHedgeTimer().schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (result.isDone() == false) {
+                            outstanding.incrementAndGet();
+                            sendOnExecutor(content).whenComplete(handler);
+                        }
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Closed, so no duplicate request.
+            }
+        }
+        return result;
+    }
+
+    private ScheduledExecutorService getHedgeTimer() {
+        if (hedgeTimer == null) {
+            synchronized (hedgeTimerLock) {
+                if (hedgeTimer == null) {
+                    hedgeTimer = Executors.newSingleThreadScheduledExecutor(
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable runnable) {
+                                Thread thread = new Thread(runnable, "CloudRequestHedge");
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+                }
+            }
+        }
+        return hedgeTimer;
+    }
+
+    /**
+     * Get the timeout to use for a request. If adaptive timeouts are enabled
+     * and enough responses have been seen, this is a multiple of the 99th
+     * percentile response time, but never more than the configured timeout.
+     * @return timeout in milliseconds, or null for no timeout
+     */
+    private Integer getRequestTimeoutMillis() {
+        if (adaptiveTimeoutsEnabled) {
+            long p99 = latencies.getP99();
+            if (p99 >= 0) {
+                long adaptive = Math.max(
+                    MIN_ADAPTIVE_TIMEOUT_MILLIS,
+                    p99 * ADAPTIVE_TIMEOUT_MULTIPLIER);
+                if (timeoutMillis == null || adaptive < timeoutMillis) {
+                    return (int)adaptive;
+                }
+            }
+        }
+        return timeoutMillis;
+    }
+
+    /**
+     * Get the time by which the caller needs a response, from the
+     * {@link fiftyone.pipeline.cloudrequestengine.Constants#EVIDENCE_DEADLINE_KEY}
+     * evidence, or from the request data where an element wrapping this
+     * engine has set one. The earlier of the two is used. The evidence value
+     * can be a {@link Date}, or a number or string containing milliseconds
+     * since the epoch.
+     * @param data the FlowData being processed
+     * @param aspectData the request data for this engine
+     * @return the deadline in milliseconds since the epoch, or null if none
+     */
+    private Long getDeadline(FlowData data, CloudRequestData aspectData) {
+        Long result = null;
+        Object value = data.getEvidence().get(
+            fiftyone.pipeline.cloudrequestengine.Constants.EVIDENCE_DEADLINE_KEY);
+        if (value instanceof Date) {
+            result = ((Date)value).getTime();
+        } else if (value instanceof Number) {
+            result = ((Number)value).longValue();
+        } else if (value != null) {
+            try {
+                result = Long.parseLong(value.toString().trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid deadline evidence '" + value + "'.");
+            }
+        }
+        Long internal = ((CloudRequestDataInternal)aspectData).getDeadline();
+        if (internal != null && (result == null || internal < result)) {
+            result = internal;
+        }
+        return result;
+    }
+
+    /**
+     * Get the form parameters for a single request within a batch, including
+     * the keys.
+     * @param formData form parameters from the evidence
+     * @return JSON object containing the parameters
+     */
+    private JSONObject getBatchRequest(Map<String, Object> formData) {
+        JSONObject request = new JSONObject();
+        request.put("resource", resourceKey);
+        if (licenseKey != null && licenseKey.isEmpty() == false) {
+            request.put("license", licenseKey);
+        }
+        for (Map.Entry<String, Object> entry : formData.entrySet()) {
+            request.put(entry.getKey(), entry.getValue().toString());
+        }
+        return request;
+    }
+
+    /**
+     * Make a blocking POST request containing a batch of requests to the
+     * batch endpoint.
+     * @param content JSON array of requests
+     * @return the combined response
+     * @throws IOException if the request failed
+     */
+    private CloudResponse sendBatch(byte[] content) throws IOException {
+        HttpURLConnection connection = httpClient.connect(new URL(batchEndpoint.trim()));
+        Integer requestTimeoutMillis = getRequestTimeoutMillis();
+        if (requestTimeoutMillis != null) {
+            connection.setConnectTimeout(requestTimeoutMillis);
+            connection.setReadTimeout(requestTimeoutMillis);
+        }
+
+        Map<String, String> headers = new HashMap<>();
+        setCommonHeaders(headers);
+        headers.put("Content-Type", "application/json");
+        headers.put("Content-Length", Integer.toString(content.length));
+
+        String response = httpClient.postData(connection, headers, content);
+
+        return new CloudResponse(
+            response,
+            connection.getResponseCode(),
+            connection.getHeaderFields());
+    }
+
+    /**
+     * Make a blocking POST request to the cloud service.
+     * @param content form content for the POST request
+     * @return the response
+     * @throws IOException if the request failed
+     */
+    private CloudResponse send(byte[] content) throws IOException {
+        long start = System.currentTimeMillis();
+        HttpURLConnection connection = httpClient.connect(new URL(endPoint.trim()));
+        Integer requestTimeoutMillis = getRequestTimeoutMillis();
+        if (requestTimeoutMillis != null) {
+            connection.setConnectTimeout(requestTimeoutMillis);
+            connection.setReadTimeout(requestTimeoutMillis);
+        }
+
         Map<String, String> headers = new HashMap<>();
         setCommonHeaders(headers);
         headers.put("Content-Type", "application/x-www-form-urlencoded");
         headers.put("Content-Length", Integer.toString(content.length));
 
         String response = httpClient.postData(connection, headers, content);
+        int code = connection.getResponseCode();
+        if (code < 500) {
+            latencies.record(System.currentTimeMillis() - start);
+        }
 
-        ((CloudRequestDataInternal)aspectData).setJsonResponse(response);
+        return new CloudResponse(
+            response,
+            code,
+            connection.getHeaderFields());
+    }
 
-        validateResponse(response, connection);
+    /**
+     * Wait for a response future to complete, rethrowing the original
+     * exception if the request failed.
+     * @param future the future to wait for
+     * @param deadline time in milliseconds since the epoch to wait until, or
+     *                 null to wait for the request to complete
+     * @return the response
+     * @throws IOException if the request failed or the wait was interrupted
+     */
+    private static CloudResponse awaitResponse(
+        CompletableFuture<CloudResponse> future,
+        Long deadline) throws IOException {
+        try {
+            if (deadline == null) {
+                return future.get();
+            }
+            return future.get(
+                Math.max(0, deadline - System.currentTimeMillis()),
+                TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new CloudRequestException(
+                "The deadline for the request passed while waiting for the " +
+                "cloud service.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for the cloud response.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IOException(cause);
+        }
     }
 
     /**
@@ -235,13 +912,12 @@ public class CloudRequestEngineDefault
      * 'query.' evidence should take precedence over all other evidence.
      * If there are evidence keys other than 'query.' that conflict then
      * this is unexpected so a warning will be logged.
-     * @param data the FlowData
+     * @param formData the form parameters from the FlowData
      * @return form content for a POST request
      * @throws UnsupportedEncodingException
      */
-    private byte[] getContent(FlowData data) throws UnsupportedEncodingException {
+    private byte[] getContent(Map<String, Object> formData) throws UnsupportedEncodingException {
 
-        Map<String, Object> formData = getFormData(data);
         List<String> formItems = new ArrayList<>();
 
         formItems.add("resource=" + resourceKey);
@@ -261,8 +937,29 @@ public class CloudRequestEngineDefault
         return string.getBytes(StandardCharsets.UTF_8);
     }
 
+    /**
+     * Create an encoder for the form content which has compiled the evidence
+     * keys accepted by the cloud service.
+     * @param evidenceKeys evidence keys accepted by the cloud service
+     * @return new encoder
+     */
+    private CloudFormEncoder createFormEncoder(List<String> evidenceKeys) {
+        return new CloudFormEncoder(
+            resourceKey,
+            licenseKey,
+            evidenceKeys,
+            fiftyone.pipeline.cloudrequestengine.Constants.EVIDENCE_DEADLINE_KEY);
+    }
+
     Map<String, Object> getFormData(FlowData flowData) {
         Map<String, Object> evidence = flowData.getEvidence().asKeyMap();
+        if (evidence.containsKey(
+            fiftyone.pipeline.cloudrequestengine.Constants.EVIDENCE_DEADLINE_KEY)) {
+            // The deadline is for this engine, not the cloud service.
+            evidence = new HashMap<>(evidence);
+            evidence.remove(
+                fiftyone.pipeline.cloudrequestengine.Constants.EVIDENCE_DEADLINE_KEY);
+        }
         Map<String, Object> formData = new HashMap<>();
 
         // Add evidence in reverse alphabetical order, excluding special keys.
@@ -375,6 +1072,40 @@ public class CloudRequestEngineDefault
         return itemKey.startsWith(prefix + ".");
     }
 
+    /**
+     * Warm-up evidence would be sent to the cloud service, where each request
+     * is billable, so it is not processed by this engine.
+     * @return false
+     */
+    @Override
+    public boolean acceptsWarmUpEvidence() {
+        return false;
+    }
+
+    @Override
+    public void touchData() {
+        // No data to touch.
+    }
+
+    @Override
+    protected void managedResourcesCleanup() {
+        if (batcher != null) {
+            batcher.close();
+        }
+        if (hedgeTimer != null) {
+            hedgeTimer.shutdown();
+        }
+        requestExecutor.shutdown();
+        if (responseCache != null) {
+            try {
+                responseCache.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close the response cache.", e);
+            }
+        }
+        super.managedResourcesCleanup();
+    }
+
     @Override
     protected void unmanagedResourcesCleanup() {
     }
@@ -386,56 +1117,148 @@ public class CloudRequestEngineDefault
         }
     }
 
+    /**
+     * Applies a response from a meta-data endpoint to the engine.
+     */
+    private interface MetadataHandler {
+        void apply(String jsonResult);
+    }
+
     private void getCloudProperties() throws CloudRequestException, AggregateException, PropertyNotLoadedException {
-        try {
-            String jsonResult;
+        getMetadata(
+            propertiesEndpoint.trim() + (resourceKey != null ? "?Resource=" + resourceKey : ""),
+            true,
+            this::applyCloudProperties);
+    }
 
-            Map<String, String> headers = new HashMap<>();
-            setCommonHeaders(headers);
+    private void applyCloudProperties(String jsonResult) {
+        JSONObject jsonObj = null;
+        if (jsonResult.isEmpty() == false) {
+            jsonObj = new JSONObject(jsonResult);
+        }
 
-            HttpURLConnection connection = httpClient.connect(new URL(propertiesEndpoint.trim() + (resourceKey != null ? "?Resource=" + resourceKey : "")));
-            jsonResult = httpClient.getResponseString(connection, headers);
-            validateResponse(jsonResult, connection);
+        if (jsonObj != null) {
+            AccessiblePropertyMetaData.LicencedProducts accessiblePropertyData =
+                    new AccessiblePropertyMetaData.LicencedProducts(jsonObj.getJSONObject("Products"));
 
-            JSONObject jsonObj = null;
-            if (jsonResult.isEmpty() == false) {
-                jsonObj = new JSONObject(jsonResult);
-            }
+            publicProperties = accessiblePropertyData.products;
+        } else {
+            throw new RuntimeException("Failed to retrieve available properties " +
+                    "from cloud service at " + propertiesEndpoint + ".");
+        }
+    }
 
-            if (jsonObj != null) {
-                AccessiblePropertyMetaData.LicencedProducts accessiblePropertyData =
-                        new AccessiblePropertyMetaData.LicencedProducts(jsonObj.getJSONObject("Products"));
+    private void getCloudEvidenceKeys() throws CloudRequestException, AggregateException, PropertyNotLoadedException {
+        getMetadata(
+            evidenceKeysEndpoint.trim(),
+            false,
+            this::applyCloudEvidenceKeys);
+    }
 
-                publicProperties = accessiblePropertyData.products;
-            } else {
-                throw new RuntimeException("Failed to retrieve available properties " +
-                        "from cloud service at " + propertiesEndpoint + ".");
+    private void applyCloudEvidenceKeys(String jsonResult) {
+        if (jsonResult != null && jsonResult.isEmpty() == false) {
+            JSONArray jsonArray = new JSONArray(jsonResult);
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < jsonArray.length(); i++) {
+                keys.add(jsonArray.get(i).toString());
             }
-        } catch (IOException e) {
-            throw new PropertyNotLoadedException(e);
+            evidenceKeyFilter = new EvidenceKeyFilterWhitelist(keys,
+                    String.CASE_INSENSITIVE_ORDER);
+            formEncoder = createFormEncoder(keys);
         }
     }
 
-    private void getCloudEvidenceKeys() throws CloudRequestException, AggregateException, PropertyNotLoadedException {
+    /**
+     * Get a response from a meta-data endpoint and apply it to the engine.
+     * If a persisted copy of the response exists, it is used without waiting
+     * for the cloud service. A copy which is older than its time to live is
+     * revalidated in the background. Otherwise the cloud service is called
+     * and the response persisted for next time.
+     * @param url the endpoint to get the response from
+     * @param checkForErrorMessages false if the response will never contain
+     *                              error message text
+     * @param handler used to apply the response to the engine
+     */
+    private void getMetadata(
+        final String url,
+        final boolean checkForErrorMessages,
+        final MetadataHandler handler)
+        throws CloudRequestException, AggregateException, PropertyNotLoadedException {
+        CloudMetadataCache.Entry entry = metadataCache == null ?
+            null :
+            metadataCache.read(resourceKey, url);
+        if (entry != null) {
+            try {
+                handler.apply(entry.getBody());
+                if (entry.isFresh() == false) {
+                    revalidateMetadata(url, checkForErrorMessages, handler);
+                }
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("The persisted response from '" + url + "' " +
+                    "could not be used and will be fetched again.", e);
+            }
+        }
+        String jsonResult = fetchMetadata(url, checkForErrorMessages);
+        handler.apply(jsonResult);
+        persistMetadata(url, jsonResult);
+    }
+
+    /**
+     * Fetch a response from a meta-data endpoint in the background, replacing
+     * the values currently used by the engine and the persisted copy if it
+     * succeeds. If the cloud service cannot be reached then the persisted
+     * copy continues to be used.
+     */
+    private void revalidateMetadata(
+        final String url,
+        final boolean checkForErrorMessages,
+        final MetadataHandler handler) {
+        if (revalidating.add(url) == false) {
+            return;
+        }
         try {
-            String jsonResult;
+            requestExecutor.execute(() -> {
+                try {
+                    String jsonResult = fetchMetadata(url, checkForErrorMessages);
+                    handler.apply(jsonResult);
+                    persistMetadata(url, jsonResult);
+                } catch (Exception e) {
+                    logger.warn("Failed to revalidate the persisted " +
+                        "response from '" + url + "'. The persisted " +
+                        "response will continue to be used.", e);
+                } finally {
+                    revalidating.remove(url);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            revalidating.remove(url);
+        }
+    }
+
+    private void persistMetadata(String url, String jsonResult) {
+        if (metadataCache != null &&
+            jsonResult != null &&
+            jsonResult.isEmpty() == false) {
+            try {
+                metadataCache.write(resourceKey, url, jsonResult);
+            } catch (IOException e) {
+                logger.warn("Failed to persist the response from '" +
+                    url + "'.", e);
+            }
+        }
+    }
 
+    private String fetchMetadata(String url, boolean checkForErrorMessages)
+        throws CloudRequestException, AggregateException, PropertyNotLoadedException {
+        try {
             Map<String, String> headers = new HashMap<>();
             setCommonHeaders(headers);
 
-            HttpURLConnection connection = httpClient.connect(new URL(evidenceKeysEndpoint.trim()));
-            jsonResult = httpClient.getResponseString(connection, headers);
-            validateResponse(jsonResult, connection, false);
-
-            if (jsonResult != null && jsonResult.isEmpty() == false) {
-                JSONArray jsonArray = new JSONArray(jsonResult);
-                List<String> keys = new ArrayList<>();
-                for (int i = 0; i < jsonArray.length(); i++) {
-                    keys.add(jsonArray.get(i).toString());
-                }
-                evidenceKeyFilter = new EvidenceKeyFilterWhitelist(keys,
-                        String.CASE_INSENSITIVE_ORDER);
-            }
+            HttpURLConnection connection = httpClient.connect(new URL(url));
+            String jsonResult = httpClient.getResponseString(connection, headers);
+            validateResponse(jsonResult, connection, checkForErrorMessages);
+            return jsonResult;
         } catch (IOException e) {
             throw new PropertyNotLoadedException(e);
         }
@@ -462,13 +1285,38 @@ public class CloudRequestEngineDefault
         HttpURLConnection connection,
         boolean checkForErrorMessages) 
         throws IOException, CloudRequestException, AggregateException {
+        validateResponse(
+            jsonResult,
+            null,
+            connection.getResponseCode(),
+            connection.getHeaderFields(),
+            checkForErrorMessages);
+    }
+
+    /**
+     * Validate the JSON response from the cloud service.
+     * @param jsonResult the JSON content that is returned from the cloud
+     * @param parsed the tree already parsed from jsonResult, or null if it
+     *               should be parsed here
+     * @param code the HTTP status code of the response
+     * @param responseHeaders the HTTP headers of the response
+     * @param checkForErrorMessages Set to false if the response will
+     * never contain error message text.
+     */
+    private void validateResponse(String jsonResult,
+        JSONObject parsed,
+        int code,
+        Map<String, List<String>> responseHeaders,
+        boolean checkForErrorMessages)
+        throws CloudRequestException, AggregateException {
 
-        int code = connection.getResponseCode();
         boolean hasData = jsonResult != null && jsonResult.isEmpty() == false;
         List<String> messages = new ArrayList<>();
 
         if (hasData && checkForErrorMessages) {
-            JSONObject jObj = new JSONObject(jsonResult);
+            JSONObject jObj = parsed != null ?
+                parsed :
+                new JSONObject(jsonResult);
             boolean hasErrors = jObj.keySet().contains("errors");
             hasData = hasErrors ?
                 jObj.keySet().size() > 1 :
@@ -505,11 +1353,7 @@ public class CloudRequestEngineDefault
             messages.add(message);
         }
 
-        Map<String, List<String>> headers = null;
-        if (messages.size() > 0){
-            headers = connection.getHeaderFields();
-        }
-        final Map<String, List<String>> finalHeaders = headers;
+        final Map<String, List<String>> finalHeaders = responseHeaders;
 
         // If there are any errors returned from the cloud service
         // then throw an exception
@@ -527,4 +1371,29 @@ public class CloudRequestEngineDefault
             throw new CloudRequestException(message, code, finalHeaders);
         }
     }
+
+    /**
+     * Key for the in-flight request map which compares the form content.
+     */
+    private static final class RequestKey {
+        private final byte[] content;
+        private final int hash;
+
+        RequestKey(byte[] content) {
+            this.content = content;
+            this.hash = Arrays.hashCode(content);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof RequestKey &&
+                hash == ((RequestKey)obj).hash &&
+                Arrays.equals(content, ((RequestKey)obj).content);
+        }
+    }
 }
@@ -0,0 +1,124 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.flowelements;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable result of a single request to the cloud service. Captured from the
+ * connection once the request completes so that the result can be shared by
+ * every {@link fiftyone.pipeline.core.data.FlowData} waiting on the same
+ * request. The body is parsed into a JSON tree at most once, no matter how
+ * many requests or engines read it.
+ */
+class CloudResponse {
+
+    private final String body;
+    private final int code;
+    private final Map<String, List<String>> headers;
+    private volatile JSONObject json;
+    private volatile boolean parsed = false;
+
+    /**
+     * Construct a new instance.
+     * @param body the response body
+     * @param code the HTTP status code
+     * @param headers the response headers
+     */
+    CloudResponse(String body, int code, Map<String, List<String>> headers) {
+        this.body = body;
+        this.code = code;
+        this.headers = headers != null ?
+            headers :
+            Collections.<String, List<String>>emptyMap();
+    }
+
+    /**
+     * Construct a new instance where the body has already been parsed.
+     * @param body the response body
+     * @param json the tree parsed from the body
+     * @param code the HTTP status code
+     * @param headers the response headers
+     */
+    CloudResponse(
+        String body,
+        JSONObject json,
+        int code,
+        Map<String, List<String>> headers) {
+        this(body, code, headers);
+        this.json = json;
+        this.parsed = true;
+    }
+
+    /**
+     * @return the response body
+     */
+    String getBody() {
+        return body;
+    }
+
+    /**
+     * @return the HTTP status code
+     */
+    int getCode() {
+        return code;
+    }
+
+    /**
+     * @return the response headers
+     */
+    Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Get the body parsed as a JSON object. The result is shared by every
+     * caller, so must be treated as read-only.
+     * @return the parsed body, or null if the body is empty or is not a JSON
+     * object
+     */
+    JSONObject getJson() {
+        if (parsed == false) {
+            synchronized (this) {
+                if (parsed == false) {
+                    if (body != null && body.isEmpty() == false) {
+                        try {
+                            json = new JSONObject(body);
+                        } catch (JSONException e) {
+                            // Leave the validation of the response to
+                            // report the problem.
+                            json = null;
+                        }
+                    }
+                    parsed = true;
+                }
+            }
+        }
+        return json;
+    }
+}
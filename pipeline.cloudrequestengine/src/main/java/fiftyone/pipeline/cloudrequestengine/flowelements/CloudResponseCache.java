@@ -0,0 +1,170 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.flowelements;
+
+import fiftyone.caching.LruPutCache;
+import fiftyone.caching.PutCache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Least recently used cache of responses from the cloud service. Each entry
+ * expires after the time allowed by the Cache-Control or Expires headers of
+ * the response, or a default time if there are no such headers. The cached
+ * {@link CloudResponse} keeps the tree parsed from its body, so a hit avoids
+ * parsing the response again.
+ * @param <K> the type of key
+ */
+class CloudResponseCache<K> implements Closeable {
+
+    private static final class Entry {
+        private final CloudResponse response;
+        private final long expires;
+
+        Entry(CloudResponse response, long expires) {
+            this.response = response;
+            this.expires = expires;
+        }
+    }
+
+    private final PutCache<K, Entry> cache;
+    private final long defaultTtlMillis;
+
+    /**
+     * Construct a new instance.
+     * @param size the maximum number of responses to cache
+     * @param defaultTtlMillis time in milliseconds to cache a response for
+     *                         if it has no caching headers
+     */
+    CloudResponseCache(int size, long defaultTtlMillis) {
+        this.cache = new LruPutCache.Builder()
+            .setUpdateExisting(true)
+            .build(null, size);
+        this.defaultTtlMillis = defaultTtlMillis;
+    }
+
+    /**
+     * Get the cached response for the key.
+     * @param key the key for the response
+     * @return the response, or null if there is no unexpired response
+     */
+    CloudResponse get(K key) {
+        Entry entry = cache.get(key);
+        if (entry == null || entry.expires <= System.currentTimeMillis()) {
+            return null;
+        }
+        return entry.response;
+    }
+
+    /**
+     * Add a response to the cache if its headers allow it to be cached.
+     * @param key the key for the response
+     * @param response the response to cache
+     */
+    void put(K key, CloudResponse response) {
+        long ttl = getTtlMillis(response.getHeaders(), defaultTtlMillis);
+        if (ttl > 0) {
+            cache.put(key, new Entry(
+                response,
+                System.currentTimeMillis() + ttl));
+        }
+    }
+
+    /**
+     * Get the time to cache a response for from its headers. The max-age of
+     * the Cache-Control header takes precedence over the Expires header.
+     * @param headers the response headers
+     * @param defaultTtlMillis the time to use if there are no caching headers
+     * @return time in milliseconds, or 0 if the response must not be cached
+     */
+    static long getTtlMillis(
+        Map<String, List<String>> headers,
+        long defaultTtlMillis) {
+        String cacheControl = getHeader(headers, "Cache-Control");
+        if (cacheControl != null) {
+            // Any directive that forbids caching applies regardless of where
+            // it appears, so check them all before using the max-age.
+            String maxAge = null;
+            for (String directive : cacheControl.split(",")) {
+                String value = directive.trim().toLowerCase(Locale.ROOT);
+                if (value.equals("no-store") ||
+                    value.equals("no-cache") ||
+                    value.equals("private")) {
+                    return 0;
+                }
+                if (maxAge == null && value.startsWith("max-age=")) {
+                    maxAge = value.substring(8).trim();
+                }
+            }
+            if (maxAge != null) {
+                try {
+                    return Math.max(0, Long.parseLong(maxAge) * 1000);
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        String expires = getHeader(headers, "Expires");
+        if (expires != null) {
+            SimpleDateFormat format = new SimpleDateFormat(
+                "EEE, dd MMM yyyy HH:mm:ss zzz",
+                Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("GMT"));
+            try {
+                return Math.max(
+                    0,
+                    format.parse(expires).getTime() -
+                        System.currentTimeMillis());
+            } catch (ParseException e) {
+                // An invalid date means the response has already expired.
+                return 0;
+            }
+        }
+        return defaultTtlMillis;
+    }
+
+    private static String getHeader(
+        Map<String, List<String>> headers,
+        String name) {
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey()) &&
+                header.getValue() != null &&
+                header.getValue().isEmpty() == false) {
+                return header.getValue().get(0);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        cache.close();
+    }
+}
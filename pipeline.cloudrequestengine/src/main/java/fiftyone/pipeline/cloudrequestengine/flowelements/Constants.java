@@ -29,5 +29,9 @@ public class Constants {
 	// Environment variable name to set end point
 	public static final String FOD_CLOUD_API_URL = "FOD_CLOUD_API_URL";
 	public static final int DEFAULT_TIMEOUT_MILLIS = 100000;
+	// Default time to collect requests for before sending a batch
+	public static final int DEFAULT_BATCH_WINDOW_MILLIS = 2;
+	// Default maximum number of requests in a batch
+	public static final int DEFAULT_BATCH_MAX_SIZE = 32;
 	
 }
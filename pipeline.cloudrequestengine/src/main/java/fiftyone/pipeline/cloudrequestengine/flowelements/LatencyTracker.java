@@ -0,0 +1,90 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.flowelements;
+
+import java.util.Arrays;
+
+/**
+ * Records the most recent request latencies and provides percentiles of
+ * them. Percentiles are recalculated periodically rather than on every
+ * request, so reading them is cheap.
+ */
+class LatencyTracker {
+
+    /**
+     * Number of recent latencies the percentiles are calculated over.
+     */
+    static final int WINDOW_SIZE = 256;
+
+    /**
+     * Minimum number of latencies needed before percentiles are available.
+     */
+    static final int MINIMUM_SAMPLES = 20;
+
+    /**
+     * Number of new latencies recorded between recalculations.
+     */
+    private static final int RECALCULATE_INTERVAL = 16;
+
+    private final long[] samples = new long[WINDOW_SIZE];
+    private int count = 0;
+    private int next = 0;
+    private int sinceCalculated = 0;
+    private volatile long p95 = -1;
+    private volatile long p99 = -1;
+
+    /**
+     * Record the latency of a completed request.
+     * @param millis time taken by the request
+     */
+    synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % WINDOW_SIZE;
+        count = Math.min(count + 1, WINDOW_SIZE);
+        sinceCalculated++;
+        if (count >= MINIMUM_SAMPLES &&
+            (p95 < 0 || sinceCalculated >= RECALCULATE_INTERVAL)) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            p95 = sorted[(int)Math.ceil(0.95 * count) - 1];
+            p99 = sorted[(int)Math.ceil(0.99 * count) - 1];
+            sinceCalculated = 0;
+        }
+    }
+
+    /**
+     * @return the 95th percentile latency in milliseconds, or -1 if there
+     * are not enough samples yet
+     */
+    long getP95() {
+        return p95;
+    }
+
+    /**
+     * @return the 99th percentile latency in milliseconds, or -1 if there
+     * are not enough samples yet
+     */
+    long getP99() {
+        return p99;
+    }
+}
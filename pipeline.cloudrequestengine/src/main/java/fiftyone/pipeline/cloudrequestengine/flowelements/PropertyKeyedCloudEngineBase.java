@@ -22,6 +22,7 @@
 
 package fiftyone.pipeline.cloudrequestengine.flowelements;
 
+import fiftyone.pipeline.cloudrequestengine.data.CloudRequestData;
 import fiftyone.pipeline.core.data.ElementPropertyMetaData;
 import fiftyone.pipeline.core.data.EvidenceKeyFilter;
 import fiftyone.pipeline.core.data.EvidenceKeyFilterWhitelist;
@@ -68,28 +69,43 @@ public abstract class PropertyKeyedCloudEngineBase<
 
     @Override
     protected void processCloudEngine(FlowData data, TData aspectData, String json) {
-    	
-        // Extract data from json to the aspectData instance.
-        JSONObject map = new JSONObject(json);
-        // Access the data relating to this engine.
-        JSONObject propertyKeyed = map.getJSONObject(getElementDataKey());
-        // Access the 'Profiles' property
-        for (Object entry : propertyKeyed.getJSONArray("profiles")) {
-            // Iterate through the devices, parsing each one and
-            // adding it to the result.
+        populateFromJson(data, aspectData, new JSONObject(json));
+    }
 
-            JSONObject propertyValues = new JSONObject(entry.toString());
+    @Override
+    protected void processCloudEngine(
+        FlowData data,
+        TData aspectData,
+        CloudRequestData requestData) {
+        populateFromJson(data, aspectData, requestData.getJsonObject());
+    }
 
-            TProfile profile = createProfileData(data);
-            // Get the meta-data for properties on device instances.
-            List<ElementPropertyMetaData> propertyMetaData = null;
-            for (AspectPropertyMetaData p : getProperties()) {
-                if (p.getName().equalsIgnoreCase("profiles")) {
-                    propertyMetaData = p.getItemProperties();
-                }
+    private void populateFromJson(
+        FlowData data,
+        TData aspectData,
+        JSONObject map) {
+        // Access the data relating to this engine. The tree may be shared
+        // with other engines and requests, so copy the profiles out of it
+        // before anything else can see them.
+        List<Object> profiles = map.getJSONObject(getElementDataKey())
+            .getJSONArray("profiles")
+            .toList();
+        // Get the meta-data for properties on device instances.
+        List<ElementPropertyMetaData> propertyMetaData = null;
+        for (AspectPropertyMetaData p : getProperties()) {
+            if (p.getName().equalsIgnoreCase("profiles")) {
+                propertyMetaData = p.getItemProperties();
             }
+        }
+        // Access the 'Profiles' property
+        for (Object entry : profiles) {
+            // Iterate through the devices, adding each one to the result.
+            @SuppressWarnings("unchecked")
+            Map<String, Object> propertyValues = (Map<String, Object>)entry;
+
+            TProfile profile = createProfileData(data);
             Map<String, Object> profileData = createAPVMap(
-                propertyValues.toMap(),
+                propertyValues,
                 propertyMetaData);
 
             profile.populateFromMap(profileData);
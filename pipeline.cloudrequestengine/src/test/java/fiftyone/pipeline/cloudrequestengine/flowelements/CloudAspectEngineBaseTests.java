@@ -50,6 +50,7 @@ import fiftyone.pipeline.core.data.EvidenceKeyFilter;
 import fiftyone.pipeline.core.data.EvidenceKeyFilterWhitelist;
 import fiftyone.pipeline.core.data.FlowData;
 import fiftyone.pipeline.core.data.factories.ElementDataFactory;
+import fiftyone.pipeline.core.data.types.JavaScript;
 import fiftyone.pipeline.core.exceptions.PipelineConfigurationException;
 import fiftyone.pipeline.core.flowelements.FlowElement;
 import fiftyone.pipeline.core.flowelements.Pipeline;
@@ -57,6 +58,7 @@ import fiftyone.pipeline.core.flowelements.PipelineBuilder;
 import fiftyone.pipeline.engines.data.AspectData;
 import fiftyone.pipeline.engines.data.AspectDataBase;
 import fiftyone.pipeline.engines.data.AspectPropertyMetaData;
+import fiftyone.pipeline.engines.data.AspectPropertyValue;
 import fiftyone.pipeline.engines.flowelements.AspectEngine;
 import fiftyone.pipeline.engines.flowelements.AspectEngineBase;
 
@@ -383,6 +385,94 @@ public class CloudAspectEngineBaseTests {
         .processCloudEngine(any(FlowData.class), any(TestData.class), any(String.class));
     }
  
+    /*
+     * Test that a cloud aspect engine and CloudRequestEngine can be shared
+     * by multiple pipelines, with the request engine found for each.
+     */
+    @Test
+    public void Process_MultiplePipelines_SharedRequestEngine() throws Exception {
+        // Setup properties.
+        List<AccessiblePropertyMetaData.PropertyMetaData> properties = new ArrayList<>();
+        properties.add(new AccessiblePropertyMetaData.PropertyMetaData("ismobile", "Boolean", null, null, true, null));
+        AccessiblePropertyMetaData.ProductMetaData devicePropertyData = new AccessiblePropertyMetaData.ProductMetaData();
+        devicePropertyData.properties = properties;
+        propertiesReturnedByRequestEngine.put("test", devicePropertyData);
+
+        TestInstance mockTestInstance = Mockito.spy(new TestInstance());
+        TestRequestEngine mockRequestEngine = Mockito.spy(new TestRequestEngine());
+        mockRequestEngine.publicProperties = propertiesReturnedByRequestEngine;
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocationOnMock) throws Throwable {
+                CloudRequestData aspectData = (CloudRequestData)invocationOnMock.getArgument(1);
+                aspectData.setJsonResponse("{ \"response\": true }");
+                aspectData.setProcessStarted(true);
+                return null;
+            }
+        }).when(mockRequestEngine)
+            .processEngine(any(FlowData.class), any(CloudRequestData.class));
+
+        // Add the same engines to two pipelines.
+        Pipeline first = new PipelineBuilder(loggerFactory)
+            .addFlowElement(mockRequestEngine)
+            .addFlowElement(mockTestInstance)
+            .build();
+        Pipeline second = new PipelineBuilder(loggerFactory)
+            .addFlowElement(mockRequestEngine)
+            .addFlowElement(mockTestInstance)
+            .build();
+
+        for (Pipeline current : new Pipeline[] { first, second }) {
+            FlowData flowData = current.createFlowData();
+            flowData.addEvidence("query.user-agent", "iPhone");
+            flowData.process();
+            assertTrue(flowData.getErrors() == null ||
+                flowData.getErrors().isEmpty());
+        }
+
+        // Verify each pipeline processed the aspect engine, and the meta-data
+        // was shared.
+        verify(mockTestInstance, times(2))
+            .processCloudEngine(any(FlowData.class), any(TestData.class), any(String.class));
+        assertEquals(1, mockTestInstance.getProperties().size());
+        assertSame(
+            mockRequestEngine,
+            mockTestInstance.getRequestEngine().getInstance());
+    }
+
+    /*
+     * Test that a cloud aspect engine can not be added to multiple pipelines
+     * which contain different CloudRequestEngines.
+     */
+    @Test
+    public void Process_MultiplePipelines_DifferentRequestEngines() throws Exception {
+        List<AccessiblePropertyMetaData.PropertyMetaData> properties = new ArrayList<>();
+        properties.add(new AccessiblePropertyMetaData.PropertyMetaData("ismobile", "Boolean", null, null, true, null));
+        AccessiblePropertyMetaData.ProductMetaData devicePropertyData = new AccessiblePropertyMetaData.ProductMetaData();
+        devicePropertyData.properties = properties;
+        propertiesReturnedByRequestEngine.put("test", devicePropertyData);
+
+        TestInstance testInstance = new TestInstance();
+        TestRequestEngine firstRequestEngine = new TestRequestEngine();
+        firstRequestEngine.publicProperties = propertiesReturnedByRequestEngine;
+        TestRequestEngine secondRequestEngine = new TestRequestEngine();
+        secondRequestEngine.publicProperties = propertiesReturnedByRequestEngine;
+
+        new PipelineBuilder(loggerFactory)
+            .addFlowElement(firstRequestEngine)
+            .addFlowElement(testInstance)
+            .build();
+        new PipelineBuilder(loggerFactory)
+            .addFlowElement(secondRequestEngine)
+            .addFlowElement(testInstance)
+            .build();
+
+        PipelineConfigurationException e = assertThrows(
+            PipelineConfigurationException.class,
+            () -> testInstance.getRequestEngine().getInstance());
+        assertTrue(e.getMessage().contains("share the same 'CloudRequestEngine'"));
+    }
+
     /*
      * Test that when processing the cloud aspect engine, the
      * ProcessCloudMethod is not called when the JSON response is not
@@ -513,6 +603,88 @@ public class CloudAspectEngineBaseTests {
 		}
     }
     
+    /**
+     * Test that values in the cloud response are converted to
+     * AspectPropertyValues using the meta-data, including JavaScript values,
+     * null reasons and nested item properties.
+     * @throws Exception
+     */
+    @Test
+    public void createAPVMap_ConvertsValues() throws Exception {
+        List<AccessiblePropertyMetaData.PropertyMetaData> subProperties = new ArrayList<>();
+        subProperties.add(new AccessiblePropertyMetaData.PropertyMetaData("hardwarevendor", "String", null, null));
+
+        List<AccessiblePropertyMetaData.PropertyMetaData> properties = new ArrayList<>();
+        properties.add(new AccessiblePropertyMetaData.PropertyMetaData("javascript", "JavaScript", null, null));
+        properties.add(new AccessiblePropertyMetaData.PropertyMetaData("ismobile", "Boolean", null, null));
+        properties.add(new AccessiblePropertyMetaData.PropertyMetaData("devices", "Array", null, subProperties));
+        AccessiblePropertyMetaData.ProductMetaData devicePropertyData = new AccessiblePropertyMetaData.ProductMetaData();
+        devicePropertyData.properties = properties;
+        propertiesReturnedByRequestEngine.put("test", devicePropertyData);
+
+        createPipeline();
+
+        Map<String, Object> cloudData = new HashMap<>();
+        cloudData.put("javascript", "alert();");
+        cloudData.put("ismobile", null);
+        cloudData.put("ismobilenullreason", "No match");
+        // A copy of the properties list should give the same result.
+        Map<String, Object> result = engine.createAPVMap(
+            cloudData,
+            new ArrayList<ElementPropertyMetaData>(engine.getProperties()));
+
+        assertEquals(2, result.size());
+        AspectPropertyValue<?> javaScript =
+            (AspectPropertyValue<?>)result.get("javascript");
+        assertTrue(javaScript.getValue() instanceof JavaScript);
+        assertEquals("alert();", javaScript.getValue().toString());
+        AspectPropertyValue<?> isMobile =
+            (AspectPropertyValue<?>)result.get("ismobile");
+        assertFalse(isMobile.hasValue());
+        assertEquals("No match", isMobile.getNoValueMessage());
+
+        Map<String, Object> device = new HashMap<>();
+        device.put("HardwareVendor", null);
+        Map<String, Object> deviceResult = engine.createAPVMap(
+            device,
+            engine.getProperty("devices").getItemProperties());
+        assertEquals(
+            "Unknown",
+            ((AspectPropertyValue<?>)deviceResult.get("HardwareVendor"))
+                .getNoValueMessage());
+    }
+
+    /**
+     * Test that entries suffixed with 'nullreason' never appear in the
+     * output, even when the meta-data has a property with that name.
+     * @throws Exception
+     */
+    @Test
+    public void createAPVMap_NullReasonExcluded() throws Exception {
+        List<AccessiblePropertyMetaData.PropertyMetaData> properties = new ArrayList<>();
+        properties.add(new AccessiblePropertyMetaData.PropertyMetaData("ismobile", "Boolean", null, null));
+        properties.add(new AccessiblePropertyMetaData.PropertyMetaData("ismobilenullreason", "String", null, null));
+        AccessiblePropertyMetaData.ProductMetaData devicePropertyData = new AccessiblePropertyMetaData.ProductMetaData();
+        devicePropertyData.properties = properties;
+        propertiesReturnedByRequestEngine.put("test", devicePropertyData);
+
+        createPipeline();
+
+        Map<String, Object> cloudData = new HashMap<>();
+        cloudData.put("ismobile", null);
+        cloudData.put("ismobilenullreason", "No match");
+        Map<String, Object> result = engine.createAPVMap(
+            cloudData,
+            new ArrayList<ElementPropertyMetaData>(engine.getProperties()));
+
+        assertEquals(1, result.size());
+        assertFalse(result.containsKey("ismobilenullreason"));
+        assertEquals(
+            "No match",
+            ((AspectPropertyValue<?>)result.get("ismobile"))
+                .getNoValueMessage());
+    }
+
 	private void createPipeline() throws Exception {
         engine = new TestInstance();
         requestEngine = new TestRequestEngine();
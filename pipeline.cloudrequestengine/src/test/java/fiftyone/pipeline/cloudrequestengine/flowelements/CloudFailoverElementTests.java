@@ -0,0 +1,460 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.flowelements;
+
+import fiftyone.pipeline.cloudrequestengine.Constants;
+import fiftyone.pipeline.cloudrequestengine.data.CloudFailoverData;
+import fiftyone.pipeline.cloudrequestengine.helpers.TestCloudServer;
+import fiftyone.pipeline.core.data.EvidenceKeyFilter;
+import fiftyone.pipeline.core.data.EvidenceKeyFilterWhitelist;
+import fiftyone.pipeline.core.data.FlowData;
+import fiftyone.pipeline.core.data.factories.ElementDataFactory;
+import fiftyone.pipeline.core.flowelements.FlowElement;
+import fiftyone.pipeline.core.flowelements.Pipeline;
+import fiftyone.pipeline.core.flowelements.PipelineBuilder;
+import fiftyone.pipeline.engines.data.AspectData;
+import fiftyone.pipeline.engines.data.AspectDataBase;
+import fiftyone.pipeline.engines.data.AspectPropertyMetaData;
+import fiftyone.pipeline.engines.flowelements.AspectEngine;
+import fiftyone.pipeline.engines.flowelements.AspectEngineBase;
+import fiftyone.pipeline.engines.services.HttpClientPooled;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static fiftyone.pipeline.cloudrequestengine.helpers.TestCloudServer.readBody;
+import static fiftyone.pipeline.cloudrequestengine.helpers.TestCloudServer.respond;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link CloudFailoverElement}, using a local stub of the cloud
+ * service which can be told to fail or respond slowly.
+ */
+public class CloudFailoverElementTests {
+
+    private static final String PROPERTIES =
+        "{\"Products\": {\"device\": {\"DataTier\": \"tier\", \"Properties\": " +
+        "[{\"Name\": \"ismobile\", \"Type\": \"Boolean\", \"Category\": \"Device\"}]}}}";
+
+    /**
+     * Faults the stub server can inject.
+     */
+    private enum Fault {
+        NONE,
+        ERROR,
+        SLOW,
+        NO_METADATA
+    }
+
+    /**
+     * Data populated by both the cloud and fallback engines.
+     */
+    public interface TestData extends AspectData {
+        Boolean getIsMobile();
+    }
+
+    public static class TestDataDefault
+        extends AspectDataBase
+        implements TestData {
+        public TestDataDefault(
+            Logger logger,
+            FlowData flowData,
+            AspectEngine<? extends AspectData, ? extends AspectPropertyMetaData> engine) {
+            super(logger, flowData, engine);
+        }
+
+        @Override
+        public Boolean getIsMobile() {
+            return getAs("ismobile", Boolean.class);
+        }
+    }
+
+    private static class TestCloudEngine
+        extends CloudAspectEngineBase<TestDataDefault> {
+        public TestCloudEngine() {
+            super(
+                LoggerFactory.getLogger(TestCloudEngine.class),
+                new ElementDataFactory<TestDataDefault>() {
+                    @Override
+                    public TestDataDefault create(
+                        FlowData flowData,
+                        FlowElement<TestDataDefault, ?> flowElement) {
+                        return new TestDataDefault(
+                            LoggerFactory.getLogger(TestDataDefault.class),
+                            flowData,
+                            (AspectEngine<TestDataDefault, ?>) flowElement);
+                    }
+                });
+        }
+
+        @Override
+        public String getElementDataKey() {
+            return "device";
+        }
+
+        @Override
+        public EvidenceKeyFilter getEvidenceKeyFilter() {
+            return new EvidenceKeyFilterWhitelist(new ArrayList<String>());
+        }
+
+        @Override
+        protected void processCloudEngine(
+            FlowData data,
+            TestDataDefault aspectData,
+            String json) {
+            aspectData.put(
+                "ismobile",
+                new JSONObject(json).getJSONObject("device").getBoolean("ismobile"));
+        }
+
+        @Override
+        protected void unmanagedResourcesCleanup() {
+        }
+    }
+
+    private static class TestFallbackEngine
+        extends AspectEngineBase<TestDataDefault, AspectPropertyMetaData> {
+        private final AtomicInteger processed = new AtomicInteger();
+
+        public TestFallbackEngine() {
+            super(
+                LoggerFactory.getLogger(TestFallbackEngine.class),
+                new ElementDataFactory<TestDataDefault>() {
+                    @Override
+                    public TestDataDefault create(
+                        FlowData flowData,
+                        FlowElement<TestDataDefault, ?> flowElement) {
+                        return new TestDataDefault(
+                            LoggerFactory.getLogger(TestDataDefault.class),
+                            flowData,
+                            (AspectEngine<TestDataDefault, ?>) flowElement);
+                    }
+                });
+        }
+
+        @Override
+        public String getElementDataKey() {
+            return "device";
+        }
+
+        @Override
+        public EvidenceKeyFilter getEvidenceKeyFilter() {
+            return new EvidenceKeyFilterWhitelist(
+                Collections.singletonList("header.user-agent"));
+        }
+
+        @Override
+        public List<AspectPropertyMetaData> getProperties() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String getDataSourceTier() {
+            return "lite";
+        }
+
+        @Override
+        protected void processEngine(
+            FlowData flowData,
+            TestDataDefault aspectData) {
+            processed.incrementAndGet();
+            aspectData.put("ismobile", false);
+        }
+
+        @Override
+        protected void unmanagedResourcesCleanup() {
+        }
+    }
+
+    private TestCloudServer server;
+    private String baseUrl;
+    private volatile Fault fault = Fault.NONE;
+    private final AtomicInteger requests = new AtomicInteger();
+    private TestFallbackEngine fallback;
+    private CloudFailoverElement<TestData> element;
+    private Pipeline pipeline;
+
+    @BeforeEach
+    public void init() throws IOException {
+        server = new TestCloudServer();
+        server.handle("evidencekeys", exchange ->
+            respond(exchange, 200, "[\"query.User-Agent\"]"));
+        server.handle("accessibleproperties", exchange -> {
+            if (fault == Fault.NO_METADATA) {
+                respond(exchange, 500, "{\"errors\":[\"injected fault\"]}");
+            } else {
+                respond(exchange, 200, PROPERTIES);
+            }
+        });
+        server.handle("key.json", exchange -> {
+            readBody(exchange);
+            requests.incrementAndGet();
+            Fault current = fault;
+            if (current == Fault.ERROR) {
+                respond(exchange, 500, "{\"errors\":[\"injected fault\"]}");
+                return;
+            }
+            if (current == Fault.SLOW) {
+                sleep(2000);
+            }
+            respond(exchange, 200, "{\"device\":{\"ismobile\":true}}");
+        });
+        server.start();
+        baseUrl = server.getBaseUrl();
+    }
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        if (element != null) {
+            element.close();
+        }
+        server.stop();
+    }
+
+    private static void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void build(CloudFailoverElementBuilder builder) throws Exception {
+        build(builder, false);
+    }
+
+    private void build(
+        CloudFailoverElementBuilder builder,
+        boolean warmUp) throws Exception {
+        fallback = new TestFallbackEngine();
+        element = builder.build(
+            TestData.class,
+            buildRequestEngine(),
+            new TestCloudEngine(),
+            fallback);
+        pipeline = new PipelineBuilder(LoggerFactory.getILoggerFactory())
+            .setWarmUp(warmUp)
+            .addFlowElement(element)
+            .build();
+    }
+
+    private CloudRequestEngine buildRequestEngine() throws Exception {
+        return new CloudRequestEngineBuilder(
+            LoggerFactory.getILoggerFactory(),
+            new HttpClientPooled())
+            .setResourceKey("key")
+            .setEndpoint(baseUrl)
+            .build();
+    }
+
+    private CloudFailoverElementBuilder newBuilder() {
+        return new CloudFailoverElementBuilder(
+            LoggerFactory.getILoggerFactory());
+    }
+
+    private FlowData process() {
+        FlowData data = pipeline.createFlowData();
+        data.addEvidence("query.User-Agent", "test");
+        data.process();
+        return data;
+    }
+
+    private CloudFailoverData.Source getSource(FlowData data) {
+        return data.get(element.getSourceKey()).getSource();
+    }
+
+    /**
+     * Verify that results come from the cloud engine when the cloud service
+     * is healthy.
+     */
+    @Test
+    public void Process_Healthy_UsesCloud() throws Exception {
+        // Arrange
+        build(newBuilder());
+
+        // Act
+        FlowData data = process();
+
+        // Assert
+        assertEquals(CloudFailoverData.Source.CLOUD, getSource(data));
+        assertTrue(data.get(element.getTypedDataKey()).getIsMobile());
+        assertEquals(0, fallback.processed.get());
+    }
+
+    /**
+     * Verify that results come from the fallback engine when the cloud
+     * service returns an error.
+     */
+    @Test
+    public void Process_CloudError_UsesFallback() throws Exception {
+        // Arrange
+        build(newBuilder());
+        fault = Fault.ERROR;
+
+        // Act
+        FlowData data = process();
+
+        // Assert
+        assertEquals(CloudFailoverData.Source.FALLBACK, getSource(data));
+        assertFalse(data.get(element.getTypedDataKey()).getIsMobile());
+        assertEquals(1, fallback.processed.get());
+        assertTrue(data.getErrors() == null || data.getErrors().isEmpty());
+    }
+
+    /**
+     * Verify that results come from the fallback engine when the cloud
+     * service takes longer than the latency budget, and that the request
+     * is abandoned at the budget rather than when the service responds.
+     */
+    @Test
+    public void Process_LatencyBudgetExceeded_UsesFallback() throws Exception {
+        // Arrange
+        build(newBuilder().setLatencyBudgetMillis(200));
+        fault = Fault.SLOW;
+
+        // Act
+        long start = System.currentTimeMillis();
+        FlowData data = process();
+        long elapsed = System.currentTimeMillis() - start;
+
+        // Assert
+        assertEquals(CloudFailoverData.Source.FALLBACK, getSource(data));
+        assertTrue(elapsed < 1500,
+            "Processing took " + elapsed + "ms, which is longer than the " +
+            "latency budget should allow.");
+    }
+
+    /**
+     * Verify that the latency budget is not added to the evidence, where it
+     * would be seen by other elements such as share usage.
+     */
+    @Test
+    public void Process_LatencyBudget_NotInEvidence() throws Exception {
+        // Arrange
+        build(newBuilder().setLatencyBudgetMillis(5000));
+
+        // Act
+        FlowData data = process();
+
+        // Assert
+        assertEquals(CloudFailoverData.Source.CLOUD, getSource(data));
+        assertFalse(data.getEvidence().asKeyMap().containsKey(
+            Constants.EVIDENCE_DEADLINE_KEY));
+    }
+
+    /**
+     * Verify that results come from the fallback engine when the property
+     * meta-data for the cloud engine cannot be loaded, and that the
+     * fallback properties are still available.
+     */
+    @Test
+    public void Process_NoMetadata_UsesFallback() throws Exception {
+        // Arrange
+        fault = Fault.NO_METADATA;
+        build(newBuilder());
+
+        // Act
+        FlowData data = process();
+
+        // Assert
+        assertEquals(CloudFailoverData.Source.FALLBACK, getSource(data));
+        assertEquals(0, requests.get());
+        assertNotNull(element.getProperties());
+    }
+
+    /**
+     * Verify that once enough cloud requests have failed, requests go
+     * straight to the fallback engine without calling the cloud service.
+     */
+    @Test
+    public void Process_RepeatedFailures_SkipsCloud() throws Exception {
+        // Arrange
+        build(newBuilder().setFailureRate(0.5).setOpenMillis(60000));
+        fault = Fault.ERROR;
+        for (int i = 0; i < 20; i++) {
+            process();
+        }
+        int before = requests.get();
+
+        // Act
+        FlowData data = process();
+
+        // Assert
+        assertEquals(CloudFailoverData.Source.FALLBACK, getSource(data));
+        assertEquals(before, requests.get());
+    }
+
+    /**
+     * Verify that warming up a pipeline containing cloud engines does not
+     * send any requests to the cloud service, where each request is
+     * billable.
+     */
+    @Test
+    public void WarmUp_CloudEngines_NoRequests() throws Exception {
+        // Arrange
+        CloudRequestEngine requestEngine = buildRequestEngine();
+        TestCloudEngine cloudEngine = new TestCloudEngine();
+
+        // Act
+        try (Pipeline cloudPipeline = new PipelineBuilder(
+            LoggerFactory.getILoggerFactory())
+            .setWarmUp(true)
+            .addFlowElement(requestEngine)
+            .addFlowElement(cloudEngine)
+            .build()) {
+
+            // Assert
+            assertTrue(cloudPipeline.isReady());
+            assertEquals(0, requests.get());
+        } finally {
+            cloudEngine.close();
+            requestEngine.close();
+        }
+    }
+
+    /**
+     * Verify that warming up a pipeline containing the failover element does
+     * not send any requests to the cloud service.
+     */
+    @Test
+    public void WarmUp_Failover_NoRequests() throws Exception {
+        // Act
+        build(newBuilder(), true);
+
+        // Assert
+        assertTrue(pipeline.isReady());
+        assertEquals(0, requests.get());
+    }
+}
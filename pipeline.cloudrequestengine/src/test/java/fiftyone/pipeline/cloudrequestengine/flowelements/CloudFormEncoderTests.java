@@ -0,0 +1,147 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.flowelements;
+
+import fiftyone.pipeline.cloudrequestengine.Constants;
+import org.junit.jupiter.api.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link CloudFormEncoder}, checking the content is identical to
+ * that which the form data map produces.
+ */
+public class CloudFormEncoderTests {
+
+    private final CloudFormEncoder encoder = new CloudFormEncoder(
+        "resource",
+        "license",
+        Arrays.asList("query.User-Agent", "header.User-Agent", "cookie.51D_ID"),
+        Constants.EVIDENCE_DEADLINE_KEY);
+
+    private static String encode(String value)
+        throws UnsupportedEncodingException {
+        return URLEncoder.encode(value, "UTF-8");
+    }
+
+    private String getContent(Map<String, Object> evidence) {
+        byte[] content = encoder.encode(evidence);
+        return content == null ?
+            null :
+            new String(content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Verify that parameters are written in reverse order of name after the
+     * keys, and that values are URL encoded.
+     */
+    @Test
+    public void Encode_OrderAndEncoding() throws Exception {
+        // Arrange
+        String userAgent = "Mozilla/5.0 (iPhone; é中😀) &=+%";
+        Map<String, Object> evidence = new LinkedHashMap<>();
+        evidence.put("header.User-Agent", userAgent);
+        evidence.put("cookie.51D_ID", "abc");
+        evidence.put("server.client-ip", "1.2.3.4");
+        evidence.put(Constants.EVIDENCE_DEADLINE_KEY, 1000L);
+
+        // Act
+        String content = getContent(evidence);
+
+        // Assert
+        assertEquals(
+            "resource=resource&license=license" +
+            "&client-ip=1.2.3.4" +
+            "&User-Agent=" + encode(userAgent) +
+            "&51D_ID=abc",
+            content);
+    }
+
+    /**
+     * Verify that query evidence overwrites header evidence with the same
+     * name, regardless of the order the evidence is visited in.
+     */
+    @Test
+    public void Encode_QueryTakesPrecedence() throws Exception {
+        // Arrange
+        Map<String, Object> evidence = new LinkedHashMap<>();
+        evidence.put("query.User-Agent", "query");
+        evidence.put("header.User-Agent", "header");
+        Map<String, Object> reversed = new LinkedHashMap<>();
+        reversed.put("header.User-Agent", "header");
+        reversed.put("query.User-Agent", "query");
+
+        // Act
+        String content = getContent(evidence);
+        String reversedContent = getContent(reversed);
+
+        // Assert
+        assertEquals(
+            "resource=resource&license=license&User-Agent=query",
+            content);
+        assertEquals(content, reversedContent);
+    }
+
+    /**
+     * Verify that evidence keys which were not in the list the encoder was
+     * compiled with are still encoded.
+     */
+    @Test
+    public void Encode_UnknownKeys() throws Exception {
+        // Arrange
+        Map<String, Object> evidence =
+            Collections.<String, Object>singletonMap("query.custom.value", "a b");
+
+        // Act
+        String content = getContent(evidence);
+
+        // Assert
+        assertEquals("resource=resource&license=license&custom=a+b", content);
+    }
+
+    /**
+     * Verify that conflicting non-query evidence is left to the form data
+     * path so that the conflict can be logged, as are keys without a
+     * parameter name.
+     */
+    @Test
+    public void Encode_Conflicts_ReturnsNull() {
+        // Arrange
+        Map<String, Object> conflict = new LinkedHashMap<>();
+        conflict.put("header.User-Agent", "header");
+        conflict.put("cookie.User-Agent", "cookie");
+
+        // Act & Assert
+        assertNull(getContent(conflict));
+        assertNull(getContent(
+            Collections.<String, Object>singletonMap("noseparator", "a")));
+    }
+}
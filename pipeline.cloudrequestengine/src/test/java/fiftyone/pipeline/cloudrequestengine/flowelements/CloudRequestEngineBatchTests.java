@@ -0,0 +1,216 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.flowelements;
+
+import fiftyone.pipeline.cloudrequestengine.helpers.TestCloudServer;
+import fiftyone.pipeline.core.data.FlowData;
+import fiftyone.pipeline.core.flowelements.Pipeline;
+import fiftyone.pipeline.core.flowelements.PipelineBuilder;
+import fiftyone.pipeline.engines.services.HttpClientPooled;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static fiftyone.pipeline.cloudrequestengine.helpers.TestCloudServer.readBody;
+import static fiftyone.pipeline.cloudrequestengine.helpers.TestCloudServer.respond;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for batching in the {@link CloudRequestEngineDefault} using a local
+ * stub of the cloud service.
+ */
+public class CloudRequestEngineBatchTests {
+
+    private TestCloudServer server;
+    private String baseUrl;
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void init() throws IOException {
+        server = new TestCloudServer();
+        server.handle("evidencekeys", exchange ->
+            respond(exchange, 200, "[\"query.User-Agent\"]"));
+        server.handle("batch", exchange -> {
+            JSONArray requests = new JSONArray(readBody(exchange));
+            batchSizes.add(requests.length());
+            JSONArray responses = new JSONArray();
+            for (int i = 0; i < requests.length(); i++) {
+                JSONObject request = requests.getJSONObject(i);
+                assertEquals("key", request.getString("resource"));
+                responses.put(new JSONObject().put(
+                    "device",
+                    new JSONObject().put("ua", request.getString("User-Agent"))));
+            }
+            respond(exchange, 200, responses.toString());
+        });
+        server.handle("failingbatch", exchange -> {
+            readBody(exchange);
+            respond(exchange, 500, "{\"errors\":[\"batch failed\"]}");
+        });
+        server.start();
+        baseUrl = server.getBaseUrl();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        server.stop();
+    }
+
+    private Pipeline buildPipeline(
+        CloudRequestEngine engine) throws Exception {
+        return new PipelineBuilder(LoggerFactory.getILoggerFactory())
+            .setSuppressProcessException(true)
+            .addFlowElement(engine)
+            .build();
+    }
+
+    private CloudRequestEngine buildEngine(
+        String batchPath,
+        int windowMillis,
+        int maxSize) throws Exception {
+        return new CloudRequestEngineBuilder(
+            LoggerFactory.getILoggerFactory(),
+            new HttpClientPooled())
+            .setResourceKey("key")
+            .setEndpoint(baseUrl)
+            .setBatchEndpoint(baseUrl + batchPath)
+            .setBatchWindowMillis(windowMillis)
+            .setBatchMaxSize(maxSize)
+            .build();
+    }
+
+    /**
+     * Process distinct evidence on several threads at once and return the
+     * results in the order submitted.
+     */
+    private List<FlowData> processConcurrently(
+        final Pipeline pipeline,
+        int count) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(count);
+        try {
+            List<Future<FlowData>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                final String userAgent = "agent" + i;
+                futures.add(pool.submit(new Callable<FlowData>() {
+                    @Override
+                    public FlowData call() {
+                        FlowData data = pipeline.createFlowData();
+                        data.addEvidence("query.User-Agent", userAgent);
+                        data.process();
+                        return data;
+                    }
+                }));
+            }
+            List<FlowData> results = new ArrayList<>();
+            for (Future<FlowData> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Verify that concurrent requests within the window are sent in fewer
+     * requests and that each FlowData gets its own result.
+     */
+    @Test
+    public void Batch_ResultsFannedOut() throws Exception {
+        CloudRequestEngine engine = buildEngine("batch", 200, 32);
+        try (Pipeline pipeline = buildPipeline(engine)) {
+            List<FlowData> results = processConcurrently(pipeline, 16);
+
+            for (int i = 0; i < results.size(); i++) {
+                FlowData data = results.get(i);
+                assertTrue(data.getErrors() == null || data.getErrors().isEmpty());
+                JSONObject json = new JSONObject(
+                    data.getFromElement(engine).getJsonResponse());
+                assertEquals(
+                    "agent" + i,
+                    json.getJSONObject("device").getString("ua"));
+            }
+            int total = 0;
+            for (int size : batchSizes) {
+                total += size;
+            }
+            assertEquals(16, total);
+            assertTrue(batchSizes.size() < 16,
+                "Expected requests to be batched but " +
+                batchSizes.size() + " requests were made.");
+        }
+        engine.close();
+    }
+
+    /**
+     * Verify that a batch is sent as soon as it is full rather than waiting
+     * for the window to elapse.
+     */
+    @Test
+    public void Batch_SentWhenFull() throws Exception {
+        CloudRequestEngine engine = buildEngine("batch", 60000, 4);
+        try (Pipeline pipeline = buildPipeline(engine)) {
+            long start = System.currentTimeMillis();
+            processConcurrently(pipeline, 8);
+
+            assertTrue(System.currentTimeMillis() - start < 30000);
+            assertEquals(2, batchSizes.size());
+            assertEquals(4, (int)batchSizes.get(0));
+            assertEquals(4, (int)batchSizes.get(1));
+        }
+        engine.close();
+    }
+
+    /**
+     * Verify that an error response for the whole batch is reported as an
+     * error on every FlowData in it.
+     */
+    @Test
+    public void Batch_ErrorReportedToEach() throws Exception {
+        CloudRequestEngine engine = buildEngine("failingbatch", 200, 32);
+        try (Pipeline pipeline = buildPipeline(engine)) {
+            List<FlowData> results = processConcurrently(pipeline, 4);
+
+            for (FlowData data : results) {
+                assertNotNull(data.getErrors());
+                assertEquals(1, data.getErrors().size());
+                assertTrue(data.getErrors().iterator().next().getThrowable()
+                    .getMessage().contains("batch failed"));
+            }
+        }
+        engine.close();
+    }
+}
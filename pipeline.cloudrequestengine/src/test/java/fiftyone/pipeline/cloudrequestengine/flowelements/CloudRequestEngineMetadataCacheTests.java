@@ -0,0 +1,223 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.flowelements;
+
+import com.sun.net.httpserver.HttpExchange;
+import fiftyone.pipeline.cloudrequestengine.helpers.TestCloudServer;
+import fiftyone.pipeline.core.data.AccessiblePropertyMetaData;
+import fiftyone.pipeline.engines.services.HttpClientPooled;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static fiftyone.pipeline.cloudrequestengine.helpers.TestCloudServer.respond;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for persisting the responses from the properties and evidence keys
+ * endpoints, using a local stub of the cloud service which can be made
+ * unavailable.
+ */
+public class CloudRequestEngineMetadataCacheTests {
+
+    private static final String PROPERTIES =
+        "{\"Products\": {\"device\": {\"DataTier\": \"tier\", \"Properties\": " +
+        "[{\"Name\": \"ismobile\", \"Type\": \"Boolean\", \"Category\": \"Device\"}]}}}";
+
+    private static final String EVIDENCE_KEYS = "[\"query.User-Agent\"]";
+
+    private TestCloudServer server;
+    private String baseUrl;
+    private File directory;
+    private volatile boolean available = true;
+    private final AtomicInteger propertiesRequests = new AtomicInteger();
+    private final AtomicInteger evidenceKeysRequests = new AtomicInteger();
+    private final List<CloudRequestEngine> engines = new ArrayList<>();
+
+    @BeforeEach
+    public void init() throws IOException {
+        directory = Files.createTempDirectory("metadata-cache").toFile();
+        server = new TestCloudServer();
+        server.handle("accessibleproperties", exchange -> {
+            propertiesRequests.incrementAndGet();
+            respondIfAvailable(exchange, PROPERTIES);
+        });
+        server.handle("evidencekeys", exchange -> {
+            evidenceKeysRequests.incrementAndGet();
+            respondIfAvailable(exchange, EVIDENCE_KEYS);
+        });
+        server.start();
+        baseUrl = server.getBaseUrl();
+    }
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        for (CloudRequestEngine engine : engines) {
+            engine.close();
+        }
+        server.stop();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private void respondIfAvailable(HttpExchange exchange, String body) {
+        if (available) {
+            respond(exchange, 200, body);
+        } else {
+            respond(exchange, 503, "{\"errors\":[\"unavailable\"]}");
+        }
+    }
+
+    private CloudRequestEngine build(String cacheDirectory) throws Exception {
+        CloudRequestEngine engine = new CloudRequestEngineBuilder(
+            LoggerFactory.getILoggerFactory(),
+            new HttpClientPooled())
+            .setResourceKey("key")
+            .setEndpoint(baseUrl)
+            .setMetadataCacheDirectory(cacheDirectory)
+            .setMetadataCacheTtlSeconds(60)
+            .build();
+        engines.add(engine);
+        return engine;
+    }
+
+    private void makeStale() {
+        long old = System.currentTimeMillis() - 120000;
+        File[] files = directory.listFiles();
+        assertNotNull(files);
+        assertEquals(2, files.length);
+        for (File file : files) {
+            assertTrue(file.setLastModified(old));
+        }
+    }
+
+    /**
+     * Verify that a fresh persisted response is used by a new engine without
+     * calling the cloud service.
+     */
+    @Test
+    public void MetadataCache_Fresh_NoRequests() throws Exception {
+        // Arrange
+        CloudRequestEngine first = build(directory.getAbsolutePath());
+        first.getPublicProperties();
+        first.getEvidenceKeyFilter();
+        assertEquals(1, propertiesRequests.get());
+        assertEquals(1, evidenceKeysRequests.get());
+
+        // Act
+        CloudRequestEngine second = build(directory.getAbsolutePath());
+        Map<String, AccessiblePropertyMetaData.ProductMetaData> properties =
+            second.getPublicProperties();
+
+        // Assert
+        assertTrue(properties.containsKey("device"));
+        assertTrue(second.getEvidenceKeyFilter().include("query.User-Agent"));
+        assertEquals(1, propertiesRequests.get());
+        assertEquals(1, evidenceKeysRequests.get());
+    }
+
+    /**
+     * Verify that a stale persisted response is used when the cloud service
+     * cannot be reached.
+     */
+    @Test
+    public void MetadataCache_StaleAndUnavailable_UsesPersisted() throws Exception {
+        // Arrange
+        CloudRequestEngine first = build(directory.getAbsolutePath());
+        first.getPublicProperties();
+        first.getEvidenceKeyFilter();
+        makeStale();
+        available = false;
+
+        // Act
+        CloudRequestEngine second = build(directory.getAbsolutePath());
+
+        // Assert
+        assertTrue(second.getPublicProperties().containsKey("device"));
+        assertTrue(second.getEvidenceKeyFilter().include("query.User-Agent"));
+    }
+
+    /**
+     * Verify that a stale persisted response is used immediately and
+     * revalidated in the background.
+     */
+    @Test
+    public void MetadataCache_Stale_RevalidatedInBackground() throws Exception {
+        // Arrange
+        CloudRequestEngine first = build(directory.getAbsolutePath());
+        first.getPublicProperties();
+        first.getEvidenceKeyFilter();
+        makeStale();
+
+        // Act
+        CloudRequestEngine second = build(directory.getAbsolutePath());
+        assertTrue(second.getPublicProperties().containsKey("device"));
+
+        // Assert
+        long deadline = System.currentTimeMillis() + 10000;
+        while (propertiesRequests.get() < 2 &&
+            System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, propertiesRequests.get());
+        // Wait for the refreshed response to be persisted.
+        boolean refreshed = false;
+        while (refreshed == false && System.currentTimeMillis() < deadline) {
+            for (File file : directory.listFiles()) {
+                refreshed |= System.currentTimeMillis() -
+                    file.lastModified() < 60000;
+            }
+            Thread.sleep(10);
+        }
+        assertTrue(refreshed);
+    }
+
+    /**
+     * Verify that without persistence, an unavailable cloud service prevents
+     * the properties being loaded.
+     */
+    @Test
+    public void MetadataCache_Disabled_Unavailable_Throws() throws Exception {
+        // Arrange
+        available = false;
+        CloudRequestEngine engine = build(null);
+
+        // Act & Assert
+        assertThrows(Exception.class, engine::getPublicProperties);
+        assertEquals(0, directory.listFiles().length);
+    }
+}
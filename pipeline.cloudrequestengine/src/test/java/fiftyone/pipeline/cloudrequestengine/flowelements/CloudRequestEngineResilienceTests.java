@@ -0,0 +1,314 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.flowelements;
+
+import fiftyone.pipeline.cloudrequestengine.helpers.TestCloudServer;
+import fiftyone.pipeline.cloudrequestengine.CloudRequestException;
+import fiftyone.pipeline.cloudrequestengine.Constants;
+import fiftyone.pipeline.core.data.FlowData;
+import fiftyone.pipeline.core.data.FlowError;
+import fiftyone.pipeline.core.flowelements.Pipeline;
+import fiftyone.pipeline.core.flowelements.PipelineBuilder;
+import fiftyone.pipeline.engines.services.HttpClientPooled;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URLDecoder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static fiftyone.pipeline.cloudrequestengine.helpers.TestCloudServer.readBody;
+import static fiftyone.pipeline.cloudrequestengine.helpers.TestCloudServer.respond;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the circuit breaker, hedging, adaptive timeouts and deadlines in
+ * the {@link CloudRequestEngineDefault}, using a local stub of the cloud
+ * service which can be told to fail or respond slowly.
+ */
+public class CloudRequestEngineResilienceTests {
+
+    /**
+     * Faults the stub server can inject.
+     */
+    private enum Fault {
+        NONE,
+        ERROR,
+        SLOW,
+        SLOW_FIRST_ATTEMPT
+    }
+
+    private TestCloudServer server;
+    private String baseUrl;
+    private volatile Fault fault = Fault.NONE;
+    private volatile int slowMillis = 3000;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    private Pipeline pipeline;
+    private CloudRequestEngine engine;
+
+    @BeforeEach
+    public void init() throws IOException {
+        server = new TestCloudServer();
+        server.handle("evidencekeys", exchange ->
+            respond(exchange, 200, "[\"query.User-Agent\"]"));
+        server.handle("key.json", exchange -> {
+            String userAgent = getUserAgent(readBody(exchange));
+            requests.incrementAndGet();
+            int attempt = attempts
+                .computeIfAbsent(userAgent, k -> new AtomicInteger())
+                .incrementAndGet();
+            Fault current = fault;
+            if (current == Fault.ERROR) {
+                respond(exchange, 500, "{\"errors\":[\"injected fault\"]}");
+                return;
+            }
+            if (current == Fault.SLOW ||
+                (current == Fault.SLOW_FIRST_ATTEMPT && attempt == 1)) {
+                sleep(slowMillis);
+            }
+            respond(exchange, 200,
+                "{\"device\":{\"ua\":\"" + userAgent + "\"}}");
+        });
+        server.start();
+        baseUrl = server.getBaseUrl();
+    }
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        if (engine != null) {
+            engine.close();
+        }
+        server.stop();
+    }
+
+    private static void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String getUserAgent(String form) throws IOException {
+        for (String pair : form.split("&")) {
+            if (pair.startsWith("User-Agent=")) {
+                return URLDecoder.decode(pair.substring(11), "UTF-8");
+            }
+        }
+        return "";
+    }
+
+    private void build(CloudRequestEngineBuilder builder) throws Exception {
+        engine = builder
+            .setResourceKey("key")
+            .setEndpoint(baseUrl)
+            .build();
+        pipeline = new PipelineBuilder(LoggerFactory.getILoggerFactory())
+            .setSuppressProcessException(true)
+            .addFlowElement(engine)
+            .build();
+    }
+
+    private CloudRequestEngineBuilder newBuilder() {
+        return new CloudRequestEngineBuilder(
+            LoggerFactory.getILoggerFactory(),
+            new HttpClientPooled());
+    }
+
+    private FlowData process(String userAgent) {
+        return process(userAgent, null);
+    }
+
+    private FlowData process(String userAgent, Long deadline) {
+        FlowData data = pipeline.createFlowData();
+        data.addEvidence("query.User-Agent", userAgent);
+        if (deadline != null) {
+            data.addEvidence(Constants.EVIDENCE_DEADLINE_KEY, deadline);
+        }
+        data.process();
+        return data;
+    }
+
+    private static Throwable getError(FlowData data) {
+        assertNotNull(data.getErrors());
+        assertFalse(data.getErrors().isEmpty());
+        FlowError error = data.getErrors().iterator().next();
+        return error.getThrowable();
+    }
+
+    private static boolean hasErrors(FlowData data) {
+        return data.getErrors() != null && data.getErrors().isEmpty() == false;
+    }
+
+    /**
+     * Send enough fast requests to establish the response time percentiles.
+     */
+    private void establishLatencies() {
+        for (int i = 0; i < LatencyTracker.MINIMUM_SAMPLES; i++) {
+            assertFalse(hasErrors(process("warm" + i)));
+        }
+    }
+
+    /**
+     * Verify that once enough requests have failed, further requests fail
+     * immediately with an error without calling the cloud service.
+     */
+    @Test
+    public void CircuitBreaker_OpensAfterFailures() throws Exception {
+        build(newBuilder().setCircuitBreakerOpenMillis(60000));
+        fault = Fault.ERROR;
+
+        for (int i = 0; i < CircuitBreaker.MINIMUM_REQUESTS; i++) {
+            assertTrue(hasErrors(process("agent" + i)));
+        }
+        int sent = requests.get();
+        FlowData data = process("another");
+
+        assertEquals(sent, requests.get());
+        Throwable error = getError(data);
+        assertInstanceOf(CloudRequestException.class, error);
+        assertTrue(error.getMessage().contains("refused"));
+    }
+
+    /**
+     * Verify that after the open period a trial request is sent and, if it
+     * succeeds, the circuit closes again.
+     */
+    @Test
+    public void CircuitBreaker_ClosesAfterSuccessfulTrial() throws Exception {
+        build(newBuilder().setCircuitBreakerOpenMillis(200));
+        fault = Fault.ERROR;
+        for (int i = 0; i < CircuitBreaker.MINIMUM_REQUESTS; i++) {
+            process("agent" + i);
+        }
+        assertTrue(getError(process("refused")).getMessage().contains("refused"));
+
+        fault = Fault.NONE;
+        Thread.sleep(300);
+
+        assertFalse(hasErrors(process("trial")));
+        assertFalse(hasErrors(process("after")));
+    }
+
+    /**
+     * Verify that slow requests count as failures.
+     */
+    @Test
+    public void CircuitBreaker_OpensOnSlowRequests() throws Exception {
+        build(newBuilder()
+            .setCircuitBreakerOpenMillis(60000)
+            .setCircuitBreakerSlowCallMillis(20));
+        fault = Fault.SLOW;
+        slowMillis = 30;
+
+        for (int i = 0; i < CircuitBreaker.MINIMUM_REQUESTS; i++) {
+            assertFalse(hasErrors(process("agent" + i)));
+        }
+
+        assertTrue(getError(process("another")).getMessage().contains("refused"));
+    }
+
+    /**
+     * Verify that when a response is slow a duplicate request is sent and
+     * the faster response is used.
+     */
+    @Test
+    public void Hedging_DuplicateRequestUsed() throws Exception {
+        build(newBuilder().setHedgingEnabled(true));
+        establishLatencies();
+        fault = Fault.SLOW_FIRST_ATTEMPT;
+        slowMillis = 5000;
+
+        long start = System.currentTimeMillis();
+        FlowData data = process("hedged");
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertFalse(hasErrors(data));
+        assertTrue(data.getFromElement(engine).getJsonResponse().contains("hedged"));
+        assertTrue(elapsed < 2500, "Took " + elapsed + "ms");
+        assertEquals(2, attempts.get("hedged").get());
+    }
+
+    /**
+     * Verify that a request is abandoned with an error once the deadline in
+     * the evidence has passed.
+     */
+    @Test
+    public void Deadline_ErrorWhenExceeded() throws Exception {
+        build(newBuilder());
+        fault = Fault.SLOW;
+        slowMillis = 3000;
+
+        long start = System.currentTimeMillis();
+        FlowData data = process("late", start + 200);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertInstanceOf(CloudRequestException.class, getError(data));
+        assertTrue(elapsed < 2000, "Took " + elapsed + "ms");
+    }
+
+    /**
+     * Verify that the cloud service is not called if the deadline has
+     * already passed, and that the deadline is not sent to the service.
+     */
+    @Test
+    public void Deadline_PassedNotSent() throws Exception {
+        build(newBuilder());
+
+        FlowData expired = process("expired", System.currentTimeMillis() - 1);
+        FlowData future = process("future", System.currentTimeMillis() + 60000);
+
+        assertInstanceOf(CloudRequestException.class, getError(expired));
+        assertFalse(hasErrors(future));
+        assertEquals(1, requests.get());
+        assertNull(attempts.get("expired"));
+    }
+
+    /**
+     * Verify that adaptive timeouts fail a slow request well before the
+     * configured timeout once response times are known.
+     */
+    @Test
+    public void AdaptiveTimeout_SlowRequestTimesOut() throws Exception {
+        build(newBuilder().setAdaptiveTimeoutsEnabled(true));
+        establishLatencies();
+        fault = Fault.SLOW;
+        slowMillis = 5000;
+
+        long start = System.currentTimeMillis();
+        FlowData data = process("slow");
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertInstanceOf(SocketTimeoutException.class, getError(data));
+        assertTrue(elapsed < 4000, "Took " + elapsed + "ms");
+    }
+}
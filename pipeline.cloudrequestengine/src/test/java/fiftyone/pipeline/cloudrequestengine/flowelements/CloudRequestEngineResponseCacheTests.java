@@ -0,0 +1,203 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.flowelements;
+
+import fiftyone.pipeline.cloudrequestengine.helpers.TestCloudServer;
+import fiftyone.pipeline.cloudrequestengine.data.CloudRequestData;
+import fiftyone.pipeline.core.data.FlowData;
+import fiftyone.pipeline.core.flowelements.Pipeline;
+import fiftyone.pipeline.core.flowelements.PipelineBuilder;
+import fiftyone.pipeline.engines.services.HttpClientPooled;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static fiftyone.pipeline.cloudrequestengine.helpers.TestCloudServer.readBody;
+import static fiftyone.pipeline.cloudrequestengine.helpers.TestCloudServer.respond;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the response cache in the {@link CloudRequestEngineDefault},
+ * using a local stub of the cloud service which returns the configured
+ * caching headers.
+ */
+public class CloudRequestEngineResponseCacheTests {
+
+    private TestCloudServer server;
+    private String baseUrl;
+    private volatile String cacheControl = null;
+    private volatile int code = 200;
+    private final AtomicInteger requests = new AtomicInteger();
+    private Pipeline pipeline;
+    private CloudRequestEngine engine;
+
+    @BeforeEach
+    public void init() throws Exception {
+        server = new TestCloudServer();
+        server.handle("evidencekeys", exchange ->
+            respond(exchange, 200, "[\"query.User-Agent\"]"));
+        server.handle("key.json", exchange -> {
+            readBody(exchange);
+            requests.incrementAndGet();
+            if (cacheControl != null) {
+                exchange.getResponseHeaders().add("Cache-Control", cacheControl);
+            }
+            respond(exchange, code, code == 200 ?
+                "{\"device\":{\"ismobile\":true}}" :
+                "{\"errors\":[\"injected fault\"]}");
+        });
+        server.start();
+        baseUrl = server.getBaseUrl();
+
+        engine = new CloudRequestEngineBuilder(
+            LoggerFactory.getILoggerFactory(),
+            new HttpClientPooled())
+            .setResourceKey("key")
+            .setEndpoint(baseUrl)
+            .setResponseCacheSize(10)
+            .build();
+        pipeline = new PipelineBuilder(LoggerFactory.getILoggerFactory())
+            .setSuppressProcessException(true)
+            .addFlowElement(engine)
+            .build();
+    }
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        pipeline.close();
+        engine.close();
+        server.stop();
+    }
+
+    private CloudRequestData process(String userAgent) {
+        FlowData data = pipeline.createFlowData();
+        data.addEvidence("query.User-Agent", userAgent);
+        data.process();
+        return data.getFromElement(engine);
+    }
+
+    /**
+     * Verify that a repeated request is served from the cache, and shares the
+     * tree already parsed from the response.
+     */
+    @Test
+    public void ResponseCache_Repeated_SingleRequest() {
+        // Act
+        CloudRequestData first = process("iPhone");
+        CloudRequestData second = process("iPhone");
+        process("Android");
+
+        // Assert
+        assertEquals(2, requests.get());
+        assertEquals(first.getJsonResponse(), second.getJsonResponse());
+        assertSame(first.getJsonObject(), second.getJsonObject());
+    }
+
+    /**
+     * Verify that responses the cloud service says must not be stored are
+     * not cached.
+     */
+    @Test
+    public void ResponseCache_NoStore_NotCached() {
+        // Arrange
+        cacheControl = "no-store";
+
+        // Act
+        process("iPhone");
+        process("iPhone");
+
+        // Assert
+        assertEquals(2, requests.get());
+    }
+
+    /**
+     * Verify that a cached response expires after the max-age returned by
+     * the cloud service.
+     */
+    @Test
+    public void ResponseCache_MaxAge_Expires() throws InterruptedException {
+        // Arrange
+        cacheControl = "public, max-age=1";
+
+        // Act
+        process("iPhone");
+        process("iPhone");
+        assertEquals(1, requests.get());
+        Thread.sleep(1100);
+        process("iPhone");
+
+        // Assert
+        assertEquals(2, requests.get());
+    }
+
+    /**
+     * Verify that error responses are not cached.
+     */
+    @Test
+    public void ResponseCache_Error_NotCached() {
+        // Arrange
+        code = 500;
+
+        // Act
+        process("iPhone");
+        process("iPhone");
+
+        // Assert
+        assertEquals(2, requests.get());
+    }
+
+    /**
+     * Verify the time to live taken from the response headers.
+     */
+    @Test
+    public void ResponseCache_TtlFromHeaders() {
+        Map<String, List<String>> headers = new HashMap<>();
+        assertEquals(5000, CloudResponseCache.getTtlMillis(headers, 5000));
+
+        headers.put("cache-control", Collections.singletonList("max-age=30"));
+        assertEquals(30000, CloudResponseCache.getTtlMillis(headers, 5000));
+
+        headers.put("cache-control", Collections.singletonList("no-cache"));
+        assertEquals(0, CloudResponseCache.getTtlMillis(headers, 5000));
+
+        headers.put("cache-control", Collections.singletonList(
+            "max-age=60, no-store"));
+        assertEquals(0, CloudResponseCache.getTtlMillis(headers, 5000));
+
+        headers.put("cache-control", Collections.singletonList(
+            "max-age=60, private"));
+        assertEquals(0, CloudResponseCache.getTtlMillis(headers, 5000));
+
+        headers.clear();
+        headers.put("Expires", Collections.singletonList(
+            "Thu, 01 Jan 1970 00:00:00 GMT"));
+        assertEquals(0, CloudResponseCache.getTtlMillis(headers, 5000));
+    }
+}
@@ -25,6 +25,7 @@ package fiftyone.pipeline.cloudrequestengine.flowelements;
 import fiftyone.common.testhelpers.TestLogger;
 import fiftyone.pipeline.cloudrequestengine.CloudRequestException;
 import fiftyone.pipeline.cloudrequestengine.Constants;
+import fiftyone.pipeline.cloudrequestengine.data.CloudRequestData;
 import fiftyone.pipeline.core.data.AccessiblePropertyMetaData;
 import fiftyone.pipeline.core.data.EvidenceKeyFilter;
 import fiftyone.pipeline.core.data.FlowData;
@@ -42,11 +43,20 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -617,4 +627,184 @@ public class CloudRequestEngineTests extends CloudRequestEngineTestsBase {
             assertInstanceOf(PropertyNotLoadedException.class, e);
         }
     }
+
+    /**
+     * Verify that concurrent requests with identical evidence share a single
+     * request to the cloud service.
+     */
+    @Test
+    public void Process_ConcurrentIdenticalEvidence_SingleRequest() throws Exception {
+        final String resourceKey = "resource_key";
+        final int threads = 8;
+        configureMockedClient();
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger posts = new AtomicInteger();
+        doAnswer(invocation -> {
+            posts.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            return jsonResponse;
+        }).when(httpClient).postData(
+            any(HttpURLConnection.class),
+            ArgumentMatchers.<String, String>anyMap(),
+            (byte[])any());
+
+        CloudRequestEngine engine = new CloudRequestEngineBuilder(loggerFactory, httpClient)
+                .setResourceKey(resourceKey)
+                .build();
+        final Pipeline pipeline = new PipelineBuilder(loggerFactory)
+                .addFlowElement(engine).build();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        FlowData data = pipeline.createFlowData();
+                        data.addEvidence("query.User-Agent", "iPhone");
+                        data.process();
+                        return data.getFromElement(engine).getJsonResponse();
+                    }
+                }));
+            }
+            // Wait for the first request to start, then give the other
+            // threads time to join it before it completes.
+            long deadline = System.currentTimeMillis() + 10000;
+            while (posts.get() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals(jsonResponse, result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, posts.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Verify that a request without a deadline is sent on the calling thread
+     * rather than handed to another thread.
+     */
+    @Test
+    public void Process_NoDeadline_SentOnCallingThread() throws Exception {
+        final String resourceKey = "resource_key";
+        configureMockedClient();
+        final AtomicReference<Thread> sender = new AtomicReference<>();
+        doAnswer(invocation -> {
+            sender.set(Thread.currentThread());
+            return jsonResponse;
+        }).when(httpClient).postData(
+            any(HttpURLConnection.class),
+            ArgumentMatchers.<String, String>anyMap(),
+            (byte[])any());
+
+        CloudRequestEngine engine = new CloudRequestEngineBuilder(loggerFactory, httpClient)
+                .setResourceKey(resourceKey)
+                .build();
+        Pipeline pipeline = new PipelineBuilder(loggerFactory)
+                .addFlowElement(engine).build();
+
+        FlowData data = pipeline.createFlowData();
+        data.addEvidence("query.User-Agent", "iPhone");
+        data.process();
+
+        assertEquals(jsonResponse, data.getFromElement(engine).getJsonResponse());
+        assertSame(Thread.currentThread(), sender.get());
+    }
+
+    /**
+     * Verify that requests with different evidence are not coalesced, and
+     * that a completed request is not reused for later requests.
+     */
+    @Test
+    public void Process_DifferentEvidence_SeparateRequests() throws Exception {
+        final String resourceKey = "resource_key";
+        configureMockedClient();
+
+        CloudRequestEngine engine = new CloudRequestEngineBuilder(loggerFactory, httpClient)
+                .setResourceKey(resourceKey)
+                .build();
+        Pipeline pipeline = new PipelineBuilder(loggerFactory)
+                .addFlowElement(engine).build();
+
+        for (String userAgent : new String[] { "iPhone", "Android", "iPhone" }) {
+            FlowData data = pipeline.createFlowData();
+            data.addEvidence("query.User-Agent", userAgent);
+            data.process();
+            assertEquals(jsonResponse, data.getFromElement(engine).getJsonResponse());
+        }
+
+        verify(httpClient, times(3))
+                .postData(
+                        any(HttpURLConnection.class),
+                        ArgumentMatchers.anyMap(),
+                        (byte[])any());
+    }
+
+    /**
+     * Verify that the response is parsed once, and that the parsed tree is
+     * shared by every request which received the same response.
+     */
+    @Test
+    public void Process_ConcurrentIdenticalEvidence_SharedJsonObject() throws Exception {
+        final String resourceKey = "resource_key";
+        final int threads = 4;
+        configureMockedClient();
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger posts = new AtomicInteger();
+        doAnswer(invocation -> {
+            posts.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            return jsonResponse;
+        }).when(httpClient).postData(
+            any(HttpURLConnection.class),
+            ArgumentMatchers.<String, String>anyMap(),
+            (byte[])any());
+
+        CloudRequestEngine engine = new CloudRequestEngineBuilder(loggerFactory, httpClient)
+                .setResourceKey(resourceKey)
+                .build();
+        final Pipeline pipeline = new PipelineBuilder(loggerFactory)
+                .addFlowElement(engine).build();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<JSONObject>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(new Callable<JSONObject>() {
+                    @Override
+                    public JSONObject call() throws Exception {
+                        FlowData data = pipeline.createFlowData();
+                        data.addEvidence("query.User-Agent", "iPhone");
+                        data.process();
+                        CloudRequestData requestData =
+                            data.getFromElement(engine);
+                        JSONObject first = requestData.getJsonObject();
+                        assertSame(first, requestData.getJsonObject());
+                        return first;
+                    }
+                }));
+            }
+            long deadline = System.currentTimeMillis() + 10000;
+            while (posts.get() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            JSONObject expected = results.get(0).get(10, TimeUnit.SECONDS);
+            assertEquals(1, expected.getJSONObject("device").getInt("value"));
+            for (Future<JSONObject> result : results) {
+                assertSame(expected, result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, posts.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 }
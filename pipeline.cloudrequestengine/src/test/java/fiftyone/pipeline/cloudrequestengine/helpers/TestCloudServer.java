@@ -0,0 +1,120 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.cloudrequestengine.helpers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local stub of the cloud service. Tests add a handler for each endpoint
+ * they need, then start the server and point the engine at
+ * {@link #getBaseUrl()}.
+ */
+public class TestCloudServer {
+
+    private final HttpServer httpServer;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    public TestCloudServer() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpServer.setExecutor(executor);
+    }
+
+    /**
+     * Add a handler for an endpoint.
+     * @param path the path of the endpoint, e.g. "evidencekeys"
+     * @param handler the handler to respond to requests
+     * @return this server
+     */
+    public TestCloudServer handle(String path, HttpHandler handler) {
+        httpServer.createContext("/" + path, handler);
+        return this;
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    public void stop() {
+        httpServer.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return the URL of the server, ending in a slash
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + httpServer.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Read the whole body of a request.
+     * @param exchange the request
+     * @return the body as a UTF-8 string
+     * @throws IOException if the body could not be read
+     */
+    public static String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Send a JSON response. If the client has already given up waiting, which
+     * some tests expect, the failure to send is ignored.
+     * @param exchange the request to respond to
+     * @param code the HTTP status code
+     * @param body the JSON body
+     */
+    public static void respond(
+        HttpExchange exchange,
+        int code,
+        String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(code, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // The client gave up waiting.
+        }
+    }
+}
@@ -117,5 +117,29 @@ public interface Pipeline extends AutoCloseable {
      * @return an immutable map of available properties
      */
     Map<String, Map<String, ElementPropertyMetaData>> getElementAvailableProperties();
-    
+
+    /**
+     * Indicates whether the Pipeline has completed any warm-up configured in
+     * the {@link PipelineBuilderBase} and is ready to process requests at
+     * full speed. A Pipeline which is not ready can still process requests.
+     * <p>
+     * By default a Pipeline is always ready.
+     * @return true if the Pipeline is ready
+     */
+    default boolean isReady() {
+        return true;
+    }
+
+    /**
+     * Add a listener to be notified when the Pipeline is ready. Listeners are
+     * called in the order they are added. If the Pipeline is already ready,
+     * the listener is called immediately on the calling thread.
+     * <p>
+     * By default a Pipeline is always ready, so the listener is called
+     * immediately.
+     * @param listener the listener to add
+     */
+    default void addReadyListener(PipelineReadyListener listener) {
+        listener.pipelineReady(this);
+    }
 }
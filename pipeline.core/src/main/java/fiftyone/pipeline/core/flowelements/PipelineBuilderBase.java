@@ -33,7 +33,12 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import static fiftyone.pipeline.core.Constants.EVIDENCE_HEADER_USERAGENT_KEY;
 
 /**
  * Abstract base class for all Pipeline builders. The default implementation is
@@ -71,6 +76,44 @@ public abstract class PipelineBuilderBase<T extends PipelineBuilderBase> {
 
     protected boolean suppressProcessExceptions = false;
 
+    /**
+     * The default number of times the warm-up evidence is processed.
+     */
+    public static final int DEFAULT_WARM_UP_ITERATIONS = 100;
+
+    /**
+     * True if the pipeline should be warmed up before it reports that it is
+     * ready.
+     */
+    protected boolean warmUp = false;
+
+    /**
+     * Evidence to process during warm-up, or null to use the built-in
+     * evidence.
+     */
+    protected List<Map<String, ?>> warmUpEvidence = null;
+
+    /**
+     * Number of times the warm-up evidence is processed.
+     */
+    protected int warmUpIterations = DEFAULT_WARM_UP_ITERATIONS;
+
+    /**
+     * True if elements should read through their data during warm-up.
+     */
+    protected boolean warmUpTouchData = false;
+
+    /**
+     * True if warm-up should run on a background thread after the pipeline
+     * has been returned.
+     */
+    protected boolean warmUpInBackground = false;
+
+    /**
+     * Listeners to add to the pipeline, in the order they should be called.
+     */
+    protected final List<PipelineReadyListener> readyListeners = new ArrayList<>();
+
     /**
      * Construct a new instance using the default {@link ILoggerFactory}
      * implementation returned by the {@link LoggerFactory#getILoggerFactory()}
@@ -102,13 +145,33 @@ public abstract class PipelineBuilderBase<T extends PipelineBuilderBase> {
      */
     public Pipeline build() throws Exception {
         onPreBuild();
-        Pipeline pipeline = new PipelineDefault(
+        final PipelineDefault pipeline = new PipelineDefault(
             loggerFactory.getLogger(Pipeline.class.getName()),
             flowElements,
             getFlowDataFactory(),
             autoCloseElements,
             suppressProcessExceptions);
         addServicesToPipeline(pipeline);
+        if (warmUp) {
+            pipeline.setReady(false);
+        }
+        for (PipelineReadyListener listener : readyListeners) {
+            pipeline.addReadyListener(listener);
+        }
+        if (warmUp) {
+            if (warmUpInBackground) {
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        warmUp(pipeline);
+                    }
+                }, "PipelineWarmUp");
+                thread.setDaemon(true);
+                thread.start();
+            } else {
+                warmUp(pipeline);
+            }
+        }
         return pipeline;
     }
 
@@ -203,6 +266,197 @@ public abstract class PipelineBuilderBase<T extends PipelineBuilderBase> {
         return (T) this;
     }
 
+    /**
+     * Configure the Pipeline to be warmed up before it reports that it is
+     * ready. Warm-up processes evidence through each element so that caches
+     * are populated and code has been compiled before the first real request.
+     * See {@link Pipeline#isReady()}.
+     * @param warmUp true if the Pipeline should be warmed up
+     * @return this builder
+     */
+    @SuppressWarnings("unchecked")
+    public T setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+        return (T) this;
+    }
+
+    /**
+     * Set the evidence to process during warm-up. Each entry is processed as
+     * a separate {@link FlowData}. Setting the evidence enables warm-up. If
+     * not set, a small built-in set of User-Agents is used.
+     * @param evidence list of evidence maps to process
+     * @return this builder
+     */
+    @SuppressWarnings("unchecked")
+    public T setWarmUpEvidence(List<Map<String, ?>> evidence) {
+        this.warmUpEvidence = evidence;
+        this.warmUp = true;
+        return (T) this;
+    }
+
+    /**
+     * Set the number of times the warm-up evidence is processed. The default
+     * is {@link #DEFAULT_WARM_UP_ITERATIONS}.
+     * @param iterations number of passes over the warm-up evidence
+     * @return this builder
+     */
+    @SuppressWarnings("unchecked")
+    public T setWarmUpIterations(int iterations) {
+        this.warmUpIterations = iterations;
+        return (T) this;
+    }
+
+    /**
+     * Configure whether elements implementing {@link WarmUpAware} should read
+     * through their data during warm-up so that memory mapped pages are
+     * resident before the first request.
+     * @param touchData true if data should be touched during warm-up
+     * @return this builder
+     */
+    @SuppressWarnings("unchecked")
+    public T setWarmUpTouchData(boolean touchData) {
+        this.warmUpTouchData = touchData;
+        return (T) this;
+    }
+
+    /**
+     * Configure whether warm-up runs on a background thread. If true, the
+     * {@link #build()} method returns immediately and the Pipeline reports
+     * that it is not ready until warm-up has completed. If false, warm-up is
+     * completed before {@link #build()} returns.
+     * @param background true if warm-up should run in the background
+     * @return this builder
+     */
+    @SuppressWarnings("unchecked")
+    public T setWarmUpInBackground(boolean background) {
+        this.warmUpInBackground = background;
+        return (T) this;
+    }
+
+    /**
+     * Add a listener to be notified when the Pipeline is ready. Listeners are
+     * called in the order they are added, once warm-up has completed, or
+     * during {@link #build()} if warm-up is not enabled.
+     * @param listener the listener to add
+     * @return this builder
+     */
+    @SuppressWarnings("unchecked")
+    public T addReadyListener(PipelineReadyListener listener) {
+        readyListeners.add(listener);
+        return (T) this;
+    }
+
+    /**
+     * Warm up the pipeline and then mark it as ready. Failures are logged and
+     * do not prevent the pipeline from becoming ready.
+     * @param pipeline the pipeline to warm up
+     */
+    private void warmUp(PipelineDefault pipeline) {
+        long start = System.currentTimeMillis();
+        try {
+            List<FlowElement> elements = new ArrayList<>();
+            addWarmUpElements(flowElements, elements);
+            if (warmUpTouchData) {
+                touchData(flowElements);
+            }
+            List<Map<String, ?>> evidence = warmUpEvidence != null ?
+                warmUpEvidence :
+                getDefaultWarmUpEvidence();
+            for (int i = 0; i < warmUpIterations && pipeline.isClosed() == false; i++) {
+                for (Map<String, ?> entry : evidence) {
+                    try (FlowData data = pipeline.createFlowData()) {
+                        data.addEvidence(entry);
+                        pipeline.processWarmUp(data, elements);
+                    }
+                }
+            }
+            logger.info("Pipeline '" + pipeline.hashCode() + "' warmed up in " +
+                (System.currentTimeMillis() - start) + "ms.");
+        } catch (Exception e) {
+            logger.warn("Pipeline '" + pipeline.hashCode() + "' warm-up " +
+                "failed. The pipeline will be marked as ready.", e);
+        } finally {
+            pipeline.setReady(true);
+        }
+    }
+
+    /**
+     * Add the elements which accept warm-up evidence to the list to be
+     * processed. Where some elements in a {@link ParallelElements} do not
+     * accept warm-up evidence, the rest are added individually so they can
+     * still be warmed up.
+     * @param elements the elements to check
+     * @param warmUpElements the list to add elements to
+     * @return true if all the elements accept warm-up evidence
+     */
+    private static boolean addWarmUpElements(
+        List<FlowElement> elements,
+        List<FlowElement> warmUpElements) {
+        boolean all = true;
+        for (FlowElement element : elements) {
+            if (element instanceof ParallelElements) {
+                List<FlowElement> children = new ArrayList<>();
+                if (addWarmUpElements(
+                    ((ParallelElements)element).getFlowElements(),
+                    children)) {
+                    warmUpElements.add(element);
+                } else {
+                    warmUpElements.addAll(children);
+                    all = false;
+                }
+            } else if (element instanceof WarmUpAware == false ||
+                ((WarmUpAware)element).acceptsWarmUpEvidence()) {
+                warmUpElements.add(element);
+            } else {
+                all = false;
+            }
+        }
+        return all;
+    }
+
+    private void touchData(List<FlowElement> elements) {
+        for (FlowElement element : elements) {
+            if (element instanceof ParallelElements) {
+                touchData(((ParallelElements)element).getFlowElements());
+            } else if (element instanceof WarmUpAware) {
+                try {
+                    ((WarmUpAware)element).touchData();
+                } catch (Exception e) {
+                    logger.warn("Failed to touch data for element '" +
+                        element.getClass().getSimpleName() + "'.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the built-in evidence used to warm up the pipeline when none has
+     * been set. This covers the most common browser families and a crawler.
+     * @return list of evidence maps
+     */
+    protected List<Map<String, ?>> getDefaultWarmUpEvidence() {
+        String[] userAgents = new String[] {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 " +
+                "(KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 17_1 like Mac OS X) " +
+                "AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.1 " +
+                "Mobile/15E148 Safari/604.1",
+            "Mozilla/5.0 (Linux; Android 14; SM-S918B) AppleWebKit/537.36 " +
+                "(KHTML, like Gecko) Chrome/120.0.0.0 Mobile Safari/537.36",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10.15; rv:121.0) " +
+                "Gecko/20100101 Firefox/121.0",
+            "Mozilla/5.0 (compatible; Googlebot/2.1; " +
+                "+http://www.google.com/bot.html)"
+        };
+        List<Map<String, ?>> evidence = new ArrayList<>();
+        for (String userAgent : userAgents) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put(EVIDENCE_HEADER_USERAGENT_KEY, userAgent);
+            evidence.add(entry);
+        }
+        return Collections.unmodifiableList(evidence);
+    }
+
     /**
      * Called just before a pipeline is built.
      */
@@ -85,6 +85,17 @@ class PipelineDefault implements PipelineInternal {
      */
     private volatile boolean isClosed = false;
 
+    /**
+     * Indicates whether the pipeline has completed any warm-up.
+     */
+    private volatile boolean isReady = true;
+
+    /**
+     * Listeners waiting for the pipeline to become ready, in the order they
+     * were added.
+     */
+    private final List<PipelineReadyListener> readyListeners = new ArrayList<>();
+
     /**
      * True if multiple {@link FlowElement} instances will run concurrently
      * within this pipeline. False otherwise.
@@ -444,16 +455,7 @@ class PipelineDefault implements PipelineInternal {
 
             throw new RuntimeException("Pipeline is closed");
         }
-        for (FlowElement element : flowElements) {
-            try {
-                element.process(data);
-                if (data.isStopped()) break;
-            } catch (Exception ex) {
-                // If an error occurs then store it in the
-                // FlowData object.
-                data.addError(ex, element);
-            }
-        }
+        processElements(data, flowElements);
         // If any errors have occurred and exceptions are not
         // suppressed, then throw an aggregate exception.
         if (data.getErrors() != null &&
@@ -470,6 +472,74 @@ class PipelineDefault implements PipelineInternal {
         logger.debug("Pipeline '" + hashCode() + "' finished processing.");
     }
 
+    /**
+     * Process the data through a subset of this pipeline's elements during
+     * warm-up. Errors are recorded in the {@link FlowData} and never thrown.
+     * @param data the {@link FlowData} to process
+     * @param elements the elements to process the data with
+     */
+    void processWarmUp(FlowData data, List<FlowElement> elements) {
+        processElements(data, elements);
+    }
+
+    private void processElements(FlowData data, List<FlowElement> elements) {
+        for (FlowElement element : elements) {
+            try {
+                element.process(data);
+                if (data.isStopped()) break;
+            } catch (Exception ex) {
+                // If an error occurs then store it in the
+                // FlowData object.
+                data.addError(ex, element);
+            }
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return isReady;
+    }
+
+    @Override
+    public void addReadyListener(PipelineReadyListener listener) {
+        synchronized (readyListeners) {
+            if (isReady == false) {
+                readyListeners.add(listener);
+                return;
+            }
+        }
+        notifyReady(listener);
+    }
+
+    /**
+     * Set whether the pipeline is ready. When the pipeline becomes ready, any
+     * listeners which were waiting are notified in the order they were added.
+     * @param ready true if the pipeline is ready
+     */
+    void setReady(boolean ready) {
+        List<PipelineReadyListener> waiting;
+        synchronized (readyListeners) {
+            isReady = ready;
+            if (ready == false) {
+                return;
+            }
+            waiting = new ArrayList<>(readyListeners);
+            readyListeners.clear();
+        }
+        for (PipelineReadyListener listener : waiting) {
+            notifyReady(listener);
+        }
+    }
+
+    private void notifyReady(PipelineReadyListener listener) {
+        try {
+            listener.pipelineReady(this);
+        } catch (Exception e) {
+            logger.error("Exception occurred notifying a ready listener " +
+                "for pipeline '" + hashCode() + "'.", e);
+        }
+    }
+
     @Override
     public ElementPropertyMetaData getMetaDataForProperty(String propertyName)
         throws PipelineDataException {
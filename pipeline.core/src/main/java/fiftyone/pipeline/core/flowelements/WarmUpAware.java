@@ -0,0 +1,51 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.core.flowelements;
+
+import java.io.IOException;
+
+/**
+ * Implemented by {@link FlowElement}s which need to control how they take part
+ * in the warm-up phase run by {@link PipelineBuilderBase} before a
+ * {@link Pipeline} reports that it is ready. Elements which do not implement
+ * this interface have the warm-up evidence processed through them and
+ * nothing else.
+ */
+public interface WarmUpAware {
+
+    /**
+     * Returns true if the warm-up evidence should be processed by this
+     * element. Elements whose processing has external side effects, such as
+     * sending usage data, should return false.
+     * @return true if warm-up evidence should be processed by this element
+     */
+    boolean acceptsWarmUpEvidence();
+
+    /**
+     * Read through any data which the element accesses through memory mapped
+     * or otherwise lazily loaded files, so that the pages are resident before
+     * the first request.
+     * @throws IOException if the data could not be read
+     */
+    void touchData() throws IOException;
+}
@@ -22,12 +22,30 @@
 
 package fiftyone.pipeline.core.flowelements;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
+import org.slf4j.LoggerFactory;
 
+import fiftyone.pipeline.core.data.ElementData;
+import fiftyone.pipeline.core.data.ElementPropertyMetaData;
+import fiftyone.pipeline.core.data.EvidenceKeyFilter;
+import fiftyone.pipeline.core.data.EvidenceKeyFilterWhitelist;
+import fiftyone.pipeline.core.data.FlowData;
 import fiftyone.pipeline.core.testclasses.services.TestAutoCloseableService;
 import fiftyone.pipeline.core.testclasses.services.TestCloseableService;
 
@@ -53,4 +71,222 @@ public class PipelineBuilderBaseTests {
         verify(service2, times(1)).close();
 	}
 
+
+	// An element which counts the evidence processed during warm-up.
+	private static class WarmUpElement
+		extends FlowElementBase<ElementData, ElementPropertyMetaData>
+		implements WarmUpAware {
+		private final String key;
+		private final boolean accepts;
+		private final CountDownLatch release;
+		final AtomicInteger processed = new AtomicInteger();
+		final AtomicInteger touched = new AtomicInteger();
+
+		WarmUpElement(String key, boolean accepts, CountDownLatch release) {
+			super(LoggerFactory.getLogger(WarmUpElement.class), null);
+			this.key = key;
+			this.accepts = accepts;
+			this.release = release;
+		}
+
+		@Override
+		protected void processInternal(FlowData data) throws Exception {
+			if (release != null) {
+				release.await(10, TimeUnit.SECONDS);
+			}
+			processed.incrementAndGet();
+		}
+
+		@Override
+		public String getElementDataKey() {
+			return key;
+		}
+
+		@Override
+		public EvidenceKeyFilter getEvidenceKeyFilter() {
+			return new EvidenceKeyFilterWhitelist(
+				Collections.<String>emptyList());
+		}
+
+		@Override
+		public List<ElementPropertyMetaData> getProperties() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		protected void managedResourcesCleanup() {
+		}
+
+		@Override
+		protected void unmanagedResourcesCleanup() {
+		}
+
+		@Override
+		public boolean acceptsWarmUpEvidence() {
+			return accepts;
+		}
+
+		@Override
+		public void touchData() {
+			touched.incrementAndGet();
+		}
+	}
+
+	private static PipelineReadyListener recordingListener(
+		final List<Integer> calls,
+		final int id) {
+		return new PipelineReadyListener() {
+			@Override
+			public void pipelineReady(Pipeline pipeline) {
+				synchronized (calls) {
+					calls.add(id);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Check that warm-up processes the evidence the configured number of
+	 * times, skips elements which do not accept warm-up evidence, and
+	 * notifies the ready listeners in order before build returns.
+	 */
+	@Test
+	public void PipelineBuilderBase_WarmUp() throws Exception {
+		// Arrange
+		WarmUpElement accepting = new WarmUpElement("accepting", true, null);
+		WarmUpElement excluded = new WarmUpElement("excluded", false, null);
+		List<Map<String, ?>> evidence = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Map<String, Object> entry = new HashMap<>();
+			entry.put("header.user-agent", "agent" + i);
+			evidence.add(entry);
+		}
+		List<Integer> calls = new ArrayList<>();
+
+		// Act
+		try (Pipeline pipeline = new TestPipelineBuilder()
+			.addFlowElement(accepting)
+			.addFlowElement(excluded)
+			.setWarmUpEvidence(evidence)
+			.setWarmUpIterations(4)
+			.setWarmUpTouchData(true)
+			.addReadyListener(recordingListener(calls, 1))
+			.addReadyListener(recordingListener(calls, 2))
+			.build()) {
+
+			// Assert
+			assertTrue(pipeline.isReady());
+			assertEquals(12, accepting.processed.get());
+			assertEquals(0, excluded.processed.get());
+			assertEquals(1, accepting.touched.get());
+			assertEquals(1, excluded.touched.get());
+			assertEquals(2, calls.size());
+			assertEquals(1, (int)calls.get(0));
+			assertEquals(2, (int)calls.get(1));
+		}
+	}
+
+	/**
+	 * Check that elements which do not accept warm-up evidence are skipped
+	 * when they are part of a parallel group, while the rest of the group is
+	 * still warmed up.
+	 */
+	@Test
+	public void PipelineBuilderBase_WarmUp_Parallel() throws Exception {
+		// Arrange
+		WarmUpElement accepting = new WarmUpElement("accepting", true, null);
+		WarmUpElement excluded = new WarmUpElement("excluded", false, null);
+		WarmUpElement all1 = new WarmUpElement("all1", true, null);
+		WarmUpElement all2 = new WarmUpElement("all2", true, null);
+		Map<String, Object> entry = new HashMap<>();
+		entry.put("header.user-agent", "agent");
+		List<Map<String, ?>> evidence = new ArrayList<>();
+		evidence.add(entry);
+
+		// Act
+		try (Pipeline pipeline = new TestPipelineBuilder()
+			.addFlowElementsParallel(new FlowElement[] { accepting, excluded })
+			.addFlowElementsParallel(new FlowElement[] { all1, all2 })
+			.setWarmUpEvidence(evidence)
+			.setWarmUpIterations(2)
+			.setWarmUpTouchData(true)
+			.build()) {
+
+			// Assert
+			assertTrue(pipeline.isReady());
+			assertEquals(2, accepting.processed.get());
+			assertEquals(0, excluded.processed.get());
+			assertEquals(2, all1.processed.get());
+			assertEquals(2, all2.processed.get());
+			assertEquals(1, excluded.touched.get());
+		}
+	}
+
+	/**
+	 * Check that when warm-up runs in the background the pipeline is not
+	 * ready until it completes, and that listeners added to the pipeline
+	 * after build are called after those added to the builder.
+	 */
+	@Test
+	public void PipelineBuilderBase_WarmUp_Background() throws Exception {
+		// Arrange
+		CountDownLatch release = new CountDownLatch(1);
+		WarmUpElement element = new WarmUpElement("element", true, release);
+		final CountDownLatch ready = new CountDownLatch(1);
+		List<Integer> calls = new ArrayList<>();
+
+		// Act
+		try (Pipeline pipeline = new TestPipelineBuilder()
+			.addFlowElement(element)
+			.setWarmUp(true)
+			.setWarmUpIterations(1)
+			.setWarmUpInBackground(true)
+			.addReadyListener(recordingListener(calls, 1))
+			.build()) {
+			pipeline.addReadyListener(recordingListener(calls, 2));
+			pipeline.addReadyListener(new PipelineReadyListener() {
+				@Override
+				public void pipelineReady(Pipeline pipeline) {
+					ready.countDown();
+				}
+			});
+
+			// Assert
+			assertFalse(pipeline.isReady());
+			assertEquals(0, calls.size());
+			release.countDown();
+			assertTrue(ready.await(10, TimeUnit.SECONDS));
+			assertTrue(pipeline.isReady());
+			assertTrue(element.processed.get() > 0);
+			synchronized (calls) {
+				assertEquals(2, calls.size());
+				assertEquals(1, (int)calls.get(0));
+				assertEquals(2, (int)calls.get(1));
+			}
+		}
+	}
+
+	/**
+	 * Check that a pipeline without warm-up is ready immediately and that
+	 * listeners added later are called straight away.
+	 */
+	@Test
+	public void PipelineBuilderBase_NoWarmUp_Ready() throws Exception {
+		// Arrange
+		WarmUpElement element = new WarmUpElement("element", true, null);
+		List<Integer> calls = new ArrayList<>();
+
+		// Act
+		try (Pipeline pipeline = new TestPipelineBuilder()
+			.addFlowElement(element)
+			.addReadyListener(recordingListener(calls, 1))
+			.build()) {
+			pipeline.addReadyListener(recordingListener(calls, 2));
+
+			// Assert
+			assertTrue(pipeline.isReady());
+			assertEquals(0, element.processed.get());
+			assertEquals(2, calls.size());
+		}
+	}
 }
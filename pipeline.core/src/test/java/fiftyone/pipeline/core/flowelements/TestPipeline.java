@@ -50,6 +50,16 @@ public class TestPipeline {
             return pipeline.getEvidenceKeyFilter();
         }
 
+        @Override
+        public boolean isReady() {
+            return pipeline.isReady();
+        }
+
+        @Override
+        public void addReadyListener(PipelineReadyListener listener) {
+            pipeline.addReadyListener(listener);
+        }
+
         @Override
         public boolean isConcurrent() {
             return pipeline.isConcurrent();
@@ -88,10 +88,9 @@ public class SimpleCloudEngine extends CloudAspectEngineBase<StarSignData> {
         }
 
         CloudRequestData requestData = data.getFromElement(cloudRequestEngine);
-        String json = requestData.getJsonResponse();
-
-        // Extract data from json to the aspectData instance.
-        JSONObject jsonObj = new JSONObject(json);
+        // Extract data from json to the aspectData instance. The response is
+        // parsed once by the request data and shared with every engine.
+        JSONObject jsonObj = requestData.getJsonObject();
         JSONObject deviceObj = jsonObj.getJSONObject("starsign");
 
         starSignData.setStarSign(deviceObj.getString("starsign"));
@@ -39,6 +39,19 @@ public abstract class CollectionIterableBase<T> implements CloseableIterable<T>
 
     protected abstract T get(long index);
 
+    /**
+     * Get the item at the index specified without iterating over the items
+     * before it.
+     * @param index of the item
+     * @return the item, or null if the index is outside the collection
+     */
+    public T getAt(long index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        return get(index);
+    }
+
     private class CollectionIterator implements Iterator<T> {
 
         private long index;
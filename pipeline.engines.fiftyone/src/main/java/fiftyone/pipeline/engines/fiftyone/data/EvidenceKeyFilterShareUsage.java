@@ -25,7 +25,6 @@ package fiftyone.pipeline.engines.fiftyone.data;
 import fiftyone.pipeline.core.data.EvidenceKeyFilter;
 import fiftyone.pipeline.engines.Constants;
 import fiftyone.pipeline.engines.fiftyone.flowelements.ShareUsageElement;
-import fiftyone.pipeline.engines.fiftyone.trackers.ShareUsageTracker;
 
 import java.util.HashSet;
 import java.util.List;
@@ -51,8 +50,9 @@ public class EvidenceKeyFilterShareUsage implements EvidenceKeyFilter {
 
     /**
      * If true then the session cookie will be included in the filter.
-     * The session cookie is used by the {@link ShareUsageTracker} but we do not
-     * actually want to share it.
+     * The session cookie is used by the
+     * {@link fiftyone.pipeline.engines.fiftyone.trackers.ShareUsageTracker}
+     * but we do not actually want to share it.
      */
     private final boolean includeSession;
 
@@ -22,15 +22,14 @@
 
 package fiftyone.pipeline.engines.fiftyone.data;
 
-import fiftyone.pipeline.engines.fiftyone.trackers.ShareUsageTracker;
-
 import java.util.List;
 
 import static fiftyone.pipeline.engines.fiftyone.flowelements.Constants.*;
 
 /**
  * Wrapper for EvidenceKeyFilter for Share Usage, to be used with the
- * {@link ShareUsageTracker} to excluded specific evidence keys from the filter.
+ * {@link fiftyone.pipeline.engines.fiftyone.trackers.ShareUsageTracker} to
+ * excluded specific evidence keys from the filter.
  */
 public class EvidenceKeyFilterShareUsageTracker extends EvidenceKeyFilterShareUsage {
     /**
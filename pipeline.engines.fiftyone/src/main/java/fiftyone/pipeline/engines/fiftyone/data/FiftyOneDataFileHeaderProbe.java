@@ -0,0 +1,97 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.data;
+
+import fiftyone.pipeline.engines.data.DataFileHeader;
+import fiftyone.pipeline.engines.data.DataFileHeaderProbe;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * Reads the version and published date from the header of a 51Degrees V4
+ * data file. The header starts with the four part version, then the data
+ * file tags and string offsets, followed by the published date as a little
+ * endian 16 bit year, a month and a day. Only those first bytes are read.
+ * Files which do not have a V4 header are not recognised, so the
+ * {@link fiftyone.pipeline.engines.services.DataUpdateService} falls back to
+ * the file modification time for them.
+ */
+public class FiftyOneDataFileHeaderProbe implements DataFileHeaderProbe {
+
+    /**
+     * Major version of the data files recognised.
+     */
+    private static final int VERSION_MAJOR = 4;
+
+    /**
+     * Offset of the published date in the header: four 32 bit version
+     * numbers, two 16 byte tags, the copyright offset, the 16 bit age, the
+     * minimum User-Agent count, and the name and format offsets.
+     */
+    private static final int PUBLISHED_OFFSET =
+        4 * 4 + 16 + 16 + 4 + 2 + 4 + 4 + 4;
+
+    /**
+     * Number of bytes read from the start of the file.
+     */
+    private static final int HEADER_LENGTH = PUBLISHED_OFFSET + 4;
+
+    @Override
+    public DataFileHeader probe(String dataFilePath) throws IOException {
+        byte[] bytes = new byte[HEADER_LENGTH];
+        try (DataInputStream in = new DataInputStream(
+            new FileInputStream(dataFilePath))) {
+            in.readFully(bytes);
+        } catch (EOFException e) {
+            // Too short to be a data file.
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int major = header.getInt(0);
+        if (major != VERSION_MAJOR) {
+            return null;
+        }
+        String version = major + "." +
+            header.getInt(4) + "." +
+            header.getInt(8) + "." +
+            header.getInt(12);
+        int year = header.getShort(PUBLISHED_OFFSET);
+        int month = header.get(PUBLISHED_OFFSET + 2);
+        int day = header.get(PUBLISHED_OFFSET + 3);
+        if (year < 2000 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        Calendar published = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        published.clear();
+        published.set(year, month - 1, day);
+        return new DataFileHeader(published.getTime(), version);
+    }
+}
@@ -30,6 +30,15 @@ import static fiftyone.pipeline.util.StringManipulation.stringJoin;
 public class FiftyOneUrlFormatter implements DataUpdateUrlFormatter {
     @Override
     public String getFormattedDataUpdateUrl(AspectEngineDataFile dataFile) {
+        return format(dataFile.getConfiguration().getDataUpdateUrl(), dataFile);
+    }
+
+    @Override
+    public String getFormattedDataUpdateDeltaUrl(AspectEngineDataFile dataFile) {
+        return format(dataFile.getConfiguration().getDataUpdateDeltaUrl(), dataFile);
+    }
+
+    private static String format(String url, AspectEngineDataFile dataFile) {
         if (dataFile instanceof FiftyOneDataFile) {
             FiftyOneDataFile fiftyOneDataFile = (FiftyOneDataFile) dataFile;
             String[] parameters = new String[]
@@ -38,10 +47,10 @@ public class FiftyOneUrlFormatter implements DataUpdateUrlFormatter {
                     "Download=True",
                     "Type=" + fiftyOneDataFile.getDataUpdateDownloadType(),
                 };
-            return dataFile.getConfiguration().getDataUpdateUrl() + "?" + stringJoin(parameters, "&");
+            return url + (url.contains("?") ? "&" : "?") + stringJoin(parameters, "&");
         }
         else {
-            return dataFile.getConfiguration().getDataUpdateUrl();
+            return url;
         }
     }
-}
\ No newline at end of file
+}
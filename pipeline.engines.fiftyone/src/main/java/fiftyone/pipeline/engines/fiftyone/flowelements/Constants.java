@@ -89,6 +89,65 @@ public class Constants {
      */
     static final int SHARE_USAGE_DEFAULT_HTTP_POST_TIMEOUT = 5000;
 
+    /**
+     * The default maximum size in megabytes of the usage data spooled to
+     * disk, if spooling is enabled.
+     */
+    static final int SHARE_USAGE_DEFAULT_SPOOL_MAX_MEGABYTES = 100;
+
+    /**
+     * The default approximate maximum size in bytes of the uncompressed XML
+     * sent in one upload of usage data.
+     */
+    static final int SHARE_USAGE_DEFAULT_MAX_UPLOAD_BYTES = 1024 * 1024;
+
+    /**
+     * The default time in milliseconds within which an upload of usage data
+     * is expected to complete. Slower uploads reduce the size of later
+     * batches.
+     */
+    static final int SHARE_USAGE_DEFAULT_UPLOAD_TARGET_LATENCY = 1000;
+
+    /**
+     * The default maximum number of usage data uploads in progress at once.
+     */
+    static final int SHARE_USAGE_DEFAULT_MAX_CONCURRENT_UPLOADS = 1;
+
+    /**
+     * The default number of times to retry a failed upload of usage data.
+     */
+    static final int SHARE_USAGE_DEFAULT_UPLOAD_RETRIES = 0;
+
+    /**
+     * The default limit in milliseconds of the wait before the first retry of
+     * a failed upload of usage data.
+     */
+    static final int SHARE_USAGE_DEFAULT_UPLOAD_BACKOFF = 100;
+
+    /**
+     * The largest limit in milliseconds of the wait before a retry of a
+     * failed upload of usage data.
+     */
+    static final int SHARE_USAGE_MAX_UPLOAD_BACKOFF = 30000;
+
+    /**
+     * The default number of different sets of evidence the usage sharing
+     * tracker expects to see within the repeat evidence interval.
+     */
+    static final int SHARE_USAGE_DEFAULT_TRACKER_EXPECTED_ENTRIES = 10000;
+
+    /**
+     * The default chance of the usage sharing tracker treating new evidence as
+     * a repeat when it has seen the expected number of entries.
+     */
+    static final double SHARE_USAGE_DEFAULT_TRACKER_FALSE_POSITIVE_RATE = 0.01;
+
+    /**
+     * The default time in milliseconds after which the address of the machine
+     * is found from the network interfaces again.
+     */
+    static final int SHARE_USAGE_DEFAULT_HOST_ADDRESS_REFRESH_INTERVAL = 5 * 60 * 1000;
+
     /**
      * Default lost data count for share usage before it wraps
      */
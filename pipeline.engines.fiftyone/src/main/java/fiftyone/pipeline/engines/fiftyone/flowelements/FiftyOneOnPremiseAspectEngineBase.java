@@ -31,9 +31,29 @@ import fiftyone.pipeline.engines.flowelements.OnPremiseAspectEngineBase;
 import fiftyone.pipeline.util.Types;
 import org.slf4j.Logger;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * 51Degrees specific engine base class. This adds the concept of license keys
  * to the standard Engine base class.
+ * <p>
+ * Profiles, components and values are looked up through indexes which are
+ * built from {@link #getProfiles()}, {@link #getComponents()} and
+ * {@link #getValues()} the first time they are needed. The indexes only hold
+ * the position of each item in its collection, so every lookup returns a new
+ * instance which the caller is responsible for closing. Extending classes
+ * should return a {@link CollectionIterableBase} from these methods so that
+ * items can be fetched by position. Other collections are iterated up to the
+ * position instead. The indexes are rebuilt when the published date of the
+ * data file changes, or when an extending class calls
+ * {@link #invalidateMetaDataIndexes()}.
  * @param <TData> the type of aspect data that the flow element will write to
  * @param <TProperty> the type of meta data that the flow element will supply
  *                    about the properties it populates.
@@ -44,6 +64,19 @@ public abstract class FiftyOneOnPremiseAspectEngineBase<
     extends OnPremiseAspectEngineBase<TData, TProperty>
     implements FiftyOneAspectEngine<TData, TProperty> {
 
+    /**
+     * Incremented to invalidate the meta data indexes.
+     */
+    private final AtomicLong metaDataGeneration = new AtomicLong();
+
+    private final Object metaDataIndexLock = new Object();
+
+    private volatile MetaDataIndex<ProfileIndex> profileIndex = null;
+
+    private volatile MetaDataIndex<Map<String, Integer>> componentIndex = null;
+
+    private volatile MetaDataIndex<Map<String, Map<String, Integer>>> valueIndex = null;
+
     /**
      * Construct a new instance of the {@link FiftyOneOnPremiseAspectEngineBase}.
      * @param logger logger instance to use for logging
@@ -59,6 +92,16 @@ public abstract class FiftyOneOnPremiseAspectEngineBase<
         super(logger, aspectDataFactory, tempDataFilePath);
     }
 
+    /**
+     * Discard the indexes used to look up profiles, components and values so
+     * they are rebuilt the next time they are needed. Extending classes
+     * should call this when their data is refreshed, if the published date of
+     * the new data might be the same as the old.
+     */
+    protected void invalidateMetaDataIndexes() {
+        metaDataGeneration.incrementAndGet();
+    }
+
 
     @Override
     public TypedKey<TData> getTypedDataKey() {
@@ -78,14 +121,21 @@ public abstract class FiftyOneOnPremiseAspectEngineBase<
 
     @Override
     public ProfileMetaData getProfile(int profileId) throws Exception {
-        try(CloseableIterable<ProfileMetaData> profiles = getProfiles()){
-          for (ProfileMetaData profile : profiles) {
-            if (profile.getProfileId() == profileId) {
-                return profile;
+        MetaDataIndex<ProfileIndex> index = profileIndex;
+        if (isCurrent(index) == false) {
+            synchronized (metaDataIndexLock) {
+                index = profileIndex;
+                if (isCurrent(index) == false) {
+                    index = new MetaDataIndex<>(
+                        metaDataGeneration.get(),
+                        getDataFilePublishedDate(),
+                        buildProfileIndex());
+                    profileIndex = index;
+                }
             }
-          }
         }
-        return null;
+        int position = index.entries.get(profileId);
+        return position < 0 ? null : getProfileAt(position);
     }
 
     @Override
@@ -93,14 +143,24 @@ public abstract class FiftyOneOnPremiseAspectEngineBase<
 
     @Override
     public ComponentMetaData getComponent(String name) throws Exception {
-        try(CloseableIterable<ComponentMetaData> metaDataComponents = getComponents()){
-          for (ComponentMetaData component : metaDataComponents) {
-            if (component.getName().equalsIgnoreCase(name)) {
-                return component;
+        if (name == null) {
+            return null;
+        }
+        MetaDataIndex<Map<String, Integer>> index = componentIndex;
+        if (isCurrent(index) == false) {
+            synchronized (metaDataIndexLock) {
+                index = componentIndex;
+                if (isCurrent(index) == false) {
+                    index = new MetaDataIndex<>(
+                        metaDataGeneration.get(),
+                        getDataFilePublishedDate(),
+                        buildComponentIndex());
+                    componentIndex = index;
+                }
             }
-          }
         }
-        return null;
+        Integer position = index.entries.get(name);
+        return position == null ? null : getComponentAt(position);
     }
 
     @Override
@@ -108,14 +168,195 @@ public abstract class FiftyOneOnPremiseAspectEngineBase<
 
     @Override
     public ValueMetaData getValue(String propertyName, String valueName) throws Exception {
+        if (propertyName == null || valueName == null) {
+            return null;
+        }
+        MetaDataIndex<Map<String, Map<String, Integer>>> index = valueIndex;
+        if (isCurrent(index) == false) {
+            synchronized (metaDataIndexLock) {
+                index = valueIndex;
+                if (isCurrent(index) == false) {
+                    index = new MetaDataIndex<>(
+                        metaDataGeneration.get(),
+                        getDataFilePublishedDate(),
+                        buildValueIndex());
+                    valueIndex = index;
+                }
+            }
+        }
+        Map<String, Integer> values = index.entries.get(propertyName);
+        Integer position = values == null ? null : values.get(valueName);
+        return position == null ? null : getValueAt(position);
+    }
+
+    private ProfileMetaData getProfileAt(int position) throws Exception {
+        try (CloseableIterable<ProfileMetaData> profiles = getProfiles()) {
+            return getAt(profiles, position);
+        }
+    }
+
+    private ComponentMetaData getComponentAt(int position) throws Exception {
+        try (CloseableIterable<ComponentMetaData> components = getComponents()) {
+            return getAt(components, position);
+        }
+    }
+
+    private ValueMetaData getValueAt(int position) throws Exception {
         try (CloseableIterable<ValueMetaData> values = getValues()) {
-          for (ValueMetaData value : values) {
-            if (value.getProperty().getName().equalsIgnoreCase(propertyName) &&
-                value.getName().equalsIgnoreCase(valueName)) {
-                return value;
+            return getAt(values, position);
+        }
+    }
+
+    /**
+     * Return the item at the position specified. Collections which support
+     * access by position are not iterated. Otherwise the items before the
+     * position are iterated and closed, as they are not returned.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Closeable> T getAt(
+        Iterable<T> items,
+        int position) throws IOException {
+        if (items instanceof CollectionIterableBase) {
+            return ((CollectionIterableBase<T>)items).getAt(position);
+        }
+        int current = 0;
+        for (T item : items) {
+            if (current == position) {
+                return item;
             }
-          }
+            item.close();
+            current++;
         }
         return null;
     }
+
+    /**
+     * Check whether an index was built from the current data.
+     * @param index the index to check
+     * @return true if the index can be used
+     */
+    private boolean isCurrent(MetaDataIndex<?> index) {
+        return index != null &&
+            index.generation == metaDataGeneration.get() &&
+            Objects.equals(index.published, getDataFilePublishedDate());
+    }
+
+    private ProfileIndex buildProfileIndex() throws Exception {
+        ProfileIndex.Builder builder = new ProfileIndex.Builder();
+        try (CloseableIterable<ProfileMetaData> profiles = getProfiles()) {
+            for (ProfileMetaData profile : profiles) {
+                try {
+                    builder.add(profile.getProfileId());
+                } finally {
+                    profile.close();
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private Map<String, Integer> buildComponentIndex() throws Exception {
+        Map<String, Integer> index = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        int position = 0;
+        try (CloseableIterable<ComponentMetaData> components = getComponents()) {
+            for (ComponentMetaData component : components) {
+                try {
+                    // Keep the first match, as a linear search would.
+                    index.putIfAbsent(component.getName(), position++);
+                } finally {
+                    component.close();
+                }
+            }
+        }
+        return index;
+    }
+
+    private Map<String, Map<String, Integer>> buildValueIndex() throws Exception {
+        Map<String, Map<String, Integer>> index =
+            new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        int position = 0;
+        try (CloseableIterable<ValueMetaData> values = getValues()) {
+            for (ValueMetaData value : values) {
+                try {
+                    if (value.getProperty() != null) {
+                        index.computeIfAbsent(
+                            value.getProperty().getName(),
+                            k -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER))
+                            .putIfAbsent(value.getName(), position);
+                    }
+                } finally {
+                    value.close();
+                }
+                position++;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * An index of meta data, along with the generation and published date of
+     * the data it was built from.
+     * @param <T> the type of the index
+     */
+    private static final class MetaDataIndex<T> {
+        final long generation;
+        final Date published;
+        final T entries;
+
+        MetaDataIndex(long generation, Date published, T entries) {
+            this.generation = generation;
+            this.published = published;
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * Positions of profiles sorted by id. Each id and position are packed
+     * into a single long, with the id in the upper half, so sorting the
+     * longs orders them by id and then position, and there is no boxing.
+     */
+    private static final class ProfileIndex {
+        private final long[] entries;
+
+        private ProfileIndex(long[] entries) {
+            this.entries = entries;
+        }
+
+        /**
+         * Get the position of the first profile with the id specified.
+         * @param profileId id of the profile
+         * @return position of the profile, or -1 if it is not present
+         */
+        int get(int profileId) {
+            int i = Arrays.binarySearch(entries, (long)profileId << 32);
+            if (i < 0) {
+                // No entry has position 0 with this id, so the first entry
+                // with the id, if there is one, is at the insertion point.
+                i = -i - 1;
+                if (i == entries.length || (int)(entries[i] >> 32) != profileId) {
+                    return -1;
+                }
+            }
+            return (int)entries[i];
+        }
+
+        static final class Builder {
+            private long[] entries = new long[1024];
+            private int count = 0;
+
+            void add(int profileId) {
+                if (count == entries.length) {
+                    entries = Arrays.copyOf(entries, count * 2);
+                }
+                entries[count] = ((long)profileId << 32) | count;
+                count++;
+            }
+
+            ProfileIndex build() {
+                long[] sorted = Arrays.copyOf(entries, count);
+                Arrays.sort(sorted);
+                return new ProfileIndex(sorted);
+            }
+        }
+    }
 }
@@ -23,8 +23,10 @@
 package fiftyone.pipeline.engines.fiftyone.flowelements;
 
 import fiftyone.pipeline.engines.data.AspectEngineDataFile;
+import fiftyone.pipeline.engines.data.DataFileHeaderProbe;
 import fiftyone.pipeline.engines.fiftyone.data.FiftyOneDataFile;
 import fiftyone.pipeline.engines.fiftyone.data.FiftyOneDataFileDefault;
+import fiftyone.pipeline.engines.fiftyone.data.FiftyOneDataFileHeaderProbe;
 import fiftyone.pipeline.engines.fiftyone.data.FiftyOneUrlFormatter;
 import fiftyone.pipeline.engines.flowelements.SingleFileAspectEngineBuilderBase;
 import fiftyone.pipeline.engines.services.DataUpdateService;
@@ -91,6 +93,16 @@ public abstract class FiftyOneOnPremiseAspectEngineBuilderBase<
         return dataFile; 
     }
 
+    /**
+     * Create the probe used to read the published date from the header of a
+     * 51Degrees data file without loading it.
+     * @return new {@link FiftyOneDataFileHeaderProbe} instance
+     */
+    @Override
+    protected DataFileHeaderProbe newDataFileHeaderProbe() {
+        return new FiftyOneDataFileHeaderProbe();
+    }
+
     /**
      * Set the expected number of concurrent operations using the engine.
      * This sets the concurrency of the internal caches to avoid excessive
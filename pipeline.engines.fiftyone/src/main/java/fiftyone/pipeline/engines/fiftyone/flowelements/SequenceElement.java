@@ -26,9 +26,9 @@ import fiftyone.pipeline.core.data.*;
 import fiftyone.pipeline.core.flowelements.FlowElement;
 import fiftyone.pipeline.core.flowelements.FlowElementBase;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import org.slf4j.Logger;
 
 /**
@@ -38,12 +38,39 @@ import org.slf4j.Logger;
 public class SequenceElement 
     extends FlowElementBase<ElementData, ElementPropertyMetaData> {
 
+    /**
+     * The evidence key filter and properties never change, so are created
+     * once rather than for each call.
+     */
+    private static final EvidenceKeyFilter evidenceKeyFilter =
+        new EvidenceKeyFilterWhitelist(new ArrayList<String>());
+    private static final List<ElementPropertyMetaData> properties =
+        Collections.emptyList();
+
+    private final SessionIdGenerator sessionIdGenerator;
+
     /**
      * Construct a new instance of the {@link FlowElement}.
      * @param logger logger instance to use for logging
      */
     public SequenceElement(Logger logger) {
+        this(logger, new SessionIdGeneratorDefault());
+    }
+
+    /**
+     * Construct a new instance of the {@link FlowElement}.
+     * @param logger logger instance to use for logging
+     * @param sessionIdGenerator generator used to create new session ids
+     */
+    public SequenceElement(
+        Logger logger,
+        SessionIdGenerator sessionIdGenerator) {
         super(logger, null);
+        if (sessionIdGenerator == null) {
+            throw new IllegalArgumentException(
+                "Session id generator must not be null");
+        }
+        this.sessionIdGenerator = sessionIdGenerator;
     }
 
     @Override
@@ -72,12 +99,12 @@ public class SequenceElement
 
     @Override
     public EvidenceKeyFilter getEvidenceKeyFilter() {
-        return new EvidenceKeyFilterWhitelist(new ArrayList<String>());
+        return evidenceKeyFilter;
     }
 
     @Override
     public List<ElementPropertyMetaData> getProperties() {
-        return new ArrayList<>();
+        return properties;
     }
 
     @Override
@@ -93,7 +120,6 @@ public class SequenceElement
      * @return new session id
      */
     private String getNewSessionId() {
-        UUID u = UUID.randomUUID();
-        return u.toString();
+        return sessionIdGenerator.getNewSessionId();
     }
 }
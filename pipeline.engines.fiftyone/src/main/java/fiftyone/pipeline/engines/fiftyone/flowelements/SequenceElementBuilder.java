@@ -22,6 +22,7 @@
 
 package fiftyone.pipeline.engines.fiftyone.flowelements;
 
+import fiftyone.pipeline.annotations.DefaultValue;
 import fiftyone.pipeline.annotations.ElementBuilder;
 import org.slf4j.ILoggerFactory;
 
@@ -33,6 +34,8 @@ public class SequenceElementBuilder {
     
     private final ILoggerFactory loggerFactory;
 
+    private SessionIdGenerator sessionIdGenerator = null;
+
     /**
      * Construct a new instance
      * @param loggerFactory logger factory to use when passing loggers to any
@@ -42,12 +45,30 @@ public class SequenceElementBuilder {
         this.loggerFactory = loggerFactory;
     }
 
+    /**
+     * Set the generator used to create new session ids. The default
+     * generator creates random UUIDs without using a
+     * {@link java.security.SecureRandom}, so they should not be relied on
+     * to be unpredictable.
+     * @param generator the generator to use
+     * @return this builder
+     */
+    @DefaultValue("Random UUIDs from a SessionIdGeneratorDefault")
+    public SequenceElementBuilder setSessionIdGenerator(
+        SessionIdGenerator generator) {
+        this.sessionIdGenerator = generator;
+        return this;
+    }
+
     /**
      * Build a new {@link SequenceElement}.
      * @return new element
      */
     public SequenceElement build() {
         return new SequenceElement(
-            loggerFactory.getLogger(SequenceElement.class.getName()));
+            loggerFactory.getLogger(SequenceElement.class.getName()),
+            sessionIdGenerator == null ?
+                new SessionIdGeneratorDefault() :
+                sessionIdGenerator);
     }
 }
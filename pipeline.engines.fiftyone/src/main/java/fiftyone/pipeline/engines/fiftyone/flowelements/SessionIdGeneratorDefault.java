@@ -0,0 +1,67 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.flowelements;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Default {@link SessionIdGenerator}. Ids are random version 4 UUIDs, as
+ * returned by {@link UUID#randomUUID()}, but the random bits come from a
+ * {@link SplittableRandom} for each thread rather than a shared
+ * {@link java.security.SecureRandom}. Generating an id therefore never
+ * blocks waiting for entropy or contends with other threads.
+ * <p>
+ * The ids are unique, but are not suitable where they must also be
+ * unpredictable. In that case use a generator based on
+ * {@link UUID#randomUUID()} instead.
+ */
+public class SessionIdGeneratorDefault implements SessionIdGenerator {
+
+    /**
+     * Source of the generator for each thread. Splitting gives each thread
+     * an independent sequence of random numbers.
+     */
+    private final SplittableRandom root = new SplittableRandom();
+
+    private final ThreadLocal<SplittableRandom> random =
+        ThreadLocal.withInitial(this::split);
+
+    private SplittableRandom split() {
+        synchronized (root) {
+            return root.split();
+        }
+    }
+
+    @Override
+    public String getNewSessionId() {
+        SplittableRandom current = random.get();
+        long mostSignificant = current.nextLong();
+        long leastSignificant = current.nextLong();
+        // Set the version to 4 and the variant to IETF as for
+        // UUID.randomUUID().
+        mostSignificant = (mostSignificant & ~0xf000L) | 0x4000L;
+        leastSignificant = (leastSignificant & ~(0xc0L << 56)) | (0x80L << 56);
+        return new UUID(mostSignificant, leastSignificant).toString();
+    }
+}
@@ -23,11 +23,13 @@
 package fiftyone.pipeline.engines.fiftyone.flowelements;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 
@@ -70,9 +72,15 @@ public class SetHeadersElement
 	 */
 	public static final String SET_HEADER_PREFIX_LOWER_CASE = "setheader";
 	
+	/**
+	 * The maximum number of different combinations of SetHeader property
+	 * values for which the response headers are remembered per pipeline.
+	 */
+	static final int MAX_REMEMBERED_RESPONSE_HEADERS = 1024;
+	
 	private final EvidenceKeyFilter evidenceKeyFilter;
 	private final List<ElementPropertyMetaData> properties;
-	private final Hashtable<Pipeline, PipelineConfig> pipelineConfigs;
+	private final ConcurrentHashMap<Pipeline, PipelineConfig> pipelineConfigs;
 
 	public SetHeadersElement(
 		Logger logger,
@@ -87,7 +95,7 @@ public class SetHeadersElement
 				"",
 				HashMap.class,
 				true));
-		pipelineConfigs = new Hashtable<Pipeline, PipelineConfig>();
+		pipelineConfigs = new ConcurrentHashMap<Pipeline, PipelineConfig>();
 	}
 //! [constructor]
 	
@@ -97,12 +105,9 @@ public class SetHeadersElement
 			throw new NullPointerException(FlowData.class.getName());
 		}
 		
-		PipelineConfig config;
-		Pipeline pipeline = data.getPipeline();
-		if ((config = pipelineConfigs.get(pipeline)) == null) {
-			config = populateConfig(pipeline);
-			config = pipelineConfigs.getOrDefault(pipeline, config);
-		}
+		PipelineConfig config = pipelineConfigs.computeIfAbsent(
+			data.getPipeline(),
+			this::populateConfig);
 		
 		SetHeadersData elementData = data.getOrAdd(
 			getElementDataKey(),
@@ -140,35 +145,63 @@ public class SetHeadersElement
 	
 	/**
 	 * Build the response headers from the SetHeader properties in the FlowData.
+	 * The SetHeader property values only have a few combinations, so the
+	 * response headers for each combination are remembered rather than
+	 * rebuilt for every request.
 	 * @param data flowData object
+	 * @param config the configuration for the pipeline
 	 * @return constructed response headers
 	 */
 	private HashMap<String, String> buildResponseHeaders(
 		FlowData data, PipelineConfig config) {
-		HashMap<String, String> responseHeaders =
-				new HashMap<String, String>();
-		
-		config.setHeaderProperties.forEach((k, v) -> {
-			ElementData elementData =
-				data.get(v.propertyMetaData.getElement().getElementDataKey());
-			String headerValue = getHeaderValue(elementData.get(k));
-			
-			if (!headerValue.isEmpty() && !headerValue.equals("Unknown")) {
-				String responseHeaderValue;
-				if ((responseHeaderValue =
-					responseHeaders.get(v.responseHeaderName)) != null) {
-					responseHeaderValue += "," + headerValue;
-					responseHeaders.put(
-						v.responseHeaderName, responseHeaderValue);
-				}
-				else {
-					responseHeaders.put(
-						v.responseHeaderName,  headerValue);
+		String[] values = new String[config.propertyNames.length];
+		for (int i = 0; i < values.length; i++) {
+			ElementData elementData = data.get(config.elementDataKeys[i]);
+			values[i] = elementData == null ?
+				"" :
+				getHeaderValue(elementData.get(config.propertyNames[i]));
+		}
+		List<String> key = Arrays.asList(values);
+		Map<String, String> responseHeaders = config.responseHeaders.get(key);
+		if (responseHeaders == null) {
+			responseHeaders = mergeResponseHeaders(config, values);
+			if (config.responseHeaders.size() <
+				MAX_REMEMBERED_RESPONSE_HEADERS) {
+				config.responseHeaders.putIfAbsent(key, responseHeaders);
+			}
+		}
+		// Each FlowData gets its own copy which the caller is free to change.
+		return new HashMap<String, String>(responseHeaders);
+	}
+	
+	/**
+	 * Combine the SetHeader property values for each response header.
+	 * @param config the configuration for the pipeline
+	 * @param values the value of each SetHeader property in the plan
+	 * @return response headers
+	 */
+	private Map<String, String> mergeResponseHeaders(
+		PipelineConfig config, String[] values) {
+		Map<String, String> responseHeaders = new HashMap<String, String>();
+		StringBuilder builder = new StringBuilder();
+		for (int h = 0; h < config.responseHeaderNames.length; h++) {
+			builder.setLength(0);
+			for (int i : config.responseHeaderSources[h]) {
+				String headerValue = values[i];
+				if (!headerValue.isEmpty() && !headerValue.equals("Unknown")) {
+					if (builder.length() > 0) {
+						builder.append(',');
+					}
+					builder.append(headerValue);
 				}
 			}
-			
-		});
-		return responseHeaders;
+			if (builder.length() > 0) {
+				responseHeaders.put(
+					config.responseHeaderNames[h],
+					builder.toString());
+			}
+		}
+		return Collections.unmodifiableMap(responseHeaders);
 	}
 	
 	/**
@@ -198,7 +231,7 @@ public class SetHeadersElement
 	
 	/**
 	 * Populate the pipeline configuration object with all available 'SetHeader'
-	 * properties.
+	 * properties, and the plan used to build the response headers from them.
 	 * @param pipeline
 	 * @return pipeline configuration object.
 	 */
@@ -215,6 +248,7 @@ public class SetHeadersElement
 				}
 			});
 		});
+		config.buildPlan();
 		return config;
 	}
 	
@@ -250,6 +284,59 @@ public class SetHeadersElement
 	protected class PipelineConfig {
 		public Map<String, PropertyDetails> setHeaderProperties =
 			new HashMap<String, PropertyDetails>();
+		
+		/**
+		 * The element data key and name of each SetHeader property.
+		 */
+		String[] elementDataKeys;
+		String[] propertyNames;
+		
+		/**
+		 * The distinct response headers, and the indexes of the SetHeader
+		 * properties which contribute to each of them.
+		 */
+		String[] responseHeaderNames;
+		int[][] responseHeaderSources;
+		
+		/**
+		 * Response headers for each combination of SetHeader property values
+		 * seen so far.
+		 */
+		final Map<List<String>, Map<String, String>> responseHeaders =
+			new ConcurrentHashMap<List<String>, Map<String, String>>();
+		
+		/**
+		 * Build the plan from the SetHeader properties.
+		 */
+		void buildPlan() {
+			int count = setHeaderProperties.size();
+			elementDataKeys = new String[count];
+			propertyNames = new String[count];
+			Map<String, List<Integer>> sources =
+				new LinkedHashMap<String, List<Integer>>();
+			int i = 0;
+			for (Map.Entry<String, PropertyDetails> entry :
+				setHeaderProperties.entrySet()) {
+				PropertyDetails details = entry.getValue();
+				elementDataKeys[i] = details.propertyMetaData.getElement()
+					.getElementDataKey();
+				propertyNames[i] = entry.getKey();
+				sources.computeIfAbsent(
+					details.responseHeaderName,
+					k -> new ArrayList<Integer>()).add(i);
+				i++;
+			}
+			responseHeaderNames = new String[sources.size()];
+			responseHeaderSources = new int[sources.size()][];
+			int h = 0;
+			for (Map.Entry<String, List<Integer>> entry : sources.entrySet()) {
+				responseHeaderNames[h] = entry.getKey();
+				responseHeaderSources[h] = entry.getValue().stream()
+					.mapToInt(Integer::intValue)
+					.toArray();
+				h++;
+			}
+		}
 	}
 	
 	/**
@@ -22,23 +22,22 @@
 
 package fiftyone.pipeline.engines.fiftyone.flowelements;
 
-import fiftyone.caching.LruPutCache;
 import fiftyone.pipeline.core.data.*;
 import fiftyone.pipeline.core.flowelements.FlowElement;
 import fiftyone.pipeline.core.flowelements.FlowElementBase;
 import fiftyone.pipeline.core.flowelements.Pipeline;
-import fiftyone.pipeline.engines.configuration.CacheConfiguration;
+import fiftyone.pipeline.core.flowelements.WarmUpAware;
 import fiftyone.pipeline.engines.fiftyone.data.EvidenceKeyFilterShareUsage;
 import fiftyone.pipeline.engines.fiftyone.exceptions.HttpException;
-import fiftyone.pipeline.engines.fiftyone.trackers.ShareUsageTracker;
+import fiftyone.pipeline.engines.fiftyone.trackers.ShareUsageSketchTracker;
+import fiftyone.pipeline.engines.services.HostIdentityProvider;
+import fiftyone.pipeline.engines.services.HostIdentityProviderDefault;
 import fiftyone.pipeline.engines.trackers.Tracker;
 import org.slf4j.Logger;
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
 
-import java.net.DatagramSocket;
 import java.net.InetAddress;
-import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -46,6 +45,8 @@ import java.util.concurrent.*;
 
 import static fiftyone.pipeline.core.Constants.EVIDENCE_SEPERATOR;
 import static fiftyone.pipeline.engines.fiftyone.flowelements.Constants.LOST_DATA_RESET_DEFAULT;
+import static fiftyone.pipeline.engines.fiftyone.flowelements.Constants.SHARE_USAGE_DEFAULT_TRACKER_EXPECTED_ENTRIES;
+import static fiftyone.pipeline.engines.fiftyone.flowelements.Constants.SHARE_USAGE_DEFAULT_TRACKER_FALSE_POSITIVE_RATE;
 
 
 /**
@@ -54,7 +55,8 @@ import static fiftyone.pipeline.engines.fiftyone.flowelements.Constants.LOST_DAT
  * @see <a href="https://github.com/51Degrees/specifications/blob/main/pipeline-specification/pipeline-elements/usage-sharing-element.md">Specification</a>
  */
 public abstract class ShareUsageBase
-    extends FlowElementBase<ElementData, ElementPropertyMetaData> {
+    extends FlowElementBase<ElementData, ElementPropertyMetaData>
+    implements WarmUpAware {
 
     /**
      * IP Addresses of local host device.
@@ -85,9 +87,21 @@ public abstract class ShareUsageBase
 
     /**
      * Queue used to store entries in memory prior to them being sent to
-     * 51Degrees.
+     * 51Degrees. Entries are dropped if the queue is full. Subclasses outside
+     * this package should use {@link #getQueueSize()} and
+     * {@link #getDroppedCount()} to observe the queue.
      */
-    protected BlockingQueue<ShareUsageData> evidenceCollection;
+    final ShareUsageRingBuffer evidenceQueue;
+
+    /**
+     * Read-only view of the queue, which only reports its size and remaining
+     * capacity. Entries can not be added, taken or iterated.
+     * @deprecated use {@link #getQueueSize()} and {@link #getDroppedCount()}.
+     * This field will be removed in the next release.
+     */
+    @Deprecated
+    protected final BlockingQueue<ShareUsageData> evidenceCollection =
+        new QueueView();
 
     /**
      * Timeout to use when taking from the queue.
@@ -114,6 +128,12 @@ public abstract class ShareUsageBase
      */
     private final EvidenceKeyFilter evidenceKeyFilterExclSession;
 
+    /**
+     * The result of {@link #evidenceKeyFilterExclSession} for each evidence
+     * key seen.
+     */
+    private final ShareUsageKeys evidenceKeys;
+
     /**
      * The filter used to determine if an item of evidence should be ignored or
      * not.
@@ -121,9 +141,11 @@ public abstract class ShareUsageBase
     private final List<Map.Entry<String, String>> ignoreDataEvidenceFilter;
 
     /**
-     * The host address of the current machine.
+     * Provides the host address of the current machine. Set by the builder
+     * if the address is configured explicitly.
      */
-    private String hostAddress;
+    HostIdentityProvider hostIdentityProvider =
+        new HostIdentityProviderDefault();
 
     /**
      * Empty list. This engine returns no properties.
@@ -158,6 +180,12 @@ public abstract class ShareUsageBase
      */
     private Tracker tracker;
 
+    /**
+     * The filter used by the default tracker, or null if a tracker was
+     * supplied.
+     */
+    private EvidenceKeyFilter defaultTrackerFilter;
+
     /**
      * The interval is a timespan which is used to determine if a piece of
      * repeated evidence should be considered new evidence to share. If the
@@ -396,7 +424,12 @@ public abstract class ShareUsageBase
             blockedHttpHeaders.add(Constants.EVIDENCE_HTTPHEADER_COOKIE_SUFFIX);
         }
 
-        evidenceCollection = new LinkedBlockingQueue<>(maximumQueueSize);
+        // Up to twice the minimum entries are sent in each message, so allow
+        // for that many entries being held while they are sent.
+        evidenceQueue = new ShareUsageRingBuffer(
+            maximumQueueSize,
+            minimumEntriesPerMessage * 2,
+            this::getDataFromEvidence);
 
         this.addTimeout = addTimeout;
         this.takeTimeout = takeTimeout;
@@ -420,20 +453,34 @@ public abstract class ShareUsageBase
             blockedHttpHeaders, includedQueryStringParameters, true, sessionCookieName);
         evidenceKeyFilterExclSession = new EvidenceKeyFilterShareUsage(
             blockedHttpHeaders, includedQueryStringParameters, false, sessionCookieName);
+        List<String> knownKeys = new ArrayList<>();
+        knownKeys.add(fiftyone.pipeline.core.Constants.EVIDENCE_CLIENTIP_KEY);
+        knownKeys.add(fiftyone.pipeline.core.Constants.EVIDENCE_HEADER_USERAGENT_KEY);
+        for (String parameter : includedQueryStringParameters) {
+            knownKeys.add(fiftyone.pipeline.core.Constants.EVIDENCE_QUERY_PREFIX +
+                EVIDENCE_SEPERATOR + parameter);
+        }
+        // The default tracker's filter results are held in the same cache.
+        evidenceKeys = new ShareUsageKeys(
+            evidenceKeyFilterExclSession,
+            tracker == null ?
+                new EvidenceKeyFilterShareUsage(
+                    blockedHttpHeaders,
+                    includedQueryStringParameters,
+                    trackSession,
+                    sessionCookieName) :
+                null,
+            knownKeys);
 
         this.ignoreDataEvidenceFilter = ignoreDataEvidenceFilter;
 
         this.tracker = tracker;
         // If no tracker was supplied then create the default one.
         if (tracker == null) {
-            CacheConfiguration cacheConfiguration = new CacheConfiguration(
-                new LruPutCache.Builder(),
-                1000);
-            this.tracker = new ShareUsageTracker(
-                cacheConfiguration,
-                    intervalMillis,
-                new EvidenceKeyFilterShareUsage(
-                    blockedHttpHeaders, includedQueryStringParameters, trackSession, sessionCookieName));
+            defaultTrackerFilter = evidenceKeys.getTrackerFilter();
+            configureDefaultTracker(
+                SHARE_USAGE_DEFAULT_TRACKER_EXPECTED_ENTRIES,
+                SHARE_USAGE_DEFAULT_TRACKER_FALSE_POSITIVE_RATE);
         }
 
         properties = new ArrayList<>();
@@ -481,20 +528,8 @@ public abstract class ShareUsageBase
      * @return machine IP
      */
     protected String getHostAddress() {
-        if (hostAddress == null) {
-            String address = null;
-            try (final DatagramSocket socket = new DatagramSocket()) {
-                socket.connect(InetAddress.getByName("8.8.8.8"), 10002);
-                address = socket.getLocalAddress().getHostAddress();
-            } catch (UnknownHostException e) {
-                logger.debug("The host was unknown", e);
-            } catch (SocketException e) {
-                logger.debug("There was a socket exception", e);
-            }
-
-            hostAddress = address == null ? "" : address;
-        }
-        return hostAddress;
+        String address = hostIdentityProvider.getHostAddress();
+        return address == null ? "" : address;
     }
 
     @Override
@@ -540,6 +575,20 @@ public abstract class ShareUsageBase
         return properties;
     }
 
+    /**
+     * Warm-up evidence is synthetic so must never be shared.
+     * @return false
+     */
+    @Override
+    public boolean acceptsWarmUpEvidence() {
+        return false;
+    }
+
+    @Override
+    public void touchData() {
+        // No data to touch.
+    }
+
     /**
      * Indicates whether share usage has been canceled as a result of an error.
      * @return true if share usage has been canceled
@@ -625,28 +674,21 @@ public abstract class ShareUsageBase
             if (tracker.track(data)) {
                 // Extract the data we want from the evidence and add
                 // it to the collection.
-                try {
-                    if (evidenceCollection.offer(
-                            getDataFromEvidence(data.getEvidence()),
-                            addTimeout,
-                            TimeUnit.MILLISECONDS)) {
-                        logger.debug("Queued {} entries", evidenceCollection.size());
-                        // If the collection has enough entries then start
-                        // taking data from it to be sent.
-                        if (evidenceCollection.size() >= minEntriesPerMessage) {
-                            trySendData();
-                        }
-                    } else {
-                        if (++lostData >= lostDataReset) {
-                            logger.warn("Could not queue data for Share Usage. This could mean that" +
-                                    " the queue is too small, that the proportion of data shared is" +
-                                    " too high - or that the sending process has encountered" +
-                                    " problems sending.");
-                            lostData = 0;
-                        }
+                if (evidenceQueue.offer(data.getEvidence(), addTimeout)) {
+                    logger.debug("Queued {} entries", evidenceQueue.size());
+                    // If the collection has enough entries then start
+                    // taking data from it to be sent.
+                    if (evidenceQueue.size() >= minEntriesPerMessage) {
+                        trySendData();
+                    }
+                } else {
+                    if (++lostData >= lostDataReset) {
+                        logger.warn("Could not queue data for Share Usage. This could mean that" +
+                                " the queue is too small, that the proportion of data shared is" +
+                                " too high - or that the sending process has encountered" +
+                                " problems sending.");
+                        lostData = 0;
                     }
-                } catch (InterruptedException e) {
-                    logger.warn("interrupted Exception while enqueueing ShareUsage data.");
                 }
             }
         }
@@ -655,32 +697,31 @@ public abstract class ShareUsageBase
     /**
      * Extract the desired data from the evidence.
      * In order to avoid problems with the evidence data being disposed before
-     * it is sent, the data placed into a new object rather than being a
+     * it is sent, the data is copied into a queue entry rather than being a
      * reference to the existing evidence instance.
      *
+     * @param shareUsageData the empty queue entry to populate
      * @param evidence an {@link Evidence} instance that contains the data to be extracted
-     * @return a {@link ShareUsageData} instance populated with data from the evidence
      */
-    private ShareUsageData getDataFromEvidence(Evidence evidence) {
-        ShareUsageData shareUsageData = new ShareUsageData();
-
+    private void getDataFromEvidence(
+        ShareUsageData shareUsageData,
+        Evidence evidence) {
         for (Map.Entry<String, Object> entry : evidence.asKeyMap().entrySet()) {
-            // Check if we can send this piece of evidence
-            if (evidenceKeyFilterExclSession.include(entry.getKey()) == false) {
-                continue;
-            }
-
-            switch (entry.getKey()) {
-                case fiftyone.pipeline.core.Constants.EVIDENCE_CLIENTIP_KEY:
+            ShareUsageKeys.Key key = evidenceKeys.get(entry.getKey());
+            switch (key.kind) {
+                case EXCLUDED:
+                    // This piece of evidence is not sent.
+                    break;
+                case CLIENT_IP:
                     // The client IP is dealt with separately for backwards
                     // compatibility purposes.
                     shareUsageData.clientIP = entry.getValue().toString();
                     break;
-                case Constants.EVIDENCE_SESSIONID:
+                case SESSION_ID:
                     // The SessionID is dealt with separately.
                     shareUsageData.sessionId = entry.getValue().toString();
                     break;
-                case Constants.EVIDENCE_SEQUENCE:
+                case SEQUENCE:
                     // The Sequence is dealt with separately.
                     int sequence;
                     try {
@@ -691,13 +732,49 @@ public abstract class ShareUsageBase
                     }
                     break;
                 default:
-                    shareUsageData.tryAddToData(entry.getKey(), entry.getValue());
+                    shareUsageData.add(key, entry.getValue().toString());
             }
         }
-        return shareUsageData;
     }
 
 
+    /**
+     * Size the default tracker. This has no effect if a tracker was supplied
+     * to the constructor.
+     * @param expectedEntries the number of different sets of evidence
+     *                        expected to be shared within the repeat evidence
+     *                        interval
+     * @param falsePositiveRate the acceptable chance of new evidence being
+     *                          treated as a repeat
+     */
+    void configureDefaultTracker(int expectedEntries, double falsePositiveRate) {
+        if (defaultTrackerFilter != null) {
+            tracker = new ShareUsageSketchTracker(
+                intervalMillis,
+                defaultTrackerFilter,
+                expectedEntries,
+                falsePositiveRate);
+        }
+    }
+
+    /**
+     * Get the number of entries currently held in the queue waiting to be
+     * sent.
+     * @return number of queued entries
+     */
+    protected int getQueueSize() {
+        return evidenceQueue.size();
+    }
+
+    /**
+     * Get the total number of entries which have been dropped because the
+     * queue was full.
+     * @return number of dropped entries
+     */
+    protected long getDroppedCount() {
+        return evidenceQueue.getDroppedCount();
+    }
+
     /**
      * Attempt to send the data to the remote service. This only happens if
      * there is not a task already running.
@@ -742,6 +819,81 @@ public abstract class ShareUsageBase
         this.enginesVersion = enginesVersion;
     }
 
+    /**
+     * Read-only view of the queue which backs the deprecated
+     * {@link #evidenceCollection} field. The entries in the queue are reused
+     * once they are sent, so they can not be exposed.
+     */
+    private final class QueueView
+        extends AbstractQueue<ShareUsageData>
+        implements BlockingQueue<ShareUsageData> {
+
+        @Override
+        public int size() {
+            return evidenceQueue.size();
+        }
+
+        @Override
+        public int remainingCapacity() {
+            return Math.max(0, evidenceQueue.getMaximumSize() - size());
+        }
+
+        @Override
+        public Iterator<ShareUsageData> iterator() {
+            throw new UnsupportedOperationException(
+                "Usage data in the queue can not be iterated.");
+        }
+
+        @Override
+        public boolean offer(ShareUsageData data) {
+            throw new UnsupportedOperationException(
+                "Usage data can only be added by processing evidence.");
+        }
+
+        @Override
+        public boolean offer(ShareUsageData data, long timeout, TimeUnit unit) {
+            return offer(data);
+        }
+
+        @Override
+        public void put(ShareUsageData data) {
+            offer(data);
+        }
+
+        @Override
+        public ShareUsageData poll() {
+            throw new UnsupportedOperationException(
+                "Usage data can only be taken by the sending thread.");
+        }
+
+        @Override
+        public ShareUsageData poll(long timeout, TimeUnit unit) {
+            return poll();
+        }
+
+        @Override
+        public ShareUsageData take() {
+            return poll();
+        }
+
+        @Override
+        public ShareUsageData peek() {
+            return poll();
+        }
+
+        @Override
+        public int drainTo(Collection<? super ShareUsageData> c) {
+            poll();
+            return 0;
+        }
+
+        @Override
+        public int drainTo(Collection<? super ShareUsageData> c, int maxElements) {
+            poll();
+            return 0;
+        }
+    }
+
     /**
      * Inner class that is used to store details of data in memory
      * prior to it being sent to 51Degrees.
@@ -750,27 +902,88 @@ public abstract class ShareUsageBase
         public String sessionId;
         public int sequence;
         public String clientIP;
-        public final Map<String, Map<String, String>> evidenceData = new HashMap<>();
 
-        void tryAddToData(String key, Object value) {
-            // Get the category and field names from the evidence key.
-            String category = "";
-            String field = key;
-
-            int firstSeparator = key.indexOf(EVIDENCE_SEPERATOR);
-            if (firstSeparator > 0) {
-                category = key.substring(0, firstSeparator);
-                field = key.substring(firstSeparator + 1);
-            }
+        /**
+         * Read-only view of the evidence other than the client IP, session id
+         * and sequence, keyed on category and then field. The view is built
+         * each time it is read, so changes to it are not possible.
+         * @deprecated use {@link #getEvidenceData()}. This field will be
+         * removed in the next release.
+         */
+        @Deprecated
+        public final Map<String, Map<String, String>> evidenceData =
+            new AbstractMap<String, Map<String, String>>() {
+                @Override
+                public Set<Entry<String, Map<String, String>>> entrySet() {
+                    return Collections.unmodifiableMap(getEvidenceData())
+                        .entrySet();
+                }
+            };
+
+        // The other evidence which is shared, as pairs of keys and values.
+        // The arrays are reused when the entry is reused.
+        private ShareUsageKeys.Key[] keys = new ShareUsageKeys.Key[16];
+        private String[] values = new String[16];
+        private int evidenceCount = 0;
+
+        /**
+         * Reset the entry so it can be reused for another request.
+         */
+        void clear() {
+            sessionId = null;
+            sequence = 0;
+            clientIP = null;
+            // Release the values so they can be garbage collected.
+            Arrays.fill(values, 0, evidenceCount, null);
+            evidenceCount = 0;
+        }
 
-            // Add the evidence to the dictionary.
-            Map<String, String> categoryDict = evidenceData.get(category);
-            if (Objects.isNull(categoryDict)) {
-                categoryDict = new HashMap<>();
-                evidenceData.put(category, categoryDict);
+        void add(ShareUsageKeys.Key key, String value) {
+            if (evidenceCount == keys.length) {
+                keys = Arrays.copyOf(keys, evidenceCount * 2);
+                values = Arrays.copyOf(values, evidenceCount * 2);
             }
-            categoryDict.put(field, value.toString());
+            keys[evidenceCount] = key;
+            values[evidenceCount] = value;
+            evidenceCount++;
         }
 
+        void tryAddToData(String key, Object value) {
+            add(
+                new ShareUsageKeys.Key(key, ShareUsageKeys.Kind.EVIDENCE),
+                value.toString());
+        }
+
+        /**
+         * @return the number of items of evidence other than the client IP,
+         * session id and sequence
+         */
+        int getEvidenceCount() {
+            return evidenceCount;
+        }
+
+        ShareUsageKeys.Key getEvidenceKey(int index) {
+            return keys[index];
+        }
+
+        String getEvidenceValue(int index) {
+            return values[index];
+        }
+
+        /**
+         * Get the evidence other than the client IP, session id and sequence,
+         * keyed on category and then field. This is created when called, so
+         * is not intended for use when sending.
+         * @return evidence by category and field
+         */
+        public Map<String, Map<String, String>> getEvidenceData() {
+            Map<String, Map<String, String>> evidenceData = new HashMap<>();
+            for (int i = 0; i < evidenceCount; i++) {
+                evidenceData
+                    .computeIfAbsent(keys[i].getCategory(), k -> new HashMap<>())
+                    .put(keys[i].getField(), values[i]);
+            }
+            return evidenceData;
+        }
     }
 }
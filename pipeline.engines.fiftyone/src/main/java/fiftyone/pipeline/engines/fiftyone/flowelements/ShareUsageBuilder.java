@@ -25,6 +25,7 @@ package fiftyone.pipeline.engines.fiftyone.flowelements;
 import fiftyone.pipeline.annotations.ElementBuilder;
 import fiftyone.pipeline.engines.services.DataUploader;
 import fiftyone.pipeline.engines.services.HttpClient;
+import java.io.File;
 import java.io.IOException;
 import java.util.Objects;
 
@@ -135,6 +136,24 @@ public class ShareUsageBuilder extends ShareUsageBuilderBase<ShareUsageElement>
         } else if (Objects.nonNull(dataUploader)){
             sue.dataUploader = dataUploader;
         }
+        if (spoolDirectory != null && spoolDirectory.isEmpty() == false) {
+            sue.spool = new ShareUsageSpool(
+                new File(spoolDirectory),
+                spoolMaxMegabytes * 1024L * 1024L,
+                minimumEntriesPerMessage * 2);
+        }
+        sue.hostIdentityProvider = getHostIdentityProvider();
+        sue.configureDefaultTracker(
+            trackerExpectedEntries,
+            trackerFalsePositiveRate);
+        sue.uploadScheduler = new ShareUsageUploadScheduler(
+            minimumEntriesPerMessage * 2,
+            maximumUploadBytes,
+            uploadTargetLatency,
+            maximumConcurrentUploads,
+            uploadRetries,
+            uploadBackoff,
+            Constants.SHARE_USAGE_MAX_UPLOAD_BACKOFF);
         return sue;
     }
 }
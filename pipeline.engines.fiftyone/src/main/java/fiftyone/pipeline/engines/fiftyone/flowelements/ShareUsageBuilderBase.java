@@ -23,6 +23,8 @@
 package fiftyone.pipeline.engines.fiftyone.flowelements;
 
 import fiftyone.pipeline.annotations.DefaultValue;
+import fiftyone.pipeline.engines.services.HostIdentityProvider;
+import fiftyone.pipeline.engines.services.HostIdentityProviderDefault;
 import fiftyone.pipeline.util.Check;
 import org.slf4j.ILoggerFactory;
 import org.slf4j.Logger;
@@ -57,6 +59,18 @@ public abstract class ShareUsageBuilderBase<T extends ShareUsageBase> {
     protected final List<String> includedQueryStringParameters = new ArrayList<>();
     protected final List<Map.Entry<String, String>> ignoreDataEvidenceFilter = new ArrayList<>();
     protected boolean trackSession;
+    protected String spoolDirectory = null;
+    protected int spoolMaxMegabytes = Constants.SHARE_USAGE_DEFAULT_SPOOL_MAX_MEGABYTES;
+    protected int maximumUploadBytes = Constants.SHARE_USAGE_DEFAULT_MAX_UPLOAD_BYTES;
+    protected int uploadTargetLatency = Constants.SHARE_USAGE_DEFAULT_UPLOAD_TARGET_LATENCY;
+    protected int maximumConcurrentUploads = Constants.SHARE_USAGE_DEFAULT_MAX_CONCURRENT_UPLOADS;
+    protected int uploadRetries = Constants.SHARE_USAGE_DEFAULT_UPLOAD_RETRIES;
+    protected int uploadBackoff = Constants.SHARE_USAGE_DEFAULT_UPLOAD_BACKOFF;
+    protected int trackerExpectedEntries = Constants.SHARE_USAGE_DEFAULT_TRACKER_EXPECTED_ENTRIES;
+    protected double trackerFalsePositiveRate = Constants.SHARE_USAGE_DEFAULT_TRACKER_FALSE_POSITIVE_RATE;
+    protected String hostAddress = null;
+    protected int hostAddressRefreshInterval = Constants.SHARE_USAGE_DEFAULT_HOST_ADDRESS_REFRESH_INTERVAL;
+    protected HostIdentityProvider hostIdentityProvider = null;
 
     /**
      * Constructor
@@ -415,6 +429,236 @@ public abstract class ShareUsageBuilderBase<T extends ShareUsageBase> {
         return this;
     }
 
+    /**
+     * Set the directory to spool usage data to before it is sent. Usage data
+     * held in the spool survives the remote service being unavailable and
+     * the process being restarted, without being held in memory.
+     * <p>
+     * By default, usage data is only held in memory.
+     * @param directory the directory to spool usage data to
+     * @return this builder
+     */
+    @DefaultValue("No spooling")
+    public ShareUsageBuilderBase<T> setSpoolDirectory(String directory) {
+        this.spoolDirectory = directory;
+        return this;
+    }
+
+    /**
+     * Set the maximum size in megabytes of the usage data spooled to disk.
+     * Usage data which would exceed this is discarded.
+     * <p>
+     * Default value is 100
+     * @param megabytes maximum size of the spool
+     * @return this builder
+     */
+    @DefaultValue(intValue = Constants.SHARE_USAGE_DEFAULT_SPOOL_MAX_MEGABYTES)
+    public ShareUsageBuilderBase<T> setSpoolMaxMegabytes(int megabytes) {
+        if (megabytes <= 0) {
+            throw new IllegalArgumentException(
+                "Spool size must be greater than 0");
+        }
+        this.spoolMaxMegabytes = megabytes;
+        return this;
+    }
+
+    /**
+     * Set the approximate maximum size in bytes of the uncompressed XML sent
+     * in one upload. While there is a backlog of usage data and uploads
+     * complete within the target latency, batches grow from the minimum
+     * entries per message up to this size.
+     * <p>
+     * Default value is 1048576
+     * @param bytes maximum size of an upload
+     * @return this builder
+     */
+    @DefaultValue(intValue = Constants.SHARE_USAGE_DEFAULT_MAX_UPLOAD_BYTES)
+    public ShareUsageBuilderBase<T> setMaximumUploadBytes(int bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException(
+                "Maximum upload bytes must be greater than 0");
+        }
+        this.maximumUploadBytes = bytes;
+        return this;
+    }
+
+    /**
+     * Set the time in milliseconds within which an upload is expected to
+     * complete. Uploads which take longer, or fail, halve the size of later
+     * batches.
+     * <p>
+     * Default value is 1000
+     * @param milliseconds target upload latency
+     * @return this builder
+     */
+    @DefaultValue(intValue = Constants.SHARE_USAGE_DEFAULT_UPLOAD_TARGET_LATENCY)
+    public ShareUsageBuilderBase<T> setUploadTargetLatency(int milliseconds) {
+        this.uploadTargetLatency = milliseconds;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of uploads which can be in progress at once, so
+     * that one slow upload does not hold up the batches after it. If this is
+     * greater than 1 then any {@link fiftyone.pipeline.engines.services.DataUploader}
+     * supplied must support uploads from several threads at once.
+     * <p>
+     * Default value is 1
+     * @param uploads maximum concurrent uploads
+     * @return this builder
+     */
+    @DefaultValue(intValue = Constants.SHARE_USAGE_DEFAULT_MAX_CONCURRENT_UPLOADS)
+    public ShareUsageBuilderBase<T> setMaximumConcurrentUploads(int uploads) {
+        if (uploads <= 0) {
+            throw new IllegalArgumentException(
+                "Maximum concurrent uploads must be greater than 0");
+        }
+        this.maximumConcurrentUploads = uploads;
+        return this;
+    }
+
+    /**
+     * Set the number of times to retry an upload which fails. Each retry
+     * waits for a random time up to a limit which doubles with each attempt,
+     * starting from the upload backoff. Usage data which still cannot be
+     * sent is discarded, unless it is spooled to disk.
+     * <p>
+     * Default value is 0
+     * @param retries number of retries
+     * @return this builder
+     */
+    @DefaultValue(intValue = Constants.SHARE_USAGE_DEFAULT_UPLOAD_RETRIES)
+    public ShareUsageBuilderBase<T> setUploadRetries(int retries) {
+        if (retries < 0) {
+            throw new IllegalArgumentException(
+                "Upload retries must not be negative");
+        }
+        this.uploadRetries = retries;
+        return this;
+    }
+
+    /**
+     * Set the limit in milliseconds of the wait before the first retry of a
+     * failed upload.
+     * <p>
+     * Default value is 100
+     * @param milliseconds initial backoff limit
+     * @return this builder
+     */
+    @DefaultValue(intValue = Constants.SHARE_USAGE_DEFAULT_UPLOAD_BACKOFF)
+    public ShareUsageBuilderBase<T> setUploadBackoff(int milliseconds) {
+        if (milliseconds < 0) {
+            throw new IllegalArgumentException(
+                "Upload backoff must not be negative");
+        }
+        this.uploadBackoff = milliseconds;
+        return this;
+    }
+
+    /**
+     * Set the number of different sets of evidence expected to be shared
+     * within the repeat evidence interval. This sizes the tracker used to
+     * avoid sharing repeated evidence, which uses a fixed amount of memory:
+     * about 77 kilobytes per thousand entries at the default false positive
+     * rate.
+     * <p>
+     * Default value is 10000
+     * @param entries expected number of entries
+     * @return this builder
+     */
+    @DefaultValue(intValue = Constants.SHARE_USAGE_DEFAULT_TRACKER_EXPECTED_ENTRIES)
+    public ShareUsageBuilderBase<T> setTrackerExpectedEntries(int entries) {
+        if (entries <= 0) {
+            throw new IllegalArgumentException(
+                "Tracker expected entries must be greater than 0");
+        }
+        this.trackerExpectedEntries = entries;
+        return this;
+    }
+
+    /**
+     * Set the acceptable chance of the tracker treating new evidence as a
+     * repeat, and so not sharing it, once the expected number of entries
+     * have been shared within the repeat evidence interval.
+     * <p>
+     * Default value is 0.01
+     * @param rate false positive rate between 0 and 1
+     * @return this builder
+     */
+    @DefaultValue(doubleValue = Constants.SHARE_USAGE_DEFAULT_TRACKER_FALSE_POSITIVE_RATE)
+    public ShareUsageBuilderBase<T> setTrackerFalsePositiveRate(double rate) {
+        if (rate <= 0 || rate >= 1) {
+            throw new IllegalArgumentException(
+                "Tracker false positive rate must be between 0 and 1");
+        }
+        this.trackerFalsePositiveRate = rate;
+        return this;
+    }
+
+    /**
+     * Set the address which identifies this machine in the usage data. Use
+     * this where the address found from the network interfaces is not the
+     * one which should be shared, for example behind NAT or in a container.
+     * <p>
+     * By default, the address is found from the network interfaces.
+     * @param address the IP address of this machine
+     * @return this builder
+     */
+    @DefaultValue("Found from the network interfaces")
+    public ShareUsageBuilderBase<T> setHostAddress(String address) {
+        this.hostAddress = address;
+        return this;
+    }
+
+    /**
+     * Set the time in milliseconds after which the address of this machine is
+     * found from the network interfaces again. Not used if the address is set
+     * explicitly.
+     * <p>
+     * Default value is 300000
+     * @param milliseconds refresh interval
+     * @return this builder
+     */
+    @DefaultValue(intValue = Constants.SHARE_USAGE_DEFAULT_HOST_ADDRESS_REFRESH_INTERVAL)
+    public ShareUsageBuilderBase<T> setHostAddressRefreshInterval(int milliseconds) {
+        if (milliseconds <= 0) {
+            throw new IllegalArgumentException(
+                "Host address refresh interval must be greater than 0");
+        }
+        this.hostAddressRefreshInterval = milliseconds;
+        return this;
+    }
+
+    /**
+     * Set the {@link HostIdentityProvider} used to find the address which
+     * identifies this machine in the usage data. This takes precedence over
+     * {@link #setHostAddress(String)}.
+     * @param provider the provider to use
+     * @return this builder
+     */
+    @DefaultValue("Address found from the network interfaces")
+    public ShareUsageBuilderBase<T> setHostIdentityProvider(
+        HostIdentityProvider provider) {
+        this.hostIdentityProvider = provider;
+        return this;
+    }
+
+    /**
+     * Get the {@link HostIdentityProvider} for the element from the options
+     * set on this builder.
+     * @return the provider to use
+     */
+    protected HostIdentityProvider getHostIdentityProvider() {
+        if (hostIdentityProvider != null) {
+            return hostIdentityProvider;
+        }
+        if (hostAddress != null && hostAddress.trim().isEmpty() == false) {
+            final String address = hostAddress.trim();
+            return () -> address;
+        }
+        return new HostIdentityProviderDefault(hostAddressRefreshInterval);
+    }
+
     /**
      * Create the {@link ShareUsageElement}.
      * @return the newly created target instance
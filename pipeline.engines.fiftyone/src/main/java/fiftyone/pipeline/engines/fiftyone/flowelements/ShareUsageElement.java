@@ -35,18 +35,20 @@ import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.zip.GZIPOutputStream;
 
-import static fiftyone.pipeline.engines.fiftyone.flowelements.Constants.SHARE_USAGE_DEFAULT_HTTP_POST_TIMEOUT;
-import static fiftyone.pipeline.engines.fiftyone.flowelements.Constants.SHARE_USAGE_MAX_EVIDENCE_LENGTH;
+import static fiftyone.pipeline.engines.fiftyone.flowelements.Constants.*;
 
 /**
  * Flow element that sends usage data to 51Degrees for analysis. 
@@ -59,8 +61,38 @@ public class ShareUsageElement extends ShareUsageBase {
     protected HttpClient httpClient; // old style HttpClient
     protected DataUploader dataUploader = new DataUploaderHttp(shareUsageUrl, headers, httpSendTimeout);
 
+    /**
+     * Spool used to keep usage data on disk until it has been sent, or null
+     * if usage data is only held in memory.
+     */
+    ShareUsageSpool spool;
+
+    /**
+     * Decides the size of batches, how many are uploaded at once and how
+     * failed uploads are retried.
+     */
+    ShareUsageUploadScheduler uploadScheduler;
+
+    /**
+     * Spool segments which have been passed to the upload scheduler and not
+     * yet sent, so they are not sent again while the upload is in progress.
+     */
+    private final Set<File> spoolUploads =
+        Collections.newSetFromMap(new ConcurrentHashMap<>());
+
     protected XMLOutputFactory xmlOutputFactory;
 
+    private static final byte[] DEVICES_START =
+        ShareUsageXmlWriter.ascii("<Devices version=\"1.1\">");
+
+    // Only used by the thread sending usage data.
+    private final ShareUsageXmlWriter xmlWriter = new ShareUsageXmlWriter();
+    private byte[] invariantXml;
+    private List<String> invariantXmlFlowElements;
+    private String invariantXmlHostAddress;
+    private long dateSentSecond = -1;
+    private String dateSent;
+
     /**
      * Constructor
      *
@@ -329,6 +361,15 @@ public class ShareUsageElement extends ShareUsageBase {
         // assume default GZIP connection
         headers.put("Content-Encoding", "gzip");
 
+        uploadScheduler = new ShareUsageUploadScheduler(
+            minimumEntriesPerMessage * 2,
+            SHARE_USAGE_DEFAULT_MAX_UPLOAD_BYTES,
+            SHARE_USAGE_DEFAULT_UPLOAD_TARGET_LATENCY,
+            SHARE_USAGE_DEFAULT_MAX_CONCURRENT_UPLOADS,
+            SHARE_USAGE_DEFAULT_UPLOAD_RETRIES,
+            SHARE_USAGE_DEFAULT_UPLOAD_BACKOFF,
+            SHARE_USAGE_MAX_UPLOAD_BACKOFF);
+
         xmlOutputFactory = XMLOutputFactory.newInstance();
         if (xmlOutputFactory.isPropertySupported("escapeCharacters")) {
             xmlOutputFactory.setProperty("escapeCharacters", true);
@@ -336,7 +377,15 @@ public class ShareUsageElement extends ShareUsageBase {
     }
 
     /**
-     * Take data from the queue until there are fewer entries than the minimum batch size
+     * Take data from the queue until there are fewer entries than the minimum
+     * batch size. Each batch is written as XML and released back to the queue
+     * before it is uploaded, so several batches can be uploaded at once
+     * without holding up the queue.
+     * <p>
+     * The XML is held in memory rather than streamed to the upload, because
+     * the entries are reused for new requests as soon as they are released,
+     * and a failed upload is retried with the same bytes. A batch is limited
+     * by the scheduler's maximum upload size.
      */
     @Override
     protected void sendUsageData() {
@@ -345,41 +394,190 @@ public class ShareUsageElement extends ShareUsageBase {
         List<ShareUsageData> allData = new ArrayList<>();
         // drain queue while minimum entries in it
         do {
-            logger.debug(threadMarker, "Queue size is {}", evidenceCollection.size());
+            logger.debug(threadMarker, "Queue size is {}", evidenceQueue.size());
+            allData.clear();
+            byte[] xml = null;
+            int entries = 0;
             try {
-                allData.clear();
-                // for historical reasons max entries set to 2*
-                while (allData.size() < minEntriesPerMessage * 2) {
-                    ShareUsageData currentData = evidenceCollection.poll(takeTimeout, TimeUnit.MILLISECONDS);
-                    // no data available
-                    if (currentData == null) {
-                        break;
-                    }
-                    allData.add(currentData);
+                evidenceQueue.read(
+                    allData,
+                    uploadScheduler.getBatchSize(),
+                    takeTimeout);
+                if (spool != null) {
+                    spool.append(allData);
+                } else if (allData.isEmpty() == false) {
+                    xml = toXml(allData);
+                    entries = allData.size();
                 }
-                sendAsXML(allData);
             } catch (InterruptedException e) {
                 logger.error("Interrupted exception caught while waiting on share usage queue");
             } catch (Exception e) {
                 logger.error("Exception sending usage data", e);
+            } finally {
+                // The entries are reused for new requests once released.
+                evidenceQueue.release(allData.size());
+            }
+            if (xml != null) {
+                byte[] batch = xml;
+                int batchEntries = entries;
+                try {
+                    uploadScheduler.execute(() -> upload(batch, batchEntries));
+                } catch (InterruptedException e) {
+                    logger.error("Interrupted while waiting to upload usage data");
+                    Thread.currentThread().interrupt();
+                    break;
+                }
             }
           // send in minEntries batches unless shutting down in which case drain the queue
-        } while (evidenceCollection.size() >= minEntriesPerMessage ||
-                executor.isShutdown() && evidenceCollection.size() > 0);
-        logger.debug(threadMarker, "Stopping sending. Queue size is {}", evidenceCollection.size());
+        } while (evidenceQueue.size() >= minEntriesPerMessage ||
+                executor.isShutdown() && evidenceQueue.size() > 0);
+        if (spool != null) {
+            sendSpooledData();
+        }
+        logger.debug(threadMarker, "Stopping sending. Queue size is {}", evidenceQueue.size());
+    }
+
+    /**
+     * Upload a batch, retrying with backoff if the scheduler allows, and
+     * record the outcome with the scheduler. Failures are logged rather than
+     * thrown.
+     * @param xml the batch as XML
+     * @param entries the number of entries in the batch
+     * @return true if the batch was sent
+     */
+    private boolean upload(byte[] xml, int entries) {
+        long start = System.nanoTime();
+        boolean success = false;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sendAsXML(xml);
+                success = true;
+                break;
+            } catch (Exception e) {
+                if (attempt > uploadScheduler.getRetries()) {
+                    logger.error("Exception sending usage data", e);
+                    break;
+                }
+                long backoff = uploadScheduler.getBackoffMillis(attempt);
+                logger.debug(threadMarker,
+                    "Retrying usage data upload in {}ms after: {}",
+                    backoff,
+                    e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    logger.error("Interrupted while waiting to retry usage data upload", e);
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        uploadScheduler.record(
+            entries,
+            xml.length,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            success);
+        return success;
+    }
+
+    /**
+     * Send the sealed segments in the spool, oldest first, deleting each one
+     * once it has been sent. Segments are uploaded by the scheduler in the
+     * same way as batches from the queue, so are retried and limited in the
+     * same way. If sending fails then the segment is kept to be sent next
+     * time.
+     */
+    private void sendSpooledData() {
+        try {
+            if (executor.isShutdown()) {
+                // Send everything that is left, or keep it for next time.
+                spool.seal();
+            }
+            for (File segment : spool.getSegments()) {
+                if (spoolUploads.add(segment) == false) {
+                    // Already being uploaded.
+                    continue;
+                }
+                boolean scheduled = false;
+                try {
+                    List<ShareUsageData> spooled = spool.read(segment);
+                    if (spooled.isEmpty()) {
+                        spool.delete(segment);
+                        continue;
+                    }
+                    byte[] xml = toXml(spooled);
+                    int entries = spooled.size();
+                    uploadScheduler.execute(() -> {
+                        try {
+                            if (upload(xml, entries)) {
+                                spool.delete(segment);
+                            }
+                        } finally {
+                            spoolUploads.remove(segment);
+                        }
+                    });
+                    scheduled = true;
+                } finally {
+                    if (scheduled == false) {
+                        spoolUploads.remove(segment);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.error("Interrupted while waiting to upload spooled usage data");
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Exception sending spooled usage data. It will " +
+                "be sent later.", e);
+        }
+    }
+
+    @Override
+    protected void managedResourcesCleanup() {
+        super.managedResourcesCleanup();
+        try {
+            if (uploadScheduler.shutdown(SHARE_USAGE_DEFAULT_HTTP_POST_TIMEOUT) == false) {
+                logger.warn("Could not finish uploading usage data on close down");
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted while awaiting close down");
+        }
+        if (spool != null) {
+            try {
+                spool.close();
+            } catch (IOException e) {
+                logger.warn("Could not close the usage spool.", e);
+            }
+        }
     }
 
+    /**
+     * Send usage data as XML.
+     * @param allData data to send
+     * @throws Exception if the data could not be sent
+     * @deprecated usage data is now written as XML before it is uploaded, so
+     * this is no longer called when sending and overriding it has no effect
+     */
+    @Deprecated
     protected void sendAsXML(List<ShareUsageData> allData) throws Exception {
         logger.debug(threadMarker, "send {} usage elements", allData.size());
+        sendAsXML(toXml(allData));
+    }
 
+    /**
+     * Send usage data which has already been written as XML.
+     * @param xml the usage data as UTF-8 XML
+     * @throws Exception if the data could not be sent
+     */
+    private void sendAsXML(byte[] xml) throws Exception {
         if (Objects.nonNull(httpClient)) {
-            legacySendAsXML(allData);
+            legacySendAsXML(xml);
             return;
         }
-        // get an output stream to send the usage
+        // get an output stream to send the usage, which compresses the data
+        // as it is written
         try (OutputStream os = dataUploader.getOutputStream()) {
-            // encode to the stream
-            streamXml(allData, os);
+            os.write(xml);
         }
 
         // check for completion
@@ -391,18 +589,89 @@ public class ShareUsageElement extends ShareUsageBase {
     }
 
     /**
-     * Serialise the SharedUsageData to an outputStream
-     * @throws XMLStreamException on error
+     * Serialise the SharedUsageData as XML. The elements which are the same
+     * for every entry are rendered once and copied into each entry. Must only
+     * be called by the thread sending usage data.
+     * @return UTF-8 XML
      */
-    private void streamXml(List<ShareUsageData> allData, OutputStream os) throws XMLStreamException {
-        XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(os, "UTF-8");
-        writer.writeStartElement("Devices");
-        writer.writeAttribute("version", "1.1");
+    private byte[] toXml(List<ShareUsageData> allData) {
+        ShareUsageXmlWriter writer = xmlWriter;
+        writer.reset();
+        writer.raw(DEVICES_START);
+        byte[] invariant = getInvariantXml();
         for (ShareUsageData data : allData) {
-            writeXmlData(writer, data);
+            writer.startElement("Device");
+            writer.raw(invariant);
+            // The SessionID used to track a series of requests
+            writer.element("SessionId", data.sessionId);
+            // The sequence number of the request in a series of requests.
+            writer.element("Sequence", Integer.toString(data.sequence));
+            // The UTC date/time this entry was written
+            writer.element("DateSent", getDateSent());
+            // The client IP of the request
+            writer.element("ClientIP", data.clientIP);
+            // Write all other evidence data that has been included.
+            for (int i = 0; i < data.getEvidenceCount(); i++) {
+                ShareUsageKeys.Key key = data.getEvidenceKey(i);
+                writer.evidence(
+                    key.getCategory(),
+                    key.getField(),
+                    data.getEvidenceValue(i));
+            }
+            writer.endElement("Device");
         }
-        writer.writeEndElement();
-        writer.close();
+        writer.endElement("Devices");
+        return writer.toByteArray();
+    }
+
+    /**
+     * Get the XML for the elements which are the same in every entry. This
+     * is rendered again only if the flow elements or the address of this
+     * server change.
+     * @return UTF-8 XML
+     */
+    private byte[] getInvariantXml() {
+        List<String> flowElements = getFlowElements();
+        String hostAddress = getHostAddress();
+        if (invariantXml == null ||
+            invariantXmlFlowElements != flowElements ||
+            hostAddress.equals(invariantXmlHostAddress) == false) {
+            ShareUsageXmlWriter writer = new ShareUsageXmlWriter(512);
+            // The version number of the Pipeline API
+            writer.element("Version", coreVersion);
+            // Write Pipeline information
+            // The product name
+            writer.element("Product", "Pipeline");
+            // The flow elements in the current pipeline
+            for (String element : flowElements) {
+                writer.element("FlowElement", element);
+            }
+            writer.element("Language", "java");
+            // The software language version
+            writer.element("LanguageVersion", languageVersion);
+            // The IP of this server
+            writer.element("ServerIP", hostAddress);
+            // The OS name and version
+            writer.element("Platform", osVersion);
+            invariantXml = writer.toByteArray();
+            invariantXmlFlowElements = flowElements;
+            invariantXmlHostAddress = hostAddress;
+        }
+        return invariantXml;
+    }
+
+    /**
+     * Get the formatted date and time for the DateSent element. This only
+     * changes once a second so the last value is reused until then.
+     * @return formatted date and time
+     */
+    private String getDateSent() {
+        long second = System.currentTimeMillis() / 1000;
+        if (second != dateSentSecond) {
+            dateSent = DATE_FMT.format(new Date(second * 1000));
+            dateSentSecond = second;
+        }
+        return dateSent;
     }
 
     /**
@@ -410,7 +679,10 @@ public class ShareUsageElement extends ShareUsageBase {
      *
      * @param writer an XMLWriter
      * @param data   the data to write
+     * @deprecated usage data is now written directly as bytes, so this is
+     * no longer called when sending
      */
+    @Deprecated
     protected void writeXmlData(XMLStreamWriter writer, ShareUsageData data) throws XMLStreamException {
         writer.writeStartElement("Device");
         // --- write invariant data
@@ -442,28 +714,32 @@ public class ShareUsageElement extends ShareUsageBase {
         writeXmlElement(writer, "ClientIP", data.clientIP);
 
         // Write all other evidence data that has been included.
-        for (Map.Entry<String, Map<String, String>> category : data.evidenceData.entrySet()) {
-            for (Map.Entry<String, String> entry : category.getValue().entrySet()) {
-                ReplacedString replacedString = new ReplacedString(entry.getValue());
-                if (category.getKey().length() > 0) {
-                    writer.writeStartElement(category.getKey());
-                    writer.writeAttribute("Name", entry.getKey());
-                } else {
-                    writer.writeStartElement(entry.getKey());
-                }
-                if (replacedString.isReplaced()) {
-                    writer.writeAttribute("replaced", "true");
-                }
-                if (replacedString.isTruncated()) {
-                    writer.writeAttribute("truncated", "true");
-                }
-                writer.writeCharacters(replacedString.toString());
-                writer.writeEndElement();
+        for (int i = 0; i < data.getEvidenceCount(); i++) {
+            ShareUsageKeys.Key key = data.getEvidenceKey(i);
+            ReplacedString replacedString = new ReplacedString(data.getEvidenceValue(i));
+            if (key.getCategory().length() > 0) {
+                writer.writeStartElement(key.getCategory());
+                writer.writeAttribute("Name", key.getField());
+            } else {
+                writer.writeStartElement(key.getField());
             }
+            if (replacedString.isReplaced()) {
+                writer.writeAttribute("replaced", "true");
+            }
+            if (replacedString.isTruncated()) {
+                writer.writeAttribute("truncated", "true");
+            }
+            writer.writeCharacters(replacedString.toString());
+            writer.writeEndElement();
         }
         writer.writeEndElement();
     }
 
+    /**
+     * @deprecated usage data is now written directly as bytes, so this is
+     * no longer called when sending
+     */
+    @Deprecated
     protected void writeXmlElement(XMLStreamWriter writer,
                                    String elementName,
                                    String elementContent) throws XMLStreamException {
@@ -487,10 +763,13 @@ public class ShareUsageElement extends ShareUsageBase {
                 .boxed()
                 .collect(Collectors.toCollection(HashSet::new));
         // an array describing whether a character value is valid
-        static final Boolean[] IS_VALID_XML_CHAR = IntStream
-                .range(0, 0x100)
-                .mapToObj(VALID_XML_CHARS::contains)
-                .toArray(Boolean[]::new);
+        static final boolean[] IS_VALID_XML_CHAR = new boolean[0x100];
+
+        static {
+            for (int c : VALID_XML_CHARS) {
+                IS_VALID_XML_CHAR[c] = true;
+            }
+        }
 
         // maximum string length
         static final int MAX_LENGTH = SHARE_USAGE_MAX_EVIDENCE_LENGTH;
@@ -508,16 +787,16 @@ public class ShareUsageElement extends ShareUsageBase {
             } else {
                 builder = new StringBuilder(Math.min(text.length(), MAX_LENGTH));
                 truncated = text.length() > MAX_LENGTH;
-                text.chars()
-                        .limit(MAX_LENGTH)
-                        .forEach(c -> {
-                            if (c < IS_VALID_XML_CHAR.length && IS_VALID_XML_CHAR[c]) {
-                                builder.append((char) c);
-                            } else {
-                                builder.append((char) 0xFFFD);
-                                replaced = true;
-                            }
-                        });
+                int length = Math.min(text.length(), MAX_LENGTH);
+                for (int i = 0; i < length; i++) {
+                    char c = text.charAt(i);
+                    if (c < IS_VALID_XML_CHAR.length && IS_VALID_XML_CHAR[c]) {
+                        builder.append(c);
+                    } else {
+                        builder.append((char) 0xFFFD);
+                        replaced = true;
+                    }
+                }
             }
         }
 
@@ -537,12 +816,18 @@ public class ShareUsageElement extends ShareUsageBase {
     /**
      * If there is an HttpClient we will use this as a legacy
      * @param allData data to send
+     * @deprecated usage data is now written as XML before it is uploaded, so
+     * this is no longer called when sending and overriding it has no effect
      */
+    @Deprecated
     protected void legacySendAsXML(List<ShareUsageData> allData) throws Exception {
+        legacySendAsXML(toXml(allData));
+    }
+
+    private void legacySendAsXML(byte[] xml) throws Exception {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         try (OutputStream os = new GZIPOutputStream(baos)) {
-            // encode to the stream
-            streamXml(allData, os);
+            os.write(xml);
         }
 
         HttpURLConnection connection = httpClient.connect(new URL(shareUsageUrl.trim()));
@@ -0,0 +1,229 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.flowelements;
+
+import fiftyone.pipeline.core.data.EvidenceKeyFilter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static fiftyone.pipeline.core.Constants.EVIDENCE_CLIENTIP_KEY;
+import static fiftyone.pipeline.core.Constants.EVIDENCE_SEPERATOR;
+
+/**
+ * Cache of the evidence keys seen by usage sharing. The filters are applied to
+ * each distinct evidence key once, rather than for every request, so request
+ * threads only need a single lookup per item of evidence to decide what to
+ * do with it. The same cache holds the result of the default tracker's
+ * filter, which is available from {@link #getTrackerFilter()}.
+ */
+final class ShareUsageKeys {
+
+    /**
+     * The maximum number of distinct keys to cache. Keys seen after this are
+     * still handled correctly, but are filtered every time.
+     */
+    static final int MAXIMUM_KEYS = 1024;
+
+    /**
+     * What usage sharing does with an item of evidence.
+     */
+    enum Kind {
+        /**
+         * The evidence is not shared.
+         */
+        EXCLUDED,
+        /**
+         * The client IP, which is sent as its own element.
+         */
+        CLIENT_IP,
+        /**
+         * The session id, which is sent as its own element.
+         */
+        SESSION_ID,
+        /**
+         * The sequence number, which is sent as its own element.
+         */
+        SEQUENCE,
+        /**
+         * Any other evidence which is shared.
+         */
+        EVIDENCE
+    }
+
+    /**
+     * An evidence key, what usage sharing does with it, and whether it is
+     * used by the default tracker. The key is only
+     * split into category and field when the usage data is written, which
+     * happens on the thread sending usage data rather than on request
+     * threads.
+     */
+    static final class Key {
+        final String name;
+        final Kind kind;
+        final boolean tracked;
+        private String category;
+        private String field;
+
+        Key(String name, Kind kind) {
+            this(name, kind, false);
+        }
+
+        Key(String name, Kind kind, boolean tracked) {
+            this.name = name;
+            this.kind = kind;
+            this.tracked = tracked;
+        }
+
+        /**
+         * @return the part of the key before the first separator, or an empty
+         * string if there is no separator
+         */
+        String getCategory() {
+            split();
+            return category;
+        }
+
+        /**
+         * @return the part of the key after the first separator, or the whole
+         * key if there is no separator
+         */
+        String getField() {
+            split();
+            return field;
+        }
+
+        private void split() {
+            if (field == null) {
+                int separator = name.indexOf(EVIDENCE_SEPERATOR);
+                if (separator > 0) {
+                    category = name.substring(0, separator);
+                    field = name.substring(separator + 1);
+                } else {
+                    category = "";
+                    field = name;
+                }
+            }
+        }
+    }
+
+    private final EvidenceKeyFilter filter;
+    private final EvidenceKeyFilter trackerFilter;
+    private final ConcurrentMap<String, Key> keys = new ConcurrentHashMap<>();
+
+    /**
+     * Construct a new instance.
+     * @param filter used to decide which evidence is shared
+     * @param knownKeys evidence keys to add to the cache straight away
+     */
+    ShareUsageKeys(EvidenceKeyFilter filter, Iterable<String> knownKeys) {
+        this(filter, null, knownKeys);
+    }
+
+    /**
+     * Construct a new instance.
+     * @param filter used to decide which evidence is shared
+     * @param trackerFilter used to decide which evidence the default tracker
+     *                      uses, or null if there is no default tracker
+     * @param knownKeys evidence keys to add to the cache straight away
+     */
+    ShareUsageKeys(
+        EvidenceKeyFilter filter,
+        EvidenceKeyFilter trackerFilter,
+        Iterable<String> knownKeys) {
+        this.filter = filter;
+        this.trackerFilter = trackerFilter;
+        for (String key : knownKeys) {
+            get(key);
+        }
+    }
+
+    /**
+     * Get a filter which returns the result of the tracker filter from this
+     * cache, so the default tracker does not need a cache of its own.
+     * @return cached tracker filter, or null if there is no tracker filter
+     */
+    EvidenceKeyFilter getTrackerFilter() {
+        if (trackerFilter == null) {
+            return null;
+        }
+        return new EvidenceKeyFilter() {
+            @Override
+            public boolean include(String key) {
+                return get(key).tracked;
+            }
+
+            @Override
+            public Integer order(String key) {
+                return trackerFilter.order(key);
+            }
+        };
+    }
+
+    /**
+     * Get the key, filtering and caching it if it has not been seen before.
+     * @param name of the evidence
+     * @return the key
+     */
+    Key get(String name) {
+        Key key = keys.get(name);
+        if (key == null) {
+            key = new Key(
+                name,
+                getKind(name),
+                trackerFilter != null && trackerFilter.include(name));
+            if (keys.size() < MAXIMUM_KEYS) {
+                Key existing = keys.putIfAbsent(name, key);
+                if (existing != null) {
+                    key = existing;
+                }
+            }
+        }
+        return key;
+    }
+
+    private Kind getKind(String name) {
+        if (filter.include(name) == false) {
+            return Kind.EXCLUDED;
+        }
+        switch (name) {
+            case EVIDENCE_CLIENTIP_KEY:
+                // The client IP is dealt with separately for backwards
+                // compatibility purposes.
+                return Kind.CLIENT_IP;
+            case Constants.EVIDENCE_SESSIONID:
+                return Kind.SESSION_ID;
+            case Constants.EVIDENCE_SEQUENCE:
+                return Kind.SEQUENCE;
+            default:
+                return Kind.EVIDENCE;
+        }
+    }
+
+    /**
+     * @return the number of keys cached
+     */
+    int size() {
+        return keys.size();
+    }
+}
@@ -0,0 +1,237 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.flowelements;
+
+import fiftyone.pipeline.core.data.Evidence;
+import fiftyone.pipeline.engines.fiftyone.flowelements.ShareUsageBase.ShareUsageData;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multiple producer, single consumer queue of usage entries waiting
+ * to be sent. Entries are preallocated {@link ShareUsageData} slots which are
+ * populated in place by the request thread, so adding an entry neither
+ * allocates a node nor takes a lock. If the queue is full the entry is
+ * dropped, unless a timeout is given in which case the request thread waits
+ * up to that long for space. Dropped entries are counted.
+ * <p>
+ * Each slot has a sequence number. A slot at position p is free for a
+ * producer when its sequence is p, holds a published entry when it is p + 1,
+ * and becomes free for position p + capacity once the consumer has released
+ * it. The consumer reads a batch of entries, sends them, and only then
+ * releases the slots, so entries are never copied out of the queue.
+ */
+final class ShareUsageRingBuffer {
+
+    /**
+     * Longest time to park for between checks for new entries or space.
+     */
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Populates a slot with the data from the evidence.
+     */
+    interface Populator {
+        void populate(ShareUsageData target, Evidence evidence);
+    }
+
+    private final ShareUsageData[] entries;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final int maximumSize;
+    private final Populator populator;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Position of the next entry to be read by the consumer.
+     */
+    private volatile long readPosition;
+
+    /**
+     * Position of the oldest entry which has been read but not released.
+     * Only used by the consumer.
+     */
+    private long releasePosition;
+
+    /**
+     * Construct a new instance.
+     * @param maximumSize the maximum number of entries waiting to be read
+     * @param maximumBatchSize the maximum number of entries the consumer
+     *                         reads before releasing them
+     * @param populator used to populate slots from evidence
+     */
+    ShareUsageRingBuffer(
+        int maximumSize,
+        int maximumBatchSize,
+        Populator populator) {
+        int capacity = Integer.highestOneBit(
+            Math.max(1, maximumSize + maximumBatchSize) * 2 - 1);
+        this.entries = new ShareUsageData[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = new ShareUsageData();
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+        this.maximumSize = maximumSize;
+        this.populator = populator;
+    }
+
+    /**
+     * Add an entry populated from the evidence. If the queue is full, wait up
+     * to the timeout for the consumer to make space before dropping the
+     * entry.
+     * @param evidence the evidence to populate the entry from
+     * @param timeoutMillis time to wait for space, or 0 to drop the entry
+     *                      immediately if the queue is full
+     * @return true if the entry was added, false if it was dropped
+     */
+    boolean offer(Evidence evidence, long timeoutMillis) {
+        long deadline = 0;
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (position - readPosition >= maximumSize || sequence < position) {
+                // The queue is full, or the slot is still held by the
+                // consumer.
+                if (timeoutMillis <= 0) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                if (deadline == 0) {
+                    deadline = System.nanoTime() +
+                        TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+                } else if (System.nanoTime() - deadline >= 0) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                LockSupport.parkNanos(PARK_NANOS);
+            } else if (sequence == position &&
+                tail.compareAndSet(position, position + 1)) {
+                ShareUsageData entry = entries[index];
+                try {
+                    entry.clear();
+                    populator.populate(entry, evidence);
+                } finally {
+                    // Always publish so the consumer is never blocked by a
+                    // slot which will not be filled.
+                    sequences.lazySet(index, position + 1);
+                }
+                return true;
+            }
+            // Otherwise another producer took this position, so try the
+            // next one.
+        }
+    }
+
+    /**
+     * Read published entries into the list. The entries remain owned by the
+     * queue until {@link #release(int)} is called, and must not be used after
+     * that. Must only be called by the single consumer.
+     * @param target list to add the entries to
+     * @param maximum the maximum number of entries to read
+     * @param timeoutMillis time to wait for each entry to be published
+     * @return the number of entries read
+     * @throws InterruptedException if interrupted while waiting
+     */
+    int read(
+        List<ShareUsageData> target,
+        int maximum,
+        long timeoutMillis) throws InterruptedException {
+        long position = readPosition;
+        int count = 0;
+        while (count < maximum) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1 &&
+                awaitPublished(index, position + 1, timeoutMillis) == false) {
+                break;
+            }
+            target.add(entries[index]);
+            position++;
+            count++;
+            readPosition = position;
+        }
+        return count;
+    }
+
+    private boolean awaitPublished(
+        int index,
+        long sequence,
+        long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() +
+            TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (true) {
+            if (sequences.get(index) == sequence) {
+                return true;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(Math.min(remaining, PARK_NANOS));
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Release the oldest read entries so their slots can be reused. Must only
+     * be called by the single consumer.
+     * @param count the number of entries to release
+     */
+    void release(int count) {
+        for (int i = 0; i < count; i++) {
+            int index = (int) releasePosition & mask;
+            sequences.lazySet(index, releasePosition + entries.length);
+            releasePosition++;
+        }
+    }
+
+    /**
+     * @return the number of entries waiting to be read
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - readPosition);
+    }
+
+    /**
+     * @return the maximum number of entries waiting to be read
+     */
+    int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @return the total number of entries dropped because the queue was full
+     */
+    long getDroppedCount() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,401 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.flowelements;
+
+import fiftyone.pipeline.engines.fiftyone.flowelements.ShareUsageBase.ShareUsageData;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only spool of usage entries on disk, used so that usage data
+ * survives outages of the remote service and restarts without being held in
+ * memory.
+ * <p>
+ * Entries are appended as compact binary records to an open segment. Once
+ * the segment holds enough entries for a message it is sealed, and sealed
+ * segments are uploaded oldest first and deleted once the upload succeeds.
+ * Each record is framed by its length and a CRC32 of its content, so a
+ * record which was only partly written when the process stopped is detected
+ * and discarded when the spool is next opened. The total size of the
+ * segments is bounded; entries which would exceed it are dropped and
+ * counted.
+ * <p>
+ * Only the thread which sends usage data should use the spool.
+ */
+final class ShareUsageSpool implements Closeable {
+
+    private static final String PREFIX = "usage-";
+    private static final String OPEN_SUFFIX = ".open";
+    private static final String SEALED_SUFFIX = ".seg";
+    private static final int RECORD_VERSION = 2;
+
+    /**
+     * Length and CRC32 bytes added to every record.
+     */
+    private static final int RECORD_OVERHEAD = 4 + 4;
+
+    private final File directory;
+    private final long maximumBytes;
+    private final int entriesPerSegment;
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+    private final CRC32 crc = new CRC32();
+    private long nextSegment;
+    private long totalBytes;
+    private long dropped;
+    private RandomAccessFile open;
+    private File openFile;
+    private int openEntries;
+
+    /**
+     * Open the spool in the directory, recovering any segments left by a
+     * previous process.
+     * @param directory the directory to keep segments in
+     * @param maximumBytes the maximum total size of all segments
+     * @param entriesPerSegment the number of entries after which a segment is
+     *                          sealed ready to be uploaded
+     * @throws IOException if the directory could not be created or read
+     */
+    ShareUsageSpool(
+        File directory,
+        long maximumBytes,
+        int entriesPerSegment) throws IOException {
+        if (directory.isDirectory() == false && directory.mkdirs() == false) {
+            throw new IOException(
+                "Could not create the usage spool directory '" +
+                directory.getAbsolutePath() + "'.");
+        }
+        this.directory = directory;
+        this.maximumBytes = maximumBytes;
+        this.entriesPerSegment = Math.max(1, entriesPerSegment);
+        recover();
+    }
+
+    /**
+     * Seal any segment which was open when a previous process stopped,
+     * discarding a partly written record at its end, and work out the space
+     * already used.
+     */
+    private void recover() throws IOException {
+        File[] files = listSegments(OPEN_SUFFIX);
+        for (File file : files) {
+            long valid = getValidLength(file);
+            if (valid == 0) {
+                delete(file);
+                continue;
+            }
+            if (valid < file.length()) {
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.setLength(valid);
+                }
+            }
+            seal(file);
+        }
+        for (File file : listSegments(SEALED_SUFFIX)) {
+            totalBytes += file.length();
+            nextSegment = Math.max(nextSegment, getSegmentNumber(file) + 1);
+        }
+    }
+
+    /**
+     * Append the entries to the open segment, sealing it whenever it holds
+     * enough entries for a message.
+     * @param entries the entries to append
+     * @return the number of entries appended, the rest were dropped
+     * @throws IOException if the segment could not be written
+     */
+    synchronized int append(List<ShareUsageData> entries) throws IOException {
+        int appended = 0;
+        for (ShareUsageData entry : entries) {
+            byte[] content = encode(entry);
+            if (totalBytes + content.length + RECORD_OVERHEAD > maximumBytes) {
+                dropped++;
+                continue;
+            }
+            if (open == null) {
+                openFile = new File(
+                    directory,
+                    String.format("%s%016x%s", PREFIX, nextSegment++, OPEN_SUFFIX));
+                open = new RandomAccessFile(openFile, "rw");
+                open.seek(open.length());
+                openEntries = 0;
+            }
+            crc.reset();
+            crc.update(content, 0, content.length);
+            ByteBuffer frame = ByteBuffer.allocate(
+                content.length + RECORD_OVERHEAD);
+            frame.putInt(content.length);
+            frame.put(content);
+            frame.putInt((int) crc.getValue());
+            open.write(frame.array());
+            totalBytes += content.length + RECORD_OVERHEAD;
+            appended++;
+            if (++openEntries >= entriesPerSegment) {
+                seal();
+            }
+        }
+        return appended;
+    }
+
+    /**
+     * Seal the open segment, if there is one, so that it is uploaded even if
+     * it holds fewer entries than a full segment.
+     * @throws IOException if the segment could not be sealed
+     */
+    synchronized void seal() throws IOException {
+        if (open != null) {
+            open.getFD().sync();
+            open.close();
+            open = null;
+            seal(openFile);
+            openFile = null;
+        }
+    }
+
+    private void seal(File file) throws IOException {
+        String name = file.getName();
+        File sealed = new File(
+            directory,
+            name.substring(0, name.length() - OPEN_SUFFIX.length()) +
+            SEALED_SUFFIX);
+        if (file.renameTo(sealed) == false) {
+            throw new IOException(
+                "Could not seal usage spool segment '" +
+                file.getAbsolutePath() + "'.");
+        }
+    }
+
+    /**
+     * @return sealed segments waiting to be uploaded, oldest first
+     */
+    synchronized List<File> getSegments() {
+        return new ArrayList<>(Arrays.asList(listSegments(SEALED_SUFFIX)));
+    }
+
+    /**
+     * Read the entries in a sealed segment. Reading stops at the first record
+     * which is incomplete or corrupt.
+     * @param segment the segment to read
+     * @return entries in the segment
+     * @throws IOException if the segment could not be read
+     */
+    List<ShareUsageData> read(File segment) throws IOException {
+        List<ShareUsageData> entries = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(
+            new FileInputStream(segment))) {
+            byte[] content;
+            while ((content = readRecord(in)) != null) {
+                entries.add(decode(content));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Delete a segment once it has been uploaded.
+     * @param segment the segment to delete
+     */
+    synchronized void delete(File segment) {
+        long length = segment.length();
+        if (segment.delete()) {
+            totalBytes = Math.max(0, totalBytes - length);
+        }
+    }
+
+    /**
+     * @return the total number of entries dropped because the spool was full
+     */
+    synchronized long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * @return the total size in bytes of all segments
+     */
+    synchronized long getSize() {
+        return totalBytes;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        seal();
+    }
+
+    private File[] listSegments(final String suffix) {
+        File[] files = directory.listFiles((dir, name) ->
+            name.startsWith(PREFIX) && name.endsWith(suffix));
+        if (files == null) {
+            return new File[0];
+        }
+        // Segment numbers are fixed width, so name order is age order.
+        Arrays.sort(files);
+        return files;
+    }
+
+    private static long getSegmentNumber(File file) {
+        String name = file.getName();
+        try {
+            return Long.parseLong(
+                name.substring(PREFIX.length(), name.indexOf('.')),
+                16);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Get the length of the complete, valid records at the start of a file.
+     */
+    private static long getValidLength(File file) throws IOException {
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(
+            new FileInputStream(file))) {
+            byte[] content;
+            while ((content = readRecord(in)) != null) {
+                valid += content.length + RECORD_OVERHEAD;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Read the next record, or null if there are no more complete and valid
+     * records.
+     */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length < 0 || length > in.available()) {
+                return null;
+            }
+            byte[] content = new byte[length];
+            in.readFully(content);
+            int expected = in.readInt();
+            CRC32 crc = new CRC32();
+            crc.update(content, 0, length);
+            return (int) crc.getValue() == expected ? content : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private byte[] encode(ShareUsageData entry) {
+        record.reset();
+        record.write(RECORD_VERSION);
+        writeString(entry.sessionId);
+        writeVarInt(entry.sequence);
+        writeString(entry.clientIP);
+        writeVarInt(entry.getEvidenceCount());
+        for (int i = 0; i < entry.getEvidenceCount(); i++) {
+            writeString(entry.getEvidenceKey(i).name);
+            writeString(entry.getEvidenceValue(i));
+        }
+        return record.toByteArray();
+    }
+
+    private void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            record.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        record.write(value);
+    }
+
+    /**
+     * Strings are written as their UTF-8 length plus one, so that 0 can
+     * represent null, followed by the bytes.
+     */
+    private void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            record.write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static ShareUsageData decode(byte[] content) throws IOException {
+        InputStream in = new ByteArrayInputStream(content);
+        int version = in.read();
+        if (version != RECORD_VERSION) {
+            throw new IOException("Unknown usage spool record version.");
+        }
+        ShareUsageData entry = new ShareUsageData();
+        entry.sessionId = readString(in);
+        entry.sequence = readVarInt(in);
+        entry.clientIP = readString(in);
+        int count = readVarInt(in);
+        for (int i = 0; i < count; i++) {
+            entry.add(
+                new ShareUsageKeys.Key(
+                    readString(in),
+                    ShareUsageKeys.Kind.EVIDENCE),
+                readString(in));
+        }
+        return entry;
+    }
+
+    private static int readVarInt(InputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static String readString(InputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        if (bytes.length > 0 && in.read(bytes) != bytes.length) {
+            throw new EOFException();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
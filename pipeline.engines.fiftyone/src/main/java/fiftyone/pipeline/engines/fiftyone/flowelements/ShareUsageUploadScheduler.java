@@ -0,0 +1,218 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.flowelements;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides how usage data is uploaded: how many entries go in each batch, how
+ * many batches are uploaded at once and how long to wait before retrying a
+ * failed upload.
+ * <p>
+ * The batch size starts at twice the minimum entries per message. It is
+ * doubled after each upload which is faster than the target latency, up to
+ * the number of entries which fit in the byte budget, and halved after an
+ * upload which is slower or fails, down to the starting size. A backlog is
+ * therefore cleared in fewer, larger uploads while a slow collector is sent
+ * less at a time.
+ * <p>
+ * Retries wait for a random time between zero and an exponentially
+ * increasing limit ("full jitter") so that many servers recovering from the
+ * same outage do not retry in step.
+ */
+final class ShareUsageUploadScheduler {
+
+    /**
+     * Assumed size of an entry until an upload has been measured.
+     */
+    private static final int INITIAL_ENTRY_BYTES = 1024;
+
+    private final int minimumBatchSize;
+    private final int maximumBytes;
+    private final long targetLatencyMillis;
+    private final int retries;
+    private final long backoffMillis;
+    private final long maximumBackoffMillis;
+    private final int maximumConcurrentUploads;
+    private final Semaphore permits;
+    private final ExecutorService uploads;
+
+    // Only updated under the lock on this.
+    private int batchSize;
+    private double entryBytes = INITIAL_ENTRY_BYTES;
+
+    /**
+     * Construct a new instance.
+     * @param minimumBatchSize the smallest number of entries to read for a
+     *                         batch
+     * @param maximumBytes the approximate maximum size of the uncompressed
+     *                     XML in a batch
+     * @param targetLatencyMillis uploads slower than this reduce the batch
+     *                            size
+     * @param maximumConcurrentUploads the maximum number of batches being
+     *                                 uploaded at once. If this is 1 then
+     *                                 uploads run on the thread reading the
+     *                                 batches
+     * @param retries the number of times to retry a failed upload
+     * @param backoffMillis the limit of the wait before the first retry,
+     *                      doubled for each retry after that
+     * @param maximumBackoffMillis the largest limit of the wait before a
+     *                             retry
+     */
+    ShareUsageUploadScheduler(
+        int minimumBatchSize,
+        int maximumBytes,
+        long targetLatencyMillis,
+        int maximumConcurrentUploads,
+        int retries,
+        long backoffMillis,
+        long maximumBackoffMillis) {
+        this.minimumBatchSize = Math.max(1, minimumBatchSize);
+        this.maximumBytes = maximumBytes;
+        this.targetLatencyMillis = targetLatencyMillis;
+        this.maximumConcurrentUploads = maximumConcurrentUploads;
+        this.retries = retries;
+        this.backoffMillis = backoffMillis;
+        this.maximumBackoffMillis = maximumBackoffMillis;
+        this.batchSize = this.minimumBatchSize;
+        this.permits = new Semaphore(maximumConcurrentUploads);
+        this.uploads = maximumConcurrentUploads > 1 ?
+            Executors.newFixedThreadPool(maximumConcurrentUploads) :
+            null;
+    }
+
+    /**
+     * @return the number of entries to read for the next batch
+     */
+    synchronized int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return the number of times to retry a failed upload
+     */
+    int getRetries() {
+        return retries;
+    }
+
+    /**
+     * Record the outcome of an upload, adjusting the size of later batches.
+     * @param entries the number of entries in the batch
+     * @param bytes the size of the uncompressed XML for the batch
+     * @param latencyMillis how long the upload took, including any retries
+     * @param success true if the batch was uploaded
+     */
+    synchronized void record(
+        int entries,
+        int bytes,
+        long latencyMillis,
+        boolean success) {
+        if (entries > 0) {
+            entryBytes = entryBytes * 0.75 + ((double) bytes / entries) * 0.25;
+        }
+        int byteLimit = (int) Math.max(
+            minimumBatchSize,
+            Math.min(Integer.MAX_VALUE, maximumBytes / Math.max(1, entryBytes)));
+        if (success && latencyMillis <= targetLatencyMillis) {
+            // Only grow if the last batch was full, otherwise there is no
+            // backlog to clear.
+            if (entries >= batchSize) {
+                batchSize = (int) Math.min((long) batchSize * 2, byteLimit);
+            }
+        } else {
+            batchSize = Math.max(minimumBatchSize, batchSize / 2);
+        }
+        batchSize = Math.min(batchSize, byteLimit);
+    }
+
+    /**
+     * Get the time to wait before a retry.
+     * @param attempt the number of attempts which have failed so far,
+     *                starting at 1
+     * @return a random time between zero and the limit for the attempt
+     */
+    long getBackoffMillis(int attempt) {
+        long limit = backoffMillis << Math.min(attempt - 1, 30);
+        if (limit <= 0 || limit > maximumBackoffMillis) {
+            limit = maximumBackoffMillis;
+        }
+        return ThreadLocalRandom.current().nextLong(limit + 1);
+    }
+
+    /**
+     * Run the upload once there are fewer than the maximum number of uploads
+     * in progress, waiting if necessary. Uploads run on the calling thread if
+     * only one is allowed at a time.
+     * @param upload the upload to run
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void execute(Runnable upload) throws InterruptedException {
+        if (uploads == null) {
+            upload.run();
+            return;
+        }
+        permits.acquire();
+        try {
+            uploads.execute(() -> {
+                try {
+                    upload.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for the uploads in progress to finish, then stop the upload
+     * threads.
+     * @param timeoutMillis the maximum time to wait
+     * @return true if all the uploads finished
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean shutdown(long timeoutMillis) throws InterruptedException {
+        if (uploads == null) {
+            return true;
+        }
+        uploads.shutdown();
+        if (uploads.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+        uploads.shutdownNow();
+        return false;
+    }
+
+    /**
+     * @return the maximum number of batches uploaded at once
+     */
+    int getMaximumConcurrentUploads() {
+        return maximumConcurrentUploads;
+    }
+}
@@ -0,0 +1,295 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.flowelements;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import static fiftyone.pipeline.engines.fiftyone.flowelements.Constants.SHARE_USAGE_MAX_EVIDENCE_LENGTH;
+
+/**
+ * Writes usage sharing XML directly as UTF-8 bytes into a reusable buffer.
+ * Evidence values are treated in the same way as
+ * {@link ShareUsageElement.ReplacedString}: characters which are not valid in
+ * the usage XML are replaced with the "Replacement character" and values are
+ * truncated to {@link Constants#SHARE_USAGE_MAX_EVIDENCE_LENGTH} characters.
+ * This class is not thread safe.
+ */
+final class ShareUsageXmlWriter {
+
+    // How each character below 0x100 is written in an evidence value.
+    private static final byte INVALID = 0;
+    private static final byte PLAIN = 1;
+    private static final byte ESCAPED = 2;
+    private static final byte LATIN = 3;
+    private static final byte[] EVIDENCE_CHARS = new byte[0x100];
+
+    static {
+        for (int c = 0x20; c < 0x7F; c++) {
+            EVIDENCE_CHARS[c] = PLAIN;
+        }
+        EVIDENCE_CHARS['&'] = ESCAPED;
+        EVIDENCE_CHARS['<'] = ESCAPED;
+        EVIDENCE_CHARS['>'] = ESCAPED;
+        for (int c = 0xA0; c < 0x100; c++) {
+            EVIDENCE_CHARS[c] = LATIN;
+        }
+    }
+
+    private static final byte[] REPLACEMENT =
+        { (byte) 0xEF, (byte) 0xBF, (byte) 0xBD };
+    private static final byte[] AMP = ascii("&amp;");
+    private static final byte[] LT = ascii("&lt;");
+    private static final byte[] GT = ascii("&gt;");
+    private static final byte[] QUOT = ascii("&quot;");
+    private static final byte[] NAME = ascii(" Name=\"");
+    private static final byte[] REPLACED = ascii(" replaced=\"true\"");
+    private static final byte[] TRUNCATED = ascii(" truncated=\"true\"");
+
+    private byte[] buffer;
+    private int size = 0;
+
+    ShareUsageXmlWriter() {
+        this(8192);
+    }
+
+    ShareUsageXmlWriter(int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    static byte[] ascii(String text) {
+        byte[] bytes = new byte[text.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) text.charAt(i);
+        }
+        return bytes;
+    }
+
+    /**
+     * Discard everything written so far, keeping the buffer for reuse.
+     */
+    void reset() {
+        size = 0;
+    }
+
+    /**
+     * @return the number of bytes written since the last reset
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return a copy of the bytes written since the last reset
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Copy the bytes written since the last reset to the stream.
+     * @param os stream to write to
+     * @throws IOException if the stream could not be written to
+     */
+    void writeTo(OutputStream os) throws IOException {
+        os.write(buffer, 0, size);
+    }
+
+    /**
+     * Write bytes which are already valid XML, for example a fragment
+     * rendered earlier by another writer.
+     * @param bytes to write
+     */
+    void raw(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    /**
+     * Write an element with the content escaped. Nothing is written if the
+     * content is null, as with the XML stream writer this replaces.
+     * @param name of the element
+     * @param content of the element, or null
+     */
+    void element(String name, String content) {
+        if (content != null) {
+            startElement(name);
+            text(content, false);
+            endElement(name);
+        }
+    }
+
+    /**
+     * Write an element with content which is already valid XML.
+     * @param name of the element
+     * @param content of the element
+     */
+    void element(String name, byte[] content) {
+        startElement(name);
+        raw(content);
+        endElement(name);
+    }
+
+    /**
+     * Write an item of evidence. If the category is not empty the element
+     * is named after the category with the field name as the Name attribute,
+     * otherwise the element is named after the field. The replaced and
+     * truncated attributes are added if the value had to be changed.
+     * @param category of the evidence
+     * @param field name of the evidence within the category
+     * @param value of the evidence, or null
+     */
+    void evidence(String category, String field, String value) {
+        String name = category.length() > 0 ? category : field;
+        int length = value == null ? 0 : value.length();
+        boolean truncated = length > SHARE_USAGE_MAX_EVIDENCE_LENGTH;
+        if (truncated) {
+            length = SHARE_USAGE_MAX_EVIDENCE_LENGTH;
+        }
+        boolean replaced = false;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= EVIDENCE_CHARS.length || EVIDENCE_CHARS[c] == INVALID) {
+                replaced = true;
+                break;
+            }
+        }
+
+        put('<');
+        text(name, false);
+        if (category.length() > 0) {
+            raw(NAME);
+            text(field, true);
+            put('"');
+        }
+        if (replaced) {
+            raw(REPLACED);
+        }
+        if (truncated) {
+            raw(TRUNCATED);
+        }
+        put('>');
+        ensure(length * 6);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            switch (c < EVIDENCE_CHARS.length ? EVIDENCE_CHARS[c] : INVALID) {
+                case PLAIN:
+                    buffer[size++] = (byte) c;
+                    break;
+                case LATIN:
+                    buffer[size++] = (byte) (0xC0 | (c >> 6));
+                    buffer[size++] = (byte) (0x80 | (c & 0x3F));
+                    break;
+                case ESCAPED:
+                    escape(c);
+                    break;
+                default:
+                    System.arraycopy(REPLACEMENT, 0, buffer, size, 3);
+                    size += 3;
+                    break;
+            }
+        }
+        endElement(name);
+    }
+
+    void startElement(String name) {
+        put('<');
+        text(name, false);
+        put('>');
+    }
+
+    void endElement(String name) {
+        put('<');
+        put('/');
+        text(name, false);
+        put('>');
+    }
+
+    /**
+     * Write the text as UTF-8, escaping the characters which would otherwise
+     * be treated as markup.
+     * @param text to write
+     * @param attribute true if the text is an attribute value, so double
+     *                  quotes must also be escaped
+     */
+    void text(String text, boolean attribute) {
+        int length = text.length();
+        ensure(length * 6);
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if (c == '&' || c == '<' || c == '>' ||
+                    (attribute && c == '"')) {
+                    escape(c);
+                } else {
+                    buffer[size++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                buffer[size++] = (byte) (0xC0 | (c >> 6));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) &&
+                i + 1 < length &&
+                Character.isLowSurrogate(text.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, text.charAt(++i));
+                buffer[size++] = (byte) (0xF0 | (cp >> 18));
+                buffer[size++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buffer[size++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                System.arraycopy(REPLACEMENT, 0, buffer, size, 3);
+                size += 3;
+            } else {
+                buffer[size++] = (byte) (0xE0 | (c >> 12));
+                buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void escape(char c) {
+        byte[] entity;
+        switch (c) {
+            case '&': entity = AMP; break;
+            case '<': entity = LT; break;
+            case '>': entity = GT; break;
+            default: entity = QUOT; break;
+        }
+        System.arraycopy(entity, 0, buffer, size, entity.length);
+        size += entity.length;
+    }
+
+    private void put(char c) {
+        ensure(1);
+        buffer[size++] = (byte) c;
+    }
+
+    private void ensure(int additional) {
+        if (size + additional > buffer.length) {
+            buffer = Arrays.copyOf(
+                buffer,
+                Math.max(buffer.length * 2, size + additional));
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.trackers;
+
+import fiftyone.pipeline.core.data.EvidenceKeyFilter;
+import fiftyone.pipeline.core.data.FlowData;
+import fiftyone.pipeline.engines.trackers.Tracker;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A tracker used by share usage to avoid repeatedly sending data relating to
+ * the same user session more than once in an interval.
+ * <p>
+ * Unlike {@link ShareUsageTracker}, this uses a fixed amount of memory however
+ * many different sessions are seen. Each set of evidence is reduced to a
+ * 64-bit fingerprint which selects several cells in a fixed size array, in
+ * the manner of a Bloom filter. Each cell holds the last time that any
+ * evidence selecting it was shared. The earliest of these times is therefore
+ * never earlier than the last time the evidence itself was shared, so a
+ * repeat within the interval is always suppressed. New evidence is wrongly
+ * suppressed only if all its cells have been set by other evidence within
+ * the interval, and the number of cells is chosen to make the chance of that
+ * the false positive rate requested. Cells are updated without locking.
+ * @see <a href="https://github.com/51Degrees/specifications/blob/main/pipeline-specification/pipeline-elements/usage-sharing-element.md#session-tracking">Specification</a>
+ */
+public class ShareUsageSketchTracker implements Tracker {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * The filter that defines which evidence keys to use in the tracker.
+     */
+    private final EvidenceKeyFilter filter;
+
+    /**
+     * The interval in milliseconds.
+     */
+    private final long interval;
+
+    /**
+     * The time in milliseconds, relative to {@link #origin}, that evidence
+     * selecting each cell was last shared. Zero if never.
+     */
+    private final AtomicLongArray cells;
+
+    /**
+     * The number of cells selected by each fingerprint.
+     */
+    private final int hashes;
+
+    private final long origin = System.nanoTime();
+
+    /**
+     * Construct a new instance.
+     * @param intervalMillis the interval in milliseconds within which
+     *                       repeated evidence is not shared again
+     * @param filter the {@link EvidenceKeyFilter} that defines the evidence
+     *               values to use when creating a fingerprint from a
+     *               {@link FlowData}. This is called for every item of
+     *               evidence, so should cache its results if they are
+     *               expensive to work out
+     * @param expectedEntries the number of different sets of evidence expected
+     *                        to be shared within an interval
+     * @param falsePositiveRate the acceptable chance of new evidence being
+     *                          treated as a repeat when the expected number of
+     *                          entries have been shared within the interval
+     */
+    public ShareUsageSketchTracker(
+        long intervalMillis,
+        EvidenceKeyFilter filter,
+        int expectedEntries,
+        double falsePositiveRate) {
+        if (expectedEntries <= 0) {
+            throw new IllegalArgumentException(
+                "Expected entries must be greater than 0");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException(
+                "False positive rate must be between 0 and 1");
+        }
+        this.interval = intervalMillis;
+        this.filter = filter;
+        double ln2 = Math.log(2);
+        long size = (long) Math.ceil(
+            -expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int cellCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(64, size));
+        this.cells = new AtomicLongArray(cellCount);
+        this.hashes = (int) Math.max(
+            1,
+            Math.round((double) cellCount / expectedEntries * ln2));
+    }
+
+    /**
+     * @return the number of cells used to record evidence
+     */
+    int getCellCount() {
+        return cells.length();
+    }
+
+    /**
+     * @return the number of cells selected by each fingerprint
+     */
+    int getHashCount() {
+        return hashes;
+    }
+
+    @Override
+    public boolean track(FlowData flowData) {
+        long fingerprint = getFingerprint(flowData);
+        int h1 = (int) fingerprint;
+        int h2 = (int) (fingerprint >>> 32) | 1;
+        int length = cells.length();
+        long now = now();
+
+        long lastShared = Long.MAX_VALUE;
+        for (int i = 0; i < hashes; i++) {
+            lastShared = Math.min(
+                lastShared,
+                cells.get(Math.floorMod(h1 + i * h2, length)));
+        }
+        if (lastShared != 0 && now - lastShared < interval) {
+            return false;
+        }
+
+        for (int i = 0; i < hashes; i++) {
+            int index = Math.floorMod(h1 + i * h2, length);
+            long current;
+            do {
+                current = cells.get(index);
+            } while (current < now &&
+                cells.compareAndSet(index, current, now) == false);
+        }
+        return true;
+    }
+
+    /**
+     * @return milliseconds since this instance was created, plus one so that
+     * zero can mean never
+     */
+    private long now() {
+        return (System.nanoTime() - origin) / 1000000 + 1;
+    }
+
+    /**
+     * Combine the filtered evidence into a fingerprint which does not depend
+     * on the order of the evidence.
+     */
+    private long getFingerprint(FlowData flowData) {
+        long fingerprint = 0;
+        for (Map.Entry<String, Object> entry :
+            flowData.getEvidence().asKeyMap().entrySet()) {
+            if (filter.include(entry.getKey())) {
+                long hash = hash(FNV_OFFSET, entry.getKey());
+                hash = (hash ^ '=') * FNV_PRIME;
+                hash = hash(hash, String.valueOf(entry.getValue()));
+                fingerprint += mix(hash);
+            }
+        }
+        return mix(fingerprint);
+    }
+
+    /**
+     * FNV-1a hash of the characters of the text.
+     */
+    private static long hash(long hash, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Spread the bits of the hash so that nearby values give very different
+     * results.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
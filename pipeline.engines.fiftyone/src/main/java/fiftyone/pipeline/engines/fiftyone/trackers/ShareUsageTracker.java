@@ -33,7 +33,11 @@ import java.util.Date;
  * A tracker used by share usage to attempt to avoid repeatedly sending data
  * relating to the same user session.
  * @see <a href="https://github.com/51Degrees/specifications/blob/main/pipeline-specification/pipeline-elements/usage-sharing-element.md#session-tracking">Specification</a>
+ * @deprecated share usage now uses {@link ShareUsageSketchTracker}, which
+ * uses a fixed amount of memory and does not lose track of evidence when
+ * many different sessions are seen
  */
+@Deprecated
 public class ShareUsageTracker extends TrackerBase<Date> {
 
     /**
@@ -0,0 +1,104 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.data;
+
+import fiftyone.pipeline.engines.data.DataFileHeader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FiftyOneDataFileHeaderProbeTests {
+
+    private Path file;
+
+    @BeforeEach
+    public void Init() throws IOException {
+        file = Files.createTempFile("header-probe", ".hash");
+    }
+
+    @AfterEach
+    public void Cleanup() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Write the start of a V4 data file header, followed by some data.
+     */
+    private void writeHeader(int major, int year, int month, int day)
+        throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1024)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(major).putInt(1).putInt(2).putInt(3);
+        buffer.put(new byte[32]);
+        buffer.putInt(0).putShort((short)0).putInt(0).putInt(0).putInt(0);
+        buffer.putShort((short)year).put((byte)month).put((byte)day);
+        Files.write(file, buffer.array());
+    }
+
+    /**
+     * Check that the version and published date are read from the header.
+     */
+    @Test
+    public void HeaderProbe_V4_Read() throws IOException {
+        writeHeader(4, 2024, 2, 29);
+
+        DataFileHeader header = new FiftyOneDataFileHeaderProbe()
+            .probe(file.toString());
+
+        assertNotNull(header);
+        assertEquals("4.1.2.3", header.getVersion());
+        Calendar expected = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        expected.clear();
+        expected.set(2024, Calendar.FEBRUARY, 29);
+        assertEquals(expected.getTime(), header.getPublished());
+    }
+
+    /**
+     * Check that files which are not V4 data files are not recognised, so
+     * the modification time is used instead.
+     */
+    @Test
+    public void HeaderProbe_Unrecognised_Null() throws IOException {
+        FiftyOneDataFileHeaderProbe probe = new FiftyOneDataFileHeaderProbe();
+
+        writeHeader(3, 2024, 2, 29);
+        assertNull(probe.probe(file.toString()));
+
+        writeHeader(4, 2024, 13, 1);
+        assertNull(probe.probe(file.toString()));
+
+        Files.write(file, new byte[] { 4, 0, 0, 0 });
+        assertNull(probe.probe(file.toString()));
+    }
+}
@@ -0,0 +1,279 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.flowelements;
+
+import fiftyone.pipeline.engines.data.AspectData;
+import fiftyone.pipeline.engines.fiftyone.data.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the profile, component and value lookups in
+ * FiftyOneOnPremiseAspectEngineBase.
+ */
+public class FiftyOneOnPremiseAspectEngineBaseTests {
+
+    private FiftyOneOnPremiseAspectEngineBase<AspectData, FiftyOneAspectPropertyMetaData> engine;
+    private final List<ProfileMetaData> profiles = new ArrayList<>();
+    private final List<ComponentMetaData> components = new ArrayList<>();
+    private final List<ValueMetaData> values = new ArrayList<>();
+    private final AtomicInteger iterations = new AtomicInteger();
+    private final AtomicInteger itemsFetched = new AtomicInteger();
+    private Date published = new Date(0);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void Init() {
+        engine = mock(
+            FiftyOneOnPremiseAspectEngineBase.class,
+            withSettings()
+                .useConstructor(
+                    LoggerFactory.getLogger(FiftyOneOnPremiseAspectEngineBase.class),
+                    null,
+                    null)
+                .defaultAnswer(CALLS_REAL_METHODS));
+        doAnswer(i -> iterate(profiles)).when(engine).getProfiles();
+        doAnswer(i -> iterate(components)).when(engine).getComponents();
+        doAnswer(i -> iterate(values)).when(engine).getValues();
+        doAnswer(i -> published).when(engine).getDataFilePublishedDate(any());
+
+        for (int id : new int[]{30, 10, 20}) {
+            ProfileMetaData profile = mock(ProfileMetaData.class);
+            when(profile.getProfileId()).thenReturn(id);
+            profiles.add(profile);
+        }
+        for (String name : new String[]{"Hardware", "Browser"}) {
+            ComponentMetaData component = mock(ComponentMetaData.class);
+            when(component.getName()).thenReturn(name);
+            components.add(component);
+        }
+        FiftyOneAspectPropertyMetaData property =
+            mock(FiftyOneAspectPropertyMetaData.class);
+        when(property.getName()).thenReturn("IsMobile");
+        for (String name : new String[]{"True", "False"}) {
+            ValueMetaDataDefault value = new ValueMetaDataDefault(name);
+            value.setProperty(property);
+            values.add(value);
+        }
+    }
+
+    /**
+     * Return the items as a collection which supports access by position,
+     * counting the collections created and the items fetched.
+     */
+    private <T> CloseableIterable<T> iterate(List<T> list) {
+        iterations.incrementAndGet();
+        return new CollectionIterableBase<T>(list.size()) {
+            @Override
+            protected T get(long index) {
+                itemsFetched.incrementAndGet();
+                return list.get((int)index);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * Check that lookups find the same items as a linear search, that only
+     * the item found is fetched for each hit, and that misses do not fetch
+     * any items.
+     */
+    @Test
+    public void FiftyOneOnPremiseAspectEngineBase_Lookups() throws Exception {
+        // Build the indexes, which reads every item once.
+        assertSame(profiles.get(0), engine.getProfile(30));
+        assertSame(components.get(0), engine.getComponent("hardware"));
+        assertSame(values.get(0), engine.getValue("ismobile", "true"));
+        int built = profiles.size() + components.size() + values.size();
+        assertEquals(built + 3, itemsFetched.get());
+
+        itemsFetched.set(0);
+        for (int i = 0; i < 10; i++) {
+            for (ProfileMetaData profile : profiles) {
+                assertSame(profile, engine.getProfile(profile.getProfileId()));
+            }
+            assertSame(components.get(0), engine.getComponent("hardware"));
+            assertSame(components.get(1), engine.getComponent("BROWSER"));
+            assertSame(values.get(0), engine.getValue("ismobile", "true"));
+            assertSame(values.get(1), engine.getValue("IsMobile", "False"));
+        }
+        // One item fetched for each hit.
+        assertEquals(70, itemsFetched.get());
+
+        itemsFetched.set(0);
+        assertNull(engine.getProfile(15));
+        assertNull(engine.getProfile(Integer.MAX_VALUE));
+        assertNull(engine.getProfile(Integer.MIN_VALUE));
+        assertNull(engine.getComponent("Location"));
+        assertNull(engine.getComponent(null));
+        assertNull(engine.getValue("IsMobile", "Unknown"));
+        assertNull(engine.getValue("IsTablet", "True"));
+        assertEquals(0, itemsFetched.get());
+    }
+
+    /**
+     * Check that names are matched ignoring case in the same way as
+     * {@link String#equalsIgnoreCase(String)}, including characters which
+     * only match once converted to upper case.
+     */
+    @Test
+    public void FiftyOneOnPremiseAspectEngineBase_IgnoreCase() throws Exception {
+        // Greek theta symbol and small theta have the same upper case.
+        ComponentMetaData component = mock(ComponentMetaData.class);
+        when(component.getName()).thenReturn("\u03d1eta");
+        components.add(component);
+
+        assertTrue("\u03d1eta".equalsIgnoreCase("\u03b8ETA"));
+        assertSame(component, engine.getComponent("\u03b8ETA"));
+    }
+
+    /**
+     * Check that each lookup returns a new instance, so closing one does not
+     * affect later lookups, and that the items which are not returned are
+     * closed.
+     */
+    @Test
+    public void FiftyOneOnPremiseAspectEngineBase_Closed() throws Exception {
+        List<TestProfile> created = new ArrayList<>();
+        doAnswer(i -> {
+            List<ProfileMetaData> fresh = new ArrayList<>();
+            for (int id : new int[]{30, 10, 20}) {
+                TestProfile profile = new TestProfile(id);
+                created.add(profile);
+                fresh.add(profile);
+            }
+            return new CloseableIterableDefault<>(fresh);
+        }).when(engine).getProfiles();
+
+        ProfileMetaData first = engine.getProfile(10);
+        first.close();
+        ProfileMetaData second = engine.getProfile(10);
+
+        assertNotSame(first, second);
+        assertEquals(10, second.getProfileId());
+        // Building the index closes every profile, and each lookup closes
+        // the profile it skips.
+        assertEquals(9, created.size());
+        for (int i : new int[]{0, 1, 2, 3, 6}) {
+            assertTrue(created.get(i).closed);
+        }
+        assertSame(second, created.get(7));
+        assertFalse(created.get(7).closed);
+        second.close();
+    }
+
+    /**
+     * Check that the indexes are rebuilt when the data is refreshed.
+     */
+    @Test
+    public void FiftyOneOnPremiseAspectEngineBase_Refresh() throws Exception {
+        assertNotNull(engine.getProfile(10));
+        assertEquals(2, iterations.get());
+
+        // A new data file with a different published date.
+        ProfileMetaData added = mock(ProfileMetaData.class);
+        when(added.getProfileId()).thenReturn(40);
+        profiles.add(added);
+        published = new Date(1);
+        assertSame(added, engine.getProfile(40));
+        assertEquals(4, iterations.get());
+
+        // The same data file reloaded.
+        profiles.remove(added);
+        engine.invalidateMetaDataIndexes();
+        assertNull(engine.getProfile(40));
+        assertEquals(5, iterations.get());
+    }
+
+    /**
+     * Profile which can not be used once it has been closed.
+     */
+    private static class TestProfile implements ProfileMetaData {
+        private final int id;
+        private boolean closed = false;
+
+        TestProfile(int id) {
+            this.id = id;
+        }
+
+        private void checkOpen() {
+            if (closed) {
+                throw new IllegalStateException("Profile has been closed");
+            }
+        }
+
+        @Override
+        public int getProfileId() {
+            checkOpen();
+            return id;
+        }
+
+        @Override
+        public Iterable<ValueMetaData> getValues() {
+            checkOpen();
+            return new ArrayList<>();
+        }
+
+        @Override
+        public Iterable<ValueMetaData> getValues(String propertyName) {
+            checkOpen();
+            return new ArrayList<>();
+        }
+
+        @Override
+        public ValueMetaData getValue(String propertyName, String valueName) {
+            checkOpen();
+            return null;
+        }
+
+        @Override
+        public ComponentMetaData getComponent() {
+            checkOpen();
+            return null;
+        }
+
+        @Override
+        public String getName() {
+            checkOpen();
+            return Integer.toString(id);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.flowelements;
+
+import fiftyone.pipeline.core.data.FlowData;
+import fiftyone.pipeline.core.flowelements.Pipeline;
+import fiftyone.pipeline.core.flowelements.PipelineBuilder;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SequenceElement
+ */
+public class SequenceElementTests {
+
+    private Object process(SequenceElement element, FlowData data)
+        throws Exception {
+        element.process(data);
+        return data.getEvidence().get(Constants.EVIDENCE_SESSIONID);
+    }
+
+    /**
+     * Check that a session id and sequence are added when there are none, and
+     * that existing ones are kept and incremented respectively.
+     */
+    @Test
+    public void SequenceElement_AddsSessionAndSequence() throws Exception {
+        SequenceElement element = new SequenceElement(
+            LoggerFactory.getLogger(SequenceElement.class));
+        Pipeline pipeline = new PipelineBuilder().build();
+
+        FlowData first = pipeline.createFlowData();
+        String session = (String) process(element, first);
+        assertNotNull(session);
+        assertEquals(1, first.getEvidence().get(Constants.EVIDENCE_SEQUENCE));
+        // The default ids are valid version 4 UUIDs.
+        UUID uuid = UUID.fromString(session);
+        assertEquals(4, uuid.version());
+        assertEquals(2, uuid.variant());
+
+        FlowData second = pipeline.createFlowData();
+        second.addEvidence(Constants.EVIDENCE_SESSIONID, session);
+        second.addEvidence(Constants.EVIDENCE_SEQUENCE, 1);
+        assertEquals(session, process(element, second));
+        assertEquals(2, second.getEvidence().get(Constants.EVIDENCE_SEQUENCE));
+    }
+
+    /**
+     * Check that a session id generator set on the builder is used.
+     */
+    @Test
+    public void SequenceElement_CustomGenerator() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        SequenceElement element = new SequenceElementBuilder(
+            LoggerFactory.getILoggerFactory())
+            .setSessionIdGenerator(() -> "id-" + count.incrementAndGet())
+            .build();
+        Pipeline pipeline = new PipelineBuilder().build();
+
+        assertEquals("id-1", process(element, pipeline.createFlowData()));
+        assertEquals("id-2", process(element, pipeline.createFlowData()));
+    }
+
+    /**
+     * Check that the default generator does not repeat ids when used from
+     * several threads at once.
+     */
+    @Test
+    public void SessionIdGenerator_Unique() throws Exception {
+        SessionIdGenerator generator = new SessionIdGeneratorDefault();
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        int threads = 4;
+        int perThread = 50000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(generator.getNewSessionId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    /**
+     * Check that the evidence key filter and properties are not recreated on
+     * each call.
+     */
+    @Test
+    public void SequenceElement_FilterAndPropertiesReused() {
+        SequenceElement element = new SequenceElement(
+            LoggerFactory.getLogger(SequenceElement.class));
+        assertSame(element.getEvidenceKeyFilter(), element.getEvidenceKeyFilter());
+        assertSame(element.getProperties(), element.getProperties());
+        assertTrue(element.getProperties().isEmpty());
+    }
+}
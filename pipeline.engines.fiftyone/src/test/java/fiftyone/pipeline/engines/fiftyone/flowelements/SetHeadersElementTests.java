@@ -220,6 +220,40 @@ public class SetHeadersElementTests {
 		assertTrue(acceptCHValue.matches("^Sec-CH-[a-zA-Z-]+,Sec-CH-[a-zA-Z-]+,Sec-CH-[a-zA-Z-]+$"));
 	}
 	
+	/**
+	 * Check that response headers remembered for one combination of
+	 * 'SetHeader' property values are not used for another, and that each
+	 * FlowData gets its own response header map.
+	 */
+	@Test
+	public void setHeadersElement_RememberedResponseHeaders() throws Exception {
+		Map<String, Object> propertyNameValues = new HashMap<String, Object>();
+		propertyNameValues.put("SetHeaderBrowserAccept-CH", "Sec-CH-UA");
+		propertyNameValues.put("SetHeaderHardwareAccept-CH", "Unknown");
+		createPipeline(propertyNameValues);
+		
+		FlowData first = pipeline.createFlowData();
+		first.process();
+		FlowData second = pipeline.createFlowData();
+		second.process();
+		propertyNameValues.put("SetHeaderHardwareAccept-CH", "Sec-CH-UA-Model");
+		FlowData third = pipeline.createFlowData();
+		third.process();
+		
+		// Verify the output
+		Map<String, String> firstHeaders =
+			getFromFlowData(first).getResponseHeaderDictionary();
+		Map<String, String> secondHeaders =
+			getFromFlowData(second).getResponseHeaderDictionary();
+		assertEquals("Sec-CH-UA", firstHeaders.get("Accept-CH"));
+		assertEquals(firstHeaders, secondHeaders);
+		assertNotSame(firstHeaders, secondHeaders);
+		String acceptCHValue = getFromFlowData(third)
+			.getResponseHeaderDictionary().get("Accept-CH");
+		assertTrue(acceptCHValue.matches(
+			"^(Sec-CH-UA,Sec-CH-UA-Model|Sec-CH-UA-Model,Sec-CH-UA)$"));
+	}
+	
 	private void createPipeline(
 		Map<String, Object> propertyNameValues) throws Exception {
 		sourceElement = new ActivePropertySourceElement(
@@ -243,4 +243,20 @@ public class ShareUsageBuilderBaseTest {
         base.setTrackSession(true);
         assertTrue(base.trackSession);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void setHostAddress() {
+        base.setHostAddress(" 192.0.2.1 ");
+        assertEquals("192.0.2.1", base.getHostIdentityProvider().getHostAddress());
+    }
+    @Test
+    public void setHostIdentityProvider() {
+        base.setHostAddress("192.0.2.1");
+        base.setHostIdentityProvider(() -> "192.0.2.2");
+        assertEquals("192.0.2.2", base.getHostIdentityProvider().getHostAddress());
+    }
+    @Test (expected = IllegalArgumentException.class)
+    public void setHostAddressRefreshInterval() {
+        base.setHostAddressRefreshInterval(0);
+    }
+}
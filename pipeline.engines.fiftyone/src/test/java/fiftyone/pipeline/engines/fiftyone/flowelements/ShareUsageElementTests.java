@@ -50,6 +50,7 @@ import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.zip.GZIPInputStream;
@@ -484,6 +485,38 @@ public class ShareUsageElementTests {
                 "Expected the number of required events to be less than " +
                         "1,000,000, but was actually '" + requiredEvents + "'");
     }
+    /**
+     * Check that the deprecated view of the queue reports its size, and that
+     * entries can not be taken from it.
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    public void ShareUsageElement_EvidenceCollection_ReadOnly() throws Exception {
+        // Arrange
+        createShareUsage(
+            1,
+            10,
+            1,
+            new ArrayList<>(),
+            new ArrayList<>(),
+            new ArrayList<>());
+        FlowData data = pipeline.createFlowData();
+        data.addEvidence(EVIDENCE_CLIENTIP_KEY, "1.2.3.4");
+
+        // Act
+        shareUsageElement.process(data);
+
+        // Assert
+        assertEquals(1, shareUsageElement.evidenceCollection.size());
+        assertEquals(19, shareUsageElement.evidenceCollection.remainingCapacity());
+        assertThrows(
+            UnsupportedOperationException.class,
+            () -> shareUsageElement.evidenceCollection.poll());
+        assertThrows(
+            UnsupportedOperationException.class,
+            () -> shareUsageElement.evidenceCollection.offer(null));
+    }
+
     @Test
     public void ShareUsageElement_SendOnCleanup() throws Exception {
         // Arrange
@@ -552,7 +585,7 @@ public class ShareUsageElementTests {
 
         // Assert
         assertFalse(shareUsageElement.isCanceled());
-        assertEquals(0, shareUsageElement.evidenceCollection.size());
+        assertEquals(0, shareUsageElement.getQueueSize());
     }
 
     @Test
@@ -903,4 +936,73 @@ public class ShareUsageElementTests {
         assertEquals(2 * count + 1 - shareUsageElement.lostData, f.getLength(), "Expecting devices");
 
     }
+
+    /**
+     * Check that when usage data is spooled to disk, data which could not be
+     * sent while the remote service was unavailable is kept, including across
+     * a restart, and sent once the service is available again.
+     */
+    @Test
+    public void ShareUsageElement_Spool_SurvivesOutageAndRestart() throws Exception {
+        logger.info("Test intentionally creates errors");
+        LogbackHelper.intentionalErrorConfig();
+        File directory = Files.createTempDirectory("usage-spool").toFile();
+        try {
+            // Arrange
+            createShareUsage(
+                    1,
+                    1,
+                    1,
+                    new ArrayList<>(),
+                    new ArrayList<>(),
+                    new ArrayList<>());
+            shareUsageElement.spool = new ShareUsageSpool(directory, 1_000_000, 2);
+            connector.setResponseCode(500);
+
+            // Act
+            // Process while the service is unavailable, then restart.
+            int count = 5;
+            for (int i = 0; i < count; i++) {
+                FlowData data = pipeline.createFlowData();
+                data.addEvidence(EVIDENCE_CLIENTIP_KEY, "1.2.3." + i);
+                shareUsageElement.process(data);
+                shareUsageElement.getSendDataFuture().get();
+            }
+            shareUsageElement.close();
+            ShareUsageSpool reopened = new ShareUsageSpool(directory, 1_000_000, 2);
+            assertFalse(reopened.getSegments().isEmpty());
+
+            createShareUsage(
+                    1,
+                    1,
+                    1,
+                    new ArrayList<>(),
+                    new ArrayList<>(),
+                    new ArrayList<>());
+            shareUsageElement.spool = reopened;
+            FlowData data = pipeline.createFlowData();
+            data.addEvidence(EVIDENCE_CLIENTIP_KEY, "1.2.3." + count);
+            shareUsageElement.process(data);
+            shareUsageElement.close();
+
+            // Assert
+            assertTrue(reopened.getSegments().isEmpty());
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            baos.write("<allDevices>".getBytes(StandardCharsets.UTF_8));
+            baos.write(connector.getBaos().toByteArray());
+            baos.write("</allDevices>".getBytes(StandardCharsets.UTF_8));
+            Document doc = docBuilderFactory.newDocumentBuilder()
+                .parse(new ByteArrayInputStream(baos.toByteArray()));
+            NodeList f = (NodeList) xpath.compile("//Device").evaluate(doc, XPathConstants.NODESET);
+            assertEquals(count + 1, f.getLength(), "Expecting devices");
+        } finally {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+        }
+    }
 }
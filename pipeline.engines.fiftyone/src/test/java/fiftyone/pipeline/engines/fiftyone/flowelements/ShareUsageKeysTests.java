@@ -0,0 +1,138 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.flowelements;
+
+import fiftyone.pipeline.core.data.EvidenceKeyFilter;
+import fiftyone.pipeline.engines.fiftyone.data.EvidenceKeyFilterShareUsage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static fiftyone.pipeline.core.Constants.EVIDENCE_CLIENTIP_KEY;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShareUsageKeysTests {
+
+    private static ShareUsageKeys createKeys() {
+        return new ShareUsageKeys(
+            new EvidenceKeyFilterShareUsage(
+                new ArrayList<>(Collections.singletonList("x-blocked")),
+                new ArrayList<>(Arrays.asList(
+                    Constants.EVIDENCE_SESSIONID_SUFFIX,
+                    Constants.EVIDENCE_SEQUENCE_SUFIX)),
+                false,
+                "session"),
+            Collections.singletonList(EVIDENCE_CLIENTIP_KEY));
+    }
+
+    /**
+     * Check that each key is given the right kind, and that the same key is
+     * returned each time.
+     */
+    @Test
+    public void ShareUsageKeys_Kinds() {
+        ShareUsageKeys keys = createKeys();
+
+        assertEquals(ShareUsageKeys.Kind.CLIENT_IP, keys.get(EVIDENCE_CLIENTIP_KEY).kind);
+        assertEquals(ShareUsageKeys.Kind.SESSION_ID, keys.get(Constants.EVIDENCE_SESSIONID).kind);
+        assertEquals(ShareUsageKeys.Kind.SEQUENCE, keys.get(Constants.EVIDENCE_SEQUENCE).kind);
+        assertEquals(ShareUsageKeys.Kind.EVIDENCE, keys.get("header.user-agent").kind);
+        assertEquals(ShareUsageKeys.Kind.EXCLUDED, keys.get("header.X-Blocked").kind);
+        assertEquals(ShareUsageKeys.Kind.EXCLUDED, keys.get("cookie.session").kind);
+        assertEquals(ShareUsageKeys.Kind.EXCLUDED, keys.get("query.other").kind);
+        assertSame(keys.get("header.user-agent"), keys.get("header.user-agent"));
+    }
+
+    /**
+     * Check that keys are split into category and field on the first
+     * separator only.
+     */
+    @Test
+    public void ShareUsageKeys_Split() {
+        ShareUsageKeys keys = createKeys();
+
+        ShareUsageKeys.Key key = keys.get("header.x.y");
+        assertEquals("header", key.getCategory());
+        assertEquals("x.y", key.getField());
+        key = keys.get("nocategory");
+        assertEquals("", key.getCategory());
+        assertEquals("nocategory", key.getField());
+    }
+
+    /**
+     * Check that the number of keys cached is bounded, and keys which are
+     * not cached are still filtered correctly.
+     */
+    @Test
+    public void ShareUsageKeys_Bounded() {
+        ShareUsageKeys keys = createKeys();
+        for (int i = 0; i < ShareUsageKeys.MAXIMUM_KEYS + 10; i++) {
+            assertEquals(
+                ShareUsageKeys.Kind.EVIDENCE,
+                keys.get("header.h" + i).kind);
+        }
+
+        assertEquals(ShareUsageKeys.MAXIMUM_KEYS, keys.size());
+        assertEquals(ShareUsageKeys.Kind.EXCLUDED, keys.get("header.x-blocked").kind);
+    }
+
+    /**
+     * Check that the result of the tracker filter is held with the key, so
+     * the tracker filter is only called once for each key.
+     */
+    @Test
+    public void ShareUsageKeys_TrackerFilter() {
+        final AtomicInteger calls = new AtomicInteger();
+        ShareUsageKeys keys = new ShareUsageKeys(
+            new EvidenceKeyFilterShareUsage(
+                new ArrayList<>(),
+                new ArrayList<>(),
+                false,
+                "session"),
+            new EvidenceKeyFilterShareUsage(
+                new ArrayList<>(),
+                new ArrayList<>(),
+                true,
+                "session") {
+                @Override
+                public boolean include(String key) {
+                    calls.incrementAndGet();
+                    return super.include(key);
+                }
+            },
+            Collections.<String>emptyList());
+        EvidenceKeyFilter filter = keys.getTrackerFilter();
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(filter.include("cookie.session"));
+            assertTrue(filter.include("header.user-agent"));
+            assertFalse(filter.include("query.other"));
+        }
+
+        assertEquals(ShareUsageKeys.Kind.EXCLUDED, keys.get("cookie.session").kind);
+        assertEquals(3, calls.get());
+    }
+}
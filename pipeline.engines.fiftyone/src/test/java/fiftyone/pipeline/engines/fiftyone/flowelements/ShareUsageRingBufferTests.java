@@ -0,0 +1,135 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.flowelements;
+
+import fiftyone.pipeline.engines.fiftyone.flowelements.ShareUsageBase.ShareUsageData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShareUsageRingBufferTests {
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private final ShareUsageRingBuffer buffer = new ShareUsageRingBuffer(
+        4,
+        2,
+        (target, evidence) ->
+            target.clientIP = Integer.toString(counter.incrementAndGet()));
+
+    /**
+     * Check that entries are dropped and counted once the queue is full, and
+     * that reading entries makes space for more.
+     */
+    @Test
+    public void RingBuffer_DropOnFull() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(null, 0));
+        }
+        assertFalse(buffer.offer(null, 0));
+        assertEquals(1, buffer.getDroppedCount());
+        assertEquals(4, buffer.size());
+
+        List<ShareUsageData> read = new ArrayList<>();
+        assertEquals(2, buffer.read(read, 2, 0));
+        assertEquals("1", read.get(0).clientIP);
+        assertEquals("2", read.get(1).clientIP);
+        assertEquals(2, buffer.size());
+        assertTrue(buffer.offer(null, 0));
+        buffer.release(2);
+    }
+
+    /**
+     * Check that slots are reused once released, and that entries are read
+     * in the order they were added.
+     */
+    @Test
+    public void RingBuffer_ReusesSlots() throws Exception {
+        List<ShareUsageData> read = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(buffer.offer(null, 0));
+            read.clear();
+            assertEquals(1, buffer.read(read, 2, 0));
+            values.add(read.get(0).clientIP);
+            buffer.release(1);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.toString(i + 1), values.get(i));
+        }
+        assertEquals(0, buffer.getDroppedCount());
+    }
+
+    /**
+     * Check that every entry added by many threads is either read once or
+     * counted as dropped.
+     */
+    @Test
+    public void RingBuffer_MultipleProducers() throws Exception {
+        final int threads = 8;
+        final int perThread = 10_000;
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    buffer.offer(null, 0);
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        start.countDown();
+
+        long read = 0;
+        List<ShareUsageData> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            running = false;
+            for (Thread producer : producers) {
+                running |= producer.isAlive();
+            }
+            batch.clear();
+            read += buffer.read(batch, 2, 1);
+            buffer.release(batch.size());
+        }
+        do {
+            batch.clear();
+            read += buffer.read(batch, 2, 0);
+            buffer.release(batch.size());
+        } while (batch.size() > 0);
+
+        assertEquals((long) threads * perThread, read + buffer.getDroppedCount());
+        assertEquals(counter.get(), read);
+    }
+}
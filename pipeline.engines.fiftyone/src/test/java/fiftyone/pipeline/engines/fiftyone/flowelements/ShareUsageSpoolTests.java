@@ -0,0 +1,182 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.flowelements;
+
+import fiftyone.pipeline.engines.fiftyone.flowelements.ShareUsageBase.ShareUsageData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShareUsageSpoolTests {
+
+    private File directory;
+
+    @BeforeEach
+    public void Init() throws IOException {
+        directory = Files.createTempDirectory("usage-spool").toFile();
+    }
+
+    @AfterEach
+    public void Cleanup() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                assertTrue(file.delete());
+            }
+        }
+        assertTrue(directory.delete());
+    }
+
+    private static ShareUsageData createEntry(int i) {
+        ShareUsageData entry = new ShareUsageData();
+        entry.sessionId = "session" + i;
+        entry.sequence = i;
+        entry.clientIP = "1.2.3." + i;
+        entry.tryAddToData("header.user-agent", "Mozilla/5.0 " + i);
+        entry.tryAddToData("query.51D_test", "é中😀");
+        return entry;
+    }
+
+    private static List<ShareUsageData> createEntries(int count) {
+        List<ShareUsageData> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entries.add(createEntry(i));
+        }
+        return entries;
+    }
+
+    /**
+     * Check that entries are sealed into segments of the configured size and
+     * read back unchanged.
+     */
+    @Test
+    public void Spool_RoundTrip() throws IOException {
+        try (ShareUsageSpool spool = new ShareUsageSpool(directory, 1_000_000, 2)) {
+            assertEquals(5, spool.append(createEntries(5)));
+
+            // Two full segments are sealed, the last entry is still open.
+            List<File> segments = spool.getSegments();
+            assertEquals(2, segments.size());
+            spool.seal();
+            segments = spool.getSegments();
+            assertEquals(3, segments.size());
+
+            List<ShareUsageData> read = new ArrayList<>();
+            for (File segment : segments) {
+                read.addAll(spool.read(segment));
+                spool.delete(segment);
+            }
+            assertEquals(5, read.size());
+            for (int i = 0; i < 5; i++) {
+                ShareUsageData expected = createEntry(i);
+                assertEquals(expected.sessionId, read.get(i).sessionId);
+                assertEquals(expected.sequence, read.get(i).sequence);
+                assertEquals(expected.clientIP, read.get(i).clientIP);
+                assertEquals(expected.getEvidenceData(), read.get(i).getEvidenceData());
+            }
+            assertEquals(0, spool.getSize());
+            assertTrue(spool.getSegments().isEmpty());
+        }
+    }
+
+    /**
+     * Check that the spool never exceeds its maximum size, that entries which
+     * would exceed it are dropped and counted, and that deleting a segment
+     * makes space again.
+     */
+    @Test
+    public void Spool_BoundedSize() throws IOException {
+        long maximum = 1_000;
+        try (ShareUsageSpool spool = new ShareUsageSpool(directory, maximum, 2)) {
+            int appended = spool.append(createEntries(100));
+
+            assertTrue(appended > 0);
+            assertTrue(appended < 100);
+            assertEquals(100 - appended, spool.getDroppedCount());
+            assertTrue(spool.getSize() <= maximum);
+            long onDisk = 0;
+            for (File file : directory.listFiles()) {
+                onDisk += file.length();
+            }
+            assertEquals(spool.getSize(), onDisk);
+
+            spool.delete(spool.getSegments().get(0));
+            assertEquals(1, spool.append(createEntries(1)));
+        }
+    }
+
+    /**
+     * Check that when a process stops part way through writing a record, the
+     * complete records are recovered and sealed when the spool is next
+     * opened, and the partial record is discarded.
+     */
+    @Test
+    public void Spool_CrashRecovery() throws IOException {
+        // Arrange
+        try (ShareUsageSpool crashed = new ShareUsageSpool(directory, 1_000_000, 10)) {
+            crashed.append(createEntries(3));
+        }
+        // Simulate the process stopping before the segment was sealed, part
+        // way through writing a record.
+        List<File> sealed = new ShareUsageSpool(directory, 1_000_000, 10).getSegments();
+        assertEquals(1, sealed.size());
+        File open = new File(
+            directory,
+            sealed.get(0).getName().replace(".seg", ".open"));
+        assertTrue(sealed.get(0).renameTo(open));
+        try (RandomAccessFile raf = new RandomAccessFile(open, "rw")) {
+            raf.seek(raf.length());
+            raf.writeInt(100);
+            raf.write(new byte[] { 1, 2, 3 });
+        }
+
+        // Act
+        try (ShareUsageSpool spool = new ShareUsageSpool(directory, 1_000_000, 10)) {
+            List<File> segments = spool.getSegments();
+
+            // Assert
+            assertEquals(1, segments.size());
+            List<ShareUsageData> read = spool.read(segments.get(0));
+            assertEquals(3, read.size());
+            assertEquals("session2", read.get(2).sessionId);
+            assertEquals(segments.get(0).length(), spool.getSize());
+
+            // New entries go to a new segment after the recovered one.
+            spool.append(Collections.singletonList(createEntry(3)));
+            spool.seal();
+            segments = spool.getSegments();
+            assertEquals(2, segments.size());
+            assertEquals("session3", spool.read(segments.get(1)).get(0).sessionId);
+        }
+    }
+}
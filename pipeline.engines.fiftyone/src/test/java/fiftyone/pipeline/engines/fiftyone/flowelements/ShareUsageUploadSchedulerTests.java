@@ -0,0 +1,91 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.flowelements;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShareUsageUploadSchedulerTests {
+
+    /**
+     * Check that batches grow while uploads are fast and there is a backlog,
+     * but never beyond the byte budget, and shrink again when uploads are
+     * slow or fail, but never below the minimum.
+     */
+    @Test
+    public void UploadScheduler_BatchSize_AdaptsToBytesAndLatency() {
+        ShareUsageUploadScheduler scheduler =
+            new ShareUsageUploadScheduler(10, 10_000, 100, 1, 0, 100, 1000);
+        assertEquals(10, scheduler.getBatchSize());
+
+        // Fast, full batches of 100 byte entries grow to the byte budget.
+        for (int i = 0; i < 50; i++) {
+            int size = scheduler.getBatchSize();
+            scheduler.record(size, size * 100, 10, true);
+            assertTrue(scheduler.getBatchSize() >= 10);
+        }
+        int grown = scheduler.getBatchSize();
+        assertTrue(grown > 50, "Batch size was " + grown);
+        assertTrue(grown <= 100, "Batch size was " + grown);
+
+        // A batch which is not full does not grow the batch size.
+        scheduler.record(5, 500, 10, true);
+        assertEquals(grown, scheduler.getBatchSize());
+
+        // Slow uploads halve the batch size.
+        scheduler.record(grown, grown * 100, 500, true);
+        assertEquals(grown / 2, scheduler.getBatchSize());
+
+        // Failures halve the batch size down to the minimum.
+        for (int i = 0; i < 10; i++) {
+            scheduler.record(10, 1000, 10, false);
+        }
+        assertEquals(10, scheduler.getBatchSize());
+    }
+
+    /**
+     * Check that the wait before each retry is between zero and a limit
+     * which doubles with each attempt, up to the maximum.
+     */
+    @Test
+    public void UploadScheduler_Backoff_ExponentialWithJitter() {
+        ShareUsageUploadScheduler scheduler =
+            new ShareUsageUploadScheduler(10, 10_000, 100, 1, 5, 100, 1000);
+        for (int attempt = 1; attempt <= 40; attempt++) {
+            long limit = Math.min(1000, 100L << Math.min(attempt - 1, 30));
+            long min = Long.MAX_VALUE;
+            long max = 0;
+            for (int i = 0; i < 200; i++) {
+                long backoff = scheduler.getBackoffMillis(attempt);
+                assertTrue(backoff >= 0 && backoff <= limit,
+                    "Backoff " + backoff + " for attempt " + attempt);
+                min = Math.min(min, backoff);
+                max = Math.max(max, backoff);
+            }
+            // The waits are spread across the range.
+            assertTrue(min < limit / 4);
+            assertTrue(max > limit / 2);
+        }
+    }
+}
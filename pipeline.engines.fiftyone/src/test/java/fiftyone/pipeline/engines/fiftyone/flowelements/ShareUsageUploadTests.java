@@ -0,0 +1,251 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.flowelements;
+
+import com.sun.net.httpserver.HttpServer;
+import fiftyone.pipeline.core.data.FlowData;
+import fiftyone.pipeline.core.flowelements.Pipeline;
+import fiftyone.pipeline.core.flowelements.PipelineBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static fiftyone.pipeline.core.Constants.EVIDENCE_CLIENTIP_KEY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for uploading usage data, using a local stub of the usage collector
+ * which can be told to fail or respond slowly.
+ */
+public class ShareUsageUploadTests {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger devices = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger chunked = new AtomicInteger();
+    private volatile int delay = 0;
+
+    @BeforeEach
+    public void Init() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/new.ashx", exchange -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                requests.incrementAndGet();
+                if ("chunked".equalsIgnoreCase(
+                    exchange.getRequestHeaders().getFirst("Transfer-Encoding"))) {
+                    chunked.incrementAndGet();
+                }
+                String body = readGzip(exchange.getRequestBody());
+                Thread.sleep(delay);
+                if (failures.getAndDecrement() > 0) {
+                    exchange.sendResponseHeaders(500, -1);
+                } else {
+                    devices.addAndGet(count(body, "<Device>"));
+                    exchange.sendResponseHeaders(200, -1);
+                }
+            } catch (InterruptedException e) {
+                exchange.sendResponseHeaders(500, -1);
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void Cleanup() {
+        server.stop(0);
+    }
+
+    private static String readGzip(InputStream body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(body)) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static int count(String text, String value) {
+        int count = 0;
+        for (int i = text.indexOf(value); i >= 0; i = text.indexOf(value, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private ShareUsageBuilderBase<ShareUsageElement> createBuilder() {
+        return new ShareUsageBuilder(LoggerFactory.getILoggerFactory())
+            .setShareUsageUrl("http://127.0.0.1:" +
+                server.getAddress().getPort() + "/new.ashx")
+            .setMaximumQueueSize(1000)
+            .setAddTimeoutMillis(5000);
+    }
+
+    private static void process(
+        ShareUsageElement element,
+        int count) throws Exception {
+        Pipeline pipeline = new PipelineBuilder()
+            .addFlowElement(element)
+            .build();
+        for (int i = 0; i < count; i++) {
+            try (FlowData data = pipeline.createFlowData()) {
+                data.addEvidence(EVIDENCE_CLIENTIP_KEY, "10.0." + (i / 250) + "." + (i % 250));
+                data.addEvidence("header.user-agent", "test " + i);
+                data.process();
+            }
+        }
+    }
+
+    /**
+     * Check that when the collector is slow, several batches are uploaded at
+     * once, but no more than the maximum, and that all the usage data
+     * arrives compressed in a chunked body.
+     */
+    @Test
+    public void ShareUsageUpload_SlowCollector_ConcurrentUploads() throws Exception {
+        // Arrange
+        delay = 200;
+        ShareUsageElement element = createBuilder()
+            .setMinimumEntriesPerMessage(5)
+            .setMaximumConcurrentUploads(3)
+            .build();
+
+        // Act
+        int count = 200;
+        process(element, count);
+        element.close();
+
+        // Assert
+        assertEquals(count, devices.get());
+        assertTrue(maxInFlight.get() > 1,
+            "Max uploads in flight was " + maxInFlight.get());
+        assertTrue(maxInFlight.get() <= 3,
+            "Max uploads in flight was " + maxInFlight.get());
+        assertEquals(requests.get(), chunked.get());
+    }
+
+    /**
+     * Check that failed uploads are retried after a backoff and that the
+     * usage data arrives once the collector recovers.
+     */
+    @Test
+    public void ShareUsageUpload_FailingCollector_Retried() throws Exception {
+        // Arrange
+        failures.set(2);
+        ShareUsageElement element = createBuilder()
+            .setMinimumEntriesPerMessage(5)
+            .setUploadRetries(3)
+            .setUploadBackoff(20)
+            .build();
+
+        // Act
+        int count = 10;
+        process(element, count);
+        element.close();
+
+        // Assert
+        assertEquals(count, devices.get());
+        assertTrue(requests.get() >= 3);
+    }
+
+    /**
+     * Check that usage data spooled to disk is uploaded in the same way as
+     * data from the queue, so failed uploads are retried.
+     */
+    @Test
+    public void ShareUsageUpload_Spool_Retried() throws Exception {
+        // Arrange
+        failures.set(2);
+        File directory = Files.createTempDirectory("usage-spool").toFile();
+        try {
+            ShareUsageElement element = createBuilder()
+                .setMinimumEntriesPerMessage(5)
+                .setUploadRetries(3)
+                .setUploadBackoff(20)
+                .setSpoolDirectory(directory.getAbsolutePath())
+                .build();
+
+            // Act
+            int count = 10;
+            process(element, count);
+            element.close();
+
+            // Assert
+            assertEquals(count, devices.get());
+            assertTrue(requests.get() >= 3);
+            File[] files = directory.listFiles();
+            assertTrue(files == null || files.length == 0);
+        } finally {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+        }
+    }
+
+    /**
+     * Check that without retries, a failed upload is not sent again.
+     */
+    @Test
+    public void ShareUsageUpload_FailingCollector_NoRetries() throws Exception {
+        // Arrange
+        failures.set(1);
+        ShareUsageElement element = createBuilder()
+            .setMinimumEntriesPerMessage(10)
+            .build();
+
+        // Act
+        process(element, 10);
+        element.close();
+
+        // Assert
+        assertEquals(1, requests.get());
+        assertEquals(0, devices.get());
+    }
+}
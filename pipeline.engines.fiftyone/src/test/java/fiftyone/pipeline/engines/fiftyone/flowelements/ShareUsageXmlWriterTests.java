@@ -0,0 +1,124 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.flowelements;
+
+import fiftyone.pipeline.engines.fiftyone.flowelements.ShareUsageElement.ReplacedString;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShareUsageXmlWriterTests {
+
+    private static Element parse(ShareUsageXmlWriter writer) throws Exception {
+        Document doc = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder()
+            .parse(new ByteArrayInputStream(writer.toByteArray()));
+        return doc.getDocumentElement();
+    }
+
+    /**
+     * Check that evidence values are changed in exactly the same way as
+     * {@link ReplacedString} for every character, and that the result is
+     * well formed XML.
+     */
+    @Test
+    public void ShareUsageXmlWriter_Evidence_MatchesReplacedString() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int c = 0; c < 0x300; c++) {
+            text.append((char) c);
+            if (text.length() == 256 || c == 0x2FF) {
+                ShareUsageXmlWriter writer = new ShareUsageXmlWriter(16);
+                writer.evidence("header", "user-agent", text.toString());
+                Element element = parse(writer);
+                ReplacedString expected = new ReplacedString(text.toString());
+
+                assertEquals("header", element.getTagName());
+                assertEquals("user-agent", element.getAttribute("Name"));
+                assertEquals(expected.toString(), element.getTextContent());
+                assertEquals(
+                    expected.isReplaced(),
+                    element.hasAttribute("replaced"));
+                text.setLength(0);
+            }
+        }
+    }
+
+    /**
+     * Check that long values are truncated and marked as such.
+     */
+    @Test
+    public void ShareUsageXmlWriter_Evidence_Truncated() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < ReplacedString.MAX_LENGTH + 10; i++) {
+            text.append('&');
+        }
+        ShareUsageXmlWriter writer = new ShareUsageXmlWriter();
+        writer.evidence("", "user-agent", text.toString());
+        Element element = parse(writer);
+
+        assertEquals("user-agent", element.getTagName());
+        assertFalse(element.hasAttribute("Name"));
+        assertEquals("true", element.getAttribute("truncated"));
+        assertFalse(element.hasAttribute("replaced"));
+        assertEquals(
+            text.substring(0, ReplacedString.MAX_LENGTH),
+            element.getTextContent());
+    }
+
+    /**
+     * Check that values which are not evidence are escaped and encoded as
+     * UTF-8 without any characters being replaced, and that null values are
+     * not written.
+     */
+    @Test
+    public void ShareUsageXmlWriter_Element_Escaped() throws Exception {
+        String text = "<a & \"b\"> é 中 😀";
+        ShareUsageXmlWriter writer = new ShareUsageXmlWriter(4);
+        writer.startElement("Device");
+        writer.element("SessionId", text);
+        writer.element("ClientIP", (String) null);
+        writer.evidence("query", "a\"&<b>", "value");
+        writer.endElement("Device");
+        Element element = parse(writer);
+
+        assertEquals(2, element.getChildNodes().getLength());
+        assertEquals(text, element.getElementsByTagName("SessionId")
+            .item(0).getTextContent());
+        assertEquals("a\"&<b>", ((Element) element
+            .getElementsByTagName("query").item(0)).getAttribute("Name"));
+        assertEquals(
+            text,
+            new String(writer.toByteArray(), StandardCharsets.UTF_8)
+                .replace("&lt;", "<").replace("&gt;", ">")
+                .replace("&amp;", "&")
+                .substring(
+                    "<Device><SessionId>".length(),
+                    "<Device><SessionId>".length() + text.length()));
+    }
+}
@@ -44,6 +44,10 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -156,4 +160,65 @@ public class ShareUsageOverheadTests {
                 "Pipeline with share usage overhead per Process call was " +
                 msOverheadPerCall + "ms. Maximum permitted is " + maxOverheadPerCallMillis);
     }
+
+    @Test
+    public void ShareUsageOverhead_Contention() throws Exception {
+        int threads = 32;
+        int iterations = 2_000;
+        double maxOverheadPerCall = 0.1;
+        final List<List<FlowData>> data = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<FlowData> threadData = new ArrayList<>();
+            for (int i = 0; i < iterations; i++) {
+                FlowData flowData = pipeline.createFlowData();
+                // Use different evidence for every request so that the
+                // tracker lets each one through to the queue.
+                flowData.addEvidence("header.user-agent", "Mozilla/5.0 (iPad; U; CPU OS 3_2_1 like Mac OS X; en-us) AppleWebKit/531.21.10 (KHTML, like Gecko) Mobile/7B405 " + t + "-" + i);
+                threadData.add(flowData);
+            }
+            data.add(threadData);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (final List<FlowData> threadData : data) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (FlowData entry : threadData) {
+                    entry.process();
+                }
+                return null;
+            }));
+        }
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - startTime;
+        executor.shutdown();
+
+        for (List<FlowData> threadData : data) {
+            threadData.forEach((f) -> {
+                try {
+                    f.close();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            });
+        }
+
+        // The threads can only run in parallel on as many processors as
+        // there are, so that is the time each request actually cost.
+        int parallelism = Math.min(threads, Runtime.getRuntime().availableProcessors());
+        double msOverheadPerCall =
+            (elapsed / 1_000_000.0) * parallelism / (threads * iterations);
+        System.out.println("ShareUsageOverhead_Contention: " + msOverheadPerCall + "ms per call");
+        logger.info("Overhead was {} millis", msOverheadPerCall);
+        Assertions.assertTrue(msOverheadPerCall < maxOverheadPerCall,
+                "Pipeline with share usage overhead per Process call with " +
+                threads + " threads was " + msOverheadPerCall +
+                "ms. Maximum permitted is " + maxOverheadPerCall);
+    }
 }
@@ -0,0 +1,177 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.fiftyone.trackers;
+
+import fiftyone.pipeline.core.data.EvidenceKeyFilter;
+import fiftyone.pipeline.core.data.FlowData;
+import fiftyone.pipeline.engines.fiftyone.data.EvidenceKeyFilterShareUsage;
+import fiftyone.pipeline.engines.testhelpers.data.MockFlowData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static fiftyone.pipeline.core.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShareUsageSketchTrackerTests {
+
+    private static final long INTERVAL = 50;
+
+    private static final String SESSION_COOKIE_NAME = "session";
+
+    private EvidenceKeyFilter evidenceKeyFilter;
+
+    @BeforeEach
+    public void Init() {
+        evidenceKeyFilter = new EvidenceKeyFilterShareUsage(
+            new ArrayList<>(),
+            new ArrayList<>(),
+            true,
+            SESSION_COOKIE_NAME);
+    }
+
+    private static FlowData createData(String userAgent, Object session) {
+        return setEvidence(
+            MockFlowData.createFromEvidence(new HashMap<>(), false),
+            userAgent,
+            session);
+    }
+
+    /**
+     * Replace the evidence in the mock flow data, which is quicker than
+     * creating a new mock.
+     */
+    private static FlowData setEvidence(
+        FlowData data,
+        String userAgent,
+        Object session) {
+        Map<String, Object> evidenceData = data.getEvidence().asKeyMap();
+        evidenceData.clear();
+        evidenceData.put(EVIDENCE_HTTPHEADER_PREFIX + EVIDENCE_SEPERATOR + "user-agent", userAgent);
+        if (session != null) {
+            evidenceData.put(EVIDENCE_COOKIE_PREFIX + EVIDENCE_SEPERATOR + SESSION_COOKIE_NAME, session);
+        }
+        // Evidence which is not in the filter does not affect tracking.
+        evidenceData.put(EVIDENCE_QUERY_PREFIX + EVIDENCE_SEPERATOR + "ignored", userAgent + session);
+        return data;
+    }
+
+    @Test
+    public void ShareUsageSketchTracker_RepeatEvidence_BeforeSessionTimeout() {
+        ShareUsageSketchTracker tracker = new ShareUsageSketchTracker(
+            INTERVAL, evidenceKeyFilter, 1000, 0.01);
+        FlowData data = createData("iPhone", null);
+
+        int trackedEvents = 0;
+        for (int i = 0; i < 2; i++) {
+            if (tracker.track(data)) {
+                trackedEvents++;
+            }
+        }
+
+        assertEquals(1, trackedEvents);
+    }
+
+    @Test
+    public void ShareUsageSketchTracker_RepeatEvidence_AfterSessionTimeout() throws InterruptedException {
+        ShareUsageSketchTracker tracker = new ShareUsageSketchTracker(
+            INTERVAL, evidenceKeyFilter, 1000, 0.01);
+        FlowData data = createData("iPhone", null);
+
+        int trackedEvents = 0;
+        for (int i = 0; i < 3; i++) {
+            if (tracker.track(data)) {
+                trackedEvents++;
+            }
+            // Wait some time equal to the interval to elapse.
+            Thread.sleep(INTERVAL);
+        }
+
+        assertEquals(3, trackedEvents);
+    }
+
+    @Test
+    public void ShareUsageSketchTracker_Session_Track() {
+        ShareUsageSketchTracker tracker = new ShareUsageSketchTracker(
+            INTERVAL, evidenceKeyFilter, 1000, 0.01);
+
+        assertTrue(tracker.track(createData("iPhone", 1)));
+        assertTrue(tracker.track(createData("iPhone", 2)));
+        assertFalse(tracker.track(createData("iPhone", 1)));
+    }
+
+    /**
+     * Check that the memory used depends only on the configuration, using the
+     * usual Bloom filter sizing.
+     */
+    @Test
+    public void ShareUsageSketchTracker_Sizing() {
+        ShareUsageSketchTracker tracker = new ShareUsageSketchTracker(
+            INTERVAL, evidenceKeyFilter, 1000, 0.01);
+
+        assertEquals(9586, tracker.getCellCount());
+        assertEquals(7, tracker.getHashCount());
+        assertThrows(IllegalArgumentException.class, () ->
+            new ShareUsageSketchTracker(INTERVAL, evidenceKeyFilter, 0, 0.01));
+        assertThrows(IllegalArgumentException.class, () ->
+            new ShareUsageSketchTracker(INTERVAL, evidenceKeyFilter, 10, 1));
+    }
+
+    /**
+     * Check that with many more different sessions than an LRU cache could
+     * hold, every repeat is suppressed and new evidence is only wrongly
+     * suppressed at about the configured rate.
+     */
+    @Test
+    public void ShareUsageSketchTracker_HighCardinality() {
+        int entries = 20000;
+        ShareUsageSketchTracker tracker = new ShareUsageSketchTracker(
+            60000, evidenceKeyFilter, entries, 0.01);
+        FlowData data = createData("", null);
+
+        int falsePositives = 0;
+        for (int i = 0; i < entries; i++) {
+            if (tracker.track(setEvidence(data, "agent " + i, i)) == false) {
+                falsePositives++;
+            }
+        }
+        for (int i = 0; i < entries; i++) {
+            assertFalse(tracker.track(setEvidence(data, "agent " + i, i)));
+        }
+        int probes = 1000;
+        int fresh = 0;
+        for (int i = entries; i < entries + probes; i++) {
+            if (tracker.track(setEvidence(data, "agent " + i, i)) == false) {
+                fresh++;
+            }
+        }
+
+        // While filling, the rate is below the target. Once full, the rate
+        // for new evidence is close to the target.
+        assertTrue(falsePositives < entries * 0.01, "False positives " + falsePositives);
+        assertTrue(fresh < probes * 0.03, "False positives when full " + fresh);
+    }
+}
@@ -43,6 +43,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.when;
 
+@SuppressWarnings("deprecation")
 public class ShareUsageTrackerTests {
 
     private long interval;
@@ -111,6 +111,27 @@ public interface DataFileConfiguration {
      */
     void setDataUpdateUrl(String url);
 
+    /**
+     * Get the URL to request a binary patch from when updating the data
+     * file. The MD5 hash of the data file currently on disk is added as the
+     * 'BaseMd5' query string parameter so that the server can return a patch
+     * from that version to the latest. If null, or if the patch can not be
+     * applied, the full file is downloaded from {@link #getDataUpdateUrl()}.
+     * By default, delta updates are disabled.
+     * @return URL to get patches from, or null if delta updates are disabled
+     */
+    default String getDataUpdateDeltaUrl() {
+        return null;
+    }
+
+    /**
+     * Set the URL to request a binary patch from when updating the data
+     * file. By default, the URL is ignored and delta updates stay disabled.
+     * @param url URL to get patches from, or null to disable delta updates
+     */
+    default void setDataUpdateDeltaUrl(String url) {
+    }
+
     /**
      * Flag that indicates if updates to the data file will be checked
      * for and applied to the engine automatically or not.
@@ -41,6 +41,7 @@ public abstract class DataFileConfigurationBuilderBase<
 
     private String identifier;
     private String dataUpdateUrlOverride = null;
+    private String dataUpdateDeltaUrl = null;
     private Boolean autoUpdateEnabled = null;
     private Boolean dataFileSystemWatcherEnabled = null;
     private Integer updatePollingIntervalSeconds = null;
@@ -89,6 +90,20 @@ public abstract class DataFileConfigurationBuilderBase<
         return (TBuilder)this;
     }
 
+    /**
+     * Configure the engine to request a binary patch from the specified URL
+     * before falling back to downloading the full data file. Only the
+     * changes since the data file on disk are downloaded, and the result is
+     * verified against the checksum in the patch before it is used.
+     * @param url the URL to request patches from
+     * @return this builder instance.
+     */
+    @SuppressWarnings("unchecked")
+    public TBuilder setDataUpdateDeltaUrl(String url) {
+        dataUpdateDeltaUrl = url;
+        return (TBuilder)this;
+    }
+
     /**
      * Specify a DataUpdateUrlFormatter to be used by the DataUpdateService
      * when building the complete URL to query for updated data.
@@ -342,6 +357,9 @@ public abstract class DataFileConfigurationBuilderBase<
         if (dataUpdateUrlOverride != null) {
             config.setDataUpdateUrl(dataUpdateUrlOverride);
         }
+        if (dataUpdateDeltaUrl != null) {
+            config.setDataUpdateDeltaUrl(dataUpdateDeltaUrl);
+        }
         if (dataUpdateUrlFormatter != null) {
             config.setUrlFormatter(dataUpdateUrlFormatter);
         }
@@ -39,6 +39,7 @@ public class DataFileConfigurationDefault implements DataFileConfiguration {
     private boolean createTempDataCopy;
     private byte[] data;
     private String dataUpdateUrl;
+    private String dataUpdateDeltaUrl;
     private boolean autoUpdatesEnabled = Constants.DEFAULT_AUTOUPDATE_ENABLED;
     private List<String> licenseKeys;
     private WatchKey watchKey;
@@ -201,6 +202,16 @@ public class DataFileConfigurationDefault implements DataFileConfiguration {
         this.verifyIfModifiedSince = verify;
     }
 
+    @Override
+    public String getDataUpdateDeltaUrl() {
+        return dataUpdateDeltaUrl;
+    }
+
+    @Override
+    public void setDataUpdateDeltaUrl(String url) {
+        this.dataUpdateDeltaUrl = url;
+    }
+
     @Override
     public boolean getUpdateOnStartup() {
         return this.updateOnStartup;
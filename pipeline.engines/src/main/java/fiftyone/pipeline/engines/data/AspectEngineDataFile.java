@@ -168,4 +168,47 @@ public interface AspectEngineDataFile extends Closeable {
      * @param dataUpdateService The data update service.
      */
     void setDataUpdateService(DataUpdateService dataUpdateService);
+
+    /**
+     * Get the probe used to read the published date and version from the
+     * header of this data file without loading it into the engine.
+     * By default, there is no probe.
+     * @return header probe or null if the engine does not provide one, in
+     * which case file system modification times are used instead
+     */
+    default DataFileHeaderProbe getHeaderProbe() {
+        return null;
+    }
+
+    /**
+     * Set the probe used to read the published date and version from the
+     * header of this data file without loading it into the engine.
+     * By default, the probe is ignored.
+     * @param headerProbe the probe to use, or null to fall back to file
+     *                    system modification times
+     */
+    default void setHeaderProbe(DataFileHeaderProbe headerProbe) {
+    }
+
+    /**
+     * Get the entity tag returned by the data update URL when the data
+     * currently in use was downloaded. This is sent back in the
+     * 'If-None-Match' header so that the server can respond with
+     * 'Not Modified' rather than the full file. By default, no entity tag is
+     * kept.
+     * @return entity tag or null if none was returned
+     */
+    default String getLastETag() {
+        return null;
+    }
+
+    /**
+     * Set the entity tag returned by the data update URL when the data
+     * currently in use was downloaded. By default, the entity tag is
+     * ignored.
+     * @param eTag entity tag, or null if none was returned or the data it
+     *             identifies was not applied
+     */
+    default void setLastETag(String eTag) {
+    }
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ package fiftyone.pipeline.engines.data;
 import fiftyone.pipeline.engines.configuration.DataFileConfiguration;
 import fiftyone.pipeline.engines.flowelements.OnPremiseAspectEngine;
 import fiftyone.pipeline.engines.services.DataUpdateService;
+import fiftyone.pipeline.engines.services.update.FileWatcher;
 
 import java.io.File;
 import java.io.IOException;
@@ -162,6 +163,30 @@ public class AspectEngineDataFileDefault implements AspectEngineDataFile {
         this.dataUpdateService = dataUpdateService;
     }
 
+    private DataFileHeaderProbe headerProbe;
+
+    @Override
+    public DataFileHeaderProbe getHeaderProbe() {
+        return headerProbe;
+    }
+
+    @Override
+    public void setHeaderProbe(DataFileHeaderProbe headerProbe) {
+        this.headerProbe = headerProbe;
+    }
+
+    private volatile String lastETag;
+
+    @Override
+    public String getLastETag() {
+        return lastETag;
+    }
+
+    @Override
+    public void setLastETag(String eTag) {
+        lastETag = eTag;
+    }
+
     private long lastUpdateFileCreateTime;
 
     public long getLastUpdateFileCreateTime() {
@@ -198,6 +223,16 @@ public class AspectEngineDataFileDefault implements AspectEngineDataFile {
         this.pollFuture = future;
     }
 
+    private FileWatcher.Registration watcherRegistration;
+
+    public FileWatcher.Registration getWatcherRegistration() {
+        return watcherRegistration;
+    }
+
+    public void setWatcherRegistration(FileWatcher.Registration registration) {
+        this.watcherRegistration = registration;
+    }
+
     private boolean disposedValue = false;
 
     @Override
@@ -209,6 +244,10 @@ public class AspectEngineDataFileDefault implements AspectEngineDataFile {
                 dataUpdateService.unregisterDataFile(this);
                 dataUpdateService = null;
             }
+            if (watcherRegistration != null)
+            {
+                watcherRegistration.close();
+            }
             if (pollFuture != null)
             {
                 pollFuture.cancel(true);
@@ -0,0 +1,73 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.data;
+
+import java.util.Date;
+
+/**
+ * The identifying details read from the header of a data file by a
+ * {@link DataFileHeaderProbe}. Only the fields needed to decide whether a
+ * data file is newer than the one currently in use are included.
+ */
+public class DataFileHeader {
+    private final Date published;
+    private final String version;
+
+    /**
+     * Construct a new instance.
+     * @param published the date the data file was published
+     * @param version the version of the data file format or content, or null
+     *                if the header does not contain one
+     */
+    public DataFileHeader(Date published, String version) {
+        this.published = published;
+        this.version = version;
+    }
+
+    /**
+     * Get the date the data file was published.
+     * @return published date
+     */
+    public Date getPublished() {
+        return published;
+    }
+
+    /**
+     * Get the version of the data file.
+     * @return version or null if not available
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Determine if this header describes data which was published after the
+     * date provided.
+     * @param published date of the data currently in use
+     * @return true if this header describes newer data
+     */
+    public boolean isNewerThan(Date published) {
+        return this.published != null &&
+            (published == null || this.published.after(published));
+    }
+}
@@ -0,0 +1,48 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.data;
+
+import fiftyone.pipeline.engines.services.DataUpdateService;
+
+import java.io.IOException;
+
+/**
+ * Interface used by the {@link DataUpdateService} to read the published date
+ * and version of a data file without loading it into an engine.
+ * Implementations should read only the few KB of the file header which hold
+ * these values, so that the check is cheap enough to run whenever the file
+ * might have changed. The result is used in place of the file system's
+ * modification time, which is not reliable when files are copied between
+ * containers or by tools that reset it.
+ * @see <a href="https://github.com/51Degrees/specifications/blob/main/pipeline-specification/features/data-updates.md">Specification</a>
+ */
+public interface DataFileHeaderProbe {
+    /**
+     * Read the header of the data file at the path provided.
+     * @param dataFilePath path to the data file to read
+     * @return the header details, or null if the file is not in a format
+     * recognised by this probe
+     * @throws IOException if the file could not be read
+     */
+    DataFileHeader probe(String dataFilePath) throws IOException;
+}
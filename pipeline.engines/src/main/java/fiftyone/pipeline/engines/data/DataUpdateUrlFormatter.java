@@ -35,4 +35,14 @@ public interface DataUpdateUrlFormatter {
      * @return formatted URL
      */
     String getFormattedDataUpdateUrl(AspectEngineDataFile dataFile);
+
+    /**
+     * Get the formatted URL to request a binary patch from. By default, the
+     * delta URL from the configuration is used as it is.
+     * @param dataFile file to get the delta update URL for
+     * @return formatted URL
+     */
+    default String getFormattedDataUpdateDeltaUrl(AspectEngineDataFile dataFile) {
+        return dataFile.getConfiguration().getDataUpdateDeltaUrl();
+    }
 }
@@ -24,6 +24,7 @@ package fiftyone.pipeline.engines.flowelements;
 
 import fiftyone.pipeline.core.data.factories.ElementDataFactory;
 import fiftyone.pipeline.core.exceptions.PipelineConfigurationException;
+import fiftyone.pipeline.core.flowelements.WarmUpAware;
 import fiftyone.pipeline.core.typed.TypedKey;
 import fiftyone.pipeline.core.typed.TypedKeyDefault;
 import fiftyone.pipeline.engines.data.AspectData;
@@ -32,7 +33,11 @@ import fiftyone.pipeline.engines.data.AspectPropertyMetaData;
 import fiftyone.pipeline.util.Types;
 import org.slf4j.Logger;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -49,7 +54,7 @@ public abstract class OnPremiseAspectEngineBase<
     TData extends AspectData,
     TProperty extends AspectPropertyMetaData>
     extends AspectEngineBase<TData, TProperty>
-    implements OnPremiseAspectEngine<TData, TProperty> {
+    implements OnPremiseAspectEngine<TData, TProperty>, WarmUpAware {
 
     private final List<AspectEngineDataFile> dataFiles;
 
@@ -188,6 +193,40 @@ public abstract class OnPremiseAspectEngineBase<
 
     }
 
+    @Override
+    public boolean acceptsWarmUpEvidence() {
+        return true;
+    }
+
+    /**
+     * Reads each data file used by the engine from start to end so that the
+     * operating system has it in the page cache. Memory mapped views of the
+     * file then share those pages rather than faulting on first access. The
+     * temporary copy is read if the engine uses one.
+     * @throws IOException if a data file could not be read
+     */
+    @Override
+    public void touchData() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
+        for (AspectEngineDataFile dataFile : dataFiles) {
+            String path = dataFile.getTempDataFilePath();
+            if (path == null || new File(path).exists() == false) {
+                path = dataFile.getDataFilePath();
+            }
+            if (path == null || new File(path).exists() == false) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(
+                new File(path).toPath(),
+                StandardOpenOption.READ)) {
+                buffer.clear();
+                while (channel.read(buffer) != -1) {
+                    buffer.clear();
+                }
+            }
+        }
+    }
+
     @Override
     public TypedKey<TData> getTypedDataKey() {
         if (typedKey == null) {
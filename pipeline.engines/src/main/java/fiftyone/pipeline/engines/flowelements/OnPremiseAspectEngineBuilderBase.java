@@ -27,6 +27,7 @@ import fiftyone.pipeline.engines.Constants;
 import fiftyone.pipeline.engines.configuration.DataFileConfiguration;
 import fiftyone.pipeline.engines.data.AspectEngineDataFile;
 import fiftyone.pipeline.engines.data.AspectEngineDataFileDefault;
+import fiftyone.pipeline.engines.data.DataFileHeaderProbe;
 import fiftyone.pipeline.engines.services.DataUpdateService;
 import org.slf4j.ILoggerFactory;
 import org.slf4j.Logger;
@@ -186,6 +187,7 @@ public abstract class OnPremiseAspectEngineBuilderBase<
             dataFile.setIdentifier(dataFileConfig.getIdentifier());
             dataFile.setConfiguration(dataFileConfig);
             dataFile.setTempDataDirPath(tempDir);
+            dataFile.setHeaderProbe(newDataFileHeaderProbe());
 
             if (dataFileConfig.getAutomaticUpdatesEnabled()) {
                 if (dataUpdateService == null) {
@@ -224,4 +226,16 @@ public abstract class OnPremiseAspectEngineBuilderBase<
     protected AspectEngineDataFile newAspectEngineDataFile() {
         return new AspectEngineDataFileDefault();
     }
+
+    /**
+     * Create the probe used by the {@link DataUpdateService} to read the
+     * published date and version from the header of a data file without
+     * loading it. Engines whose data files have a readable header should
+     * override this. By default, no probe is provided and file system
+     * modification times are used instead.
+     * @return new {@link DataFileHeaderProbe} instance or null
+     */
+    protected DataFileHeaderProbe newDataFileHeaderProbe() {
+        return null;
+    }
 }
\ No newline at end of file
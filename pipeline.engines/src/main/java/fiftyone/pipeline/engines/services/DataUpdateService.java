@@ -127,7 +127,9 @@ public interface DataUpdateService extends Closeable, PipelineService {
         // The new data file can't be renamed to replace the previous one.
         AUTO_UPDATE_NEW_FILE_CANT_RENAME,
         // Refreshing the engine with the new data caused an error to occur.
-        AUTO_UPDATE_REFRESH_FAILED
+        AUTO_UPDATE_REFRESH_FAILED,
+        // A binary patch could not be downloaded or applied to the data file.
+        AUTO_UPDATE_ERR_PATCH_FAILED
     }
 
     class DataUpdateCompleteArgs {
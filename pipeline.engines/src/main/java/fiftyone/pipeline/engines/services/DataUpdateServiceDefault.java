@@ -32,7 +32,12 @@ import fiftyone.pipeline.engines.data.AspectData;
 import fiftyone.pipeline.engines.data.AspectEngineDataFile;
 import fiftyone.pipeline.engines.data.AspectEngineDataFileDefault;
 import fiftyone.pipeline.engines.data.AspectPropertyMetaData;
+import fiftyone.pipeline.engines.data.DataFileHeader;
+import fiftyone.pipeline.engines.data.DataFileHeaderProbe;
 import fiftyone.pipeline.engines.flowelements.OnPremiseAspectEngine;
+import fiftyone.pipeline.engines.services.update.BinaryPatch;
+import fiftyone.pipeline.engines.services.update.FileWatcher;
+import fiftyone.pipeline.engines.services.update.FileWatcherDefault;
 import fiftyone.pipeline.engines.services.update.FutureFactory;
 import fiftyone.pipeline.engines.services.update.FutureFactoryDefault;
 import fiftyone.pipeline.util.Check;
@@ -82,6 +87,27 @@ public class DataUpdateServiceDefault implements DataUpdateService {
      */
     private final FileWrapperFactory fileWrapperFactory;
     private final FutureFactory futureFactory;
+    /**
+     * Watcher used to detect changes to data files on disk.
+     */
+    private final FileWatcher fileWatcher;
+
+    /**
+     * Number of times to try refreshing an engine before giving up.
+     */
+    private static final int REFRESH_ATTEMPTS = 10;
+    /**
+     * Delay between attempts to refresh an engine.
+     */
+    private static final long REFRESH_RETRY_DELAY_MILLIS = 200;
+
+    /**
+     * MD5 hashes of the data files on disk, sent when requesting a binary
+     * patch. Hashing a data file reads all of it, so this is only done again
+     * when the file changes.
+     */
+    private final Map<AspectEngineDataFile, FileMd5> dataFileMd5s =
+            Collections.synchronizedMap(new WeakHashMap<>());
 
     /**
      * Constructor with default for everything
@@ -120,6 +146,30 @@ public class DataUpdateServiceDefault implements DataUpdateService {
             HttpClient httpClient,
             FileWrapperFactory fileWrapperFactory,
             FutureFactory futureFactory) {
+        this(logger, httpClient, fileWrapperFactory, futureFactory, null);
+    }
+
+    /**
+     * Construct a new instance of {@link DataUpdateService}.
+     *
+     * @param logger             the logger to use for logging
+     * @param httpClient         the HTTP client used to download new data files
+     * @param fileWrapperFactory the factory to create the file wrappers used to
+     *                           access files
+     * @param futureFactory      the future factory used to create update threads.
+     *                           NOTE: This factory will be closed when the Data Update Service gets
+     *                           closed so it is recommended to not share this factory, as
+     *                           scheduled tasks from other objects might be shutdown unexpectedly.
+     * @param fileWatcher        the watcher used to detect changes to data files.
+     *                           If null, the watcher shared by the JVM is used.
+     *                           This is not closed by the Data Update Service.
+     */
+    public DataUpdateServiceDefault(
+            Logger logger,
+            HttpClient httpClient,
+            FileWrapperFactory fileWrapperFactory,
+            FutureFactory futureFactory,
+            FileWatcher fileWatcher) {
         if (Objects.nonNull(logger)) {
             this.logger = logger;
         } else {
@@ -133,7 +183,7 @@ public class DataUpdateServiceDefault implements DataUpdateService {
         if (httpClient != null) {
             this.httpClient = httpClient;
         } else {
-            this.httpClient = new HttpClientDefault();
+            this.httpClient = new HttpClientPooled();
         }
         if (futureFactory != null) {
             closeFutureFactory = false;
@@ -142,6 +192,11 @@ public class DataUpdateServiceDefault implements DataUpdateService {
             closeFutureFactory = true;
             this.futureFactory = new FutureFactoryDefault();
         }
+        if (fileWatcher != null) {
+            this.fileWatcher = fileWatcher;
+        } else {
+            this.fileWatcher = FileWatcherDefault.getShared();
+        }
     }
 
     @Override
@@ -191,15 +246,10 @@ public class DataUpdateServiceDefault implements DataUpdateService {
                     dataFile.getDataFilePath().isEmpty() == false &&
                     dataFile.getTempDataFilePath() != null &&
                     dataFile.getTempDataFilePath().isEmpty() == false) {
-                long fileModified = fileWrapperFactory.getLastModified(
-                        dataFile.getDataFilePath());
-                long tempFileModified = fileWrapperFactory.getLastModified(
-                        dataFile.getTempDataFilePath());
-
                 // If the data file is newer than the temp file currently
                 // being used by the engine then we need to tell the engine
                 // to refresh itself.
-                if (fileModified > tempFileModified) {
+                if (isDataFileNewer(dataFile)) {
                     logger.debug("Specified file is newer than existing temp file");
                     newDataAvailable = true;
                 }
@@ -281,31 +331,60 @@ public class DataUpdateServiceDefault implements DataUpdateService {
             return AutoUpdateStatus.AUTO_UPDATE_SUCCESS;
         }
 
-        // Try to update the file multiple times to ensure the file is not locked.
-        int tries = 0;
-        while (tries < 10) {
-            try {
-                dataFile.getEngine().refreshData(dataFile.getIdentifier());
-                return AUTO_UPDATE_SUCCESS;
-            } catch (Exception ex) {
-                logger.warn("File Update: Error applying a data update to engine '{}'",
-                        dataFile.getEngine().getClass().getSimpleName(), ex);
-                try {
-                    Thread.sleep(200);
-                } catch (InterruptedException ignored) {
-                }
-            }
-            tries++;
+        return refreshEngine(aspectDataFile, 1);
+    }
+
+    /**
+     * Refresh the engine with the data file. If this fails, for example
+     * because the file is locked, then another attempt is scheduled rather
+     * than waiting, so the thread running update checks is not blocked. In
+     * this case {@link AutoUpdateStatus#AUTO_UPDATE_IN_PROGRESS} is returned,
+     * and the {@link OnUpdateComplete} listeners are called again with the
+     * final result once the retries have finished.
+     *
+     * @param dataFile the data file to refresh the engine with
+     * @param attempt  the number of this attempt, starting at 1
+     * @return the {@link AutoUpdateStatus} value indicating the result
+     */
+    private AutoUpdateStatus refreshEngine(
+            final AspectEngineDataFileDefault dataFile,
+            final int attempt) {
+        try {
+            dataFile.getEngine().refreshData(dataFile.getIdentifier());
+            return AUTO_UPDATE_SUCCESS;
+        } catch (Exception ex) {
+            logger.warn("File Update: Error applying a data update to engine '{}'",
+                    dataFile.getEngine().getClass().getSimpleName(), ex);
+        }
+        if (attempt < REFRESH_ATTEMPTS) {
+            futureFactory.schedule(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            AutoUpdateStatus status = refreshEngine(dataFile, attempt + 1);
+                            if (status != AutoUpdateStatus.AUTO_UPDATE_IN_PROGRESS) {
+                                for (OnUpdateComplete onUpdateComplete : onUpdateCompleteList) {
+                                    onUpdateComplete.call(dataFile,
+                                            new DataUpdateCompleteArgs(status, dataFile));
+                                }
+                            }
+                        }
+                    },
+                    REFRESH_RETRY_DELAY_MILLIS);
+            return AutoUpdateStatus.AUTO_UPDATE_IN_PROGRESS;
         }
+        // The data was never applied, so make sure the next request to the
+        // update URL is not answered with 'Not Modified'.
+        dataFile.setLastETag(null);
         return AUTO_UPDATE_REFRESH_FAILED;
     }
 
     /**
-     * Event handler that is called when the data file is updated. The
-     * {@link WatchKey} will raise multiple events in many cases, for example,
-     * if a file is copied over an existing file then 3 'changed' events will be
-     * raised. This handler deals with the extra events by using synchronisation
-     * with a double-check lock to ensure that the update will only be done once.
+     * Event handler that is called by the {@link FileWatcher} when the data
+     * file has been updated and is no longer changing. The watcher combines
+     * the multiple events raised while a file is copied, but a double-check
+     * lock is still used to ensure that the update will only be done once
+     * for each new file, including one copied into place by this service.
      *
      * @param sender the {@link AspectEngineDataFile}
      */
@@ -323,31 +402,26 @@ public class DataUpdateServiceDefault implements DataUpdateService {
 
         if (dataFile != null) {
             AspectEngineDataFileDefault aspectDataFile = (AspectEngineDataFileDefault) dataFile;
-            // Get the creation time of the new data file
-            long modifiedTime = fileWrapperFactory.getLastModified(dataFile.getDataFilePath());
-            // Use a lock with a double check on file creation time to make
-            // sure we only run the update once even if multiple events fire
-            // for a single file.
-            if (aspectDataFile.getLastUpdateFileCreateTime() < modifiedTime) {
+            // Get the published date from the header of the new data file
+            // if the engine can read it, otherwise fall back to the
+            // modification time of the file.
+            DataFileHeader header = probeHeader(dataFile, dataFile.getDataFilePath());
+            long modifiedTime = getUpdateMarker(dataFile, header);
+            if (header != null &&
+                    header.isNewerThan(dataFile.getDataPublishedDateTime()) == false) {
+                logger.debug("Data file '{}' changed on disk but does not " +
+                        "contain newer data", dataFile.getDataFilePath());
+                status = AutoUpdateStatus.AUTO_UPDATE_NOT_NEEDED;
+            } else if (aspectDataFile.getLastUpdateFileCreateTime() < modifiedTime) {
+                // Use a lock with a double check on file creation time to make
+                // sure we only run the update once even if multiple events fire
+                // for a single file.
                 synchronized (aspectDataFile.getUpdateSyncLock()) {
                     if (aspectDataFile.getLastUpdateFileCreateTime() < modifiedTime) {
                         aspectDataFile.setLastUpdateFileCreateTime(modifiedTime);
-
-                        // Make sure we can actually open the file for reading
-                        // before notifying the engine, otherwise the copy
-                        // may still be in progress.
-                        boolean fileLockable = false;
-                        while (fileLockable == false) {
-                            try (BinaryReader reader = fileWrapperFactory.build(
-                                    aspectDataFile.getDataFilePath()).getReader()) {
-                                fileLockable = true;
-                                // Complete the update
-                                status = updatedFileAvailable(dataFile);
-                            } catch (IOException e) {
-                                logger.warn("Exception while reading the data file at '{}'",
-                                        aspectDataFile.getDataFilePath(), e);
-                            }
-                        }
+                        // The watcher has already waited for the file to stop
+                        // changing, so complete the update.
+                        status = updatedFileAvailable(dataFile);
                     }
                 }
             }
@@ -455,10 +529,10 @@ public class DataUpdateServiceDefault implements DataUpdateService {
 
             // If file system watcher is enabled then set it up.
             if (aspectDataFile.getConfiguration().getFileSystemWatcherEnabled() &&
-                    aspectDataFile.getConfiguration().getWatchKey() == null &&
+                    aspectDataFile.getWatcherRegistration() == null &&
                     aspectDataFile.getDataFilePath() != null &&
                     aspectDataFile.getDataFilePath().isEmpty() == false) {
-                logger.debug("Initialising watch service");
+                logger.debug("Registering with file watcher");
                 final Path aspectDataFilePath =
                         Paths.get(aspectDataFile.getDataFilePath()).toAbsolutePath();
 
@@ -468,44 +542,18 @@ public class DataUpdateServiceDefault implements DataUpdateService {
                                 aspectDataFilePath.getParent(), aspectDataFile.getDataFilePath());
                         throw new IllegalStateException("Cannot find directory to watch");
                     }
-                    logger.debug("Getting a watcher using {}", aspectDataFilePath);
-                    WatchService watcher = aspectDataFilePath
-                            .getFileSystem()
-                            .newWatchService();
-                    logger.debug("Setting a watcher for {}", aspectDataFilePath.getParent());
-                    aspectDataFile.getConfiguration().setWatchKey(aspectDataFilePath.getParent().register(
-                            watcher,
-                            StandardWatchEventKinds.ENTRY_MODIFY));
-                } catch (Exception e) {
-                    logger.error("File watcher for '{}' could not be initialised. " + e.getMessage(),
-                            aspectDataFile.getDataFilePath(), e);
-                }
-                try {
-                    long pollingInterval =
-                            aspectDataFile.getConfiguration().getPollingIntervalSeconds() * 1000L;
-                    logger.debug("Setting poll future {} millis", pollingInterval);
-                    aspectDataFile.setPollFuture(futureFactory.scheduleRepeating(
-                            new Runnable() {
+                    FileWatcher.Registration registration = fileWatcher.register(
+                            aspectDataFilePath,
+                            new FileWatcher.OnFileChanged() {
                                 @Override
-                                public void run() {
-                                    logger.debug("Watcher is running");
-                                    for (WatchEvent<?> event :
-                                            aspectDataFile.getConfiguration().getWatchKey().pollEvents()) {
-                                        if (event.kind() == StandardWatchEventKinds.ENTRY_MODIFY) {
-                                            if (((Path) event.context()).endsWith(aspectDataFilePath.getFileName())) {
-                                                dataFileUpdated(aspectDataFile);
-                                            }
-                                        }
-                                    }
-                                    // make sure to reset the watch key or we are not called again
-                                    aspectDataFile.getConfiguration().getWatchKey().reset();
+                                public void fileChanged(Path file) {
+                                    dataFileUpdated(aspectDataFile);
                                 }
-                            },
-                            pollingInterval));
-                    logger.debug("Poll check scheduled for {} mins",
-                            aspectDataFile.getPollFuture().getDelay(TimeUnit.MINUTES));
+                            });
+                    aspectDataFile.setWatcherRegistration(registration);
+                    aspectDataFile.getConfiguration().setWatchKey(registration.getWatchKey());
                 } catch (Exception e) {
-                    logger.error("Could not schedule watcher for {}.",
+                    logger.error("File watcher for '{}' could not be initialised. " + e.getMessage(),
                             aspectDataFile.getDataFilePath(), e);
                 }
             }
@@ -531,12 +579,9 @@ public class DataUpdateServiceDefault implements DataUpdateService {
                 }
                 AspectEngineDataFileDefault aspectDataFile =
                         (AspectEngineDataFileDefault) dataFile;
-                if (aspectDataFile.getConfiguration().getWatchKey() != null) {
-                    if (aspectDataFile.getPollFuture() != null) {
-                        aspectDataFile.getPollFuture().cancel(true);
-                        aspectDataFile.setPollFuture(null);
-                    }
-                    aspectDataFile.getConfiguration().getWatchKey().cancel();
+                if (aspectDataFile.getWatcherRegistration() != null) {
+                    aspectDataFile.getWatcherRegistration().close();
+                    aspectDataFile.setWatcherRegistration(null);
                     aspectDataFile.getConfiguration().setWatchKey(null);
                 }
                 if (aspectDataFile.getFuture() != null) {
@@ -611,6 +656,10 @@ public class DataUpdateServiceDefault implements DataUpdateService {
                             .getDataPublishedDateTime()
                             .getTime();
                     connection.setIfModifiedSince(ifModifiedSince);
+                    String eTag = dataFile.getLastETag();
+                    if (eTag != null) {
+                        connection.setRequestProperty("If-None-Match", eTag);
+                    }
                 }
 
                 connection.setInstanceFollowRedirects(true);
@@ -648,6 +697,176 @@ public class DataUpdateServiceDefault implements DataUpdateService {
         }
     }
 
+    /**
+     * Download a binary patch from the configured delta URL and apply it to
+     * the data file on disk, writing the result to {@code target}. The patch
+     * is applied as it is downloaded, and the result is checked against the
+     * length and MD5 hash contained in the patch.
+     *
+     * @param dataFile the data file to update
+     * @param target   the path to write the patched data file to
+     * @return {@link AutoUpdateStatus#AUTO_UPDATE_IN_PROGRESS} if the patch
+     * was applied, {@link AutoUpdateStatus#AUTO_UPDATE_NOT_NEEDED} if there
+     * is no newer data, or an error status if the full file should be
+     * downloaded instead
+     */
+    private AutoUpdateStatus downloadDelta(
+            AspectEngineDataFile dataFile,
+            Path target) {
+        String deltaUrl = getFormattedDeltaUrl(dataFile);
+        try {
+            Path base = Paths.get(dataFile.getDataFilePath());
+            String url = deltaUrl +
+                    (deltaUrl.contains("?") ? "&" : "?") +
+                    "BaseMd5=" + getMd5(dataFile, base);
+            logger.debug("downloadDelta from {}", url);
+            HttpURLConnection connection = httpClient.connect(new URL(url));
+            if (connection == null) {
+                return AutoUpdateStatus.AUTO_UPDATE_HTTPS_ERR;
+            }
+            try {
+                if (dataFile.getConfiguration().getVerifyModifiedSince() == true) {
+                    connection.setIfModifiedSince(
+                            dataFile.getDataPublishedDateTime().getTime());
+                }
+                connection.setInstanceFollowRedirects(true);
+
+                switch (connection.getResponseCode()) {
+                    case HttpURLConnection.HTTP_OK:
+                        try (InputStream src = openDeltaStream(connection);
+                             OutputStream out = new BufferedOutputStream(
+                                     Files.newOutputStream(target))) {
+                            BinaryPatch.apply(base, src, out);
+                        } catch (IOException e) {
+                            logger.warn("Patch from '{}' could not be applied for {}",
+                                    deltaUrl, getIdForLogging(dataFile), e);
+                            return AutoUpdateStatus.AUTO_UPDATE_ERR_PATCH_FAILED;
+                        }
+                        dataFile.setLastETag(null);
+                        return AutoUpdateStatus.AUTO_UPDATE_IN_PROGRESS;
+                    case HttpURLConnection.HTTP_NOT_MODIFIED:
+                        logger.debug("No data update available from '{}' for {}",
+                                deltaUrl, getIdForLogging(dataFile));
+                        return AutoUpdateStatus.AUTO_UPDATE_NOT_NEEDED;
+                    default:
+                        logger.debug("HTTP status code '{}' from delta update service at '{}' for {}",
+                                connection.getResponseCode(), deltaUrl,
+                                getIdForLogging(dataFile));
+                        return AutoUpdateStatus.AUTO_UPDATE_HTTPS_ERR;
+                }
+            } finally {
+                connection.disconnect();
+            }
+        } catch (Exception e) {
+            logger.debug("Error while processing delta download", e);
+            return AutoUpdateStatus.AUTO_UPDATE_HTTPS_ERR;
+        }
+    }
+
+    /**
+     * Get the URL to request a binary patch from, using the data file's
+     * {@link fiftyone.pipeline.engines.data.DataUpdateUrlFormatter} so that
+     * the same parameters, such as license keys, are added as for the full
+     * download.
+     *
+     * @param dataFile the data file to update
+     * @return formatted delta URL
+     */
+    private static String getFormattedDeltaUrl(AspectEngineDataFile dataFile) {
+        DataFileConfiguration configuration = dataFile.getConfiguration();
+        String url = configuration.getUrlFormatter() == null ?
+                configuration.getDataUpdateDeltaUrl() :
+                configuration.getUrlFormatter().getFormattedDataUpdateDeltaUrl(dataFile);
+        return url.trim();
+    }
+
+    /**
+     * Open the body of a delta response, decompressing it if needed.
+     */
+    private static InputStream openDeltaStream(HttpURLConnection connection)
+            throws IOException {
+        InputStream src = openResponseStream(connection);
+        if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+            try {
+                return new GZIPInputStream(src);
+            } catch (IOException e) {
+                src.close();
+                throw e;
+            }
+        }
+        return src;
+    }
+
+    /**
+     * Get the MD5 hash of the data file on disk as a hex string. The hash is
+     * kept for each data file, and only calculated again if the length or
+     * modification time of the file changes.
+     *
+     * @param dataFile the data file the hash is for
+     * @param file the file to hash
+     * @return hex MD5 hash
+     * @throws IOException if the file could not be read
+     */
+    private String getMd5(AspectEngineDataFile dataFile, Path file)
+            throws IOException {
+        long length = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        FileMd5 cached = dataFileMd5s.get(dataFile);
+        if (cached != null && cached.matches(file, length, modified)) {
+            return cached.md5;
+        }
+        String md5 = getMd5(file);
+        dataFileMd5s.put(dataFile, new FileMd5(file, length, modified, md5));
+        return md5;
+    }
+
+    /**
+     * Get the MD5 hash of a file as a hex string.
+     *
+     * @param file the file to hash
+     * @return hex MD5 hash
+     * @throws IOException if the file could not be read
+     */
+    private static String getMd5(Path file) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("MD5 Algorithm not found", e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), md)) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // Reading the stream updates the digest.
+            }
+        }
+        return DatatypeConverter.printHexBinary(md.digest());
+    }
+
+    /**
+     * The MD5 hash of a file, along with the details used to tell whether
+     * the file has changed since.
+     */
+    private static final class FileMd5 {
+        final Path path;
+        final long length;
+        final long modified;
+        final String md5;
+
+        FileMd5(Path path, long length, long modified, String md5) {
+            this.path = path;
+            this.length = length;
+            this.modified = modified;
+            this.md5 = md5;
+        }
+
+        boolean matches(Path path, long length, long modified) {
+            return this.path.equals(path) &&
+                    this.length == length &&
+                    this.modified == modified;
+        }
+    }
+
     /**
      * Persist the body of a 200 OK download to {@code tempFile}.
      * <p>
@@ -686,6 +905,7 @@ public class DataUpdateServiceDefault implements DataUpdateService {
         if (verifyMd5 && !md5Matches(md, connection)) {
             return AutoUpdateStatus.AUTO_UPDATE_ERR_MD5_VALIDATION_FAILED;
         }
+        dataFile.setLastETag(connection.getHeaderField("ETag"));
         return AutoUpdateStatus.AUTO_UPDATE_IN_PROGRESS;
     }
 
@@ -754,6 +974,69 @@ public class DataUpdateServiceDefault implements DataUpdateService {
         }
     }
 
+    /**
+     * Determine if the file at the data file path contains newer data than
+     * the copy currently being used by the engine. The published dates in the
+     * file headers are used if the data file has a {@link DataFileHeaderProbe},
+     * as file system modification times are often reset when files are
+     * copied. Otherwise, the modification times are compared.
+     *
+     * @param dataFile the data file to check
+     * @return true if the data file is newer
+     */
+    private boolean isDataFileNewer(AspectEngineDataFile dataFile) {
+        DataFileHeader header = probeHeader(dataFile, dataFile.getDataFilePath());
+        if (header != null) {
+            return header.isNewerThan(dataFile.getDataPublishedDateTime());
+        }
+        long fileModified = fileWrapperFactory.getLastModified(
+                dataFile.getDataFilePath());
+        long tempFileModified = fileWrapperFactory.getLastModified(
+                dataFile.getTempDataFilePath());
+        return fileModified > tempFileModified;
+    }
+
+    /**
+     * Get a value which increases each time a new data file is placed at the
+     * data file path. This is the published date from the header if
+     * available, otherwise the modification time of the file.
+     *
+     * @param dataFile the data file to get the marker for
+     * @param header   the header of the file at the data file path, or null
+     * @return marker value
+     */
+    private long getUpdateMarker(AspectEngineDataFile dataFile, DataFileHeader header) {
+        return header != null ?
+                header.getPublished().getTime() :
+                fileWrapperFactory.getLastModified(dataFile.getDataFilePath());
+    }
+
+    /**
+     * Read the header of the file at the path provided using the data file's
+     * {@link DataFileHeaderProbe}.
+     *
+     * @param dataFile the data file whose probe should be used
+     * @param path     the path of the file to read
+     * @return the header, or null if there is no probe or the header could
+     * not be read
+     */
+    private DataFileHeader probeHeader(AspectEngineDataFile dataFile, String path) {
+        DataFileHeaderProbe probe = dataFile.getHeaderProbe();
+        if (probe == null || path == null) {
+            return null;
+        }
+        try {
+            DataFileHeader header = probe.probe(path);
+            if (header != null && header.getPublished() != null) {
+                return header;
+            }
+        } catch (IOException e) {
+            logger.debug("Could not read the header of '{}', falling back " +
+                    "to the file modification time", path, e);
+        }
+        return null;
+    }
+
     private String getIdForLogging(AspectEngineDataFile dataFile) {
         return dataFile.getEngine() == null ?
                 "data file '" + dataFile.getIdentifier() + "'" :
@@ -798,18 +1081,38 @@ public class DataUpdateServiceDefault implements DataUpdateService {
                 dataFile.getIdentifier() + "-" + randomUUID() + ".tmp");
         FileWrapper uncompressedData = fileWrapperFactory.build(uncompressedTempFile.toString());
         try {
-            // Check if there is an update and download it if there is
-            AutoUpdateStatus result = downloadFile(dataFile, uncompressedData);
+            // Check if there is an update and download it if there is,
+            // trying a patch against the file on disk first if configured.
+            AutoUpdateStatus result = null;
+            if (dataFile.getConfiguration().getDataUpdateDeltaUrl() != null &&
+                    dataFile.getConfiguration().getDataUpdateDeltaUrl().isEmpty() == false &&
+                    Files.exists(Paths.get(dataFile.getDataFilePath()))) {
+                result = downloadDelta(dataFile, uncompressedTempFile);
+                if (result != AutoUpdateStatus.AUTO_UPDATE_IN_PROGRESS &&
+                        result != AutoUpdateStatus.AUTO_UPDATE_NOT_NEEDED) {
+                    logger.info("Delta update for {} failed with status '{}'. " +
+                                    "Downloading the full data file instead.",
+                            getIdForLogging(dataFile), result);
+                    result = null;
+                }
+            }
+            if (result == null) {
+                result = downloadFile(dataFile, uncompressedData);
+            }
 
+            // If the header of the downloaded file shows that it is no newer
+            // than the data already in use then there is nothing to do.
             if (result == AutoUpdateStatus.AUTO_UPDATE_IN_PROGRESS) {
-                WatchKey watchKey = dataFile.getConfiguration().getWatchKey();
-                // If this engine has a data file watcher then we need to
-                // disable it while the update is occurring.
-                if (dataFile.getConfiguration().getWatchKey() != null) {
-                    watchKey.cancel();
-                    dataFile.getConfiguration().setWatchKey(null);
+                DataFileHeader header = probeHeader(dataFile, uncompressedTempFile.toString());
+                if (header != null &&
+                        header.isNewerThan(dataFile.getDataPublishedDateTime()) == false) {
+                    logger.debug("Downloaded data for {} is not newer than the " +
+                            "data in use", getIdForLogging(dataFile));
+                    result = AutoUpdateStatus.AUTO_UPDATE_NOT_NEEDED;
                 }
+            }
 
+            if (result == AutoUpdateStatus.AUTO_UPDATE_IN_PROGRESS) {
                 try {
                     // Move the uncompressed file to the engine's data file location
                     logger.debug("Moving {} to {}",
@@ -824,6 +1127,14 @@ public class DataUpdateServiceDefault implements DataUpdateService {
                             new DataInputStream(new BufferedInputStream(new FileInputStream(f)))){
                         logger.debug("Reading file {}", d.read());
                     }
+                    // Record the new file as already handled so that the
+                    // file watcher does not refresh the engine a second time
+                    // as a result of the copy.
+                    if (dataFile instanceof AspectEngineDataFileDefault) {
+                        ((AspectEngineDataFileDefault) dataFile).setLastUpdateFileCreateTime(
+                                getUpdateMarker(dataFile,
+                                        probeHeader(dataFile, dataFile.getDataFilePath())));
+                    }
                 } catch (Exception ex) {
                     logger.error("An error occurred when moving a data file to replace " +
                                     "the existing one at {} for engine '{}'.",
@@ -833,15 +1144,6 @@ public class DataUpdateServiceDefault implements DataUpdateService {
                             ex);
                     result = AutoUpdateStatus.AUTO_UPDATE_NEW_FILE_CANT_RENAME;
                 }
-                // Make sure to enable the file watcher again if needed.
-                if (watchKey != null) {
-                    final Path filePath =
-                            Paths.get(dataFile.getDataFilePath()).toAbsolutePath();
-                    WatchService watcher = filePath.getFileSystem().newWatchService();
-                    watchKey = filePath.getParent().register(watcher,
-                            StandardWatchEventKinds.ENTRY_MODIFY);
-                    dataFile.getConfiguration().setWatchKey(watchKey);
-                }
             }
             return result;
         } catch (Throwable e) {
@@ -23,24 +23,31 @@
 package fiftyone.pipeline.engines.services;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.Map;
 import java.util.zip.GZIPOutputStream;
 
+/**
+ * Uploads data to a URL using HTTP POST. The data is compressed with gzip as
+ * it is written, and sent in chunks rather than being held in memory until
+ * the upload is complete. Each thread has its own connection, so uploads can
+ * be made from several threads at once.
+ */
 public class DataUploaderHttp implements DataUploader{
 
     private final String url;
     private final Map<String, String> headers;
     private final int timeout;
-    HttpURLConnection connection;
+    private final ThreadLocal<HttpURLConnection> connection = new ThreadLocal<>();
 
     /**
      * the URL to which data is to be uploaded
      * @param url the URL rto which data should be uploaded
      * @param headers HTTP headers for the connection
-     * @param timeout connection timeout in milliseconds
+     * @param timeout connection and read timeout in milliseconds
      */
     public DataUploaderHttp(String url, Map<String, String> headers, int timeout) {
         this.url = url;
@@ -53,19 +60,43 @@ public class DataUploaderHttp implements DataUploader{
      */
     @Override
     public OutputStream getOutputStream() throws Exception{
-        connection = (HttpURLConnection) new URL(url.trim()).openConnection();
+        HttpURLConnection connection =
+            (HttpURLConnection) new URL(url.trim()).openConnection();
+        this.connection.set(connection);
         connection.setConnectTimeout(timeout);
+        connection.setReadTimeout(timeout);
         connection.setRequestMethod("POST");
         for (Map.Entry<String, String> header : headers.entrySet()) {
             connection.setRequestProperty(header.getKey(), header.getValue());
         }
         connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(0);
         return new GZIPOutputStream(connection.getOutputStream());
     }
 
+    /**
+     * Returns the response code and then reads and closes the response body
+     * so that the connection can be reused for the next upload.
+     */
     @Override
     public int getResponseCode() throws IOException {
-        return connection.getResponseCode();
+        HttpURLConnection connection = this.connection.get();
+        this.connection.remove();
+        int code = connection.getResponseCode();
+        InputStream body = code / 100 == 2 ?
+            connection.getInputStream() :
+            connection.getErrorStream();
+        if (body != null) {
+            try {
+                byte[] skip = new byte[4096];
+                while (body.read(skip) != -1) {
+                    // Discard the content.
+                }
+            } finally {
+                body.close();
+            }
+        }
+        return code;
     }
 }
 
@@ -0,0 +1,183 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.services;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default implementation of {@link HostIdentityProvider}. The address is
+ * found by enumerating the local network interfaces, so no network traffic
+ * is needed and the result does not depend on any remote host being
+ * reachable. The address is cached and only looked up again once the refresh
+ * interval has passed.
+ * <p>
+ * Addresses are preferred in the following order: global IPv4, private IPv4,
+ * global IPv6, then private IPv6. Addresses on point-to-point interfaces such
+ * as VPN tunnels are only used if there are no others. Loopback, link-local
+ * and multicast addresses are never used. Where addresses are otherwise
+ * equal, the one on the interface with the lowest index is used.
+ */
+public class HostIdentityProviderDefault implements HostIdentityProvider {
+
+    /**
+     * The default time in milliseconds between looking up the address.
+     */
+    public static final long DEFAULT_REFRESH_INTERVAL = 5 * 60 * 1000;
+
+    private final long refreshNanos;
+
+    private volatile String address = null;
+
+    private volatile long refreshedAt;
+
+    /**
+     * Construct a new instance which looks up the address every
+     * {@link #DEFAULT_REFRESH_INTERVAL} milliseconds.
+     */
+    public HostIdentityProviderDefault() {
+        this(DEFAULT_REFRESH_INTERVAL);
+    }
+
+    /**
+     * Construct a new instance.
+     * @param refreshIntervalMillis time in milliseconds after which the
+     *                              address is looked up again
+     */
+    public HostIdentityProviderDefault(long refreshIntervalMillis) {
+        if (refreshIntervalMillis <= 0) {
+            throw new IllegalArgumentException(
+                "Refresh interval must be greater than 0");
+        }
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(refreshIntervalMillis);
+    }
+
+    @Override
+    public String getHostAddress() {
+        String current = address;
+        if (current == null || System.nanoTime() - refreshedAt >= refreshNanos) {
+            current = refresh();
+        }
+        return current;
+    }
+
+    private synchronized String refresh() {
+        long now = System.nanoTime();
+        if (address == null || now - refreshedAt >= refreshNanos) {
+            String discovered = discover();
+            // Keep the last known address if none can be found now, for
+            // example while an interface is being reconfigured.
+            if (discovered.isEmpty() == false || address == null) {
+                address = discovered;
+            }
+            refreshedAt = now;
+        }
+        return address;
+    }
+
+    /**
+     * Find the best address of the machine from its network interfaces.
+     * @return the address, or an empty string if there is none
+     */
+    String discover() {
+        InetAddress best = null;
+        int bestRank = Integer.MAX_VALUE;
+        try {
+            Enumeration<NetworkInterface> interfaces =
+                NetworkInterface.getNetworkInterfaces();
+            if (interfaces == null) {
+                return "";
+            }
+            // Interfaces are not necessarily enumerated in index order.
+            int bestIndex = Integer.MAX_VALUE;
+            while (interfaces.hasMoreElements()) {
+                NetworkInterface networkInterface = interfaces.nextElement();
+                if (networkInterface.isUp() == false ||
+                    networkInterface.isLoopback()) {
+                    continue;
+                }
+                boolean pointToPoint = networkInterface.isPointToPoint();
+                int index = networkInterface.getIndex();
+                Enumeration<InetAddress> addresses =
+                    networkInterface.getInetAddresses();
+                while (addresses.hasMoreElements()) {
+                    InetAddress candidate = addresses.nextElement();
+                    int rank = rank(candidate, pointToPoint);
+                    if (rank >= 0 && (rank < bestRank ||
+                        (rank == bestRank && index < bestIndex))) {
+                        best = candidate;
+                        bestRank = rank;
+                        bestIndex = index;
+                    }
+                }
+            }
+        } catch (SocketException e) {
+            return "";
+        }
+        return best == null ? "" : toString(best);
+    }
+
+    /**
+     * Rank an address as an identity for this machine, lower being better.
+     * @param address the address to rank
+     * @param pointToPoint true if the address is on a point-to-point
+     *                     interface
+     * @return the rank, or -1 if the address should not be used
+     */
+    static int rank(InetAddress address, boolean pointToPoint) {
+        if (address.isLoopbackAddress() ||
+            address.isLinkLocalAddress() ||
+            address.isAnyLocalAddress() ||
+            address.isMulticastAddress()) {
+            return -1;
+        }
+        int rank = address instanceof Inet4Address ? 0 : 2;
+        if (address.isSiteLocalAddress() || isUniqueLocal(address)) {
+            rank++;
+        }
+        return pointToPoint ? rank + 4 : rank;
+    }
+
+    /**
+     * IPv6 unique local addresses (fc00::/7) are the equivalent of private
+     * IPv4 addresses, but are not reported as site local.
+     */
+    private static boolean isUniqueLocal(InetAddress address) {
+        return address instanceof Inet6Address &&
+            (address.getAddress()[0] & 0xfe) == 0xfc;
+    }
+
+    /**
+     * Get the textual form of the address without any IPv6 scope.
+     */
+    static String toString(InetAddress address) {
+        String text = address.getHostAddress();
+        int scope = text.indexOf('%');
+        return scope < 0 ? text : text.substring(0, scope);
+    }
+}
@@ -23,9 +23,13 @@
 package fiftyone.pipeline.engines.services;
 
 import fiftyone.pipeline.core.services.PipelineService;
+
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 /**
@@ -75,4 +79,42 @@ public interface HttpClient extends PipelineService {
     String getResponseString(
         HttpURLConnection connection,
         Map<String, String> headers) throws IOException;
+
+    /**
+     * Post data to a connection opened by the {@link #connect(URL)} method
+     * and return the response body as a stream. The caller must close the
+     * stream once it has been read so that the connection can be reused.
+     * The default implementation wraps {@link #postData}, implementations
+     * should override it to avoid buffering the response as a string.
+     * @param connection open connection to post to
+     * @param headers HTTP header to send with the request
+     * @param data data to post
+     * @return stream containing the response body
+     * @throws IOException if an HTTP exception occurred
+     */
+    default InputStream postDataStream(
+        HttpURLConnection connection,
+        Map<String, String> headers,
+        byte[] data) throws IOException {
+        return new ByteArrayInputStream(
+            postData(connection, headers, data).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Carry out a get request to a connection opened by the
+     * {@link #connect(URL)} method and return the response body as a stream.
+     * The caller must close the stream once it has been read so that the
+     * connection can be reused. The default implementation wraps
+     * {@link #getResponseString(HttpURLConnection, Map)}.
+     * @param connection open connection to get
+     * @param headers HTTP header to send with the request
+     * @return stream containing the response body
+     * @throws IOException if an HTTP exception occurred
+     */
+    default InputStream getResponseStream(
+        HttpURLConnection connection,
+        Map<String, String> headers) throws IOException {
+        return new ByteArrayInputStream(
+            getResponseString(connection, headers).getBytes(StandardCharsets.UTF_8));
+    }
 }
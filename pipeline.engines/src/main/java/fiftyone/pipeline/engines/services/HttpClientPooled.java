@@ -0,0 +1,334 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link HttpClient} implementation which reuses connections and streams
+ * response bodies.
+ * <p>
+ * Connections are pooled by the JDK keep-alive cache which
+ * {@link HttpURLConnection} uses internally. A connection is only returned
+ * to the cache once its response body has been read to the end and closed,
+ * so every response stream returned by this client drains any unread bytes
+ * when it is closed. The size of the cache per destination is controlled by
+ * the standard {@code http.maxConnections} system property.
+ * <p>
+ * Responses are requested with gzip encoding and decompressed
+ * transparently. Request bodies can optionally be gzip compressed when the
+ * server is known to accept them. Unlike {@link HttpClientDefault}, the
+ * string methods decode the complete body using the charset from the
+ * Content-Type header, so the result is byte-exact including line breaks.
+ */
+public class HttpClientPooled implements HttpClient {
+
+    /**
+     * Default time in milliseconds to wait for a connection to be
+     * established.
+     */
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Default time in milliseconds to wait for data to be read from an open
+     * connection.
+     */
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 60000;
+
+    /**
+     * Request bodies smaller than this are never compressed as the gzip
+     * header would outweigh the saving.
+     */
+    public static final int MIN_COMPRESS_BYTES = 1024;
+
+    /**
+     * Maximum number of unread bytes that will be drained from a response
+     * when it is closed. Beyond this it is cheaper to discard the connection.
+     */
+    private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+    private static final String GZIP = "gzip";
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final boolean compressRequests;
+
+    /**
+     * Construct a new instance with the default timeouts and uncompressed
+     * request bodies.
+     */
+    public HttpClientPooled() {
+        this(DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS, false);
+    }
+
+    /**
+     * Construct a new instance.
+     * @param connectTimeoutMillis time in milliseconds to wait for a
+     *                             connection to be established
+     * @param readTimeoutMillis time in milliseconds to wait for data to be
+     *                          read from an open connection
+     * @param compressRequests true if request bodies should be gzip
+     *                         compressed. Only enable this if the server
+     *                         accepts Content-Encoding on requests
+     */
+    public HttpClientPooled(
+        int connectTimeoutMillis,
+        int readTimeoutMillis,
+        boolean compressRequests) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.compressRequests = compressRequests;
+        System.setProperty("sun.net.http.allowRestrictedHeaders", "true");
+    }
+
+    @Override
+    public HttpURLConnection connect(URL url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setReadTimeout(readTimeoutMillis);
+        return connection;
+    }
+
+    @Override
+    public String postData(
+        HttpURLConnection connection,
+        Map<String, String> headers,
+        byte[] data) throws IOException {
+        return readString(connection, postDataStream(connection, headers, data));
+    }
+
+    @Override
+    public InputStream postDataStream(
+        HttpURLConnection connection,
+        Map<String, String> headers,
+        byte[] data) throws IOException {
+        send(connection, "POST", headers, data);
+        return openResponse(connection);
+    }
+
+    /**
+     * Post data to a connection opened by the {@link #connect(URL)} method
+     * and return the complete response body.
+     * @param connection open connection to post to
+     * @param headers HTTP header to send with the request
+     * @param data data to post
+     * @return buffer containing the response body
+     * @throws IOException if an HTTP exception occurred
+     */
+    public ByteBuffer postDataBuffer(
+        HttpURLConnection connection,
+        Map<String, String> headers,
+        byte[] data) throws IOException {
+        try (InputStream in = postDataStream(connection, headers, data)) {
+            return readBuffer(in);
+        }
+    }
+
+    @Override
+    public String getResponseString(HttpURLConnection connection) throws IOException {
+        return getResponseString(connection, null);
+    }
+
+    @Override
+    public String getResponseString(
+        HttpURLConnection connection,
+        Map<String, String> headers) throws IOException {
+        return readString(connection, getResponseStream(connection, headers));
+    }
+
+    @Override
+    public InputStream getResponseStream(
+        HttpURLConnection connection,
+        Map<String, String> headers) throws IOException {
+        send(connection, "GET", headers, null);
+        return openResponse(connection);
+    }
+
+    /**
+     * Carry out a get request to a connection opened by the
+     * {@link #connect(URL)} method and return the complete response body.
+     * @param connection open connection to get
+     * @param headers HTTP header to send with the request
+     * @return buffer containing the response body
+     * @throws IOException if an HTTP exception occurred
+     */
+    public ByteBuffer getResponseBuffer(
+        HttpURLConnection connection,
+        Map<String, String> headers) throws IOException {
+        try (InputStream in = getResponseStream(connection, headers)) {
+            return readBuffer(in);
+        }
+    }
+
+    private void send(
+        HttpURLConnection connection,
+        String method,
+        Map<String, String> headers,
+        byte[] data) throws IOException {
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Accept-Encoding", GZIP);
+        if (headers != null) {
+            for (Map.Entry<String, String> e : headers.entrySet()) {
+                // The length is set from the body actually sent, which will
+                // differ from the caller's value if it is compressed.
+                if ("Content-Length".equalsIgnoreCase(e.getKey()) == false) {
+                    connection.setRequestProperty(e.getKey(), e.getValue());
+                }
+            }
+        }
+        if (data == null) {
+            connection.setDoOutput(false);
+        } else {
+            byte[] body = data;
+            if (compressRequests && data.length >= MIN_COMPRESS_BYTES) {
+                body = compress(data);
+                connection.setRequestProperty("Content-Encoding", GZIP);
+            }
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static InputStream openResponse(
+        HttpURLConnection connection) throws IOException {
+        InputStream raw = connection.getResponseCode() / 100 == 2 ?
+            connection.getInputStream() :
+            connection.getErrorStream();
+        if (raw == null) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        InputStream in = new DrainingInputStream(raw);
+        if (GZIP.equalsIgnoreCase(connection.getContentEncoding())) {
+            in = new GZIPInputStream(in);
+        }
+        return in;
+    }
+
+    private static byte[] compress(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static String readString(
+        HttpURLConnection connection,
+        InputStream in) throws IOException {
+        try {
+            ByteBuffer buffer = readBuffer(in);
+            return new String(
+                buffer.array(),
+                buffer.arrayOffset() + buffer.position(),
+                buffer.remaining(),
+                getCharset(connection));
+        } finally {
+            in.close();
+        }
+    }
+
+    private static ByteBuffer readBuffer(InputStream in) throws IOException {
+        ExposedByteArrayOutputStream out = new ExposedByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            out.write(chunk, 0, read);
+        }
+        return out.toByteBuffer();
+    }
+
+    private static Charset getCharset(HttpURLConnection connection) {
+        String contentType = connection.getContentType();
+        if (contentType != null) {
+            for (String parameter : contentType.split(";")) {
+                String trimmed = parameter.trim();
+                if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                    try {
+                        return Charset.forName(
+                            trimmed.substring(8).replace("\"", "").trim());
+                    } catch (IllegalArgumentException e) {
+                        // Fall through to the default.
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Byte array output stream which can be wrapped in a {@link ByteBuffer}
+     * without copying the content.
+     */
+    private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+        ExposedByteArrayOutputStream() {
+            super(8192);
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    /**
+     * Input stream which reads any remaining bytes before closing so that the
+     * underlying connection can be returned to the keep-alive cache.
+     */
+    private static class DrainingInputStream extends FilterInputStream {
+        DrainingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                byte[] skip = new byte[4096];
+                int drained = 0;
+                int read;
+                while (drained < MAX_DRAIN_BYTES &&
+                    (read = in.read(skip)) != -1) {
+                    drained += read;
+                }
+            } catch (IOException e) {
+                // The connection will not be reused, which is not an error.
+            } finally {
+                super.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.services.update;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Applies a binary patch to a data file to produce a newer version of it.
+ * The patch is read and the result written as streams, so neither needs to
+ * fit in memory.
+ * <p>
+ * A patch has the following format. All numbers are big-endian.
+ * <pre>
+ * magic           4 bytes  '5' '1' 'D' 'P'
+ * format version  1 byte   1
+ * target length   8 bytes  length of the patched file
+ * target MD5      16 bytes MD5 hash of the patched file
+ * operations      until an END operation:
+ *   COPY   (1)    offset 8 bytes, length 8 bytes: copy from the base file
+ *   INSERT (2)    length 4 bytes, followed by that many bytes to write
+ *   END    (0)
+ * </pre>
+ * The length and MD5 hash of the result are always checked, so a patch
+ * built from a different base file is detected rather than producing a
+ * corrupt data file.
+ */
+public class BinaryPatch {
+
+    public static final byte[] MAGIC = {'5', '1', 'D', 'P'};
+    public static final byte FORMAT_VERSION = 1;
+    public static final byte OP_END = 0;
+    public static final byte OP_COPY = 1;
+    public static final byte OP_INSERT = 2;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Apply the patch to the base file, writing the result to the target.
+     * @param base the file the patch was created from
+     * @param patch stream containing the patch
+     * @param target stream to write the patched file to
+     * @throws IOException if the patch is invalid, does not apply to the base
+     * file, or the result does not match the expected length and MD5 hash
+     */
+    public static void apply(
+        Path base,
+        InputStream patch,
+        OutputStream target) throws IOException {
+        DataInputStream in = new DataInputStream(patch);
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (Arrays.equals(magic, MAGIC) == false) {
+            throw new IOException("Stream is not a data file patch.");
+        }
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException(
+                "Unsupported data file patch version " + version + ".");
+        }
+        long expectedLength = in.readLong();
+        byte[] expectedMd5 = new byte[16];
+        in.readFully(expectedMd5);
+
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("MD5 Algorithm not found", e);
+        }
+
+        long written = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+        try (FileChannel channel = FileChannel.open(base, StandardOpenOption.READ)) {
+            long baseLength = channel.size();
+            byte op;
+            while ((op = in.readByte()) != OP_END) {
+                if (op == OP_COPY) {
+                    long offset = in.readLong();
+                    long length = in.readLong();
+                    if (offset < 0 || length < 0 || offset + length > baseLength) {
+                        throw new IOException(
+                            "Patch copies outside the bounds of the base file.");
+                    }
+                    while (length > 0) {
+                        wrapped.clear();
+                        wrapped.limit((int) Math.min(buffer.length, length));
+                        int read = channel.read(wrapped, offset);
+                        if (read <= 0) {
+                            throw new IOException("Unexpected end of base file.");
+                        }
+                        target.write(buffer, 0, read);
+                        md5.update(buffer, 0, read);
+                        offset += read;
+                        length -= read;
+                        written += read;
+                    }
+                } else if (op == OP_INSERT) {
+                    int length = in.readInt();
+                    if (length < 0) {
+                        throw new IOException("Invalid patch insert length.");
+                    }
+                    while (length > 0) {
+                        int read = in.read(buffer, 0, Math.min(buffer.length, length));
+                        if (read < 0) {
+                            throw new IOException("Unexpected end of patch.");
+                        }
+                        target.write(buffer, 0, read);
+                        md5.update(buffer, 0, read);
+                        length -= read;
+                        written += read;
+                    }
+                } else {
+                    throw new IOException("Invalid patch operation " + op + ".");
+                }
+            }
+        }
+        target.flush();
+
+        if (written != expectedLength ||
+            MessageDigest.isEqual(md5.digest(), expectedMd5) == false) {
+            throw new IOException(
+                "Patched data does not match the expected length and MD5 hash.");
+        }
+    }
+}
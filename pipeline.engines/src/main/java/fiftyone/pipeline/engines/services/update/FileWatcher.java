@@ -0,0 +1,83 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.services.update;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+
+/**
+ * Watches files for changes and notifies listeners once a change has
+ * finished. Writers that copy a file in chunks raise several events for a
+ * single change, so implementations wait until the file has stopped
+ * changing before calling the listener.
+ */
+public interface FileWatcher extends Closeable {
+
+    /**
+     * Listener which is called when a watched file has changed.
+     */
+    interface OnFileChanged {
+        /**
+         * Called once the file has changed and is no longer being written
+         * to. This is not called on the thread which watches for changes, so
+         * it may take as long as needed.
+         * @param file the file which changed
+         */
+        void fileChanged(Path file);
+    }
+
+    /**
+     * Registration of a listener for a single file. Closing the registration
+     * stops the listener being called.
+     */
+    interface Registration extends Closeable {
+        /**
+         * Get the file being watched.
+         * @return absolute path to the file
+         */
+        Path getFile();
+
+        /**
+         * Get the key for the directory containing the file. This key is
+         * shared by all registrations in the same directory, so must not be
+         * cancelled directly.
+         * @return watch key for the directory
+         */
+        WatchKey getWatchKey();
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Start watching the file for changes.
+     * @param file the file to watch. The parent directory must exist
+     * @param listener to call when the file has changed
+     * @return registration which stops watching the file when closed
+     * @throws IOException if the directory could not be watched
+     */
+    Registration register(Path file, OnFileChanged listener)
+        throws IOException;
+}
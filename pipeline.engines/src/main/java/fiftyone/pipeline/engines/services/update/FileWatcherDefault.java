@@ -0,0 +1,434 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.services.update;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Default implementation of {@link FileWatcher}. A single thread waits on one
+ * {@link WatchService} for all the files registered, however many there are.
+ * When a file changes, it is checked again after the debounce interval and
+ * the listeners are only called once its size, modification time and a hash
+ * of its first and last blocks are the same in two consecutive checks.
+ * Listeners are called on a separate dispatch thread so that a slow listener
+ * never delays the processing of events.
+ * <p>
+ * Use {@link #getShared()} to get the instance shared by everything in the
+ * JVM.
+ */
+public class FileWatcherDefault implements FileWatcher {
+
+    /**
+     * Default time to wait for a file to stop changing.
+     */
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+    /**
+     * Number of bytes from the start and end of the file included in the
+     * hash. Hashing the whole file on every check would be too expensive for
+     * large data files, and writers change the start or end of a file last.
+     */
+    private static final int SAMPLE_BYTES = 64 * 1024;
+
+    /**
+     * Number of consecutive checks a file may be missing for before the
+     * change is discarded.
+     */
+    private static final int MAX_MISSING_CHECKS = 10;
+
+    private static FileWatcher shared = null;
+
+    private final Logger logger;
+    private final long debounceMillis;
+    private final Object lock = new Object();
+    private final Map<Path, WatchKey> directories = new HashMap<>();
+    private final Map<Path, List<RegistrationDefault>> registrations =
+        new HashMap<>();
+    /**
+     * Changes waiting for the file to become stable. Only accessed by the
+     * watcher thread.
+     */
+    private final Map<Path, PendingChange> pending = new HashMap<>();
+    private final ExecutorService dispatcher;
+    private WatchService watchService = null;
+    private volatile boolean closed = false;
+
+    /**
+     * Get the instance which is shared by everything in the JVM. This
+     * instance is never closed, so closing the handle returned has no effect.
+     * Close the registrations instead to stop watching files.
+     * @return shared file watcher
+     */
+    public static synchronized FileWatcher getShared() {
+        if (shared == null) {
+            final FileWatcher watcher = new FileWatcherDefault(
+                DEFAULT_DEBOUNCE_MILLIS,
+                LoggerFactory.getLogger(FileWatcherDefault.class));
+            shared = new FileWatcher() {
+                @Override
+                public Registration register(Path file, OnFileChanged listener)
+                    throws IOException {
+                    return watcher.register(file, listener);
+                }
+
+                @Override
+                public void close() {
+                    // The shared instance is used by everything in the JVM.
+                }
+            };
+        }
+        return shared;
+    }
+
+    /**
+     * Construct a new instance.
+     * @param debounceMillis time to wait between checks that a changed file
+     *                       is no longer changing
+     * @param logger used to log errors
+     */
+    public FileWatcherDefault(long debounceMillis, Logger logger) {
+        this.debounceMillis = debounceMillis;
+        this.logger = logger;
+        this.dispatcher = Executors.newSingleThreadExecutor(
+            daemonThreadFactory("FileWatcherDispatch"));
+    }
+
+    @Override
+    public Registration register(Path file, OnFileChanged listener)
+        throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path directory = absolute.getParent();
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException(
+                    "The file watcher has been closed.");
+            }
+            if (watchService == null) {
+                watchService = directory.getFileSystem().newWatchService();
+                daemonThreadFactory("FileWatcher").newThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        watch();
+                    }
+                }).start();
+            }
+            WatchKey key = directories.get(directory);
+            if (key == null) {
+                key = directory.register(
+                    watchService,
+                    ENTRY_CREATE,
+                    ENTRY_MODIFY);
+                directories.put(directory, key);
+            }
+            List<RegistrationDefault> list = registrations.get(absolute);
+            if (list == null) {
+                list = new ArrayList<>();
+                registrations.put(absolute, list);
+            }
+            RegistrationDefault registration =
+                new RegistrationDefault(absolute, key, listener);
+            list.add(registration);
+            return registration;
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            registrations.clear();
+            directories.clear();
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException e) {
+                    logger.warn("Error closing watch service.", e);
+                }
+            }
+        }
+        dispatcher.shutdown();
+    }
+
+    private void watch() {
+        while (closed == false) {
+            WatchKey key;
+            try {
+                key = pending.isEmpty() ?
+                    watchService.take() :
+                    watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            }
+            if (key != null) {
+                Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        // Events were lost, so check every file in the
+                        // directory.
+                        for (Path file : getRegisteredFiles(directory)) {
+                            changed(file);
+                        }
+                    } else {
+                        changed(directory.resolve((Path) event.context()));
+                    }
+                }
+                key.reset();
+            }
+            checkPending();
+        }
+    }
+
+    private void changed(Path file) {
+        synchronized (lock) {
+            if (registrations.containsKey(file) == false) {
+                return;
+            }
+        }
+        PendingChange change = pending.get(file);
+        if (change == null) {
+            pending.put(file, new PendingChange(nextCheck()));
+        } else {
+            change.reset(nextCheck());
+        }
+    }
+
+    private void checkPending() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, PendingChange>> iterator =
+            pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, PendingChange> entry = iterator.next();
+            PendingChange change = entry.getValue();
+            if (change.nextCheck > now) {
+                continue;
+            }
+            Fingerprint current = Fingerprint.of(entry.getKey());
+            if (current == null) {
+                if (++change.missingChecks >= MAX_MISSING_CHECKS) {
+                    iterator.remove();
+                } else {
+                    change.nextCheck = nextCheck();
+                }
+            } else if (current.equals(change.fingerprint)) {
+                iterator.remove();
+                dispatch(entry.getKey());
+            } else {
+                change.fingerprint = current;
+                change.missingChecks = 0;
+                change.nextCheck = nextCheck();
+            }
+        }
+    }
+
+    private void dispatch(final Path file) {
+        List<RegistrationDefault> listeners;
+        synchronized (lock) {
+            List<RegistrationDefault> list = registrations.get(file);
+            if (list == null) {
+                return;
+            }
+            listeners = new ArrayList<>(list);
+        }
+        for (final RegistrationDefault registration : listeners) {
+            dispatcher.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        registration.listener.fileChanged(file);
+                    } catch (Exception e) {
+                        logger.error("Error handling change to '{}'.", file, e);
+                    }
+                }
+            });
+        }
+    }
+
+    private List<Path> getRegisteredFiles(Path directory) {
+        List<Path> files = new ArrayList<>();
+        synchronized (lock) {
+            for (Path file : registrations.keySet()) {
+                if (directory.equals(file.getParent())) {
+                    files.add(file);
+                }
+            }
+        }
+        return files;
+    }
+
+    private void unregister(RegistrationDefault registration) {
+        synchronized (lock) {
+            List<RegistrationDefault> list =
+                registrations.get(registration.file);
+            if (list == null || list.remove(registration) == false) {
+                return;
+            }
+            if (list.isEmpty()) {
+                registrations.remove(registration.file);
+            }
+            Path directory = registration.file.getParent();
+            for (Path file : registrations.keySet()) {
+                if (directory.equals(file.getParent())) {
+                    return;
+                }
+            }
+            WatchKey key = directories.remove(directory);
+            if (key != null) {
+                key.cancel();
+            }
+        }
+    }
+
+    private long nextCheck() {
+        return System.currentTimeMillis() + debounceMillis;
+    }
+
+    private static ThreadFactory daemonThreadFactory(final String name) {
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    private class RegistrationDefault implements Registration {
+        private final Path file;
+        private final WatchKey key;
+        private final OnFileChanged listener;
+
+        private RegistrationDefault(
+            Path file,
+            WatchKey key,
+            OnFileChanged listener) {
+            this.file = file;
+            this.key = key;
+            this.listener = listener;
+        }
+
+        @Override
+        public Path getFile() {
+            return file;
+        }
+
+        @Override
+        public WatchKey getWatchKey() {
+            return key;
+        }
+
+        @Override
+        public void close() {
+            unregister(this);
+        }
+    }
+
+    private static class PendingChange {
+        private long nextCheck;
+        private Fingerprint fingerprint = null;
+        private int missingChecks = 0;
+
+        private PendingChange(long nextCheck) {
+            this.nextCheck = nextCheck;
+        }
+
+        private void reset(long nextCheck) {
+            this.nextCheck = nextCheck;
+            this.fingerprint = null;
+        }
+    }
+
+    /**
+     * Size, modification time and hash of the first and last blocks of a
+     * file, used to tell when a file has stopped changing.
+     */
+    private static class Fingerprint {
+        private final long size;
+        private final long modified;
+        private final long hash;
+
+        private Fingerprint(long size, long modified, long hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+
+        private static Fingerprint of(Path file) {
+            try (RandomAccessFile reader =
+                     new RandomAccessFile(file.toFile(), "r")) {
+                long size = reader.length();
+                byte[] buffer = new byte[(int) Math.min(SAMPLE_BYTES, size)];
+                CRC32 crc = new CRC32();
+                reader.readFully(buffer);
+                crc.update(buffer);
+                if (size > SAMPLE_BYTES) {
+                    reader.seek(Math.max(SAMPLE_BYTES, size - SAMPLE_BYTES));
+                    int read = reader.read(buffer);
+                    if (read > 0) {
+                        crc.update(buffer, 0, read);
+                    }
+                }
+                return new Fingerprint(
+                    size,
+                    file.toFile().lastModified(),
+                    crc.getValue());
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other instanceof Fingerprint == false) {
+                return false;
+            }
+            Fingerprint fingerprint = (Fingerprint) other;
+            return size == fingerprint.size &&
+                modified == fingerprint.modified &&
+                hash == fingerprint.hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, modified, hash);
+        }
+    }
+}
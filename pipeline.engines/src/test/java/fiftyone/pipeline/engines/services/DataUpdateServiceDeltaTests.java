@@ -0,0 +1,335 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.services;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import fiftyone.pipeline.engines.configuration.DataFileConfigurationDefault;
+import fiftyone.pipeline.engines.data.AspectData;
+import fiftyone.pipeline.engines.data.AspectEngineDataFile;
+import fiftyone.pipeline.engines.data.AspectEngineDataFileDefault;
+import fiftyone.pipeline.engines.data.AspectPropertyMetaData;
+import fiftyone.pipeline.engines.data.DataUpdateUrlFormatter;
+import fiftyone.pipeline.engines.flowelements.OnPremiseAspectEngine;
+import fiftyone.pipeline.engines.services.update.BinaryPatch;
+import fiftyone.pipeline.engines.services.update.FutureFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static fiftyone.pipeline.engines.services.DataUpdateService.AutoUpdateStatus.AUTO_UPDATE_SUCCESS;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for delta updates in the {@link DataUpdateServiceDefault}. These use a
+ * local HTTP server in place of the real update service.
+ */
+@SuppressWarnings("unchecked")
+public class DataUpdateServiceDeltaTests {
+
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicInteger fullRequests = new AtomicInteger();
+    private final AtomicInteger deltaRequests = new AtomicInteger();
+    private final AtomicReference<String> deltaQuery = new AtomicReference<>();
+    private volatile byte[] patch;
+
+    private byte[] base;
+    private byte[] target;
+    private Path dataFile;
+    private OnPremiseAspectEngine<? extends AspectData, ? extends AspectPropertyMetaData> engine;
+    private AspectEngineDataFileDefault file;
+    private DataUpdateService dataUpdate;
+
+    @Before
+    public void Init() throws IOException {
+        Random random = new Random(0);
+        base = new byte[200 * 1024];
+        random.nextBytes(base);
+        // The new version changes a block in the middle and appends some
+        // data to the end.
+        target = Arrays.copyOf(base, base.length + 1000);
+        byte[] changed = new byte[500];
+        random.nextBytes(changed);
+        System.arraycopy(changed, 0, target, 100000, changed.length);
+        byte[] appended = new byte[1000];
+        random.nextBytes(appended);
+        System.arraycopy(appended, 0, target, base.length, appended.length);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/full", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                fullRequests.incrementAndGet();
+                respond(exchange, target);
+            }
+        });
+        server.createContext("/delta", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                deltaRequests.incrementAndGet();
+                deltaQuery.set(exchange.getRequestURI().getQuery());
+                if (patch == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    exchange.close();
+                } else {
+                    respond(exchange, patch);
+                }
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        dataFile = File.createTempFile("delta", ".dat").toPath();
+        Files.write(dataFile, base);
+
+        engine = mock(OnPremiseAspectEngine.class);
+        DataFileConfigurationDefault config = new DataFileConfigurationDefault();
+        config.setAutomaticUpdatesEnabled(true);
+        // Skip the comparison with the temp file so the update URLs are used.
+        config.setFileSystemWatcherEnabled(true);
+        config.setDecompressContent(false);
+        config.setVerifyMd5(false);
+        config.setVerifyModifiedSince(false);
+        config.setDataFilePath(dataFile.toString());
+        config.setDataUpdateUrl(baseUrl + "/full");
+        config.setDataUpdateDeltaUrl(baseUrl + "/delta");
+
+        file = new AspectEngineDataFileDefault();
+        file.setEngine(engine);
+        file.setConfiguration(config);
+        when(engine.getDataFileMetaData()).thenReturn(file);
+        when(engine.getTempDataDirPath()).thenReturn(
+            System.getProperty("java.io.tmpdir"));
+
+        dataUpdate = new DataUpdateServiceDefault(
+            LoggerFactory.getLogger(DataUpdateServiceDeltaTests.class),
+            new HttpClientDefault(),
+            null,
+            mock(FutureFactory.class));
+    }
+
+    @After
+    public void Cleanup() throws IOException {
+        server.stop(0);
+        Files.deleteIfExists(dataFile);
+    }
+
+    /**
+     * Check that a valid patch is applied to the data file on disk and the
+     * full file is not downloaded.
+     */
+    @Test
+    public void DataUpdateService_Delta_Applied() throws Exception {
+        // Arrange
+        patch = createPatch(md5(target));
+
+        // Act
+        DataUpdateService.AutoUpdateStatus status = dataUpdate.checkForUpdate(engine);
+
+        // Assert
+        assertEquals(AUTO_UPDATE_SUCCESS, status);
+        assertEquals(1, deltaRequests.get());
+        assertEquals(0, fullRequests.get());
+        assertEquals("BaseMd5=" + hex(md5(base)), deltaQuery.get());
+        assertArrayEquals(target, Files.readAllBytes(dataFile));
+        verify(engine, times(1)).refreshData((String)any());
+    }
+
+    /**
+     * Check that when the patched data does not match the checksum in the
+     * patch, the full file is downloaded instead.
+     */
+    @Test
+    public void DataUpdateService_Delta_ChecksumMismatch() throws Exception {
+        // Arrange
+        patch = createPatch(md5(base));
+
+        // Act
+        DataUpdateService.AutoUpdateStatus status = dataUpdate.checkForUpdate(engine);
+
+        // Assert
+        assertEquals(AUTO_UPDATE_SUCCESS, status);
+        assertEquals(1, deltaRequests.get());
+        assertEquals(1, fullRequests.get());
+        assertArrayEquals(target, Files.readAllBytes(dataFile));
+        verify(engine, times(1)).refreshData((String)any());
+    }
+
+    /**
+     * Check that when the server has no patch, the full file is downloaded.
+     */
+    @Test
+    public void DataUpdateService_Delta_NotAvailable() throws Exception {
+        // Arrange
+        patch = null;
+
+        // Act
+        DataUpdateService.AutoUpdateStatus status = dataUpdate.checkForUpdate(engine);
+
+        // Assert
+        assertEquals(AUTO_UPDATE_SUCCESS, status);
+        assertEquals(1, deltaRequests.get());
+        assertEquals(1, fullRequests.get());
+        assertArrayEquals(target, Files.readAllBytes(dataFile));
+        assertTrue(Files.size(dataFile) > base.length);
+    }
+
+    /**
+     * Check that the delta URL is passed through the URL formatter, so it
+     * gets the same parameters as the full download.
+     */
+    @Test
+    public void DataUpdateService_Delta_Formatted() throws Exception {
+        // Arrange
+        patch = createPatch(md5(target));
+        file.getConfiguration().setUrlFormatter(new DataUpdateUrlFormatter() {
+            @Override
+            public String getFormattedDataUpdateUrl(AspectEngineDataFile dataFile) {
+                return dataFile.getConfiguration().getDataUpdateUrl();
+            }
+
+            @Override
+            public String getFormattedDataUpdateDeltaUrl(AspectEngineDataFile dataFile) {
+                return dataFile.getConfiguration().getDataUpdateDeltaUrl() +
+                    "?LicenseKeys=key";
+            }
+        });
+
+        // Act
+        DataUpdateService.AutoUpdateStatus status = dataUpdate.checkForUpdate(engine);
+
+        // Assert
+        assertEquals(AUTO_UPDATE_SUCCESS, status);
+        assertEquals(
+            "LicenseKeys=key&BaseMd5=" + hex(md5(base)),
+            deltaQuery.get());
+    }
+
+    /**
+     * Check that the MD5 of the data file is only calculated again when the
+     * file has changed.
+     */
+    @Test
+    public void DataUpdateService_Delta_Md5Cached() throws Exception {
+        // Arrange
+        patch = null;
+        // Keep the base file in place so that the hash can be reused.
+        file.getConfiguration().setDataUpdateUrl(baseUrl + "/missing");
+
+        // Act
+        dataUpdate.checkForUpdate(engine);
+        String first = deltaQuery.get();
+        // Change the content without changing the length or modification
+        // time, which a cached hash will not see.
+        FileTime modified =
+            Files.getLastModifiedTime(dataFile);
+        byte[] changed = base.clone();
+        changed[0]++;
+        Files.write(dataFile, changed);
+        Files.setLastModifiedTime(dataFile, modified);
+        dataUpdate.checkForUpdate(engine);
+        String second = deltaQuery.get();
+        // Now change the modification time, so the hash is calculated again.
+        Files.setLastModifiedTime(
+            dataFile,
+            FileTime.fromMillis(modified.toMillis() + 2000));
+        dataUpdate.checkForUpdate(engine);
+        String third = deltaQuery.get();
+
+        // Assert
+        assertEquals(3, deltaRequests.get());
+        assertEquals("BaseMd5=" + hex(md5(base)), first);
+        assertEquals(first, second);
+        assertEquals("BaseMd5=" + hex(md5(changed)), third);
+    }
+
+    /**
+     * Create a patch from the base to the target data, using the MD5 hash
+     * provided as the expected checksum of the result.
+     */
+    private byte[] createPatch(byte[] targetMd5) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(BinaryPatch.MAGIC);
+        out.writeByte(BinaryPatch.FORMAT_VERSION);
+        out.writeLong(target.length);
+        out.write(targetMd5);
+        out.writeByte(BinaryPatch.OP_COPY);
+        out.writeLong(0);
+        out.writeLong(100000);
+        out.writeByte(BinaryPatch.OP_INSERT);
+        out.writeInt(500);
+        out.write(target, 100000, 500);
+        out.writeByte(BinaryPatch.OP_COPY);
+        out.writeLong(100500);
+        out.writeLong(base.length - 100500);
+        out.writeByte(BinaryPatch.OP_INSERT);
+        out.writeInt(1000);
+        out.write(target, base.length, 1000);
+        out.writeByte(BinaryPatch.OP_END);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body)
+        throws IOException {
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] md5(byte[] data) throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("MD5").digest(data);
+    }
+
+    private static String hex(byte[] data) {
+        StringBuilder builder = new StringBuilder();
+        for (byte b : data) {
+            builder.append(String.format("%02X", b));
+        }
+        return builder.toString();
+    }
+}
@@ -35,6 +35,8 @@ import fiftyone.pipeline.engines.data.AspectData;
 import fiftyone.pipeline.engines.data.AspectEngineDataFile;
 import fiftyone.pipeline.engines.data.AspectEngineDataFileDefault;
 import fiftyone.pipeline.engines.data.AspectPropertyMetaData;
+import fiftyone.pipeline.engines.data.DataFileHeader;
+import fiftyone.pipeline.engines.data.DataFileHeaderProbe;
 import fiftyone.pipeline.engines.flowelements.OnPremiseAspectEngine;
 import fiftyone.pipeline.engines.services.update.FutureFactory;
 import org.junit.After;
@@ -63,6 +65,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static fiftyone.pipeline.engines.services.DataUpdateService.AutoUpdateStatus.AUTO_UPDATE_HTTPS_ERR;
 import static fiftyone.pipeline.engines.services.DataUpdateService.AutoUpdateStatus.AUTO_UPDATE_NOT_NEEDED;
@@ -900,6 +903,168 @@ public class DataUpdateServiceTests {
             anyLong());
     }
 
+    /**
+     * Check that when the engine fails to refresh, for example because the
+     * file is locked, another attempt is scheduled rather than blocking the
+     * caller, and the listeners are told the final result once it succeeds.
+     */
+    @Test
+    public void DataUpdateService_CheckForUpdate_RefreshRetried() throws InterruptedException {
+        // Arrange
+        OnPremiseAspectEngine<? extends AspectData, ? extends AspectPropertyMetaData> engine = mock(OnPremiseAspectEngine.class);
+        DataFileConfigurationDefault config = new DataFileConfigurationDefault();
+        config.setAutomaticUpdatesEnabled(true);
+        config.setFileSystemWatcherEnabled(false);
+
+        AspectEngineDataFileDefault file = new AspectEngineDataFileDefault();
+        file.setEngine(engine);
+        file.setConfiguration(config);
+        when(engine.getDataFileMetaData()).thenReturn(file);
+
+        configureFileUpdate(engine);
+        // Fail the first two refreshes, then succeed.
+        doThrow(new RuntimeException("locked"))
+            .doThrow(new RuntimeException("locked"))
+            .doNothing()
+            .when(engine).refreshData((String)any());
+        // Each failed refresh logs a warning.
+        ignoreWranings = 2;
+
+        final CountDownLatch completeFlag = new CountDownLatch(1);
+        final AtomicReference<DataUpdateService.AutoUpdateStatus> finalStatus =
+            new AtomicReference<>();
+        dataUpdate.onUpdateComplete(new OnUpdateComplete() {
+            @Override
+            public void call(Object sender, DataUpdateService.DataUpdateCompleteArgs args) {
+                if (args.getStatus() !=
+                    DataUpdateService.AutoUpdateStatus.AUTO_UPDATE_IN_PROGRESS) {
+                    finalStatus.set(args.getStatus());
+                    completeFlag.countDown();
+                }
+            }
+        });
+
+        // Act
+        DataUpdateService.AutoUpdateStatus result = dataUpdate.checkForUpdate(engine);
+        boolean completed = completeFlag.await(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(DataUpdateService.AutoUpdateStatus.AUTO_UPDATE_IN_PROGRESS, result);
+        assertTrue("The OnUpdateComplete event was never fired with the " +
+            "final status", completed);
+        assertEquals(DataUpdateService.AutoUpdateStatus.AUTO_UPDATE_SUCCESS,
+            finalStatus.get());
+        verify(engine, times(3)).refreshData((String)any());
+        // Verify that each retry was scheduled rather than run inline.
+        verify(futureFactory, times(2)).schedule(
+            any(Runnable.class),
+            eq(200L));
+    }
+
+    /**
+     * Check that when the data file has a header probe, a newer modification
+     * time on disk does not trigger a refresh if the published date in the
+     * header is the same as the data already in use.
+     */
+    @Test
+    public void DataUpdateService_CheckForUpdate_HeaderNotNewer() throws IOException {
+        // Arrange
+        OnPremiseAspectEngine<? extends AspectData, ? extends AspectPropertyMetaData> engine = mock(OnPremiseAspectEngine.class);
+        DataFileConfigurationDefault config = new DataFileConfigurationDefault();
+        config.setAutomaticUpdatesEnabled(true);
+        config.setFileSystemWatcherEnabled(false);
+
+        AspectEngineDataFileDefault file = new AspectEngineDataFileDefault();
+        file.setEngine(engine);
+        file.setConfiguration(config);
+        when(engine.getDataFileMetaData()).thenReturn(file);
+
+        configureFileUpdate(engine);
+        Date published = new Date(1528632000000L);
+        file.setDataPublishedDateTime(published);
+        DataFileHeaderProbe probe = mock(DataFileHeaderProbe.class);
+        when(probe.probe(anyString())).thenReturn(new DataFileHeader(published, "4.1"));
+        file.setHeaderProbe(probe);
+
+        // Act
+        dataUpdate.checkForUpdate(engine);
+
+        // Assert
+        // Make sure that refresh is not called on the engine even though
+        // the modification time of the file is newer.
+        verify(engine, never()).refreshData(anyString());
+        verify(probe, times(1)).probe(file.getDataFilePath());
+    }
+
+    /**
+     * Check that when the data file has a header probe, a newer published
+     * date in the header triggers a refresh even if the modification times
+     * of the files are the same.
+     */
+    @Test
+    public void DataUpdateService_CheckForUpdate_HeaderNewer() throws IOException {
+        // Arrange
+        OnPremiseAspectEngine<? extends AspectData, ? extends AspectPropertyMetaData> engine = mock(OnPremiseAspectEngine.class);
+        DataFileConfigurationDefault config = new DataFileConfigurationDefault();
+        config.setAutomaticUpdatesEnabled(true);
+        config.setFileSystemWatcherEnabled(false);
+
+        AspectEngineDataFileDefault file = new AspectEngineDataFileDefault();
+        file.setEngine(engine);
+        file.setConfiguration(config);
+        when(engine.getDataFileMetaData()).thenReturn(file);
+
+        configureFileNoUpdate(engine);
+        Date published = new Date(1528632000000L);
+        file.setDataPublishedDateTime(published);
+        DataFileHeaderProbe probe = mock(DataFileHeaderProbe.class);
+        when(probe.probe(anyString())).thenReturn(new DataFileHeader(
+            new Date(published.getTime() + 86400000L), "4.1"));
+        file.setHeaderProbe(probe);
+
+        // Act
+        dataUpdate.checkForUpdate(engine);
+
+        // Assert
+        verify(engine, times(1)).refreshData((String)any());
+    }
+
+    /**
+     * Check that an entity tag returned with a data file is sent back in the
+     * 'If-None-Match' header on the next request to the update URL.
+     */
+    @Test
+    public void DataUpdateService_CheckForUpdate_UrlSendsETag() throws IOException {
+        // Getting no data from the URL will cause an error to be logged
+        // so we need to ignore this
+        ignoreWranings = 1;
+
+        // Arrange
+        configureHttpNoUpdateAvailable();
+        OnPremiseAspectEngine<? extends AspectData, ? extends AspectPropertyMetaData> engine = mock(OnPremiseAspectEngine.class);
+        DataFileConfigurationDefault config = new DataFileConfigurationDefault();
+        config.setAutomaticUpdatesEnabled(true);
+        config.setVerifyModifiedSince(true);
+        config.setDataUpdateUrl("http://www.test.com");
+
+        AspectEngineDataFileDefault file = new AspectEngineDataFileDefault();
+        file.setEngine(engine);
+        file.setConfiguration(config);
+        file.setLastETag("\"abc\"");
+
+        String tempPath = System.getProperty("java.io.tmpdir");
+        when(engine.getTempDataDirPath()).thenReturn(tempPath);
+        when(engine.getDataFileMetaData()).thenReturn(file);
+
+        // Act
+        dataUpdate.checkForUpdate(engine);
+
+        // Assert
+        verify(httpClientConnection, times(1))
+            .setRequestProperty("If-None-Match", "\"abc\"");
+        verify(engine, never()).refreshData(anyString());
+    }
+
     @Test
     public void DataUpdateService_CheckForUpdate_UrlNoUpdate() throws IOException {
         // Getting no data from the URL will cause an error to be logged
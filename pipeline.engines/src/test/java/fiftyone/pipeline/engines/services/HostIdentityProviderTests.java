@@ -0,0 +1,134 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.services;
+
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class HostIdentityProviderTests {
+
+    /**
+     * Provider which returns a sequence of addresses rather than enumerating
+     * the network interfaces, and counts the lookups.
+     */
+    private static class TestProvider extends HostIdentityProviderDefault {
+        private final Deque<String> addresses;
+        private int lookups = 0;
+
+        TestProvider(long refreshIntervalMillis, String... addresses) {
+            super(refreshIntervalMillis);
+            this.addresses = new ArrayDeque<>(Arrays.asList(addresses));
+        }
+
+        @Override
+        String discover() {
+            lookups++;
+            return addresses.size() > 1 ? addresses.poll() : addresses.peek();
+        }
+    }
+
+    private static int rank(String address, boolean pointToPoint)
+        throws UnknownHostException {
+        return HostIdentityProviderDefault.rank(
+            InetAddress.getByName(address),
+            pointToPoint);
+    }
+
+    /**
+     * Check that addresses which do not identify the machine are never used,
+     * and that the others are preferred in the documented order.
+     */
+    @Test
+    public void HostIdentityProvider_Rank() throws UnknownHostException {
+        assertEquals(-1, rank("127.0.0.1", false));
+        assertEquals(-1, rank("::1", false));
+        assertEquals(-1, rank("169.254.1.1", false));
+        assertEquals(-1, rank("fe80::1", false));
+        assertEquals(-1, rank("224.0.0.1", false));
+        assertEquals(-1, rank("0.0.0.0", false));
+
+        int globalV4 = rank("203.0.113.1", false);
+        int privateV4 = rank("192.168.1.1", false);
+        int globalV6 = rank("2001:db8::1", false);
+        int privateV6 = rank("fd00::1", false);
+        int tunnel = rank("10.8.0.1", true);
+        assertTrue(globalV4 >= 0);
+        assertTrue(globalV4 < privateV4);
+        assertTrue(privateV4 < globalV6);
+        assertTrue(globalV6 < privateV6);
+        assertTrue(privateV6 < tunnel);
+    }
+
+    /**
+     * Check that the address is looked up once and then cached until the
+     * refresh interval has passed.
+     */
+    @Test
+    public void HostIdentityProvider_Cached() throws InterruptedException {
+        TestProvider provider = new TestProvider(100, "10.0.0.1", "10.0.0.2");
+
+        assertEquals("10.0.0.1", provider.getHostAddress());
+        assertEquals("10.0.0.1", provider.getHostAddress());
+        assertEquals(1, provider.lookups);
+
+        Thread.sleep(150);
+        assertEquals("10.0.0.2", provider.getHostAddress());
+        assertEquals(2, provider.lookups);
+    }
+
+    /**
+     * Check that the last known address is kept if no address can be found
+     * when refreshing.
+     */
+    @Test
+    public void HostIdentityProvider_KeepsLastKnown()
+        throws InterruptedException {
+        TestProvider provider = new TestProvider(10, "10.0.0.1", "");
+
+        assertEquals("10.0.0.1", provider.getHostAddress());
+        Thread.sleep(20);
+        assertEquals("10.0.0.1", provider.getHostAddress());
+        assertEquals(2, provider.lookups);
+    }
+
+    /**
+     * Check that the real network interfaces can be enumerated without
+     * network access and never give a scoped or loopback address.
+     */
+    @Test
+    public void HostIdentityProvider_Discover() {
+        String address = new HostIdentityProviderDefault().getHostAddress();
+        assertNotNull(address);
+        assertTrue(address, address.indexOf('%') < 0);
+        assertTrue(address, address.startsWith("127.") == false);
+    }
+}
@@ -0,0 +1,244 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.services;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the {@link HttpClientPooled} using a local HTTP server.
+ */
+public class HttpClientPooledTests {
+
+    private static final String TEXT = "line one\nline two\r\né€\n";
+
+    private HttpServer server;
+    private String baseUrl;
+    private volatile String lastRequestEncoding;
+    private final Set<Integer> remotePorts = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void init() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/text", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                remotePorts.add(exchange.getRemoteAddress().getPort());
+                exchange.getResponseHeaders().add(
+                    "Content-Type", "text/plain; charset=UTF-8");
+                respond(exchange, TEXT.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/echo", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                lastRequestEncoding = exchange.getRequestHeaders()
+                    .getFirst("Content-Encoding");
+                InputStream in = exchange.getRequestBody();
+                if ("gzip".equals(lastRequestEncoding)) {
+                    in = new GZIPInputStream(in);
+                }
+                respond(exchange, readAll(in));
+            }
+        });
+        server.createContext("/slow", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                respond(exchange, new byte[0]);
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void cleanup() {
+        server.stop(0);
+    }
+
+    private static void respond(
+        HttpExchange exchange,
+        byte[] body) throws IOException {
+        String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (accept != null && accept.contains("gzip")) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(body);
+            }
+            body = buffer.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Check that the response string is identical to the body sent by the
+     * server, including line breaks and multi-byte characters.
+     */
+    @Test
+    public void HttpClientPooled_GetResponseString_ByteExact() throws IOException {
+        // Arrange
+        HttpClient client = new HttpClientPooled();
+
+        // Act
+        String result = client.getResponseString(
+            client.connect(new URL(baseUrl + "/text")));
+
+        // Assert
+        assertEquals(TEXT, result);
+    }
+
+    /**
+     * Check that a large request body is compressed when enabled, and that
+     * the compressed response is decoded back to the original bytes.
+     */
+    @Test
+    public void HttpClientPooled_PostData_GzipBothWays() throws IOException {
+        // Arrange
+        HttpClientPooled client = new HttpClientPooled(
+            HttpClientPooled.DEFAULT_CONNECT_TIMEOUT_MILLIS,
+            HttpClientPooled.DEFAULT_READ_TIMEOUT_MILLIS,
+            true);
+        byte[] data = new byte[HttpClientPooled.MIN_COMPRESS_BYTES * 4];
+        Arrays.fill(data, (byte)'a');
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Length", Integer.toString(data.length));
+
+        // Act
+        ByteBuffer result = client.postDataBuffer(
+            client.connect(new URL(baseUrl + "/echo")), headers, data);
+
+        // Assert
+        assertEquals("gzip", lastRequestEncoding);
+        byte[] bytes = new byte[result.remaining()];
+        result.get(bytes);
+        assertArrayEquals(data, bytes);
+    }
+
+    /**
+     * Check that small request bodies are sent uncompressed.
+     */
+    @Test
+    public void HttpClientPooled_PostData_SmallNotCompressed() throws IOException {
+        // Arrange
+        HttpClientPooled client = new HttpClientPooled(
+            HttpClientPooled.DEFAULT_CONNECT_TIMEOUT_MILLIS,
+            HttpClientPooled.DEFAULT_READ_TIMEOUT_MILLIS,
+            true);
+
+        // Act
+        String result = client.postData(
+            client.connect(new URL(baseUrl + "/echo")),
+            null,
+            "a=b".getBytes(StandardCharsets.UTF_8));
+
+        // Assert
+        assertEquals(null, lastRequestEncoding);
+        assertEquals("a=b", result);
+    }
+
+    /**
+     * Check that sequential requests reuse the same connection once the
+     * response streams have been closed.
+     */
+    @Test
+    public void HttpClientPooled_GetResponseStream_ConnectionReused() throws IOException {
+        // Arrange
+        HttpClient client = new HttpClientPooled();
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            HttpURLConnection connection = client.connect(new URL(baseUrl + "/text"));
+            try (InputStream in = client.getResponseStream(connection, null)) {
+                in.read();
+            }
+        }
+
+        // Assert
+        assertEquals(1, remotePorts.size());
+    }
+
+    /**
+     * Check that the read timeout is applied to new connections.
+     */
+    @Test
+    public void HttpClientPooled_ReadTimeout() throws IOException {
+        // Arrange
+        HttpClient client = new HttpClientPooled(1000, 200, false);
+
+        // Act
+        try {
+            client.getResponseString(client.connect(new URL(baseUrl + "/slow")));
+            fail("A timeout exception should have been thrown.");
+        }
+        // Assert
+        catch (SocketTimeoutException e) {
+            assertTrue(e.getMessage() != null);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/* *********************************************************************
+ * This Original Work is copyright of 51 Degrees Mobile Experts Limited.
+ * Copyright 2026 51 Degrees Mobile Experts Limited, Davidson House,
+ * Forbury Square, Reading, Berkshire, United Kingdom RG1 3EU.
+ *
+ * This Original Work is licensed under the European Union Public Licence
+ * (EUPL) v.1.2 and is subject to its terms as set out below.
+ *
+ * If a copy of the EUPL was not distributed with this file, You can obtain
+ * one at https://opensource.org/licenses/EUPL-1.2.
+ *
+ * The 'Compatible Licences' set out in the Appendix to the EUPL (as may be
+ * amended by the European Commission) shall be deemed incompatible for
+ * the purposes of the Work and the provisions of the compatibility
+ * clause in Article 5 of the EUPL shall not apply.
+ *
+ * If using the Work as, or as part of, a network application, by
+ * including the attribution notice(s) required under Article 5 of the EUPL
+ * in the end user terms of the application under an appropriate heading,
+ * such notice(s) shall fulfill the requirements of that article.
+ * ********************************************************************* */
+
+package fiftyone.pipeline.engines.services.update;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+public class FileWatcherDefaultTests {
+
+    private FileWatcherDefault watcher;
+    private Path file;
+
+    @Before
+    public void Init() throws IOException {
+        assumeFalse("File watchers are not well implemented in OS X, " +
+                "so don't run these unit tests as they are unlikely to pass.",
+            System.getProperty("os.name").contains("Mac OS X"));
+        watcher = new FileWatcherDefault(
+            200,
+            LoggerFactory.getLogger(FileWatcherDefaultTests.class));
+        file = File.createTempFile("watcher", ".tmp").toPath();
+    }
+
+    @After
+    public void Cleanup() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Check that a file written in several chunks results in the listener
+     * being called once, after the last chunk has been written.
+     */
+    @Test
+    public void FileWatcher_ChunkedWrite_SingleCallback()
+        throws IOException, InterruptedException {
+        // Arrange
+        final AtomicInteger calls = new AtomicInteger();
+        final Semaphore called = new Semaphore(0);
+        watcher.register(file, new FileWatcher.OnFileChanged() {
+            @Override
+            public void fileChanged(Path changed) {
+                calls.incrementAndGet();
+                called.release();
+            }
+        });
+
+        // Act
+        try (OutputStream stream = Files.newOutputStream(file)) {
+            for (int i = 0; i < 5; i++) {
+                stream.write(new byte[1024]);
+                stream.flush();
+                Thread.sleep(50);
+            }
+        }
+        boolean completed = called.tryAcquire(5, TimeUnit.SECONDS);
+        // Wait a while longer to catch any extra callbacks.
+        Thread.sleep(1000);
+
+        // Assert
+        assertTrue("The listener was never called", completed);
+        assertEquals(1, calls.get());
+    }
+
+    /**
+     * Check that the listener is not called once the registration has been
+     * closed.
+     */
+    @Test
+    public void FileWatcher_Unregister_NoCallback()
+        throws IOException, InterruptedException {
+        // Arrange
+        final Semaphore called = new Semaphore(0);
+        FileWatcher.Registration registration = watcher.register(
+            file,
+            new FileWatcher.OnFileChanged() {
+                @Override
+                public void fileChanged(Path changed) {
+                    called.release();
+                }
+            });
+
+        // Act
+        registration.close();
+        Files.write(file, "Testing".getBytes());
+
+        // Assert
+        assertFalse("The listener was called after being unregistered",
+            called.tryAcquire(2, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Check that several files in the same directory share a watch key.
+     */
+    @Test
+    public void FileWatcher_SameDirectory_SharedKey() throws IOException {
+        // Arrange
+        Path other = File.createTempFile("watcher", ".tmp").toPath();
+        FileWatcher.OnFileChanged listener = new FileWatcher.OnFileChanged() {
+            @Override
+            public void fileChanged(Path changed) {
+            }
+        };
+        try {
+            // Act
+            FileWatcher.Registration first = watcher.register(file, listener);
+            FileWatcher.Registration second = watcher.register(other, listener);
+
+            // Assert
+            assertTrue(first.getWatchKey() == second.getWatchKey());
+        } finally {
+            Files.deleteIfExists(other);
+        }
+    }
+
+    /**
+     * Check that closing the shared instance does not stop it being used by
+     * everything else in the JVM.
+     */
+    @Test
+    public void FileWatcher_Shared_CloseIgnored() throws IOException {
+        // Arrange
+        FileWatcher shared = FileWatcherDefault.getShared();
+
+        // Act
+        shared.close();
+        FileWatcher.Registration registration = shared.register(
+            file,
+            new FileWatcher.OnFileChanged() {
+                @Override
+                public void fileChanged(Path changed) {
+                }
+            });
+
+        // Assert
+        assertTrue(shared == FileWatcherDefault.getShared());
+        assertEquals(file.toAbsolutePath(), registration.getFile());
+        registration.close();
+    }
+}
@@ -25,9 +25,10 @@ package fiftyone.pipeline.web.mvc.components;
 import fiftyone.pipeline.core.configuration.PipelineOptions;
 import fiftyone.pipeline.core.flowelements.Pipeline;
 import fiftyone.pipeline.core.flowelements.PipelineBuilder;
+import fiftyone.pipeline.core.flowelements.PipelineReadyListener;
 import fiftyone.pipeline.engines.services.DataUpdateService;
 import fiftyone.pipeline.engines.services.DataUpdateServiceDefault;
-import fiftyone.pipeline.engines.services.HttpClientDefault;
+import fiftyone.pipeline.engines.services.HttpClientPooled;
 import fiftyone.pipeline.web.Constants;
 import fiftyone.pipeline.web.StartupHelpers;
 import fiftyone.pipeline.web.mvc.configuration.FiftyOneInterceptorConfig;
@@ -72,6 +73,8 @@ public class FiftyOneInterceptor extends HandlerInterceptorAdapter {
     
     private final UACHService uachService;
 
+    private volatile boolean ready = false;
+
     @Autowired
     public FiftyOneInterceptor(
         FiftyOneInterceptorConfig config,
@@ -97,7 +100,7 @@ public class FiftyOneInterceptor extends HandlerInterceptorAdapter {
         PipelineBuilder builder = new PipelineBuilder()
             .addService(new DataUpdateServiceDefault(
                 LoggerFactory.getLogger(DataUpdateService.class.getSimpleName()),
-                new HttpClientDefault()));
+                new HttpClientPooled()));
         try {
             JAXBContext jaxbContext = JAXBContext.newInstance(PipelineOptions.class);
             Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
@@ -111,6 +114,13 @@ public class FiftyOneInterceptor extends HandlerInterceptorAdapter {
             throw new RuntimeException(e);
         }
 
+        pipeline.addReadyListener(new PipelineReadyListener() {
+            @Override
+            public void pipelineReady(Pipeline pipeline) {
+                ready = true;
+            }
+        });
+
         resultService.setPipeline(pipeline);
         clientsidePropertyService.setPipeline(pipeline);
         fiftyOneJsService.enable(config.getClientsidePropertiesEnabled());
@@ -151,6 +161,16 @@ public class FiftyOneInterceptor extends HandlerInterceptorAdapter {
         }
     }
 
+    /**
+     * Get whether the Pipeline has finished warming up and is ready to serve
+     * requests. This can be used by health checks to keep the application
+     * out of a load balancer until it is ready.
+     * @return true if the Pipeline is ready
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
     public ClientsidePropertyService getClientsidePropertyService() {
         return clientsidePropertyService;
     }
@@ -46,6 +46,13 @@ public class Constants {
     public static final String HTTPCONTEXT_FLOWDATA =
         HTTPCONTEXT_FIFTYONE + ".flowdata";
 
+    /**
+     * Key used to store whether the Pipeline is ready in the servlet context.
+     * This is false until the Pipeline has finished warming up.
+     */
+    public static final String HTTPCONTEXT_READY =
+        HTTPCONTEXT_FIFTYONE + ".ready";
+
     /**
      * The name used in the configuration options for the Pipeline's
      * configuration element.
@@ -26,9 +26,10 @@ import fiftyone.pipeline.core.configuration.PipelineOptions;
 import fiftyone.pipeline.core.data.FlowData;
 import fiftyone.pipeline.core.flowelements.Pipeline;
 import fiftyone.pipeline.core.flowelements.PipelineBuilder;
+import fiftyone.pipeline.core.flowelements.PipelineReadyListener;
 import fiftyone.pipeline.engines.services.DataUpdateService;
 import fiftyone.pipeline.engines.services.DataUpdateServiceDefault;
-import fiftyone.pipeline.engines.services.HttpClientDefault;
+import fiftyone.pipeline.engines.services.HttpClientPooled;
 import fiftyone.pipeline.web.services.*;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +43,7 @@ import java.io.IOException;
 
 import static fiftyone.pipeline.web.Constants.DEFAULT_CLIENTSIDE_ENABLED;
 import static fiftyone.pipeline.web.Constants.DEFAULT_CONFIG_FILE;
+import static fiftyone.pipeline.web.Constants.HTTPCONTEXT_READY;
 
 /**
  * Servlet filter used to intercept HTTP requests and process them using the
@@ -81,13 +83,13 @@ public class PipelineFilter implements Filter {
             clientsideEnabled = Boolean.parseBoolean(clientsideEnabledString);
         }
         
-        ServletContext context = config.getServletContext();
+        final ServletContext context = config.getServletContext();
 
         File configFile = new File(context.getRealPath(configFileName));
         PipelineBuilder builder = new PipelineBuilder()
             .addService(new DataUpdateServiceDefault(
                 LoggerFactory.getLogger(DataUpdateService.class.getSimpleName()),
-                new HttpClientDefault()));
+                new HttpClientPooled()));
 
         try {
             JAXBContext jaxbContext = JAXBContext.newInstance(PipelineOptions.class);
@@ -101,6 +103,16 @@ public class PipelineFilter implements Filter {
             throw new ServletException(e);
         }
 
+        // Publish readiness in the servlet context so that health checks
+        // can wait for the Pipeline to finish warming up.
+        context.setAttribute(HTTPCONTEXT_READY, false);
+        pipeline.addReadyListener(new PipelineReadyListener() {
+            @Override
+            public void pipelineReady(Pipeline pipeline) {
+                context.setAttribute(HTTPCONTEXT_READY, true);
+            }
+        });
+
         evidenceService = new WebRequestEvidenceServiceCore.Default();
         resultService = new PipelineResultServiceCore.Default(evidenceService, pipeline);
         flowDataProviderCore = new FlowDataProviderCore.Default();